@@ -21,6 +21,8 @@ import java.io.InputStream;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.util.Properties;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -69,7 +71,13 @@ public final class GoogleUtils {
   }
 
   /** Cached value for {@link #getCertificateTrustStore()}. */
-  static KeyStore certTrustStore;
+  static volatile KeyStore certTrustStore;
+
+  /**
+   * Lock that guards loading {@link #certTrustStore}. A lock is used rather than {@code
+   * synchronized} so that a virtual thread that waits for it does not pin its carrier thread.
+   */
+  private static final Lock certTrustStoreLock = new ReentrantLock();
 
   /**
    * Returns the key store for trusted root certificates to use for Google APIs.
@@ -78,14 +86,24 @@ public final class GoogleUtils {
    *
    * @since 1.14
    */
-  public static synchronized KeyStore getCertificateTrustStore()
-      throws IOException, GeneralSecurityException {
-    if (certTrustStore == null) {
-      certTrustStore = SecurityUtils.getPkcs12KeyStore();
-      InputStream keyStoreStream = GoogleUtils.class.getResourceAsStream("google.p12");
-      SecurityUtils.loadKeyStore(certTrustStore, keyStoreStream, "notasecret");
+  public static KeyStore getCertificateTrustStore() throws IOException, GeneralSecurityException {
+    KeyStore keyStore = certTrustStore;
+    if (keyStore != null) {
+      return keyStore;
+    }
+    certTrustStoreLock.lock();
+    try {
+      if (certTrustStore == null) {
+        keyStore = SecurityUtils.getPkcs12KeyStore();
+        InputStream keyStoreStream = GoogleUtils.class.getResourceAsStream("google.p12");
+        SecurityUtils.loadKeyStore(keyStore, keyStoreStream, "notasecret");
+        // only published once fully loaded
+        certTrustStore = keyStore;
+      }
+      return certTrustStore;
+    } finally {
+      certTrustStoreLock.unlock();
     }
-    return certTrustStore;
   }
 
   private static String getVersion() {
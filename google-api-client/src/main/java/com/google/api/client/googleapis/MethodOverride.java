@@ -15,12 +15,16 @@
 package com.google.api.client.googleapis;
 
 import com.google.api.client.http.EmptyContent;
+import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpExecuteInterceptor;
 import com.google.api.client.http.HttpMethods;
 import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.http.UrlEncodedContent;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Thread-safe HTTP request execute interceptor for Google API's that wraps HTTP requests inside of
@@ -103,13 +107,81 @@ public final class MethodOverride implements HttpExecuteInterceptor, HttpRequest
       return false;
     }
     if (requestMethod.equals(HttpMethods.GET)
-        ? request.getUrl().build().length() > MAX_URL_LENGTH
+        ? isUrlTooLong(request.getUrl())
         : overrideAllMethods) {
       return true;
     }
     return !request.getTransport().supportsMethod(requestMethod);
   }
 
+  /**
+   * Returns whether the given URL is longer than {@link #MAX_URL_LENGTH} once built.
+   *
+   * <p>The URL is only built if an upper bound of its length, which is computed without allocating,
+   * exceeds the maximum, so a usual URL is not built both here and when the request is executed.
+   */
+  static boolean isUrlTooLong(GenericUrl url) {
+    return maxBuiltLength(url) > MAX_URL_LENGTH && url.build().length() > MAX_URL_LENGTH;
+  }
+
+  /** Returns an upper bound of the length of the URL built by {@link GenericUrl#build()}. */
+  private static long maxBuiltLength(GenericUrl url) {
+    long length = maxEscapedLength(url.getScheme()) + 3 + maxEscapedLength(url.getHost());
+    if (url.getUserInfo() != null) {
+      length += maxEscapedLength(url.getUserInfo()) + 1;
+    }
+    if (url.getPort() != -1) {
+      length += 11;
+    }
+    List<String> pathParts = url.getPathParts();
+    if (pathParts != null) {
+      for (String pathPart : pathParts) {
+        length += maxEscapedLength(pathPart) + 1;
+      }
+    }
+    for (Map.Entry<String, Object> entry : url.entrySet()) {
+      Object value = entry.getValue();
+      if (value instanceof Collection<?>) {
+        for (Object repeatedValue : (Collection<?>) value) {
+          length += maxParamLength(entry.getKey(), repeatedValue);
+        }
+      } else if (value != null) {
+        length += maxParamLength(entry.getKey(), value);
+      }
+    }
+    if (url.getFragment() != null) {
+      length += maxEscapedLength(url.getFragment()) + 1;
+    }
+    return length;
+  }
+
+  private static long maxParamLength(String name, Object value) {
+    return maxEscapedLength(name) + maxEscapedLength(value.toString()) + 2;
+  }
+
+  /**
+   * Returns an upper bound of the length of the given string once percent-encoded: letters and
+   * digits are never escaped, other ASCII characters are escaped to at most 3 characters and other
+   * characters to at most 3 characters per UTF-8 byte.
+   */
+  private static long maxEscapedLength(String value) {
+    if (value == null) {
+      return 0;
+    }
+    long length = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9') {
+        length++;
+      } else if (c < 0x80) {
+        length += 3;
+      } else {
+        length += 9;
+      }
+    }
+    return length;
+  }
+
   /**
    * Builder for {@link MethodOverride}.
    *
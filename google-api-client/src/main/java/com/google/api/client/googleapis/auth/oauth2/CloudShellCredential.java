@@ -32,6 +32,7 @@
 package com.google.api.client.googleapis.auth.oauth2;
 
 import com.google.api.client.auth.oauth2.TokenResponse;
+import com.google.api.client.googleapis.tracing.GoogleClientSpan;
 import com.google.api.client.json.JsonFactory;
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -76,6 +77,16 @@ public class CloudShellCredential extends GoogleCredential {
 
   @Override
   protected TokenResponse executeRefreshToken() throws IOException {
+    return GoogleClientSpan.refreshCredential(
+        new GoogleClientSpan.Refresh<TokenResponse>() {
+          public TokenResponse run() throws IOException {
+            return readAuthToken();
+          }
+        });
+  }
+
+  /** Reads a new access token from the auth port of the Cloud Shell. */
+  private TokenResponse readAuthToken() throws IOException {
     Socket socket = new Socket("localhost", this.getAuthPort());
     socket.setSoTimeout(READ_TIMEOUT_MS);
     TokenResponse token = new TokenResponse();
@@ -15,6 +15,7 @@
 package com.google.api.client.googleapis.auth.oauth2;
 
 import com.google.api.client.auth.oauth2.TokenResponse;
+import com.google.api.client.googleapis.tracing.GoogleClientSpan;
 import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpResponse;
@@ -33,6 +34,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.security.AccessControlException;
 import java.util.Locale;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * {@link Beta} <br>
@@ -68,7 +71,14 @@ class DefaultCredentialProvider extends SystemEnvironmentProvider {
     COMPUTE_ENGINE,
   }
 
-  // These variables should only be accessed inside a synchronized block
+  /**
+   * Lock that guards the cached state. A lock is used rather than {@code synchronized} so that a
+   * virtual thread that waits for it while the environment is detected does not pin its carrier
+   * thread.
+   */
+  private final Lock lock = new ReentrantLock();
+
+  // These variables should only be accessed while holding the lock
   private GoogleCredential cachedCredential = null;
   private Environment detectedEnvironment = null;
 
@@ -90,13 +100,16 @@ class DefaultCredentialProvider extends SystemEnvironmentProvider {
    */
   final GoogleCredential getDefaultCredential(HttpTransport transport, JsonFactory jsonFactory)
       throws IOException {
-    synchronized (this) {
+    lock.lock();
+    try {
       if (cachedCredential == null) {
         cachedCredential = getDefaultCredentialUnsynchronized(transport, jsonFactory);
       }
       if (cachedCredential != null) {
         return cachedCredential;
       }
+    } finally {
+      lock.unlock();
     }
 
     throw new IOException(
@@ -360,6 +373,16 @@ class DefaultCredentialProvider extends SystemEnvironmentProvider {
 
     @Override
     protected TokenResponse executeRefreshToken() throws IOException {
+      return GoogleClientSpan.refreshCredential(
+          new GoogleClientSpan.Refresh<TokenResponse>() {
+            public TokenResponse run() throws IOException {
+              return executeMetadataServerRefreshToken();
+            }
+          });
+    }
+
+    /** Requests a new access token from the metadata server. */
+    private TokenResponse executeMetadataServerRefreshToken() throws IOException {
       GenericUrl tokenUrl = new GenericUrl(getTokenServerEncodedUrl());
       HttpRequest request = getTransport().createRequestFactory().buildGetRequest(tokenUrl);
       JsonObjectParser parser = new JsonObjectParser(getJsonFactory());
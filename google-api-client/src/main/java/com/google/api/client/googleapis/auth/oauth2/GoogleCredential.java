@@ -22,6 +22,7 @@ import com.google.api.client.auth.oauth2.DataStoreCredentialRefreshListener;
 import com.google.api.client.auth.oauth2.TokenRequest;
 import com.google.api.client.auth.oauth2.TokenResponse;
 import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets.Details;
+import com.google.api.client.googleapis.tracing.GoogleClientSpan;
 import com.google.api.client.googleapis.util.Utils;
 import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpExecuteInterceptor;
@@ -381,12 +382,27 @@ public class GoogleCredential extends Credential {
     return (GoogleCredential) super.setFromTokenResponse(tokenResponse);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The refresh is traced in a child span of the {@link GoogleClientSpan#current() current span}
+   * of the thread, if any.
+   */
   @Override
   @Beta
   protected TokenResponse executeRefreshToken() throws IOException {
-    if (serviceAccountPrivateKey == null) {
-      return super.executeRefreshToken();
-    }
+    return GoogleClientSpan.refreshCredential(
+        new GoogleClientSpan.Refresh<TokenResponse>() {
+          public TokenResponse run() throws IOException {
+            return serviceAccountPrivateKey == null
+                ? GoogleCredential.super.executeRefreshToken()
+                : executeServiceAccountRefreshToken();
+          }
+        });
+  }
+
+  /** Requests a new access token with an assertion signed by the service account private key. */
+  private TokenResponse executeServiceAccountRefreshToken() throws IOException {
     // service accounts: no refresh token; instead use private key to request new access token
     JsonWebSignature.Header header = new JsonWebSignature.Header();
     header.setAlgorithm("RS256");
@@ -14,6 +14,8 @@
 
 package com.google.api.client.googleapis.batch;
 
+import com.google.api.client.googleapis.tracing.GoogleClientSpan;
+import com.google.api.client.googleapis.tracing.GoogleClientTracer;
 import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpBackOffUnsuccessfulResponseHandler;
 import com.google.api.client.http.HttpExecuteInterceptor;
@@ -114,6 +116,9 @@ public final class BatchRequest {
   /** Sleeper. */
   private Sleeper sleeper = Sleeper.DEFAULT;
 
+  /** Tracer of the batch requests. */
+  private GoogleClientTracer tracer = GoogleClientTracer.NOOP;
+
   /** A container class used to hold callbacks and data classes. */
   static class RequestInfo<T, E> {
     final BatchCallback<T, E> callback;
@@ -183,6 +188,29 @@ public final class BatchRequest {
     return this;
   }
 
+  /**
+   * Returns the tracer of the batch requests.
+   *
+   * @since 2.9
+   */
+  public GoogleClientTracer getTracer() {
+    return tracer;
+  }
+
+  /**
+   * Sets the tracer of the batch requests, which traces every execution in a span whose children
+   * are the spans of the parts of the response. The default value is {@link
+   * GoogleClientTracer#NOOP}, but a batch request created by a Google client has the {@link
+   * com.google.api.client.googleapis.services.AbstractGoogleClient#getTracer() tracer} of the
+   * client.
+   *
+   * @since 2.9
+   */
+  public BatchRequest setTracer(GoogleClientTracer tracer) {
+    this.tracer = Preconditions.checkNotNull(tracer);
+    return this;
+  }
+
   /**
    * Queues the specified {@link HttpRequest} for batched execution. Batched requests are executed
    * when {@link #execute()} is called.
@@ -227,8 +255,28 @@ public final class BatchRequest {
    * again.
    */
   public void execute() throws IOException {
-    boolean retryAllowed;
     Preconditions.checkState(!requestInfos.isEmpty(), "Batch is empty");
+    if (tracer == GoogleClientTracer.NOOP) {
+      executeBatch();
+      return;
+    }
+    GoogleClientSpan span = tracer.startSpan("googleapis.batch");
+    span.setAttribute("googleapis.batch.size", requestInfos.size());
+    GoogleClientSpan.Scope scope = span.makeCurrent();
+    try {
+      executeBatch();
+    } catch (IOException | RuntimeException e) {
+      span.recordException(e);
+      throw e;
+    } finally {
+      scope.close();
+      span.end();
+    }
+  }
+
+  /** Executes all queued HTTP requests in a single call. */
+  private void executeBatch() throws IOException {
+    boolean retryAllowed;
 
     // Log a warning if the user is using the global batch endpoint. In the future, we can turn this
     // into a preconditions check.
@@ -291,11 +339,22 @@ public final class BatchRequest {
 
     private HttpExecuteInterceptor originalInterceptor;
 
+    /** Whether the batch HTTP request was already sent, in which case it is retried. */
+    private boolean sent;
+
     BatchInterceptor(HttpExecuteInterceptor originalInterceptor) {
       this.originalInterceptor = originalInterceptor;
     }
 
     public void intercept(HttpRequest batchRequest) throws IOException {
+      GoogleClientSpan span = GoogleClientSpan.current();
+      if (span != null) {
+        if (sent) {
+          span.addEvent("retry");
+        }
+        span.injectTraceparent(batchRequest.getHeaders());
+      }
+      sent = true;
       if (originalInterceptor != null) {
         originalInterceptor.intercept(batchRequest);
       }
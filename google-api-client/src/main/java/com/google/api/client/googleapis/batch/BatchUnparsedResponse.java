@@ -15,6 +15,7 @@
 package com.google.api.client.googleapis.batch;
 
 import com.google.api.client.googleapis.batch.BatchRequest.RequestInfo;
+import com.google.api.client.googleapis.tracing.GoogleClientSpan;
 import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpContent;
 import com.google.api.client.http.HttpHeaders;
@@ -146,7 +147,19 @@ final class BatchUnparsedResponse {
 
     HttpResponse response = getFakeResponse(statusCode, body, headerNames, headerValues);
 
-    parseAndCallback(requestInfos.get(contentId - 1), statusCode, response);
+    RequestInfo<?, ?> requestInfo = requestInfos.get(contentId - 1);
+    GoogleClientSpan span = GoogleClientSpan.startChildOfCurrent("googleapis.batch.part");
+    span.setAttribute("googleapis.batch.content_id", contentId);
+    span.setAttribute("http.request.method", requestInfo.request.getRequestMethod());
+    span.setAttribute("http.response.status_code", statusCode);
+    try {
+      parseAndCallback(requestInfo, statusCode, response);
+    } catch (IOException | RuntimeException e) {
+      span.recordException(e);
+      throw e;
+    } finally {
+      span.end();
+    }
 
     // Consume any bytes that were not consumed by the parser
     while (body.skip(contentLength) > 0 || body.read() != -1) {}
@@ -19,6 +19,7 @@ import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.auth.oauth2.CredentialRefreshListener;
 import com.google.api.client.auth.oauth2.TokenResponse;
 import com.google.api.client.googleapis.auth.oauth2.OAuth2Utils;
+import com.google.api.client.googleapis.tracing.GoogleClientSpan;
 import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpExecuteInterceptor;
 import com.google.api.client.http.HttpRequest;
@@ -76,6 +77,16 @@ public class ComputeCredential extends Credential {
 
   @Override
   protected TokenResponse executeRefreshToken() throws IOException {
+    return GoogleClientSpan.refreshCredential(
+        new GoogleClientSpan.Refresh<TokenResponse>() {
+          public TokenResponse run() throws IOException {
+            return executeMetadataServerRefreshToken();
+          }
+        });
+  }
+
+  /** Requests a new access token from the metadata server. */
+  private TokenResponse executeMetadataServerRefreshToken() throws IOException {
     GenericUrl tokenUrl = new GenericUrl(getTokenServerEncodedUrl());
     HttpRequest request = getTransport().createRequestFactory().buildGetRequest(tokenUrl);
     request.setParser(new JsonObjectParser(getJsonFactory()));
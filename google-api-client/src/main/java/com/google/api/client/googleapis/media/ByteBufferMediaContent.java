@@ -0,0 +1,394 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.http.AbstractInputStreamContent;
+import com.google.api.client.util.Beta;
+import com.google.api.client.util.Preconditions;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link Beta} <br>
+ * Media content that is produced incrementally as {@link ByteBuffer}s, for example by a reactive
+ * pipeline, while it is being uploaded by {@link MediaHttpUploader}.
+ *
+ * <p>The producer hands buffers over with {@link #offer} and signals the end of the media with
+ * {@link #complete()} or a failure with {@link #fail}. At most {@link #getCapacity()} bytes are
+ * queued at any time. When the queue is full {@link #offer} returns {@code false} and the {@link
+ * DemandListener} is notified once the uploader has drained the queue to half of its capacity, so
+ * the producer applies back-pressure without blocking a thread. {@link #put} is a blocking
+ * alternative for producers that own a thread.
+ *
+ * <p>For resumable uploads {@link MediaHttpUploader} assembles each chunk from slices of the
+ * offered buffers without copying them, and keeps the slices of the current chunk until the server
+ * has acknowledged them. Ownership of an offered buffer passes to this content, so its bytes
+ * between position and limit must not be modified afterwards.
+ *
+ * <p>Sample usage:
+ *
+ * <pre>{@code
+ * final ByteBufferMediaContent content = new ByteBufferMediaContent("video/mp4", 4 * MB);
+ * content.setDemandListener(
+ *     new ByteBufferMediaContent.DemandListener() {
+ *       public void onDemand(ByteBufferMediaContent content) {
+ *         subscription.resume();
+ *       }
+ *     });
+ * // from the producer
+ * if (!content.offer(buffer)) {
+ *   subscription.pause();
+ * }
+ * ...
+ * content.complete();
+ * }</pre>
+ *
+ * <p>Implementation is thread-safe.
+ *
+ * @since 2.9
+ */
+@Beta
+public final class ByteBufferMediaContent extends AbstractInputStreamContent {
+
+  /** Listener notified when a producer that was rejected by {@link #offer} may offer again. */
+  public interface DemandListener {
+
+    /**
+     * Called when there is room for more buffers after {@link #offer} has returned {@code false}.
+     *
+     * <p>This method is called on the thread that drains the content, usually the thread running
+     * {@link MediaHttpUploader#upload}, so it should return quickly.
+     *
+     * @param content media content that accepts buffers again
+     */
+    void onDemand(ByteBufferMediaContent content);
+  }
+
+  /** Maximum number of queued bytes. */
+  private final long capacity;
+
+  /** Lock on the queue state. */
+  private final Lock lock = new ReentrantLock();
+
+  /** Signaled when a buffer is queued or the content is completed or failed. */
+  private final Condition notEmpty = lock.newCondition();
+
+  /** Signaled when queued bytes have been drained. */
+  private final Condition notFull = lock.newCondition();
+
+  /** Queued buffers, each with at least one remaining byte. */
+  private final ArrayDeque<ByteBuffer> buffers = new ArrayDeque<ByteBuffer>();
+
+  /** Number of queued bytes. */
+  private long queuedBytes;
+
+  /** Whether the producer has signaled the end of the media. */
+  private boolean completed;
+
+  /** Failure signaled by the producer or {@code null} for none. */
+  private IOException failure;
+
+  /** Whether a producer has been rejected by {@link #offer} since the last demand notification. */
+  private boolean demandPending;
+
+  /** Demand listener or {@code null} for none. */
+  private volatile DemandListener demandListener;
+
+  /** Content length or less than zero if not known. Defaults to {@code -1}. */
+  private long length = -1;
+
+  /**
+   * @param type content type or {@code null} for none
+   * @param capacity maximum number of bytes queued before {@link #offer} applies back-pressure
+   */
+  public ByteBufferMediaContent(String type, long capacity) {
+    super(type);
+    Preconditions.checkArgument(capacity > 0, "capacity must be positive");
+    this.capacity = capacity;
+  }
+
+  /** Returns the maximum number of bytes queued before {@link #offer} applies back-pressure. */
+  public long getCapacity() {
+    return capacity;
+  }
+
+  /** Returns the demand listener or {@code null} for none. */
+  public DemandListener getDemandListener() {
+    return demandListener;
+  }
+
+  /** Sets the demand listener or {@code null} for none. */
+  public ByteBufferMediaContent setDemandListener(DemandListener demandListener) {
+    this.demandListener = demandListener;
+    return this;
+  }
+
+  /**
+   * Queues the remaining bytes of the given buffer unless the queue is full.
+   *
+   * <p>A buffer is always accepted when the queue is empty, even if it is larger than the capacity.
+   *
+   * @param buffer buffer whose bytes between position and limit are part of the media
+   * @return {@code true} if the buffer was queued, or {@code false} if the queue is full in which
+   *     case the {@link DemandListener} is notified once the buffer may be offered again
+   * @throws IllegalStateException if the content was already completed or failed
+   */
+  public boolean offer(ByteBuffer buffer) {
+    Preconditions.checkNotNull(buffer);
+    lock.lock();
+    try {
+      Preconditions.checkState(!completed, "content has already been completed");
+      if (!buffer.hasRemaining()) {
+        return true;
+      }
+      if (isFull(buffer.remaining())) {
+        demandPending = true;
+        return false;
+      }
+      enqueue(buffer);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Queues the remaining bytes of the given buffer, waiting for room in the queue if necessary.
+   *
+   * @param buffer buffer whose bytes between position and limit are part of the media
+   * @throws IllegalStateException if the content was already completed or failed
+   */
+  public void put(ByteBuffer buffer) throws InterruptedException {
+    Preconditions.checkNotNull(buffer);
+    lock.lock();
+    try {
+      Preconditions.checkState(!completed, "content has already been completed");
+      if (!buffer.hasRemaining()) {
+        return;
+      }
+      while (isFull(buffer.remaining())) {
+        notFull.await();
+        Preconditions.checkState(!completed, "content has already been completed");
+      }
+      enqueue(buffer);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Signals that all buffers of the media have been offered. */
+  public void complete() {
+    lock.lock();
+    try {
+      completed = true;
+      notEmpty.signalAll();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Signals that the producer failed. The upload fails with the given exception once the queued
+   * buffers have been drained.
+   *
+   * @param cause cause of the failure
+   */
+  public void fail(IOException cause) {
+    Preconditions.checkNotNull(cause);
+    lock.lock();
+    try {
+      failure = cause;
+      completed = true;
+      notEmpty.signalAll();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Drains up to {@code maxBytes} bytes into slices of the queued buffers without copying them,
+   * waiting for the producer until either {@code maxBytes} bytes are drained or the content is
+   * completed.
+   *
+   * @param slices list to add the drained slices to
+   * @param maxBytes maximum number of bytes to drain
+   * @return number of bytes drained, which is less than {@code maxBytes} only at the end of the
+   *     media
+   */
+  int drainTo(List<ByteBuffer> slices, int maxBytes) throws IOException {
+    int drained = 0;
+    while (drained < maxBytes) {
+      ByteBuffer slice = take(maxBytes - drained);
+      if (slice == null) {
+        break;
+      }
+      slices.add(slice);
+      drained += slice.remaining();
+    }
+    return drained;
+  }
+
+  /**
+   * Waits until either another buffer is queued or the content is completed.
+   *
+   * @return whether there are more bytes to drain
+   */
+  boolean awaitContent() throws IOException {
+    lock.lock();
+    try {
+      awaitNotEmpty();
+      return !buffers.isEmpty();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Takes a slice of at most {@code maxBytes} bytes from the head of the queue, waiting for the
+   * producer if the queue is empty.
+   *
+   * @return slice or {@code null} at the end of the media
+   */
+  private ByteBuffer take(int maxBytes) throws IOException {
+    ByteBuffer slice;
+    boolean notifyDemand = false;
+    lock.lock();
+    try {
+      awaitNotEmpty();
+      ByteBuffer head = buffers.peek();
+      if (head == null) {
+        return null;
+      }
+      if (head.remaining() <= maxBytes) {
+        slice = buffers.poll();
+      } else {
+        slice = head.duplicate();
+        // cast to Buffer for the Java 7 signatures of limit(int) and position(int)
+        ((Buffer) slice).limit(slice.position() + maxBytes);
+        ((Buffer) head).position(head.position() + maxBytes);
+      }
+      queuedBytes -= slice.remaining();
+      notFull.signalAll();
+      if (demandPending && queuedBytes <= capacity / 2) {
+        demandPending = false;
+        notifyDemand = true;
+      }
+    } finally {
+      lock.unlock();
+    }
+    DemandListener listener = demandListener;
+    if (notifyDemand && listener != null) {
+      listener.onDemand(this);
+    }
+    return slice;
+  }
+
+  /** Waits until the queue is not empty or the content is completed. Must hold the lock. */
+  private void awaitNotEmpty() throws IOException {
+    while (buffers.isEmpty() && !completed) {
+      try {
+        notEmpty.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("interrupted while waiting for media content");
+      }
+    }
+    if (buffers.isEmpty() && failure != null) {
+      throw new IOException("media content producer failed", failure);
+    }
+  }
+
+  /** Returns whether queuing the given number of bytes would exceed the capacity. */
+  private boolean isFull(int bytes) {
+    return queuedBytes > 0 && queuedBytes + bytes > capacity;
+  }
+
+  /** Queues the given non-empty buffer. Must hold the lock. */
+  private void enqueue(ByteBuffer buffer) {
+    buffers.add(buffer);
+    queuedBytes += buffer.remaining();
+    notEmpty.signalAll();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The returned stream copies the queued bytes and waits for the producer when the queue is
+   * empty. It may only be consumed once.
+   */
+  @Override
+  public InputStream getInputStream() {
+    return new InputStream() {
+
+      @Override
+      public int read() throws IOException {
+        ByteBuffer slice = take(1);
+        return slice == null ? -1 : slice.get() & 0xff;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+          return 0;
+        }
+        ByteBuffer slice = take(len);
+        if (slice == null) {
+          return -1;
+        }
+        int read = slice.remaining();
+        slice.get(b, off, read);
+        return read;
+      }
+    };
+  }
+
+  public long getLength() {
+    return length;
+  }
+
+  /**
+   * Sets the content length or less than zero if not known.
+   *
+   * <p>Defaults to {@code -1}.
+   */
+  public ByteBufferMediaContent setLength(long length) {
+    this.length = length;
+    return this;
+  }
+
+  public boolean retrySupported() {
+    return false;
+  }
+
+  @Override
+  public ByteBufferMediaContent setType(String type) {
+    return (ByteBufferMediaContent) super.setType(type);
+  }
+
+  @Override
+  public ByteBufferMediaContent setCloseInputStream(boolean closeInputStream) {
+    return (ByteBufferMediaContent) super.setCloseInputStream(closeInputStream);
+  }
+}
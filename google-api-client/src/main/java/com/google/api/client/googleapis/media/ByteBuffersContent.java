@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.http.AbstractInputStreamContent;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Content of a media chunk backed by slices of {@link ByteBuffer}s.
+ *
+ * <p>Heap buffers are written to the output stream directly from their backing arrays. The slices
+ * are not consumed, so the content can be written again when the request is retried.
+ */
+final class ByteBuffersContent extends AbstractInputStreamContent {
+
+  /** Size of the buffer used to copy direct buffers to an output stream. */
+  private static final int COPY_BUFFER_SIZE = 8192;
+
+  /** Slices of the content, each a duplicate that is never consumed. */
+  private final List<ByteBuffer> slices;
+
+  /** Content length. */
+  private final long length;
+
+  /**
+   * @param type content type or {@code null} for none
+   * @param slices slices of the content, which are not modified
+   */
+  ByteBuffersContent(String type, List<ByteBuffer> slices) {
+    super(type);
+    this.slices = new ArrayList<ByteBuffer>(slices.size());
+    long length = 0;
+    for (ByteBuffer slice : slices) {
+      this.slices.add(slice.duplicate());
+      length += slice.remaining();
+    }
+    this.length = length;
+  }
+
+  public long getLength() {
+    return length;
+  }
+
+  public boolean retrySupported() {
+    return true;
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    byte[] copyBuffer = null;
+    for (ByteBuffer slice : slices) {
+      if (slice.hasArray()) {
+        out.write(slice.array(), slice.arrayOffset() + slice.position(), slice.remaining());
+      } else {
+        if (copyBuffer == null) {
+          copyBuffer = new byte[COPY_BUFFER_SIZE];
+        }
+        ByteBuffer source = slice.duplicate();
+        while (source.hasRemaining()) {
+          int count = Math.min(copyBuffer.length, source.remaining());
+          source.get(copyBuffer, 0, count);
+          out.write(copyBuffer, 0, count);
+        }
+      }
+    }
+    out.flush();
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    final List<ByteBuffer> sources = new ArrayList<ByteBuffer>(slices.size());
+    for (ByteBuffer slice : slices) {
+      sources.add(slice.duplicate());
+    }
+    return new InputStream() {
+
+      private int index;
+
+      @Override
+      public int read() {
+        ByteBuffer source = current();
+        return source == null ? -1 : source.get() & 0xff;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+          return 0;
+        }
+        ByteBuffer source = current();
+        if (source == null) {
+          return -1;
+        }
+        int count = Math.min(len, source.remaining());
+        source.get(b, off, count);
+        return count;
+      }
+
+      /** Returns the first source with remaining bytes or {@code null} at the end. */
+      private ByteBuffer current() {
+        while (index < sources.size()) {
+          ByteBuffer source = sources.get(index);
+          if (source.hasRemaining()) {
+            return source;
+          }
+          index++;
+        }
+        return null;
+      }
+    };
+  }
+
+  /** Returns the total number of remaining bytes of the given buffers. */
+  static long remaining(List<ByteBuffer> buffers) {
+    long remaining = 0;
+    for (ByteBuffer buffer : buffers) {
+      remaining += buffer.remaining();
+    }
+    return remaining;
+  }
+
+  /**
+   * Discards the given number of bytes from the front of the given buffers by advancing their
+   * positions and removing buffers without remaining bytes.
+   */
+  static void discard(List<ByteBuffer> buffers, long bytes) {
+    while (bytes > 0) {
+      ByteBuffer head = buffers.get(0);
+      int count = (int) Math.min(bytes, head.remaining());
+      ((Buffer) head).position(head.position() + count);
+      bytes -= count;
+      if (!head.hasRemaining()) {
+        buffers.remove(0);
+      }
+    }
+  }
+}
@@ -0,0 +1,387 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.http.AbstractInputStreamContent;
+import com.google.api.client.http.FileContent;
+import com.google.api.client.http.InputStreamContent;
+import com.google.api.client.util.ByteStreams;
+import com.google.api.client.util.Preconditions;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Source of the chunks of a resumable media upload that can send again the bytes of the current
+ * chunk that the server has not acknowledged.
+ *
+ * <p>A source returns the next chunk with {@link #nextChunk}, starting at the first byte the server
+ * has not acknowledged, and is told with {@link #acknowledge} how many bytes of the current chunk
+ * the server received. Unacknowledged bytes are kept where they are, so recovering from a partial
+ * acknowledgement neither re-reads nor copies them:
+ *
+ * <ul>
+ *   <li>a {@link FileContent} is read with positional reads on a {@link FileChannel}.
+ *   <li>a stream over a byte array is rewound by moving its position.
+ *   <li>a {@link ByteBufferMediaContent} keeps slices of the offered buffers.
+ *   <li>any other stream is read into a ring buffer of one chunk.
+ * </ul>
+ *
+ * <p>Implementation is not thread-safe.
+ */
+abstract class MediaChunkSource {
+
+  /**
+   * Returns a source of the chunks of the given media content.
+   *
+   * @param mediaContent media content to upload
+   */
+  static MediaChunkSource create(AbstractInputStreamContent mediaContent) throws IOException {
+    String type = mediaContent.getType();
+    if (mediaContent instanceof ByteBufferMediaContent) {
+      return new ByteBufferSource(type, (ByteBufferMediaContent) mediaContent);
+    }
+    if (mediaContent instanceof FileContent) {
+      return new FileSource(type, ((FileContent) mediaContent).getFile());
+    }
+    InputStream in = mediaContent.getInputStream();
+    boolean closeInputStream = mediaContent.getCloseInputStream();
+    // only the exact class is known to rewind and report the remaining bytes for free
+    if (in.getClass() == ByteArrayInputStream.class) {
+      return new ByteArraySource(type, (ByteArrayInputStream) in, closeInputStream);
+    }
+    return new RingBufferSource(type, in, closeInputStream);
+  }
+
+  /**
+   * Returns the content of the next chunk, which starts at the first byte the server has not
+   * acknowledged.
+   *
+   * @param maxBytes maximum size of the chunk
+   * @return content of the chunk, which is smaller than {@code maxBytes} only at the end of the
+   *     media
+   */
+  abstract AbstractInputStreamContent nextChunk(int maxBytes) throws IOException;
+
+  /**
+   * Returns whether the media has more bytes after the current chunk, waiting for them if
+   * necessary.
+   */
+  abstract boolean hasMoreContent() throws IOException;
+
+  /**
+   * Acknowledges that the server received the given number of bytes from the start of the current
+   * chunk. The remaining bytes of the chunk start the next chunk.
+   */
+  abstract void acknowledge(long bytes) throws IOException;
+
+  /** Releases the resources of the source once the upload has ended. */
+  abstract void close() throws IOException;
+
+  /** Source of a {@link FileContent} read with positional reads. */
+  static final class FileSource extends MediaChunkSource {
+
+    private final String type;
+    private final FileChannel channel;
+
+    /** Offset in the file of the first byte the server has not acknowledged. */
+    private long position;
+
+    /** Length of the current chunk. */
+    private int chunkLength;
+
+    FileSource(String type, File file) throws IOException {
+      this.type = type;
+      this.channel = new FileInputStream(file).getChannel();
+    }
+
+    @Override
+    AbstractInputStreamContent nextChunk(int maxBytes) throws IOException {
+      chunkLength = (int) Math.min(maxBytes, Math.max(0, channel.size() - position));
+      return new FileRegionContent(type, channel, position, chunkLength);
+    }
+
+    @Override
+    boolean hasMoreContent() throws IOException {
+      return position + chunkLength < channel.size();
+    }
+
+    @Override
+    void acknowledge(long bytes) {
+      position += bytes;
+    }
+
+    @Override
+    void close() throws IOException {
+      channel.close();
+    }
+  }
+
+  /** Content of a region of a file channel that is read with positional reads. */
+  static final class FileRegionContent extends AbstractInputStreamContent {
+
+    private final FileChannel channel;
+    private final long position;
+    private final long length;
+
+    FileRegionContent(String type, FileChannel channel, long position, long length) {
+      super(type);
+      this.channel = channel;
+      this.position = position;
+      this.length = length;
+    }
+
+    public long getLength() {
+      return length;
+    }
+
+    public boolean retrySupported() {
+      return true;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+      WritableByteChannel target = Channels.newChannel(out);
+      long transferred = 0;
+      while (transferred < length) {
+        long count = channel.transferTo(position + transferred, length - transferred, target);
+        if (count <= 0) {
+          throw new IOException("media file was truncated during the upload");
+        }
+        transferred += count;
+      }
+      out.flush();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      return new InputStream() {
+
+        private long offset = position;
+
+        @Override
+        public int read() throws IOException {
+          byte[] b = new byte[1];
+          return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+          long remaining = position + length - offset;
+          if (remaining <= 0) {
+            return -1;
+          }
+          if (len == 0) {
+            return 0;
+          }
+          int count = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)), offset);
+          if (count > 0) {
+            offset += count;
+          }
+          return count;
+        }
+      };
+    }
+  }
+
+  /** Source of a {@link ByteArrayInputStream}, which is rewound by moving its position. */
+  static final class ByteArraySource extends MediaChunkSource {
+
+    private final String type;
+    private final ByteArrayInputStream in;
+    private final boolean closeInputStream;
+
+    /** Length of the current chunk. */
+    private int chunkLength;
+
+    ByteArraySource(String type, ByteArrayInputStream in, boolean closeInputStream) {
+      this.type = type;
+      this.in = in;
+      this.closeInputStream = closeInputStream;
+    }
+
+    @Override
+    AbstractInputStreamContent nextChunk(int maxBytes) {
+      in.mark(maxBytes);
+      chunkLength = Math.min(maxBytes, in.available());
+      return new InputStreamContent(type, ByteStreams.limit(in, chunkLength))
+          .setRetrySupported(true)
+          .setLength(chunkLength)
+          .setCloseInputStream(false);
+    }
+
+    @Override
+    boolean hasMoreContent() {
+      // the stream is still at the start of the current chunk
+      return in.available() > chunkLength;
+    }
+
+    @Override
+    void acknowledge(long bytes) {
+      in.reset();
+      Preconditions.checkState(in.skip(bytes) == bytes);
+    }
+
+    @Override
+    void close() throws IOException {
+      if (closeInputStream) {
+        in.close();
+      }
+    }
+  }
+
+  /** Source of a {@link ByteBufferMediaContent}, which keeps slices of the offered buffers. */
+  static final class ByteBufferSource extends MediaChunkSource {
+
+    private final String type;
+    private final ByteBufferMediaContent content;
+
+    /** Slices of the current chunk that the server has not acknowledged. */
+    private final List<ByteBuffer> slices = new ArrayList<ByteBuffer>();
+
+    ByteBufferSource(String type, ByteBufferMediaContent content) {
+      this.type = type;
+      this.content = content;
+    }
+
+    @Override
+    AbstractInputStreamContent nextChunk(int maxBytes) throws IOException {
+      int pendingBytes = (int) ByteBuffersContent.remaining(slices);
+      content.drainTo(slices, maxBytes - pendingBytes);
+      return new ByteBuffersContent(type, slices);
+    }
+
+    @Override
+    boolean hasMoreContent() throws IOException {
+      return content.awaitContent();
+    }
+
+    @Override
+    void acknowledge(long bytes) {
+      ByteBuffersContent.discard(slices, bytes);
+    }
+
+    @Override
+    void close() {}
+  }
+
+  /**
+   * Source of any other stream, which is read into a ring buffer that holds the bytes of the
+   * current chunk plus one byte to detect the end of media of unknown length.
+   */
+  static final class RingBufferSource extends MediaChunkSource {
+
+    private final String type;
+    private final InputStream in;
+    private final boolean closeInputStream;
+
+    /** Ring buffer or {@code null} before the first chunk. */
+    private byte[] ring;
+
+    /** Index in the ring buffer of the first byte the server has not acknowledged. */
+    private int start;
+
+    /** Number of bytes in the ring buffer. */
+    private int size;
+
+    /** Whether the end of the stream was reached. */
+    private boolean endOfStream;
+
+    /** Length of the current chunk. */
+    private int chunkLength;
+
+    RingBufferSource(String type, InputStream in, boolean closeInputStream) {
+      this.type = type;
+      this.in = in;
+      this.closeInputStream = closeInputStream;
+    }
+
+    @Override
+    AbstractInputStreamContent nextChunk(int maxBytes) throws IOException {
+      ensureCapacity(maxBytes + 1);
+      fill(maxBytes);
+      chunkLength = Math.min(maxBytes, size);
+      List<ByteBuffer> slices = new ArrayList<ByteBuffer>(2);
+      int first = Math.min(chunkLength, ring.length - start);
+      if (first > 0) {
+        slices.add(ByteBuffer.wrap(ring, start, first));
+      }
+      if (chunkLength > first) {
+        slices.add(ByteBuffer.wrap(ring, 0, chunkLength - first));
+      }
+      return new ByteBuffersContent(type, slices);
+    }
+
+    @Override
+    boolean hasMoreContent() throws IOException {
+      fill(chunkLength + 1);
+      return size > chunkLength;
+    }
+
+    @Override
+    void acknowledge(long bytes) {
+      Preconditions.checkArgument(bytes <= size);
+      size -= bytes;
+      start = size == 0 ? 0 : (int) ((start + bytes) % ring.length);
+    }
+
+    @Override
+    void close() throws IOException {
+      if (closeInputStream) {
+        in.close();
+      }
+    }
+
+    /**
+     * Reads from the stream until the ring buffer holds {@code target} bytes or the stream ends.
+     */
+    private void fill(int target) throws IOException {
+      while (size < target && !endOfStream) {
+        int end = (start + size) % ring.length;
+        int free = end < start ? start - end : ring.length - end;
+        int read = in.read(ring, end, Math.min(target - size, free));
+        if (read == -1) {
+          endOfStream = true;
+        } else {
+          size += read;
+        }
+      }
+    }
+
+    /** Grows the ring buffer to the given capacity, keeping its bytes. */
+    private void ensureCapacity(int capacity) {
+      if (ring != null && ring.length >= capacity) {
+        return;
+      }
+      byte[] newRing = new byte[capacity];
+      if (size > 0) {
+        int first = Math.min(size, ring.length - start);
+        System.arraycopy(ring, start, newRing, 0, first);
+        System.arraycopy(ring, 0, newRing, first, size - first);
+      }
+      ring = newRing;
+      start = 0;
+    }
+  }
+}
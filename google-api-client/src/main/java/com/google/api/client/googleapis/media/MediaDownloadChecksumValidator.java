@@ -0,0 +1,200 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.util.Base64;
+import com.google.api.client.util.Beta;
+import com.google.api.client.util.Preconditions;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Ints;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * {@link Beta} <br>
+ * Download transformer that computes a checksum of the media bytes as they flow to the destination
+ * and verifies it against the {@code x-goog-hash} header of the response.
+ *
+ * <p>Only a download of the media from its first byte to its last byte can be verified, so this
+ * fails a download resumed from a {@link MediaHttpDownloader#setSessionStore session} or restricted
+ * with {@link MediaHttpDownloader#setContentRange}. If the response has no hash of the algorithm,
+ * which is the case of the MD5 hash of composite Cloud Storage objects, the media is not verified
+ * and {@link #isVerified()} returns {@code false}.
+ *
+ * <p>Sample usage:
+ *
+ * <pre>{@code
+ * downloader.addTransformer(
+ *     new MediaDownloadChecksumValidator(MediaDownloadChecksumValidator.Algorithm.CRC32C));
+ * }</pre>
+ *
+ * @since 2.9
+ */
+@Beta
+public final class MediaDownloadChecksumValidator extends MediaDownloadTransformer {
+
+  /** Checksum algorithm. */
+  public enum Algorithm {
+
+    /** CRC32C checksum, sent as {@code crc32c=<base64>} in the {@code x-goog-hash} header. */
+    CRC32C("crc32c"),
+
+    /** MD5 digest, sent as {@code md5=<base64>} in the {@code x-goog-hash} header. */
+    MD5("md5");
+
+    private final String hashName;
+
+    Algorithm(String hashName) {
+      this.hashName = hashName;
+    }
+  }
+
+  /** Response header with the hashes of Cloud Storage objects. */
+  private static final String HASH_HEADER = "x-goog-hash";
+
+  private final Algorithm algorithm;
+
+  /** CRC32C hasher or {@code null} for MD5. */
+  private final Hasher crc32c;
+
+  /** MD5 digest or {@code null} for CRC32C. */
+  private final MessageDigest md5;
+
+  /** Base64 of the expected checksum or {@code null} if the response has none. */
+  private String expectedChecksum;
+
+  /** Media content length or {@code -1} if not known. */
+  private long mediaContentLength = -1;
+
+  /** Number of media bytes written. */
+  private long byteCount;
+
+  /** Whether the checksum has been verified. */
+  private boolean verified;
+
+  /** @param algorithm checksum algorithm */
+  public MediaDownloadChecksumValidator(Algorithm algorithm) {
+    this.algorithm = Preconditions.checkNotNull(algorithm);
+    if (algorithm == Algorithm.CRC32C) {
+      crc32c = Hashing.crc32c().newHasher();
+      md5 = null;
+    } else {
+      crc32c = null;
+      try {
+        md5 = MessageDigest.getInstance("MD5");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  /** Returns the checksum algorithm. */
+  public Algorithm getAlgorithm() {
+    return algorithm;
+  }
+
+  /** Returns whether the checksum of the media has been verified. */
+  public boolean isVerified() {
+    return verified;
+  }
+
+  @Override
+  public void start(HttpResponse response) throws IOException {
+    String contentRange = response.getHeaders().getContentRange();
+    if (contentRange != null) {
+      if (!contentRange.startsWith("bytes 0-")) {
+        throw new IOException(
+            "Cannot verify the " + algorithm + " checksum of a download from " + contentRange);
+      }
+      mediaContentLength = Long.parseLong(contentRange.substring(contentRange.indexOf('/') + 1));
+    } else if (response.getHeaders().getContentLength() != null) {
+      mediaContentLength = response.getHeaders().getContentLength();
+    }
+    expectedChecksum = getChecksum(response.getHeaders().getHeaderStringValues(HASH_HEADER));
+  }
+
+  @Override
+  public OutputStream transform(OutputStream outputStream) {
+    return new FilterOutputStream(outputStream) {
+      @Override
+      public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        if (crc32c != null) {
+          crc32c.putBytes(b, off, len);
+        } else {
+          md5.update(b, off, len);
+        }
+        byteCount += len;
+        out.write(b, off, len);
+      }
+    };
+  }
+
+  @Override
+  public void finish() throws IOException {
+    if (expectedChecksum == null) {
+      return;
+    }
+    if (mediaContentLength != -1 && byteCount != mediaContentLength) {
+      throw new IOException(
+          "Cannot verify the "
+              + algorithm
+              + " checksum of "
+              + byteCount
+              + " bytes of the "
+              + mediaContentLength
+              + " bytes of the media");
+    }
+    byte[] checksum = crc32c != null ? Ints.toByteArray(crc32c.hash().asInt()) : md5.digest();
+    String actualChecksum = Base64.encodeBase64String(checksum);
+    if (!expectedChecksum.equals(actualChecksum)) {
+      throw new IOException(
+          algorithm
+              + " checksum mismatch: expected "
+              + expectedChecksum
+              + " but the media has "
+              + actualChecksum);
+    }
+    verified = true;
+  }
+
+  /**
+   * Returns the base64 checksum of the algorithm in the given {@code x-goog-hash} header values or
+   * {@code null} for none.
+   */
+  private String getChecksum(List<String> headerValues) {
+    for (String headerValue : headerValues) {
+      // Cloud Storage sends either one header per hash or one comma-separated header
+      for (String hash : headerValue.split(",")) {
+        hash = hash.trim();
+        int equals = hash.indexOf('=');
+        if (equals > 0 && hash.substring(0, equals).equalsIgnoreCase(algorithm.hashName)) {
+          return hash.substring(equals + 1);
+        }
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.util.Beta;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * {@link Beta} <br>
+ * Download transformer that decompresses gzip media as it flows to the destination, so that the
+ * destination receives the decompressed bytes.
+ *
+ * <p>This is useful for media that is stored compressed and served as is, for example a Cloud
+ * Storage object with {@code Content-Encoding: gzip} downloaded with {@code Accept-Encoding: gzip}.
+ * It supports media with several concatenated gzip members, and verifies the CRC-32 and the size of
+ * each member. To also verify the checksum of the compressed media, add a {@link
+ * MediaDownloadChecksumValidator} before this transformer.
+ *
+ * @since 2.9
+ */
+@Beta
+public final class MediaDownloadGzipDecoder extends MediaDownloadTransformer {
+
+  private static final int FHCRC = 2;
+  private static final int FEXTRA = 4;
+  private static final int FNAME = 8;
+  private static final int FCOMMENT = 16;
+
+  /** Length of the trailer of a gzip member. */
+  private static final int TRAILER_LENGTH = 8;
+
+  private final Inflater inflater = new Inflater(true);
+  private final CRC32 crc = new CRC32();
+  private final byte[] buffer = new byte[64 * 1024];
+
+  /** Bytes of the header of the current member read so far. */
+  private final ByteArrayOutputStream header = new ByteArrayOutputStream();
+
+  /** Bytes of the trailer of the current member. */
+  private final byte[] trailer = new byte[TRAILER_LENGTH];
+
+  /**
+   * Number of bytes of the trailer of the current member read so far or {@code -1} if not in it.
+   */
+  private int trailerLength = -1;
+
+  /** Whether the header of the current member has been read. */
+  private boolean inData;
+
+  /** Number of members decompressed. */
+  private int memberCount;
+
+  /** Output stream of the decompressed bytes. */
+  private OutputStream out;
+
+  @Override
+  public OutputStream transform(OutputStream outputStream) {
+    out = outputStream;
+    return new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        decode(b, off, len);
+      }
+
+      @Override
+      public void flush() throws IOException {
+        out.flush();
+      }
+    };
+  }
+
+  @Override
+  public void finish() throws IOException {
+    inflater.end();
+    if (memberCount == 0 || inData || trailerLength != -1 || header.size() != 0) {
+      throw new ZipException("Truncated gzip media");
+    }
+  }
+
+  private void decode(byte[] b, int off, int len) throws IOException {
+    int end = off + len;
+    while (off < end) {
+      if (trailerLength != -1) {
+        trailer[trailerLength++] = b[off++];
+        if (trailerLength == TRAILER_LENGTH) {
+          checkTrailer();
+        }
+      } else if (!inData) {
+        header.write(b[off++]);
+        readHeader();
+      } else {
+        inflater.setInput(b, off, end - off);
+        inflate();
+        off = end - inflater.getRemaining();
+        if (inflater.finished()) {
+          trailerLength = 0;
+        }
+      }
+    }
+  }
+
+  /** Inflates the input of the inflater until it needs more input or the member is finished. */
+  private void inflate() throws IOException {
+    try {
+      while (!inflater.finished() && !inflater.needsInput()) {
+        int length = inflater.inflate(buffer);
+        if (length == 0 && inflater.needsDictionary()) {
+          throw new ZipException("Invalid gzip media: deflate dictionary required");
+        }
+        crc.update(buffer, 0, length);
+        out.write(buffer, 0, length);
+      }
+    } catch (DataFormatException e) {
+      ZipException exception = new ZipException("Invalid gzip media: " + e.getMessage());
+      exception.initCause(e);
+      throw exception;
+    }
+  }
+
+  /** Starts the data of the member once its header has been read completely. */
+  private void readHeader() throws IOException {
+    byte[] bytes = header.toByteArray();
+    if (bytes.length == 3
+        && ((bytes[0] & 0xff) != 0x1f || (bytes[1] & 0xff) != 0x8b || bytes[2] != 8)) {
+      throw new ZipException("Not gzip media");
+    }
+    if (bytes.length < 10) {
+      return;
+    }
+    int flags = bytes[3];
+    int length = 10;
+    if ((flags & FEXTRA) != 0) {
+      if (bytes.length < length + 2) {
+        return;
+      }
+      length += 2 + ((bytes[length] & 0xff) | (bytes[length + 1] & 0xff) << 8);
+    }
+    if ((flags & FNAME) != 0) {
+      length = skipZeroTerminated(bytes, length);
+    }
+    if ((flags & FCOMMENT) != 0) {
+      length = skipZeroTerminated(bytes, length);
+    }
+    if ((flags & FHCRC) != 0) {
+      length += 2;
+    }
+    if (length == -1 || bytes.length < length) {
+      return;
+    }
+    header.reset();
+    inflater.reset();
+    crc.reset();
+    inData = true;
+  }
+
+  /**
+   * Returns the position after the zero-terminated string at the given position, or {@code -1} if
+   * the string is not terminated yet or the given position is {@code -1}.
+   */
+  private static int skipZeroTerminated(byte[] bytes, int position) {
+    if (position == -1) {
+      return -1;
+    }
+    for (int i = position; i < bytes.length; i++) {
+      if (bytes[i] == 0) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  /** Checks the CRC-32 and the size in the trailer of the member that was decompressed. */
+  private void checkTrailer() throws IOException {
+    if (readInt(0) != (int) crc.getValue() || readInt(4) != (int) inflater.getBytesWritten()) {
+      throw new ZipException("Corrupt gzip media: CRC-32 or size mismatch");
+    }
+    trailerLength = -1;
+    inData = false;
+    memberCount++;
+  }
+
+  /** Reads a little-endian integer from the trailer. */
+  private int readInt(int offset) {
+    return (trailer[offset] & 0xff)
+        | (trailer[offset + 1] & 0xff) << 8
+        | (trailer[offset + 2] & 0xff) << 16
+        | (trailer[offset + 3] & 0xff) << 24;
+  }
+}
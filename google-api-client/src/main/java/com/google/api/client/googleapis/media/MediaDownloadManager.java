@@ -0,0 +1,528 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.util.Beta;
+import com.google.api.client.util.NanoClock;
+import com.google.api.client.util.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link Beta} <br>
+ * Downloads many media concurrently, each with its own {@link MediaHttpDownloader}.
+ *
+ * <p>Downloads are started in the order they are submitted, with at most {@link
+ * Builder#setMaxConcurrentDownloads} downloads at a time and at most {@link
+ * Builder#setMaxConcurrentDownloadsPerHost} downloads from the same host. A download that would
+ * exceed the limit of its host waits without holding back the downloads from other hosts. The bytes
+ * of all the downloads may also be throttled to {@link Builder#setMaxBytesPerSecond}.
+ *
+ * <p>All the downloads use the HTTP transport of the manager, so they reuse its connections. For
+ * example an {@code ApacheHttpTransport} should allow at least as many connections per route as the
+ * limit per host.
+ *
+ * <p>Each download returns a future of the number of media bytes it received. Cancelling the future
+ * of a download that has not started prevents it from starting, and a download that has started
+ * fails with an {@link java.io.InterruptedIOException} when it receives its next bytes.
+ *
+ * <p>Sample usage:
+ *
+ * <pre>{@code
+ * MediaDownloadManager manager =
+ *     new MediaDownloadManager.Builder(transport, credential)
+ *         .setMaxConcurrentDownloads(32)
+ *         .setMaxConcurrentDownloadsPerHost(8)
+ *         .build();
+ * List<ListenableFuture<Long>> results = new ArrayList<ListenableFuture<Long>>();
+ * for (String name : names) {
+ *   results.add(manager.download(new GenericUrl(baseUrl + name), directory.resolve(name)));
+ * }
+ * Futures.allAsList(results).get();
+ * System.out.println(manager.getThroughputBytesPerSecond() + " bytes per second");
+ * }</pre>
+ *
+ * <p>Implementation is thread-safe.
+ *
+ * @since 2.9
+ */
+@Beta
+public final class MediaDownloadManager {
+
+  /** Default maximum number of concurrent downloads. */
+  public static final int DEFAULT_MAX_CONCURRENT_DOWNLOADS = 16;
+
+  private final HttpTransport transport;
+  private final HttpRequestInitializer httpRequestInitializer;
+  private final int maxConcurrentDownloads;
+  private final int maxConcurrentDownloadsPerHost;
+  private final double maxBytesPerSecond;
+  private final Executor executor;
+
+  /** Rate limiter of the bytes of all the downloads or {@code null} for none. */
+  private final RateLimiter rateLimiter;
+
+  /** Nano clock that measures the throughput. */
+  NanoClock nanoClock = NanoClock.SYSTEM;
+
+  /** Lock on the pending and running downloads, the shutdown state and {@link #startNanos}. */
+  private final Lock lock = new ReentrantLock();
+
+  /** Downloads that have not started, in order of submission. */
+  private final ArrayDeque<DownloadTask> pendingDownloads = new ArrayDeque<DownloadTask>();
+
+  /** Number of running downloads by host. */
+  private final Map<String, Integer> runningDownloadsPerHost = new HashMap<String, Integer>();
+
+  private int runningDownloads;
+  private boolean shutdown;
+
+  /** Time the first download started or {@code -1} if none has started. */
+  private long startNanos = -1;
+
+  private final AtomicLong bytesDownloaded = new AtomicLong();
+  private final AtomicLong completedDownloads = new AtomicLong();
+  private final AtomicLong failedDownloads = new AtomicLong();
+
+  MediaDownloadManager(Builder builder) {
+    transport = builder.transport;
+    httpRequestInitializer = builder.httpRequestInitializer;
+    maxConcurrentDownloads = builder.maxConcurrentDownloads;
+    maxConcurrentDownloadsPerHost = builder.maxConcurrentDownloadsPerHost;
+    maxBytesPerSecond = builder.maxBytesPerSecond;
+    rateLimiter = maxBytesPerSecond == 0 ? null : RateLimiter.create(maxBytesPerSecond);
+    executor =
+        builder.executor != null
+            ? builder.executor
+            : Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("MediaDownloadManager-%d")
+                    .build());
+  }
+
+  /**
+   * Returns a new media downloader that uses the transport and the request initializer of the
+   * manager, which may be configured and passed to {@link #download(MediaHttpDownloader,
+   * GenericUrl, HttpHeaders, OutputStream)}.
+   */
+  public MediaHttpDownloader newDownloader() {
+    return new MediaHttpDownloader(transport, httpRequestInitializer);
+  }
+
+  /**
+   * Schedules the download of the given media into the given output stream, which is not closed.
+   *
+   * @param requestUrl request URL where the download requests will be sent
+   * @param outputStream destination output stream
+   * @return future of the number of media bytes received
+   */
+  public ListenableFuture<Long> download(GenericUrl requestUrl, OutputStream outputStream) {
+    return download(newDownloader(), requestUrl, null, outputStream);
+  }
+
+  /**
+   * Schedules the download of the given media into the given file, which is only opened when the
+   * download starts so that many downloads may be scheduled without exhausting file descriptors.
+   *
+   * @param requestUrl request URL where the download requests will be sent
+   * @param path destination file
+   * @return future of the number of media bytes received
+   */
+  public ListenableFuture<Long> download(GenericUrl requestUrl, Path path) {
+    return download(newDownloader(), requestUrl, null, path);
+  }
+
+  /**
+   * Schedules the download of the given media with the given downloader into the given output
+   * stream, which is not closed.
+   *
+   * @param downloader new downloader, for example from {@link #newDownloader}
+   * @param requestUrl request URL where the download requests will be sent
+   * @param requestHeaders request headers or {@code null} to ignore
+   * @param outputStream destination output stream
+   * @return future of the number of media bytes received
+   */
+  public ListenableFuture<Long> download(
+      MediaHttpDownloader downloader,
+      GenericUrl requestUrl,
+      HttpHeaders requestHeaders,
+      OutputStream outputStream) {
+    return submit(new DownloadTask(downloader, requestUrl, requestHeaders, outputStream, null));
+  }
+
+  /**
+   * Schedules the download of the given media with the given downloader into the given file, which
+   * is only opened when the download starts.
+   *
+   * @param downloader new downloader, for example from {@link #newDownloader}
+   * @param requestUrl request URL where the download requests will be sent
+   * @param requestHeaders request headers or {@code null} to ignore
+   * @param path destination file
+   * @return future of the number of media bytes received
+   */
+  public ListenableFuture<Long> download(
+      MediaHttpDownloader downloader,
+      GenericUrl requestUrl,
+      HttpHeaders requestHeaders,
+      Path path) {
+    return submit(new DownloadTask(downloader, requestUrl, requestHeaders, null, path));
+  }
+
+  /**
+   * Stops accepting downloads and cancels the downloads that have not started. The running
+   * downloads complete.
+   */
+  public void shutdown() {
+    lock.lock();
+    try {
+      shutdown = true;
+    } finally {
+      lock.unlock();
+    }
+    DownloadTask task;
+    while ((task = pollPendingDownload()) != null) {
+      task.future.cancel(false);
+    }
+  }
+
+  /** Returns the maximum number of concurrent downloads. */
+  public int getMaxConcurrentDownloads() {
+    return maxConcurrentDownloads;
+  }
+
+  /** Returns the maximum number of concurrent downloads from the same host. */
+  public int getMaxConcurrentDownloadsPerHost() {
+    return maxConcurrentDownloadsPerHost;
+  }
+
+  /** Returns the maximum number of bytes per second of all the downloads or {@code 0} for none. */
+  public double getMaxBytesPerSecond() {
+    return maxBytesPerSecond;
+  }
+
+  /** Returns the number of downloads that have not started. */
+  public int getPendingCount() {
+    lock.lock();
+    try {
+      return pendingDownloads.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns the number of running downloads. */
+  public int getRunningCount() {
+    lock.lock();
+    try {
+      return runningDownloads;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns the number of downloads that completed successfully. */
+  public long getCompletedCount() {
+    return completedDownloads.get();
+  }
+
+  /** Returns the number of downloads that failed. */
+  public long getFailedCount() {
+    return failedDownloads.get();
+  }
+
+  /** Returns the number of media bytes received by all the downloads. */
+  public long getBytesDownloaded() {
+    return bytesDownloaded.get();
+  }
+
+  /**
+   * Returns the average number of media bytes received per second by all the downloads since the
+   * first one started, or {@code 0} if none has started.
+   */
+  public double getThroughputBytesPerSecond() {
+    long start;
+    lock.lock();
+    try {
+      start = startNanos;
+    } finally {
+      lock.unlock();
+    }
+    if (start == -1) {
+      return 0;
+    }
+    long elapsedNanos = nanoClock.nanoTime() - start;
+    return elapsedNanos <= 0 ? 0 : bytesDownloaded.get() * 1e9 / elapsedNanos;
+  }
+
+  private ListenableFuture<Long> submit(DownloadTask task) {
+    lock.lock();
+    try {
+      Preconditions.checkState(!shutdown, "download manager is shut down");
+      pendingDownloads.add(task);
+    } finally {
+      lock.unlock();
+    }
+    dispatch();
+    return task.future;
+  }
+
+  private DownloadTask pollPendingDownload() {
+    lock.lock();
+    try {
+      return pendingDownloads.poll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Starts the pending downloads allowed by the limits. */
+  private void dispatch() {
+    while (true) {
+      DownloadTask task = null;
+      lock.lock();
+      try {
+        Iterator<DownloadTask> iterator = pendingDownloads.iterator();
+        while (runningDownloads < maxConcurrentDownloads && iterator.hasNext()) {
+          DownloadTask pendingTask = iterator.next();
+          if (pendingTask.future.isCancelled()) {
+            iterator.remove();
+            continue;
+          }
+          Integer hostDownloads = runningDownloadsPerHost.get(pendingTask.host);
+          if (hostDownloads == null || hostDownloads < maxConcurrentDownloadsPerHost) {
+            iterator.remove();
+            runningDownloadsPerHost.put(
+                pendingTask.host, hostDownloads == null ? 1 : hostDownloads + 1);
+            runningDownloads++;
+            if (startNanos == -1) {
+              startNanos = nanoClock.nanoTime();
+            }
+            task = pendingTask;
+            break;
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+      if (task == null) {
+        return;
+      }
+      try {
+        executor.execute(task);
+      } catch (RuntimeException e) {
+        release(task);
+        task.future.setException(e);
+      }
+    }
+  }
+
+  /** Releases the slots of the given download. */
+  private void release(DownloadTask task) {
+    lock.lock();
+    try {
+      runningDownloads--;
+      int hostDownloads = runningDownloadsPerHost.get(task.host) - 1;
+      if (hostDownloads == 0) {
+        runningDownloadsPerHost.remove(task.host);
+      } else {
+        runningDownloadsPerHost.put(task.host, hostDownloads);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Download of a media. */
+  private final class DownloadTask implements Runnable {
+
+    final SettableFuture<Long> future = SettableFuture.create();
+    final String host;
+    private final MediaHttpDownloader downloader;
+    private final GenericUrl requestUrl;
+    private final HttpHeaders requestHeaders;
+    private final OutputStream outputStream;
+    private final Path path;
+
+    DownloadTask(
+        MediaHttpDownloader downloader,
+        GenericUrl requestUrl,
+        HttpHeaders requestHeaders,
+        OutputStream outputStream,
+        Path path) {
+      this.downloader = Preconditions.checkNotNull(downloader);
+      this.requestUrl = Preconditions.checkNotNull(requestUrl);
+      this.requestHeaders = requestHeaders;
+      this.outputStream = outputStream;
+      this.path = path;
+      host = requestUrl.getHost() + ":" + requestUrl.getPort();
+    }
+
+    public void run() {
+      ByteCounter counter = new ByteCounter(future);
+      Throwable failure = null;
+      if (!future.isCancelled()) {
+        try {
+          downloader.setByteObserver(counter);
+          if (path != null) {
+            downloader.download(requestUrl, requestHeaders, path);
+          } else {
+            downloader.download(requestUrl, requestHeaders, outputStream);
+          }
+          completedDownloads.incrementAndGet();
+        } catch (Throwable t) {
+          if (!future.isCancelled()) {
+            failedDownloads.incrementAndGet();
+          }
+          failure = t;
+        }
+      }
+      // release the slots first, so that they are free once the future is done
+      release(this);
+      if (failure == null) {
+        future.set(counter.bytes.get());
+      } else {
+        future.setException(failure);
+      }
+      dispatch();
+      if (failure instanceof Error) {
+        throw (Error) failure;
+      }
+    }
+  }
+
+  /**
+   * Observer that counts and throttles the media bytes as they are received, and stops the download
+   * once its future is cancelled.
+   */
+  private final class ByteCounter implements MediaHttpDownloader.ByteObserver {
+
+    /** Number of bytes received, which parallel chunks update concurrently. */
+    final AtomicLong bytes = new AtomicLong();
+
+    private final SettableFuture<Long> future;
+
+    ByteCounter(SettableFuture<Long> future) {
+      this.future = future;
+    }
+
+    public void bytesReceived(int count) throws IOException {
+      if (future.isCancelled()) {
+        throw new InterruptedIOException("media download was cancelled");
+      }
+      if (rateLimiter != null && count > 0) {
+        rateLimiter.acquire(count);
+      }
+      bytes.addAndGet(count);
+      bytesDownloaded.addAndGet(count);
+    }
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Builder for {@link MediaDownloadManager}.
+   *
+   * <p>Implementation is not thread-safe.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public static final class Builder {
+
+    final HttpTransport transport;
+    final HttpRequestInitializer httpRequestInitializer;
+    int maxConcurrentDownloads = DEFAULT_MAX_CONCURRENT_DOWNLOADS;
+    int maxConcurrentDownloadsPerHost = Integer.MAX_VALUE;
+    double maxBytesPerSecond;
+    Executor executor;
+
+    /**
+     * @param transport the transport to use for requests
+     * @param httpRequestInitializer the initializer to use when creating an HTTP request or {@code
+     *     null} for none
+     */
+    public Builder(HttpTransport transport, HttpRequestInitializer httpRequestInitializer) {
+      this.transport = Preconditions.checkNotNull(transport);
+      this.httpRequestInitializer = httpRequestInitializer;
+    }
+
+    /**
+     * Sets the maximum number of concurrent downloads. The default value is {@link
+     * #DEFAULT_MAX_CONCURRENT_DOWNLOADS}.
+     */
+    public Builder setMaxConcurrentDownloads(int maxConcurrentDownloads) {
+      Preconditions.checkArgument(maxConcurrentDownloads > 0);
+      this.maxConcurrentDownloads = maxConcurrentDownloads;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of concurrent downloads from the same host and port. By default there
+     * is no limit per host.
+     */
+    public Builder setMaxConcurrentDownloadsPerHost(int maxConcurrentDownloadsPerHost) {
+      Preconditions.checkArgument(maxConcurrentDownloadsPerHost > 0);
+      this.maxConcurrentDownloadsPerHost = maxConcurrentDownloadsPerHost;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of media bytes per second received by all the downloads, or {@code 0}
+     * for no limit, which is the default.
+     *
+     * <p>The downloads are throttled as they copy the media, so a download may briefly exceed the
+     * limit by the size of a read of the response content.
+     */
+    public Builder setMaxBytesPerSecond(double maxBytesPerSecond) {
+      Preconditions.checkArgument(maxBytesPerSecond >= 0);
+      this.maxBytesPerSecond = maxBytesPerSecond;
+      return this;
+    }
+
+    /**
+     * Sets the executor that runs the downloads or {@code null} to use a cached thread pool of
+     * daemon threads, which is the default. The executor must be able to run {@link
+     * #setMaxConcurrentDownloads} downloads at the same time to reach that limit.
+     */
+    public Builder setExecutor(Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    /** Returns a new download manager. */
+    public MediaDownloadManager build() {
+      return new MediaDownloadManager(this);
+    }
+  }
+}
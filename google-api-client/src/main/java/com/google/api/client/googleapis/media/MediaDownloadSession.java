@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.util.Beta;
+import com.google.api.client.util.Objects;
+import com.google.api.client.util.store.DataStore;
+import com.google.api.client.util.store.DataStoreFactory;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * {@link Beta} <br>
+ * Progress of a chunked media download checkpointed by {@link MediaHttpDownloader} after each chunk
+ * in the data store given to {@link MediaHttpDownloader#setSessionStore}.
+ *
+ * <p>Besides the number of bytes downloaded, it records the media content length and the validators
+ * of the media, its ETag and its generation, so that a download resumed by a restarted process can
+ * check that the media has not changed.
+ *
+ * <p>Implementation is not thread-safe.
+ *
+ * @since 2.9
+ */
+@Beta
+public final class MediaDownloadSession implements Serializable {
+
+  /** Default data store ID. */
+  public static final String DEFAULT_DATA_STORE_ID = MediaDownloadSession.class.getSimpleName();
+
+  private static final long serialVersionUID = 1L;
+
+  /** Number of bytes downloaded, which is the position of the next byte to download. */
+  private long bytesDownloaded;
+
+  /** Media content length or {@code 0} if not known. */
+  private long mediaContentLength;
+
+  /** ETag of the media or {@code null} for none. */
+  private String eTag;
+
+  /** Generation of the media from the {@code x-goog-generation} header or {@code null} for none. */
+  private String generation;
+
+  /** Returns the number of bytes downloaded, which is the position of the next byte to download. */
+  public long getBytesDownloaded() {
+    return bytesDownloaded;
+  }
+
+  /** Sets the number of bytes downloaded, which is the position of the next byte to download. */
+  public MediaDownloadSession setBytesDownloaded(long bytesDownloaded) {
+    this.bytesDownloaded = bytesDownloaded;
+    return this;
+  }
+
+  /** Returns the media content length or {@code 0} if not known. */
+  public long getMediaContentLength() {
+    return mediaContentLength;
+  }
+
+  /** Sets the media content length or {@code 0} if not known. */
+  public MediaDownloadSession setMediaContentLength(long mediaContentLength) {
+    this.mediaContentLength = mediaContentLength;
+    return this;
+  }
+
+  /** Returns the ETag of the media or {@code null} for none. */
+  public String getETag() {
+    return eTag;
+  }
+
+  /** Sets the ETag of the media or {@code null} for none. */
+  public MediaDownloadSession setETag(String eTag) {
+    this.eTag = eTag;
+    return this;
+  }
+
+  /**
+   * Returns the generation of the media from the {@code x-goog-generation} header or {@code null}
+   * for none.
+   */
+  public String getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Sets the generation of the media from the {@code x-goog-generation} header or {@code null} for
+   * none.
+   */
+  public MediaDownloadSession setGeneration(String generation) {
+    this.generation = generation;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(MediaDownloadSession.class)
+        .add("bytesDownloaded", bytesDownloaded)
+        .add("mediaContentLength", mediaContentLength)
+        .add("eTag", eTag)
+        .add("generation", generation)
+        .toString();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof MediaDownloadSession)) {
+      return false;
+    }
+    MediaDownloadSession o = (MediaDownloadSession) other;
+    return bytesDownloaded == o.bytesDownloaded
+        && mediaContentLength == o.mediaContentLength
+        && Objects.equal(eTag, o.eTag)
+        && Objects.equal(generation, o.generation);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(new Object[] {bytesDownloaded, mediaContentLength, eTag, generation});
+  }
+
+  /**
+   * Returns the download session data store using the ID {@link #DEFAULT_DATA_STORE_ID}.
+   *
+   * @param dataStoreFactory data store factory
+   * @return download session data store
+   */
+  public static DataStore<MediaDownloadSession> getDefaultDataStore(
+      DataStoreFactory dataStoreFactory) throws IOException {
+    return dataStoreFactory.getDataStore(DEFAULT_DATA_STORE_ID);
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.util.Beta;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link Beta} <br>
+ * Transformation of the media bytes applied by {@link MediaHttpDownloader} while they flow to the
+ * destination, for example to verify a checksum or to decompress the media, so that each byte is
+ * only touched once.
+ *
+ * <p>The downloader calls {@link #start} with the first response of the download, then writes the
+ * media bytes in order to the stream returned by {@link #transform}, and calls {@link #finish} once
+ * all the bytes have been written. Transformers are stateful, so a new instance must be used for
+ * each download.
+ *
+ * <p>See {@link MediaDownloadChecksumValidator} and {@link MediaDownloadGzipDecoder}.
+ *
+ * @since 2.9
+ */
+@Beta
+public abstract class MediaDownloadTransformer {
+
+  /**
+   * Called with the response of the first request of the download, before any media byte is
+   * written.
+   *
+   * <p>Default implementation does nothing.
+   *
+   * @param response HTTP response whose content holds the first media bytes
+   */
+  public void start(HttpResponse response) throws IOException {}
+
+  /**
+   * Returns an output stream that transforms the media bytes written to it and writes the result to
+   * the given output stream.
+   *
+   * <p>The downloader never closes the returned stream, but flushes it when the download progress
+   * is checkpointed.
+   *
+   * @param outputStream output stream of the transformed bytes
+   * @return output stream of the media bytes
+   */
+  public abstract OutputStream transform(OutputStream outputStream) throws IOException;
+
+  /**
+   * Called once all the media bytes have been written, for example to verify them.
+   *
+   * <p>Default implementation does nothing.
+   *
+   * @throws IOException if the media bytes are not valid
+   */
+  public void finish() throws IOException {}
+}
@@ -24,11 +24,43 @@ import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpRequestFactory;
 import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.HttpStatusCodes;
 import com.google.api.client.http.HttpTransport;
+import com.google.api.client.util.BackOff;
+import com.google.api.client.util.BackOffUtils;
+import com.google.api.client.util.Beta;
+import com.google.api.client.util.NanoClock;
 import com.google.api.client.util.Preconditions;
-import com.google.common.io.ByteStreams;
+import com.google.api.client.util.Sleeper;
+import com.google.api.client.util.store.DataStore;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Media HTTP Downloader, with support for both direct and resumable media downloads. Documentation
@@ -37,6 +69,13 @@ import java.io.OutputStream;
  *
  * <p>Implementation is not thread-safe.
  *
+ * <p>For chunked downloads of large media, {@link #setParallelism} enables a parallel mode that
+ * downloads several chunks concurrently with separate range requests. Progress notifications are
+ * still sent from the thread calling {@link #download}.
+ *
+ * <p>With {@link #setSessionStore}, the progress of a chunked download is checkpointed after each
+ * chunk so that a restarted process can resume it. See {@link #setSessionStore} for details.
+ *
  * <p>Back-off is disabled by default. To enable it for an abnormal HTTP response and an I/O
  * exception you should call {@link HttpRequest#setUnsuccessfulResponseHandler} with a new {@link
  * HttpBackOffUnsuccessfulResponseHandler} instance and {@link HttpRequest#setIOExceptionHandler}
@@ -69,6 +108,18 @@ public final class MediaHttpDownloader {
    */
   public static final int MAXIMUM_CHUNK_SIZE = 32 * MediaHttpUploader.MB;
 
+  /**
+   * Size of the buffer that copies the media from the response content. Larger than the buffer of
+   * {@code ByteStreams.copy} to reduce the number of reads and writes of large media.
+   */
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+  /** Time a chunk request should take in adaptive chunk size mode. */
+  private static final long ADAPTIVE_CHUNK_DURATION_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+  /** Response header with the generation of Cloud Storage objects. */
+  private static final String GENERATION_HEADER = "x-goog-generation";
+
   /** The request factory for connections to the server. */
   private final HttpRequestFactory requestFactory;
 
@@ -92,6 +143,30 @@ public final class MediaHttpDownloader {
    */
   private int chunkSize = MAXIMUM_CHUNK_SIZE;
 
+  /**
+   * Maximum value of {@link #chunkSize} and of the adaptive chunk size. The default value is {@link
+   * #MAXIMUM_CHUNK_SIZE}.
+   */
+  private int maximumChunkSize = MAXIMUM_CHUNK_SIZE;
+
+  /** Whether the chunk size is tuned from the observed throughput and errors. */
+  private boolean adaptiveChunkSizeEnabled;
+
+  /** Size of the next chunk in adaptive chunk size mode. */
+  private int adaptiveChunkSize;
+
+  /** Nano clock that measures the duration of chunk requests. */
+  NanoClock nanoClock = NanoClock.SYSTEM;
+
+  /**
+   * Back-off policy of the retries of a request whose response content failed mid-way or {@code
+   * null} for no retries.
+   */
+  private BackOff retryBackOff;
+
+  /** Sleeper that waits between retries. */
+  Sleeper sleeper = Sleeper.DEFAULT;
+
   /**
    * The length of the HTTP media content or {@code 0} before it is initialized in {@link
    * #setMediaContentLength}.
@@ -111,6 +186,40 @@ public final class MediaHttpDownloader {
    */
   private long lastBytePos = -1;
 
+  /** Maximum number of chunks downloaded concurrently. Defaults to {@code 1}. */
+  private int parallelism = 1;
+
+  /**
+   * Executor that downloads chunks in parallel mode or {@code null} to use a thread pool per
+   * download.
+   */
+  private Executor executor;
+
+  /** Whether the destination file is extended to the media length once it is known. */
+  private boolean preallocationEnabled;
+
+  /** Transformers applied in order to the media bytes. */
+  private final List<MediaDownloadTransformer> transformers =
+      new ArrayList<MediaDownloadTransformer>();
+
+  /** Whether the transformers have been started with the first response. */
+  private boolean transformersStarted;
+
+  /** Observer of the media bytes as they are received or {@code null} for none. */
+  private ByteObserver byteObserver;
+
+  /** Data store of the download sessions or {@code null} for none. */
+  private DataStore<MediaDownloadSession> sessionStore;
+
+  /** Key of the download session in {@link #sessionStore}. */
+  private String sessionKey;
+
+  /** ETag of the media or {@code null} if not known. */
+  private String eTag;
+
+  /** Generation of the media from the {@code x-goog-generation} header or {@code null}. */
+  private String generation;
+
   /**
    * Construct the {@link MediaHttpDownloader}.
    *
@@ -157,32 +266,288 @@ public final class MediaHttpDownloader {
    */
   public void download(GenericUrl requestUrl, HttpHeaders requestHeaders, OutputStream outputStream)
       throws IOException {
+    download(requestUrl, requestHeaders, outputStream, null);
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Executes a direct media download or a resumable media download into a file channel.
+   *
+   * <p>The media is written starting at the current position of the file channel, which is advanced
+   * past the written bytes. In parallel mode the chunks are written with positional writes as soon
+   * as they arrive, so no chunk is buffered in memory. This method does not close the given file
+   * channel.
+   *
+   * <p>This method is not reentrant. A new instance of {@link MediaHttpDownloader} must be
+   * instantiated before download called be called again.
+   *
+   * @param requestUrl request URL where the download requests will be sent
+   * @param requestHeaders request headers or {@code null} to ignore
+   * @param fileChannel destination file channel, which must be writable
+   * @since 2.9
+   */
+  @Beta
+  public void download(GenericUrl requestUrl, HttpHeaders requestHeaders, FileChannel fileChannel)
+      throws IOException {
+    download(requestUrl, requestHeaders, Channels.newOutputStream(fileChannel), fileChannel);
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Executes a direct media download or a resumable media download into a byte channel.
+   *
+   * <p>This method does not close the given channel.
+   *
+   * <p>This method is not reentrant. A new instance of {@link MediaHttpDownloader} must be
+   * instantiated before download called be called again.
+   *
+   * @param requestUrl request URL where the download requests will be sent
+   * @param channel destination channel
+   * @since 2.9
+   */
+  @Beta
+  public void download(GenericUrl requestUrl, WritableByteChannel channel) throws IOException {
+    download(requestUrl, null, channel);
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Executes a direct media download or a resumable media download into a byte channel.
+   *
+   * <p>The media is copied with a large buffer that is written to the channel without an
+   * intermediate stream. If the channel is a {@link FileChannel} this behaves like {@link
+   * #download(GenericUrl, HttpHeaders, FileChannel)}. This method does not close the given channel.
+   *
+   * <p>This method is not reentrant. A new instance of {@link MediaHttpDownloader} must be
+   * instantiated before download called be called again.
+   *
+   * @param requestUrl request URL where the download requests will be sent
+   * @param requestHeaders request headers or {@code null} to ignore
+   * @param channel destination channel
+   * @since 2.9
+   */
+  @Beta
+  public void download(
+      GenericUrl requestUrl, HttpHeaders requestHeaders, WritableByteChannel channel)
+      throws IOException {
+    if (channel instanceof FileChannel) {
+      download(requestUrl, requestHeaders, (FileChannel) channel);
+    } else {
+      download(requestUrl, requestHeaders, Channels.newOutputStream(channel), null);
+    }
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Executes a direct media download or a resumable media download into a file, which is created if
+   * it does not exist.
+   *
+   * <p>The file is overwritten, unless a {@link #setSessionStore session store} holds a session for
+   * the download, in which case the file is truncated to the checkpointed bytes and the download
+   * continues after them. The media is written from the start of the file, so when resuming the
+   * first byte position must be set as in the interrupted download.
+   *
+   * <p>This method is not reentrant. A new instance of {@link MediaHttpDownloader} must be
+   * instantiated before download called be called again.
+   *
+   * @param requestUrl request URL where the download requests will be sent
+   * @param path destination file
+   * @since 2.9
+   */
+  @Beta
+  public void download(GenericUrl requestUrl, Path path) throws IOException {
+    download(requestUrl, null, path);
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Executes a direct media download or a resumable media download into a file, which is created if
+   * it does not exist.
+   *
+   * <p>See {@link #download(GenericUrl, Path)} for details.
+   *
+   * @param requestUrl request URL where the download requests will be sent
+   * @param requestHeaders request headers or {@code null} to ignore
+   * @param path destination file
+   * @since 2.9
+   */
+  @Beta
+  public void download(GenericUrl requestUrl, HttpHeaders requestHeaders, Path path)
+      throws IOException {
+    checkTransformers();
+    long offset = 0;
+    if (sessionStore != null && !directDownloadEnabled) {
+      MediaDownloadSession session = sessionStore.get(sessionKey);
+      if (session != null) {
+        offset = session.getBytesDownloaded() - bytesDownloaded;
+      }
+    }
+    try (FileChannel fileChannel =
+        FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      fileChannel.truncate(offset).position(offset);
+      download(requestUrl, requestHeaders, fileChannel);
+    }
+  }
+
+  /**
+   * Executes a direct media download or a resumable media download.
+   *
+   * @param requestUrl request URL where the download requests will be sent
+   * @param requestHeaders request headers or {@code null} to ignore
+   * @param outputStream destination output stream
+   * @param fileChannel file channel written by {@code outputStream} at its position, which allows
+   *     positional writes in parallel mode, or {@code null} for none
+   */
+  private void download(
+      GenericUrl requestUrl,
+      HttpHeaders requestHeaders,
+      OutputStream outputStream,
+      FileChannel fileChannel)
+      throws IOException {
     Preconditions.checkArgument(downloadState == DownloadState.NOT_STARTED);
+    checkTransformers();
     requestUrl.put("alt", "media");
+    if (!transformers.isEmpty()) {
+      for (int i = transformers.size() - 1; i >= 0; i--) {
+        outputStream = transformers.get(i).transform(outputStream);
+      }
+      // transformed bytes can only flow in order through the output stream
+      fileChannel = null;
+    }
+    if (sessionStore != null && !directDownloadEnabled) {
+      MediaDownloadSession session = sessionStore.get(sessionKey);
+      if (session != null) {
+        bytesDownloaded = session.getBytesDownloaded();
+        mediaContentLength = session.getMediaContentLength();
+        eTag = session.getETag();
+        generation = session.getGeneration();
+      }
+    }
 
+    if (retryBackOff != null) {
+      retryBackOff.reset();
+    }
     if (directDownloadEnabled) {
       updateStateAndNotifyListener(DownloadState.MEDIA_IN_PROGRESS);
-      HttpResponse response =
-          executeCurrentRequest(lastBytePos, requestUrl, requestHeaders, outputStream);
+      long firstBytePos = bytesDownloaded;
+      HttpResponse response;
+      while (true) {
+        try {
+          // a retry must receive the range from the first byte that was not written
+          response =
+              executeCurrentRequest(
+                  lastBytePos,
+                  requestUrl,
+                  requestHeaders,
+                  outputStream,
+                  fileChannel,
+                  bytesDownloaded != firstBytePos);
+          break;
+        } catch (IOException e) {
+          if (!shouldRetry(e)) {
+            throw e;
+          }
+        }
+      }
       // All required bytes have been downloaded from the server.
-      mediaContentLength =
-          firstNonNull(response.getHeaders().getContentLength(), mediaContentLength);
+      String contentRange = response.getHeaders().getContentRange();
+      if (bytesDownloaded != firstBytePos && contentRange != null) {
+        // the response of a retry only has the remaining bytes
+        setMediaContentLength(contentRange);
+      } else {
+        mediaContentLength =
+            firstNonNull(response.getHeaders().getContentLength(), mediaContentLength);
+      }
       bytesDownloaded = mediaContentLength;
-      updateStateAndNotifyListener(DownloadState.MEDIA_COMPLETE);
+      completeDownload();
       return;
     }
 
     // Download the media content in chunks.
+    try {
+      downloadChunks(requestUrl, requestHeaders, outputStream, fileChannel);
+    } catch (IOException e) {
+      if (sessionStore != null && isMediaChanged(e)) {
+        // the checkpointed bytes are stale, so the next download must start over
+        sessionStore.delete(sessionKey);
+      }
+      throw e;
+    }
+    if (sessionStore != null) {
+      sessionStore.delete(sessionKey);
+    }
+  }
+
+  /**
+   * Downloads the media content in chunks.
+   *
+   * @param requestUrl request URL where the download requests will be sent
+   * @param requestHeaders request headers or {@code null} to ignore
+   * @param outputStream destination output stream
+   * @param fileChannel file channel written by {@code outputStream} or {@code null} for none
+   */
+  private void downloadChunks(
+      GenericUrl requestUrl,
+      HttpHeaders requestHeaders,
+      OutputStream outputStream,
+      FileChannel fileChannel)
+      throws IOException {
+    adaptiveChunkSize = chunkSize;
     while (true) {
-      long currentRequestLastBytePos = bytesDownloaded + chunkSize - 1;
+      long currentRequestFirstBytePos = bytesDownloaded;
+      long currentRequestLastBytePos =
+          bytesDownloaded + (adaptiveChunkSizeEnabled ? adaptiveChunkSize : chunkSize) - 1;
       if (lastBytePos != -1) {
         // If last byte position has been specified, use it iff it is smaller than the chunk size.
         currentRequestLastBytePos = Math.min(lastBytePos, currentRequestLastBytePos);
       }
-      HttpResponse response =
-          executeCurrentRequest(
-              currentRequestLastBytePos, requestUrl, requestHeaders, outputStream);
+      long requestStartNanos = nanoClock.nanoTime();
+      HttpResponse response;
+      while (true) {
+        try {
+          // a retry requests the range from the first byte that was not written
+          response =
+              executeCurrentRequest(
+                  currentRequestLastBytePos,
+                  requestUrl,
+                  requestHeaders,
+                  outputStream,
+                  fileChannel,
+                  true);
+          break;
+        } catch (IOException e) {
+          if (adaptiveChunkSizeEnabled) {
+            adaptiveChunkSize = Math.max(getMinimumAdaptiveChunkSize(), adaptiveChunkSize / 2);
+          }
+          if (bytesDownloaded != currentRequestFirstBytePos) {
+            // checkpoint the bytes of the chunk written before the failure
+            try {
+              saveSession(outputStream);
+            } catch (IOException suppressed) {
+              e.addSuppressed(suppressed);
+            }
+          }
+          if (!shouldRetry(e)) {
+            throw e;
+          }
+        }
+      }
+      if (retryBackOff != null) {
+        retryBackOff.reset();
+      }
+      if (adaptiveChunkSizeEnabled) {
+        adaptChunkSize(
+            currentRequestLastBytePos + 1 - currentRequestFirstBytePos,
+            nanoClock.nanoTime() - requestStartNanos);
+      }
 
+      checkValidators(response);
+      if (response.getHeaders().getETag() != null) {
+        eTag = response.getHeaders().getETag();
+      }
+      if (response.getHeaders().get(GENERATION_HEADER) != null) {
+        generation = response.getHeaders().getFirstHeaderStringValue(GENERATION_HEADER);
+      }
       String contentRange = response.getHeaders().getContentRange();
       long nextByteIndex = getNextByteIndex(contentRange);
       setMediaContentLength(contentRange);
@@ -191,19 +556,414 @@ public final class MediaHttpDownloader {
       if (lastBytePos != -1 && lastBytePos <= nextByteIndex) {
         // All required bytes from the range have been downloaded from the server.
         bytesDownloaded = lastBytePos;
-        updateStateAndNotifyListener(DownloadState.MEDIA_COMPLETE);
+        completeDownload();
         return;
       }
 
       if (mediaContentLength <= nextByteIndex) {
         // All required bytes have been downloaded from the server.
         bytesDownloaded = mediaContentLength;
-        updateStateAndNotifyListener(DownloadState.MEDIA_COMPLETE);
+        completeDownload();
         return;
       }
 
       bytesDownloaded = nextByteIndex;
       updateStateAndNotifyListener(DownloadState.MEDIA_IN_PROGRESS);
+      saveSession(outputStream);
+
+      if (parallelism > 1) {
+        // The first chunk revealed the media content length, so download the others in parallel.
+        long lastRequiredBytePos = mediaContentLength - 1;
+        if (lastBytePos != -1) {
+          lastRequiredBytePos = Math.min(lastBytePos, lastRequiredBytePos);
+        }
+        downloadInParallel(
+            requestUrl, requestHeaders, outputStream, fileChannel, lastRequiredBytePos);
+        bytesDownloaded = lastBytePos != -1 ? lastBytePos : mediaContentLength;
+        completeDownload();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Checks that no transformer was added if the download may start after the first byte of the
+   * media, because the checkpoints and the retries count the bytes received whereas the destination
+   * holds the transformed bytes.
+   */
+  private void checkTransformers() {
+    Preconditions.checkState(
+        transformers.isEmpty()
+            || bytesDownloaded == 0 && (sessionStore == null || directDownloadEnabled),
+        "transformers cannot be used with a session store or a first byte position");
+  }
+
+  /**
+   * Downloads the chunks from {@link #bytesDownloaded} to the given last byte position with up to
+   * {@link #parallelism} concurrent range requests.
+   *
+   * <p>The chunks are written in order to the output stream, buffering in memory the chunks that
+   * arrive before their predecessors, or as they arrive with positional writes to the file channel.
+   * Either way at most {@link #parallelism} chunks are downloaded ahead of the first chunk that is
+   * not complete, which bounds the memory to {@code parallelism * chunkSize} bytes.
+   *
+   * @param requestUrl request URL where the download requests will be sent
+   * @param requestHeaders request headers or {@code null} to ignore
+   * @param outputStream destination output stream
+   * @param fileChannel file channel written by {@code outputStream} or {@code null} for none
+   * @param lastRequiredBytePos last byte position to download
+   */
+  private void downloadInParallel(
+      final GenericUrl requestUrl,
+      final HttpHeaders requestHeaders,
+      OutputStream outputStream,
+      final FileChannel fileChannel,
+      long lastRequiredBytePos)
+      throws IOException {
+    final long firstBytePos = bytesDownloaded;
+    final long firstPosition = fileChannel == null ? 0 : fileChannel.position();
+    final AtomicBoolean cancelled = new AtomicBoolean();
+    Executor executor = this.executor;
+    ExecutorService ownExecutor = null;
+    if (executor == null) {
+      ownExecutor =
+          Executors.newFixedThreadPool(
+              parallelism,
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("MediaHttpDownloader-%d")
+                  .build());
+      executor = ownExecutor;
+    }
+    ArrayDeque<ChunkTask> pendingChunks = new ArrayDeque<ChunkTask>();
+    long nextBytePos = firstBytePos;
+    try {
+      while (true) {
+        while (pendingChunks.size() < parallelism && nextBytePos <= lastRequiredBytePos) {
+          final long chunkFirstBytePos = nextBytePos;
+          final long chunkLastBytePos = Math.min(lastRequiredBytePos, nextBytePos + chunkSize - 1);
+          ChunkTask chunk =
+              new ChunkTask(
+                  chunkLastBytePos,
+                  new Callable<ByteArrayOutputStream>() {
+                    public ByteArrayOutputStream call() throws IOException {
+                      if (cancelled.get()) {
+                        return null;
+                      }
+                      if (fileChannel != null) {
+                        long position = firstPosition + chunkFirstBytePos - firstBytePos;
+                        downloadChunk(
+                            requestUrl,
+                            requestHeaders,
+                            chunkFirstBytePos,
+                            chunkLastBytePos,
+                            new PositionalOutputStream(fileChannel, position, cancelled));
+                        return null;
+                      }
+                      ByteArrayOutputStream buffer =
+                          new ByteArrayOutputStream(
+                              (int) (chunkLastBytePos - chunkFirstBytePos + 1));
+                      downloadChunk(
+                          requestUrl, requestHeaders, chunkFirstBytePos, chunkLastBytePos, buffer);
+                      return buffer;
+                    }
+                  });
+          executor.execute(chunk);
+          pendingChunks.add(chunk);
+          nextBytePos = chunkLastBytePos + 1;
+        }
+        ChunkTask chunk = pendingChunks.peek();
+        if (chunk == null) {
+          break;
+        }
+        ByteArrayOutputStream buffer = getChunk(chunk);
+        pendingChunks.remove();
+        if (buffer != null) {
+          buffer.writeTo(outputStream);
+        }
+        if (chunk.lastBytePos < lastRequiredBytePos) {
+          bytesDownloaded = chunk.lastBytePos + 1;
+          updateStateAndNotifyListener(DownloadState.MEDIA_IN_PROGRESS);
+          saveSession(outputStream);
+        }
+      }
+    } finally {
+      if (!pendingChunks.isEmpty()) {
+        // stop the running chunks from writing and the queued ones from starting, and wait for the
+        // running ones so that none of them writes after the download returned
+        cancelled.set(true);
+        for (ChunkTask chunk : pendingChunks) {
+          chunk.cancelOrAwait();
+        }
+      }
+      if (ownExecutor != null) {
+        ownExecutor.shutdown();
+      }
+    }
+    if (fileChannel != null) {
+      fileChannel.position(firstPosition + lastRequiredBytePos + 1 - firstBytePos);
+    }
+  }
+
+  /** Waits for the given chunk and returns its buffer or {@code null} if it was written already. */
+  private static ByteArrayOutputStream getChunk(ChunkTask chunk) throws IOException {
+    try {
+      return chunk.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while downloading media");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * Downloads the given range of the media into the output stream, checking that the server sent
+   * exactly that range.
+   *
+   * <p>This method is called concurrently in parallel mode.
+   *
+   * @param requestUrl request URL where the download requests will be sent
+   * @param requestHeaders request headers or {@code null} to ignore
+   * @param firstBytePos first byte position of the range
+   * @param lastBytePos last byte position of the range
+   * @param outputStream destination output stream
+   */
+  private void downloadChunk(
+      GenericUrl requestUrl,
+      HttpHeaders requestHeaders,
+      long firstBytePos,
+      long lastBytePos,
+      OutputStream outputStream)
+      throws IOException {
+    HttpRequest request = requestFactory.buildGetRequest(requestUrl.clone());
+    if (requestHeaders != null) {
+      request.getHeaders().putAll(requestHeaders);
+    }
+    request.getHeaders().setRange("bytes=" + firstBytePos + "-" + lastBytePos);
+    if (sessionStore != null) {
+      request.getHeaders().setIfMatch(eTag);
+    }
+    HttpResponse response = request.execute();
+    try {
+      checkValidators(response);
+      String contentRange = response.getHeaders().getContentRange();
+      if (contentRange == null
+          || !contentRange.startsWith("bytes " + firstBytePos + "-")
+          || getNextByteIndex(contentRange) != lastBytePos + 1) {
+        throw new IOException(
+            "Unexpected Content-Range "
+                + contentRange
+                + " for range "
+                + firstBytePos
+                + "-"
+                + lastBytePos);
+      }
+      long bytesCopied = copy(response.getContent(), outputStream);
+      if (bytesCopied != lastBytePos - firstBytePos + 1) {
+        throw new IOException(
+            "Received " + bytesCopied + " bytes for range " + firstBytePos + "-" + lastBytePos);
+      }
+    } finally {
+      response.disconnect();
+    }
+  }
+
+  /**
+   * Checks that the given response to a range request starts at {@link #bytesDownloaded}, so that
+   * its content neither duplicates nor skips bytes, for example because the server ignored the
+   * {@code Range} header and sent the whole media.
+   *
+   * @param response HTTP response of a range request from {@link #bytesDownloaded}
+   */
+  private void checkRangeStart(HttpResponse response) throws IOException {
+    String contentRange = response.getHeaders().getContentRange();
+    if (contentRange == null
+        ? bytesDownloaded != 0
+        : !contentRange.startsWith("bytes " + bytesDownloaded + "-")) {
+      throw new UnexpectedRangeException(
+          "Unexpected Content-Range " + contentRange + " for range from " + bytesDownloaded);
+    }
+  }
+
+  /**
+   * Checks that the ETag, the generation and the length of the media in the given response match
+   * the ones known so far, if the download is checkpointed in a session store.
+   *
+   * @param response HTTP response of a chunk
+   * @throws IOException if the media has changed
+   */
+  private void checkValidators(HttpResponse response) throws IOException {
+    if (sessionStore == null) {
+      return;
+    }
+    String responseETag = response.getHeaders().getETag();
+    String responseGeneration = response.getHeaders().getFirstHeaderStringValue(GENERATION_HEADER);
+    String contentRange = response.getHeaders().getContentRange();
+    if (eTag != null && responseETag != null && !eTag.equals(responseETag)
+        || generation != null
+            && responseGeneration != null
+            && !generation.equals(responseGeneration)
+        || mediaContentLength != 0
+            && contentRange != null
+            && mediaContentLength
+                != Long.parseLong(contentRange.substring(contentRange.indexOf('/') + 1))) {
+      throw new MediaChangedException(
+          "Media changed during download: ETag "
+              + responseETag
+              + ", generation "
+              + responseGeneration
+              + " and Content-Range "
+              + contentRange);
+    }
+  }
+
+  /**
+   * Returns whether the given exception reports that the media changed since the download started.
+   */
+  private static boolean isMediaChanged(IOException e) {
+    return e instanceof MediaChangedException
+        || e instanceof HttpResponseException
+            && ((HttpResponseException) e).getStatusCode()
+                == HttpStatusCodes.STATUS_CODE_PRECONDITION_FAILED;
+  }
+
+  /**
+   * Checkpoints the progress of the download in the session store, if any, after flushing the
+   * output stream so that the checkpointed bytes are not left in a buffer.
+   *
+   * @param outputStream destination output stream
+   */
+  private void saveSession(OutputStream outputStream) throws IOException {
+    if (sessionStore == null) {
+      return;
+    }
+    outputStream.flush();
+    sessionStore.set(
+        sessionKey,
+        new MediaDownloadSession()
+            .setBytesDownloaded(bytesDownloaded)
+            .setMediaContentLength(mediaContentLength)
+            .setETag(eTag)
+            .setGeneration(generation));
+  }
+
+  /** Exception thrown when the media changed since the download started. */
+  private static final class MediaChangedException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    MediaChangedException(String message) {
+      super(message);
+    }
+  }
+
+  /** Exception thrown when the server did not send the requested range. */
+  private static final class UnexpectedRangeException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    UnexpectedRangeException(String message) {
+      super(message);
+    }
+  }
+
+  /**
+   * Observer of the media bytes as they are received, which is called concurrently by the chunks of
+   * a parallel download.
+   */
+  interface ByteObserver {
+
+    /**
+     * Called with the number of bytes received before they are written to the destination.
+     *
+     * @param count number of bytes received
+     * @throws IOException to fail the download
+     */
+    void bytesReceived(int count) throws IOException;
+  }
+
+  /** Download of a chunk in parallel mode. */
+  private static final class ChunkTask extends FutureTask<ByteArrayOutputStream> {
+
+    /** Last byte position of the chunk. */
+    final long lastBytePos;
+
+    /** Whether the chunk has been started, or cancelled before it started. */
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    /** Latch released when the chunk that started has finished running. */
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    ChunkTask(long lastBytePos, Callable<ByteArrayOutputStream> callable) {
+      super(callable);
+      this.lastBytePos = lastBytePos;
+    }
+
+    @Override
+    public void run() {
+      if (started.compareAndSet(false, true)) {
+        try {
+          super.run();
+        } finally {
+          finished.countDown();
+        }
+      }
+    }
+
+    /**
+     * Cancels the chunk if it has not started yet, or otherwise waits for it to finish, ignoring
+     * its result.
+     */
+    void cancelOrAwait() {
+      if (started.compareAndSet(false, true)) {
+        cancel(false);
+      } else {
+        Uninterruptibles.awaitUninterruptibly(finished);
+      }
+    }
+  }
+
+  /**
+   * Output stream that writes to a file channel with positional writes, which neither use nor
+   * change the position of the channel, until the download is cancelled.
+   */
+  private static final class PositionalOutputStream extends OutputStream {
+
+    private final FileChannel fileChannel;
+    private final AtomicBoolean cancelled;
+    private long position;
+
+    PositionalOutputStream(FileChannel fileChannel, long position, AtomicBoolean cancelled) {
+      this.fileChannel = fileChannel;
+      this.position = position;
+      this.cancelled = cancelled;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (cancelled.get()) {
+        throw new IOException("media download was cancelled");
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+      while (buffer.hasRemaining()) {
+        position += fileChannel.write(buffer, position);
+      }
     }
   }
 
@@ -214,13 +974,18 @@ public final class MediaHttpDownloader {
    * @param requestUrl request URL where the download requests will be sent
    * @param requestHeaders request headers or {@code null} to ignore
    * @param outputStream destination output stream
+   * @param fileChannel file channel written by {@code outputStream} or {@code null} for none
+   * @param checkRange whether to check that the response starts at {@link #bytesDownloaded} before
+   *     writing its content
    * @return HTTP response
    */
   private HttpResponse executeCurrentRequest(
       long currentRequestLastBytePos,
       GenericUrl requestUrl,
       HttpHeaders requestHeaders,
-      OutputStream outputStream)
+      OutputStream outputStream,
+      FileChannel fileChannel,
+      boolean checkRange)
       throws IOException {
     // prepare the GET request
     HttpRequest request = requestFactory.buildGetRequest(requestUrl);
@@ -237,16 +1002,142 @@ public final class MediaHttpDownloader {
       }
       request.getHeaders().setRange(rangeHeader.toString());
     }
+    if (sessionStore != null && !directDownloadEnabled && eTag != null) {
+      // fail with 412 Precondition Failed rather than mix the bytes of two versions of the media
+      request.getHeaders().setIfMatch(eTag);
+    }
     // execute the request and copy into the output stream
     HttpResponse response = request.execute();
+    CountingOutputStream countingStream = new CountingOutputStream(outputStream);
     try {
-      ByteStreams.copy(response.getContent(), outputStream);
+      if (checkRange) {
+        checkRangeStart(response);
+      }
+      if (!transformersStarted) {
+        for (MediaDownloadTransformer transformer : transformers) {
+          transformer.start(response);
+        }
+        transformersStarted = true;
+      }
+      if (preallocationEnabled && fileChannel != null) {
+        preallocate(fileChannel, response, currentRequestLastBytePos);
+      }
+      copy(response.getContent(), countingStream);
+    } catch (IOException e) {
+      // count the bytes written before the failure, so that the download resumes after them
+      bytesDownloaded += countingStream.getCount();
+      throw e;
     } finally {
       response.disconnect();
     }
     return response;
   }
 
+  /** Finishes the transformers and notifies the progress listener that the download is complete. */
+  private void completeDownload() throws IOException {
+    for (MediaDownloadTransformer transformer : transformers) {
+      transformer.finish();
+    }
+    updateStateAndNotifyListener(DownloadState.MEDIA_COMPLETE);
+  }
+
+  /**
+   * Returns whether the request that failed with the given exception should be retried, after
+   * waiting for the back-off period.
+   *
+   * <p>HTTP error responses are left to the unsuccessful response handler of the request, so only
+   * I/O exceptions, most likely from the response content, are retried.
+   */
+  private boolean shouldRetry(IOException e) throws IOException {
+    if (retryBackOff == null
+        || e instanceof HttpResponseException
+        || e instanceof MediaChangedException
+        || e instanceof UnexpectedRangeException
+        || e instanceof InterruptedIOException) {
+      return false;
+    }
+    try {
+      return BackOffUtils.next(sleeper, retryBackOff);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /** Returns the lower bound of the adaptive chunk size. */
+  private int getMinimumAdaptiveChunkSize() {
+    return Math.min(chunkSize, MediaHttpUploader.MINIMUM_CHUNK_SIZE);
+  }
+
+  /**
+   * Sets the size of the next chunk in adaptive chunk size mode so that its request would take
+   * about {@link #ADAPTIVE_CHUNK_DURATION_NANOS} at the throughput of the last chunk, growing at
+   * most twice as large as the last chunk.
+   *
+   * @param bytes number of bytes requested by the last chunk
+   * @param nanos duration of the request of the last chunk
+   */
+  private void adaptChunkSize(long bytes, long nanos) {
+    double targetSize =
+        nanos <= 0 ? Double.MAX_VALUE : (double) bytes * ADAPTIVE_CHUNK_DURATION_NANOS / nanos;
+    double size = Math.min(targetSize, 2.0 * adaptiveChunkSize);
+    adaptiveChunkSize =
+        (int) Math.max(getMinimumAdaptiveChunkSize(), Math.min(maximumChunkSize, size));
+  }
+
+  /**
+   * Extends the file to hold all the media bytes that remain to be downloaded, as far as they are
+   * known from the given response, so that the file system can allocate them up front.
+   *
+   * @param fileChannel destination file channel positioned at the next byte
+   * @param response HTTP response whose content is about to be written at the channel position
+   * @param requestLastBytePos last byte position requested or {@code -1} for none
+   */
+  private void preallocate(FileChannel fileChannel, HttpResponse response, long requestLastBytePos)
+      throws IOException {
+    long remainingBytes;
+    String contentRange = response.getHeaders().getContentRange();
+    if (directDownloadEnabled || contentRange == null) {
+      Long contentLength = response.getHeaders().getContentLength();
+      if (contentLength == null) {
+        return;
+      }
+      remainingBytes = contentLength;
+    } else {
+      long lastRequiredBytePos =
+          Long.parseLong(contentRange.substring(contentRange.indexOf('/') + 1)) - 1;
+      if (lastBytePos != -1) {
+        lastRequiredBytePos = Math.min(lastBytePos, lastRequiredBytePos);
+      }
+      remainingBytes = lastRequiredBytePos + 1 - bytesDownloaded;
+    }
+    long size = fileChannel.position() + remainingBytes;
+    if (remainingBytes > 0 && fileChannel.size() < size) {
+      // writing the last byte extends the file, which later writes fill in
+      fileChannel.write(ByteBuffer.allocate(1), size - 1);
+    }
+  }
+
+  /**
+   * Copies the given input stream into the given output stream with a buffer of {@link
+   * #COPY_BUFFER_SIZE} bytes.
+   *
+   * @return number of bytes copied
+   */
+  private long copy(InputStream inputStream, OutputStream outputStream) throws IOException {
+    byte[] buffer = new byte[COPY_BUFFER_SIZE];
+    long total = 0;
+    int read;
+    while ((read = inputStream.read(buffer)) != -1) {
+      if (byteObserver != null) {
+        byteObserver.bytesReceived(read);
+      }
+      outputStream.write(buffer, 0, read);
+      total += read;
+    }
+    return total;
+  }
+
   /**
    * Returns the next byte index identifying data that the server has not yet sent out, obtained
    * from the HTTP Content-Range header (E.g a header of "Content-Range: 0-55/1000" would cause 56
@@ -364,14 +1255,78 @@ public final class MediaHttpDownloader {
    * Sets the maximum size of individual chunks that will get downloaded by single HTTP requests.
    * The default value is {@link #MAXIMUM_CHUNK_SIZE}.
    *
-   * <p>The maximum allowable value is {@link #MAXIMUM_CHUNK_SIZE}.
+   * <p>The maximum allowable value is {@link #getMaximumChunkSize}, which defaults to {@link
+   * #MAXIMUM_CHUNK_SIZE}. In {@link #setAdaptiveChunkSizeEnabled adaptive chunk size mode} this is
+   * the size of the first chunk.
    */
   public MediaHttpDownloader setChunkSize(int chunkSize) {
-    Preconditions.checkArgument(chunkSize > 0 && chunkSize <= MAXIMUM_CHUNK_SIZE);
+    Preconditions.checkArgument(chunkSize > 0 && chunkSize <= maximumChunkSize);
     this.chunkSize = chunkSize;
     return this;
   }
 
+  /**
+   * {@link Beta} <br>
+   * Sets the maximum allowable value of the {@link #setChunkSize chunk size} and the upper bound of
+   * the adaptive chunk size. The default value is {@link #MAXIMUM_CHUNK_SIZE}.
+   *
+   * <p>A value above {@link #MAXIMUM_CHUNK_SIZE} suits servers that are not limited by the App
+   * Engine request size. The chunk size is lowered to the given value if it is larger.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public MediaHttpDownloader setMaximumChunkSize(int maximumChunkSize) {
+    Preconditions.checkArgument(maximumChunkSize > 0);
+    this.maximumChunkSize = maximumChunkSize;
+    chunkSize = Math.min(chunkSize, maximumChunkSize);
+    return this;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Returns the maximum allowable value of the chunk size. The default value is {@link
+   * #MAXIMUM_CHUNK_SIZE}.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public int getMaximumChunkSize() {
+    return maximumChunkSize;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Sets whether the size of the chunks of a sequential chunked download is tuned from the observed
+   * throughput and errors. Defaults to {@code false}.
+   *
+   * <p>The first chunk has the {@link #setChunkSize chunk size}. Each following chunk is sized to
+   * take about five seconds at the throughput of the previous one, at most twice as large as it and
+   * at most the {@link #setMaximumChunkSize maximum chunk size}. A chunk that fails halves the size
+   * of the next one. Chunks are not made smaller than 256KB or the chunk size if it is smaller.
+   *
+   * <p>Parallel downloads use the chunk size for all the chunks.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public MediaHttpDownloader setAdaptiveChunkSizeEnabled(boolean adaptiveChunkSizeEnabled) {
+    this.adaptiveChunkSizeEnabled = adaptiveChunkSizeEnabled;
+    return this;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Returns whether the size of the chunks of a sequential chunked download is tuned from the
+   * observed throughput and errors. Defaults to {@code false}.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public boolean isAdaptiveChunkSizeEnabled() {
+    return adaptiveChunkSizeEnabled;
+  }
+
   /**
    * Returns the maximum size of individual chunks that will get downloaded by single HTTP requests.
    * The default value is {@link #MAXIMUM_CHUNK_SIZE}.
@@ -380,9 +1335,248 @@ public final class MediaHttpDownloader {
     return chunkSize;
   }
 
+  /**
+   * {@link Beta} <br>
+   * Adds a transformer of the media bytes, which is applied after the transformers added before.
+   *
+   * <p>For example, a {@link MediaDownloadChecksumValidator} added before a {@link
+   * MediaDownloadGzipDecoder} verifies the compressed bytes, and the destination receives the
+   * decompressed bytes. With transformers, a {@link FileChannel} destination is written
+   * sequentially: parallel downloads buffer the chunks in memory and preallocation is disabled.
+   *
+   * <p>Transformers receive the media from its first byte, so they cannot be used with a {@link
+   * #setSessionStore session store} or a first byte position set with {@link #setBytesDownloaded}
+   * or {@link #setContentRange}, and the download fails with an {@link IllegalStateException}.
+   *
+   * @param transformer transformer of the media bytes, which must not be used by another download
+   * @since 2.9
+   */
+  @Beta
+  public MediaHttpDownloader addTransformer(MediaDownloadTransformer transformer) {
+    transformers.add(Preconditions.checkNotNull(transformer));
+    return this;
+  }
+
+  /**
+   * Sets the observer of the media bytes as they are received or {@code null} for none.
+   *
+   * <p>Unlike a transformer, the observer does not change how the media is written to the
+   * destination, so a parallel download into a file channel still writes the chunks at their
+   * positions.
+   */
+  void setByteObserver(ByteObserver byteObserver) {
+    this.byteObserver = byteObserver;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Returns an unmodifiable view of the transformers of the media bytes in the order they are
+   * applied.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public List<MediaDownloadTransformer> getTransformers() {
+    return Collections.unmodifiableList(transformers);
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Sets the back-off policy of the automatic retries of a download request that failed with an I/O
+   * exception, typically because the connection dropped while the response content was copied, or
+   * {@code null} for no retries, which is the default.
+   *
+   * <p>The bytes copied before the failure are kept, and the retry requests the range from the
+   * first byte that was not written, so a transient failure only costs the lost bytes. The back-off
+   * policy is reset after each chunk, so it bounds the retries of each chunk. HTTP error responses
+   * are not retried by this policy, see {@link HttpBackOffUnsuccessfulResponseHandler} instead.
+   * Parallel downloads only retry with the handlers of the requests.
+   *
+   * <p>Sample usage:
+   *
+   * <pre>{@code
+   * downloader.setRetryBackOff(new ExponentialBackOff());
+   * }</pre>
+   *
+   * @since 2.9
+   */
+  @Beta
+  public MediaHttpDownloader setRetryBackOff(BackOff retryBackOff) {
+    this.retryBackOff = retryBackOff;
+    return this;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Returns the back-off policy of the automatic retries of a download request that failed with an
+   * I/O exception or {@code null} for no retries.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public BackOff getRetryBackOff() {
+    return retryBackOff;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Sets whether a destination {@link FileChannel} or file is extended to the length of the media
+   * once it is known from the first response, before the media is written. Defaults to {@code
+   * false}.
+   *
+   * <p>This lets the file system allocate the file up front, which reduces fragmentation, and makes
+   * a lack of disk space fail the download early on file systems that do not create sparse files.
+   * Note that the size of the file then no longer tells how much was downloaded.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public MediaHttpDownloader setPreallocationEnabled(boolean preallocationEnabled) {
+    this.preallocationEnabled = preallocationEnabled;
+    return this;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Returns whether a destination {@link FileChannel} or file is extended to the length of the
+   * media once it is known. Defaults to {@code false}.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public boolean isPreallocationEnabled() {
+    return preallocationEnabled;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Sets the data store where the progress of a chunked download is checkpointed after each chunk
+   * and the key of the download session in it, or {@code null} for none, which is the default.
+   *
+   * <p>If the store holds a session for the key when the download starts, the download resumes from
+   * the checkpointed position, which overrides the one given to {@link #setBytesDownloaded} or
+   * {@link #setContentRange}. The destination must then hold the checkpointed bytes and continue
+   * after them, which {@link #download(GenericUrl, Path)} takes care of. For other destinations,
+   * for example:
+   *
+   * <pre>{@code
+   * DataStore<MediaDownloadSession> store = MediaDownloadSession.getDefaultDataStore(factory);
+   * MediaDownloadSession session = store.get(key);
+   * long offset = session == null ? 0 : session.getBytesDownloaded();
+   * try (FileChannel channel = FileChannel.open(path, CREATE, WRITE)) {
+   *   channel.truncate(offset).position(offset);
+   *   downloader.setSessionStore(store, key).download(url, null, channel);
+   * }
+   * }</pre>
+   *
+   * <p>Once the ETag of the media is known every chunk request sends it in an {@code If-Match}
+   * header, and the ETag, the {@code x-goog-generation} header and the media content length of
+   * every response are checked against the checkpointed ones. If the media changed, the download
+   * fails and the session is deleted so that the next download starts over. The session is also
+   * deleted when the download completes. Direct downloads are not checkpointed.
+   *
+   * <p>A chunked download with a session store cannot use {@link #addTransformer transformers}.
+   *
+   * @param sessionStore data store of the download sessions or {@code null} for none
+   * @param sessionKey key of the download session in the data store, for example a name of the
+   *     destination file
+   * @since 2.9
+   */
+  @Beta
+  public MediaHttpDownloader setSessionStore(
+      DataStore<MediaDownloadSession> sessionStore, String sessionKey) {
+    Preconditions.checkArgument(sessionStore == null || sessionKey != null);
+    this.sessionStore = sessionStore;
+    this.sessionKey = sessionKey;
+    return this;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Returns the data store where the progress of a chunked download is checkpointed or {@code null}
+   * for none.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public DataStore<MediaDownloadSession> getSessionStore() {
+    return sessionStore;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Returns the key of the download session in the {@link #getSessionStore session store}.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public String getSessionKey() {
+    return sessionKey;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Sets the maximum number of chunks downloaded concurrently by a chunked download. The default
+   * value is {@code 1}, which downloads the chunks sequentially.
+   *
+   * <p>With a value greater than {@code 1}, the first chunk is downloaded alone to learn the media
+   * content length and the others with up to this number of concurrent range requests. When
+   * downloading to an {@link OutputStream} up to this number of chunks are buffered in memory, so
+   * consider a smaller {@link #setChunkSize chunk size}. This has no effect on direct downloads.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public MediaHttpDownloader setParallelism(int parallelism) {
+    Preconditions.checkArgument(parallelism > 0);
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Returns the maximum number of chunks downloaded concurrently by a chunked download. The default
+   * value is {@code 1}.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Sets the executor that downloads the chunks in parallel mode or {@code null} to use a new
+   * thread pool for each download, which is the default.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public MediaHttpDownloader setExecutor(Executor executor) {
+    this.executor = executor;
+    return this;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Returns the executor that downloads the chunks in parallel mode or {@code null} to use a new
+   * thread pool for each download.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public Executor getExecutor() {
+    return executor;
+  }
+
   /**
    * Gets the total number of bytes downloaded by this downloader.
    *
+   * <p>After a chunk failed mid-way this includes the bytes of the chunk written to the destination
+   * before the failure, so that {@link #setBytesDownloaded} can resume the download right after
+   * them.
+   *
    * @return the number of bytes downloaded
    */
   public long getNumBytesDownloaded() {
@@ -0,0 +1,517 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.util.Beta;
+import com.google.api.client.util.Preconditions;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link Beta} <br>
+ * Read-only seekable byte channel over media downloaded with ranged HTTP requests.
+ *
+ * <p>Unlike {@link MediaHttpDownloader}, which pushes the whole media to a destination, this
+ * channel lets the caller pull the bytes it needs: it downloads the media in ranges of {@link
+ * #setRangeSize range size} bytes aligned on multiples of it, and only the ranges that are read.
+ * This suits random access readers, for example of the footer of a Parquet or ORC file. While the
+ * caller reads sequentially, the next {@link #setReadAhead read-ahead} ranges are downloaded in the
+ * background. A seek stops the read-ahead until the reads are sequential again. At most {@code
+ * readAhead + 1} ranges are kept in memory.
+ *
+ * <p>Use {@link java.nio.channels.Channels#newInputStream} for an input stream over the channel,
+ * whose {@code skip} method seeks.
+ *
+ * <p>Sample usage:
+ *
+ * <pre>{@code
+ * MediaHttpReadChannel channel =
+ *     new MediaHttpReadChannel(transport, credential, new GenericUrl(mediaUrl)).setReadAhead(2);
+ * try {
+ *   ByteBuffer footer = ByteBuffer.allocate(8);
+ *   channel.position(channel.size() - 8);
+ *   while (footer.hasRemaining() && channel.read(footer) != -1) {}
+ * } finally {
+ *   channel.close();
+ * }
+ * }</pre>
+ *
+ * <p>The media is expected not to change while it is read: the ETag of the first response is sent
+ * in an {@code If-Match} header by the following requests, and a range whose ETag differs fails the
+ * read.
+ *
+ * <p>Implementation is thread-safe.
+ *
+ * @since 2.9
+ */
+@Beta
+public final class MediaHttpReadChannel implements SeekableByteChannel {
+
+  /** Default size of the ranges, 2MB. */
+  public static final int DEFAULT_RANGE_SIZE = 2 * MediaHttpUploader.MB;
+
+  /** Status code of a range that starts after the end of the media. */
+  private static final int STATUS_CODE_RANGE_NOT_SATISFIABLE = 416;
+
+  /**
+   * Lock that guards the state of the channel. A lock is used rather than {@code synchronized} so
+   * that a virtual thread that downloads a range while holding it does not pin its carrier thread.
+   */
+  private final Lock lock = new ReentrantLock();
+
+  /** The request factory for connections to the server. */
+  private final HttpRequestFactory requestFactory;
+
+  /** Request URL of the media. */
+  private final GenericUrl requestUrl;
+
+  /** Request headers or {@code null} for none. */
+  private HttpHeaders requestHeaders;
+
+  /** Size of the ranges. */
+  private int rangeSize = DEFAULT_RANGE_SIZE;
+
+  /** Number of ranges downloaded ahead of the range being read sequentially. */
+  private int readAhead = 1;
+
+  /** Executor that downloads the ranges ahead or {@code null} to use a thread pool. */
+  private Executor executor;
+
+  /** Thread pool owned by the channel or {@code null} for none. */
+  private ExecutorService ownExecutor;
+
+  /** Downloads of the ranges in memory by range index. */
+  private final TreeMap<Long, RangeTask> ranges = new TreeMap<Long, RangeTask>();
+
+  /** Current position. */
+  private long position;
+
+  /** Position after the last byte read, to tell sequential reads. */
+  private long lastReadEnd;
+
+  /** Media length or {@code -1} if not known yet. */
+  private volatile long size = -1;
+
+  /** ETag of the media or {@code null} if not known. */
+  private final AtomicReference<String> eTag = new AtomicReference<String>();
+
+  private boolean open = true;
+
+  /**
+   * @param transport the transport to use for requests
+   * @param httpRequestInitializer the initializer to use when creating an {@link HttpRequest} or
+   *     {@code null} for none
+   * @param requestUrl request URL of the media
+   */
+  public MediaHttpReadChannel(
+      HttpTransport transport,
+      HttpRequestInitializer httpRequestInitializer,
+      GenericUrl requestUrl) {
+    this.requestFactory =
+        httpRequestInitializer == null
+            ? transport.createRequestFactory()
+            : transport.createRequestFactory(httpRequestInitializer);
+    this.requestUrl = requestUrl.clone();
+    this.requestUrl.put("alt", "media");
+  }
+
+  /** Returns the request headers or {@code null} for none. */
+  public HttpHeaders getRequestHeaders() {
+    lock.lock();
+    try {
+      return requestHeaders;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Sets the request headers or {@code null} for none. */
+  public MediaHttpReadChannel setRequestHeaders(HttpHeaders requestHeaders) {
+    lock.lock();
+    try {
+      this.requestHeaders = requestHeaders;
+      return this;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns the size of the ranges. The default value is {@link #DEFAULT_RANGE_SIZE}. */
+  public int getRangeSize() {
+    lock.lock();
+    try {
+      return rangeSize;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Sets the size of the ranges, which must be set before the first read. The default value is
+   * {@link #DEFAULT_RANGE_SIZE}.
+   *
+   * <p>Smaller ranges download less of the media for random reads but take more requests for
+   * sequential reads.
+   */
+  public MediaHttpReadChannel setRangeSize(int rangeSize) {
+    lock.lock();
+    try {
+      Preconditions.checkArgument(rangeSize > 0);
+      Preconditions.checkState(ranges.isEmpty(), "ranges already downloaded");
+      this.rangeSize = rangeSize;
+      return this;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of ranges downloaded ahead of sequential reads. The default is {@code 1}.
+   */
+  public int getReadAhead() {
+    lock.lock();
+    try {
+      return readAhead;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Sets the number of ranges downloaded in the background ahead of the range being read
+   * sequentially, or {@code 0} to only download the range being read. The default value is {@code
+   * 1}.
+   */
+  public MediaHttpReadChannel setReadAhead(int readAhead) {
+    lock.lock();
+    try {
+      Preconditions.checkArgument(readAhead >= 0);
+      this.readAhead = readAhead;
+      return this;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the executor that downloads the ranges ahead or {@code null} to use a thread pool owned
+   * by the channel.
+   */
+  public Executor getExecutor() {
+    lock.lock();
+    try {
+      return executor;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Sets the executor that downloads the ranges ahead or {@code null} to use a thread pool owned by
+   * the channel, which is the default. The range being read is downloaded by the reading thread if
+   * it is not downloaded ahead.
+   */
+  public MediaHttpReadChannel setExecutor(Executor executor) {
+    lock.lock();
+    try {
+      this.executor = executor;
+      return this;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int read(ByteBuffer dst) throws IOException {
+    lock.lock();
+    try {
+      checkOpen();
+      if (size != -1 && position >= size) {
+        return -1;
+      }
+      long index = position / rangeSize;
+      boolean sequential = position == lastReadEnd;
+      byte[] range = getRange(index, sequential);
+      int offset = (int) (position - index * rangeSize);
+      if (offset >= range.length) {
+        return -1;
+      }
+      int length = Math.min(dst.remaining(), range.length - offset);
+      dst.put(range, offset, length);
+      position += length;
+      lastReadEnd = position;
+      return length;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int write(ByteBuffer src) {
+    throw new NonWritableChannelException();
+  }
+
+  public long position() throws IOException {
+    lock.lock();
+    try {
+      checkOpen();
+      return position;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public MediaHttpReadChannel position(long newPosition) throws IOException {
+    lock.lock();
+    try {
+      Preconditions.checkArgument(newPosition >= 0);
+      checkOpen();
+      position = newPosition;
+      return this;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the media length, which is requested with a single byte range if no range has been
+   * downloaded yet.
+   */
+  public long size() throws IOException {
+    lock.lock();
+    try {
+      checkOpen();
+      if (size == -1) {
+        downloadRange(0, 0, requestHeaders);
+        if (size == -1) {
+          throw new IOException("Unknown media length");
+        }
+      }
+      return size;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public SeekableByteChannel truncate(long size) {
+    throw new NonWritableChannelException();
+  }
+
+  public boolean isOpen() {
+    lock.lock();
+    try {
+      return open;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Closes the channel and cancels the downloads of the ranges ahead. */
+  public void close() {
+    lock.lock();
+    try {
+      if (!open) {
+        return;
+      }
+      open = false;
+      for (RangeTask range : ranges.values()) {
+        range.cancel(true);
+      }
+      ranges.clear();
+      if (ownExecutor != null) {
+        ownExecutor.shutdownNow();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void checkOpen() throws ClosedChannelException {
+    if (!open) {
+      throw new ClosedChannelException();
+    }
+  }
+
+  /**
+   * Returns the bytes of the range of the given index, waiting for its download, and starts the
+   * downloads of the ranges ahead if the read is sequential.
+   */
+  private byte[] getRange(long index, boolean sequential) throws IOException {
+    // keep the ranges that may still be read sequentially
+    Iterator<Map.Entry<Long, RangeTask>> iterator = ranges.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Long, RangeTask> entry = iterator.next();
+      if (entry.getKey() < index || entry.getKey() > index + readAhead) {
+        entry.getValue().cancel(true);
+        iterator.remove();
+      }
+    }
+    RangeTask range = ranges.get(index);
+    if (range == null) {
+      range = new RangeTask(index * rangeSize, requestHeaders);
+      ranges.put(index, range);
+    }
+    if (sequential) {
+      for (long i = index + 1; i <= index + readAhead; i++) {
+        if ((size == -1 || i * rangeSize < size) && !ranges.containsKey(i)) {
+          RangeTask rangeAhead = new RangeTask(i * rangeSize, requestHeaders);
+          ranges.put(i, rangeAhead);
+          getExecutorForReadAhead().execute(rangeAhead);
+        }
+      }
+    }
+    // download the range in this thread if it did not start in the background
+    range.run();
+    try {
+      return range.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while downloading media");
+    } catch (ExecutionException e) {
+      // retry the range at the next read
+      ranges.remove(index);
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  private Executor getExecutorForReadAhead() {
+    if (executor != null) {
+      return executor;
+    }
+    if (ownExecutor == null) {
+      ownExecutor =
+          Executors.newCachedThreadPool(
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("MediaHttpReadChannel-%d")
+                  .build());
+    }
+    return ownExecutor;
+  }
+
+  /**
+   * Downloads the given range of the media and learns the media length and ETag from the response.
+   *
+   * <p>This method is called concurrently by the downloads of the ranges ahead, so it must not lock
+   * the channel, which the reading thread holds while it waits for a range.
+   *
+   * @param firstBytePos first byte position of the range
+   * @param lastBytePos last byte position of the range
+   * @param headers request headers or {@code null} for none
+   * @return bytes of the range, which are fewer than requested at the end of the media
+   */
+  private byte[] downloadRange(long firstBytePos, long lastBytePos, HttpHeaders headers)
+      throws IOException {
+    HttpRequest request = requestFactory.buildGetRequest(requestUrl.clone());
+    if (headers != null) {
+      request.getHeaders().putAll(headers);
+    }
+    request.getHeaders().setRange("bytes=" + firstBytePos + "-" + lastBytePos);
+    request.getHeaders().setIfMatch(eTag.get());
+    HttpResponse response;
+    try {
+      response = request.execute();
+    } catch (HttpResponseException e) {
+      if (e.getStatusCode() == STATUS_CODE_RANGE_NOT_SATISFIABLE) {
+        // the range starts after the end of the media
+        setSize(e.getHeaders().getContentRange());
+        return new byte[0];
+      }
+      throw e;
+    }
+    try {
+      String contentRange = response.getHeaders().getContentRange();
+      if (contentRange == null || !contentRange.startsWith("bytes " + firstBytePos + "-")) {
+        throw new IOException(
+            "Unexpected Content-Range "
+                + contentRange
+                + " for range "
+                + firstBytePos
+                + "-"
+                + lastBytePos);
+      }
+      String responseETag = response.getHeaders().getETag();
+      if (responseETag != null
+          && !eTag.compareAndSet(null, responseETag)
+          && !responseETag.equals(eTag.get())) {
+        throw new IOException("Media changed while reading: ETag " + responseETag);
+      }
+      setSize(contentRange);
+      return ByteStreams.toByteArray(response.getContent());
+    } finally {
+      response.disconnect();
+    }
+  }
+
+  /** Sets the media length from the given Content-Range header, if any. */
+  private void setSize(String contentRange) {
+    if (contentRange == null) {
+      return;
+    }
+    String length = contentRange.substring(contentRange.indexOf('/') + 1);
+    if (!length.equals("*")) {
+      size = Long.parseLong(length);
+    }
+  }
+
+  /** Download of a range. */
+  private final class RangeTask extends FutureTask<byte[]> {
+
+    RangeTask(final long firstBytePos, final HttpHeaders headers) {
+      super(
+          new Callable<byte[]>() {
+            final long lastBytePos = firstBytePos + rangeSize - 1;
+
+            public byte[] call() throws IOException {
+              return downloadRange(firstBytePos, lastBytePos, headers);
+            }
+          });
+    }
+  }
+}
@@ -15,9 +15,11 @@
 package com.google.api.client.googleapis.media;
 
 import com.google.api.client.googleapis.MethodOverride;
+import com.google.api.client.googleapis.media.MediaHttpUploaderEvent.RequestType;
+import com.google.api.client.googleapis.tracing.GoogleClientSpan;
 import com.google.api.client.http.AbstractInputStreamContent;
-import com.google.api.client.http.ByteArrayContent;
 import com.google.api.client.http.EmptyContent;
+import com.google.api.client.http.FileContent;
 import com.google.api.client.http.GZipEncoding;
 import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpBackOffIOExceptionHandler;
@@ -30,15 +32,12 @@ import com.google.api.client.http.HttpRequestFactory;
 import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.http.HttpResponse;
 import com.google.api.client.http.HttpTransport;
-import com.google.api.client.http.InputStreamContent;
 import com.google.api.client.http.MultipartContent;
 import com.google.api.client.util.Beta;
-import com.google.api.client.util.ByteStreams;
+import com.google.api.client.util.NanoClock;
 import com.google.api.client.util.Preconditions;
 import com.google.api.client.util.Sleeper;
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.Arrays;
 
 /**
@@ -46,12 +45,15 @@ import java.util.Arrays;
  * available <a
  * href='https://googleapis.github.io/google-api-java-client/media-upload.html'>here</a>.
  *
- * <p>For resumable uploads, when the media content length is known, if the provided {@link
- * InputStream} has {@link InputStream#markSupported} as {@code false} then it is wrapped in an
- * {@link BufferedInputStream} to support the {@link InputStream#mark} and {@link InputStream#reset}
- * methods required for handling server errors. If the media content length is unknown then each
- * chunk is stored temporarily in memory. This is required to determine when the last chunk is
- * reached.
+ * <p>For resumable uploads, the bytes of a chunk that the server did not receive are sent again
+ * with the next chunk without reading them again. A {@link FileContent} is read with positional
+ * reads, a {@link java.io.ByteArrayInputStream} is rewound by moving its position and each chunk of
+ * a {@link ByteBufferMediaContent} is assembled from slices of the offered buffers without copying
+ * them. Any other input stream is read into a buffer of one chunk, plus one byte which is required
+ * to determine when the last chunk is reached if the media content length is unknown.
+ *
+ * <p>The timings of every request, including retries, can be observed with {@link
+ * #setEventListener}.
  *
  * <p>See {@link #setDisableGZipContent(boolean)} for information on when content is gzipped and how
  * to control that behavior.
@@ -125,6 +127,12 @@ public final class MediaHttpUploader {
    */
   public static final int DEFAULT_CHUNK_SIZE = 10 * MB;
 
+  /** Method override of the requests, which is thread-safe and shared by all uploaders. */
+  private static final MethodOverride METHOD_OVERRIDE = new MethodOverride();
+
+  /** GZip encoding of the content, which is stateless and shared by all uploaders. */
+  private static final GZipEncoding GZIP_ENCODING = new GZipEncoding();
+
   /** The HTTP content of the media to be uploaded. */
   private final AbstractInputStreamContent mediaContent;
 
@@ -168,8 +176,8 @@ public final class MediaHttpUploader {
    */
   private HttpRequest currentRequest;
 
-  /** An Input stream of the HTTP media content or {@code null} before {@link #upload}. */
-  private InputStream contentInputStream;
+  /** Source of the chunks of a resumable media upload or {@code null} before {@link #upload}. */
+  private MediaChunkSource chunkSource;
 
   /**
    * Determines whether direct media upload is enabled or disabled. If value is set to {@code true}
@@ -182,6 +190,9 @@ public final class MediaHttpUploader {
   /** Progress listener to send progress notifications to or {@code null} for none. */
   private MediaHttpUploaderProgressListener progressListener;
 
+  /** Event listener to send the timings of the requests to or {@code null} for none. */
+  private MediaHttpUploaderEventListener eventListener;
+
   /**
    * The media content length is used in the "Content-Range" header. If we reached the end of the
    * stream, this variable will be set with the length of the stream. This value is used only in
@@ -202,17 +213,6 @@ public final class MediaHttpUploader {
    */
   private int chunkSize = DEFAULT_CHUNK_SIZE;
 
-  /**
-   * Used to cache a single byte when the media content length is unknown or {@code null} for none.
-   */
-  private Byte cachedByte;
-
-  /**
-   * The number of bytes the client had sent to the server so far or {@code 0} for none. It is used
-   * for resumable media upload when the media content length is not specified.
-   */
-  private long totalBytesClientSent;
-
   /**
    * The number of bytes of the current chunk which was sent to the server or {@code 0} for none.
    * This value equals to chunk size for each chunk the client send to the server, except for the
@@ -220,14 +220,6 @@ public final class MediaHttpUploader {
    */
   private int currentChunkLength;
 
-  /**
-   * The content buffer of the current request or {@code null} for none. It is used for resumable
-   * media upload when the media content length is not specified. It is instantiated for every
-   * request in {@link #buildContentChunk()} and is set to {@code null} when the request is
-   * completed in {@link #upload}.
-   */
-  private byte currentRequestContentBuffer[];
-
   /**
    * Whether to disable GZip compression of HTTP content.
    *
@@ -238,16 +230,16 @@ public final class MediaHttpUploader {
   /** Sleeper. */
   Sleeper sleeper = Sleeper.DEFAULT;
 
+  /** Nano clock used to time the requests for the event listener. */
+  NanoClock nanoClock = NanoClock.SYSTEM;
+
   /**
    * Construct the {@link MediaHttpUploader}.
    *
    * <p>The input stream received by calling {@link AbstractInputStreamContent#getInputStream} is
-   * closed when the upload process is successfully completed. For resumable uploads, when the media
-   * content length is known, if the input stream has {@link InputStream#markSupported} as {@code
-   * false} then it is wrapped in an {@link BufferedInputStream} to support the {@link
-   * InputStream#mark} and {@link InputStream#reset} methods required for handling server errors. If
-   * the media content length is unknown then each chunk is stored temporarily in memory. This is
-   * required to determine when the last chunk is reached.
+   * closed when the upload process is successfully completed. For resumable uploads, any input
+   * stream other than a {@link java.io.ByteArrayInputStream} is read into a buffer of one chunk to
+   * be able to send again the bytes the server did not receive.
    *
    * @param mediaContent The Input stream content of the media to be uploaded
    * @param transport The transport to use for requests
@@ -327,14 +319,21 @@ public final class MediaHttpUploader {
     HttpRequest request =
         requestFactory.buildRequest(initiationRequestMethod, initiationRequestUrl, content);
     request.getHeaders().putAll(initiationHeaders);
+    MediaUploadEventRecorder eventRecorder =
+        newEventRecorder(request, RequestType.DIRECT_UPLOAD, 0, 0);
     // We do not have to do anything special here if media content length is unspecified because
     // direct media upload works even when the media content length == -1.
-    HttpResponse response = executeCurrentRequest(request);
+    HttpResponse response =
+        executeCurrentRequest(request, RequestType.DIRECT_UPLOAD, eventRecorder);
     boolean responseProcessed = false;
     try {
       if (isMediaLengthKnown()) {
         totalBytesServerReceived = getMediaContentLength();
       }
+      if (eventRecorder != null) {
+        eventRecorder.completed(
+            response, response.isSuccessStatusCode() ? totalBytesServerReceived : 0);
+      }
       updateStateAndNotifyListener(UploadState.MEDIA_COMPLETE);
       responseProcessed = true;
     } finally {
@@ -365,19 +364,14 @@ public final class MediaHttpUploader {
       initialResponse.disconnect();
     }
 
-    // Convert media content into a byte stream to upload in chunks.
-    contentInputStream = mediaContent.getInputStream();
-    if (!contentInputStream.markSupported() && isMediaLengthKnown()) {
-      // If we know the media content length then wrap the stream into a Buffered input stream to
-      // support the {@link InputStream#mark} and {@link InputStream#reset} methods required for
-      // handling server errors.
-      contentInputStream = new BufferedInputStream(contentInputStream);
-    }
+    chunkSource = MediaChunkSource.create(mediaContent);
 
     HttpResponse response;
     // Upload the media content in chunks.
     while (true) {
+      long buildStartNanos = nanoClock.nanoTime();
       ContentChunk contentChunk = buildContentChunk();
+      long buildTimeNanos = nanoClock.nanoTime() - buildStartNanos;
       currentRequest = requestFactory.buildPutRequest(uploadUrl, null);
       currentRequest.setContent(contentChunk.getContent());
       currentRequest.getHeaders().setContentRange(contentChunk.getContentRange());
@@ -385,30 +379,36 @@ public final class MediaHttpUploader {
       // set mediaErrorHandler as I/O exception handler and as unsuccessful response handler for
       // calling to serverErrorCallback on an I/O exception or an abnormal HTTP response
       new MediaUploadErrorHandler(this, currentRequest);
+      MediaUploadEventRecorder eventRecorder =
+          newEventRecorder(
+              currentRequest, RequestType.CHUNK, totalBytesServerReceived, buildTimeNanos);
 
       if (isMediaLengthKnown()) {
         // TODO(rmistry): Support gzipping content for the case where media content length is
         // known (https://github.com/googleapis/google-api-java-client/issues/691).
-        response = executeCurrentRequestWithoutGZip(currentRequest);
+        response =
+            executeCurrentRequestWithoutGZip(currentRequest, RequestType.CHUNK, eventRecorder);
       } else {
-        response = executeCurrentRequest(currentRequest);
+        response = executeCurrentRequest(currentRequest, RequestType.CHUNK, eventRecorder);
       }
       boolean returningResponse = false;
       try {
         if (response.isSuccessStatusCode()) {
-          totalBytesServerReceived = getMediaContentLength();
-          if (mediaContent.getCloseInputStream()) {
-            contentInputStream.close();
+          if (eventRecorder != null) {
+            eventRecorder.completed(response, currentChunkLength);
           }
+          totalBytesServerReceived = getMediaContentLength();
+          chunkSource.close();
           updateStateAndNotifyListener(UploadState.MEDIA_COMPLETE);
           returningResponse = true;
           return response;
         }
 
         if (response.getStatusCode() != 308) {
-          if (mediaContent.getCloseInputStream()) {
-            contentInputStream.close();
+          if (eventRecorder != null) {
+            eventRecorder.completed(response, 0);
           }
+          chunkSource.close();
           returningResponse = true;
           return response;
         }
@@ -426,25 +426,12 @@ public final class MediaHttpUploader {
         long currentBytesServerReceived = newBytesServerReceived - totalBytesServerReceived;
         Preconditions.checkState(
             currentBytesServerReceived >= 0 && currentBytesServerReceived <= currentChunkLength);
-        long copyBytes = currentChunkLength - currentBytesServerReceived;
-        if (isMediaLengthKnown()) {
-          if (copyBytes > 0) {
-            // If the server didn't receive all the bytes the client sent the current position of
-            // the input stream is incorrect. So we should reset the stream and skip those bytes
-            // that the server had already received.
-            // Otherwise (the server got all bytes the client sent), the stream is in its right
-            // position, and we can continue from there
-            contentInputStream.reset();
-            long actualSkipValue = contentInputStream.skip(currentBytesServerReceived);
-            Preconditions.checkState(currentBytesServerReceived == actualSkipValue);
-          }
-        } else if (copyBytes == 0) {
-          // server got all the bytes, so we don't need to use this buffer. Otherwise, we have to
-          // keep the buffer and copy part (or all) of its bytes to the stream we are sending to the
-          // server
-          currentRequestContentBuffer = null;
-        }
+        // The bytes the server did not receive are sent again with the next chunk.
+        chunkSource.acknowledge(currentBytesServerReceived);
         totalBytesServerReceived = newBytesServerReceived;
+        if (eventRecorder != null) {
+          eventRecorder.completed(response, currentBytesServerReceived);
+        }
 
         updateStateAndNotifyListener(UploadState.MEDIA_IN_PROGRESS);
       } finally {
@@ -490,10 +477,15 @@ public final class MediaHttpUploader {
       initiationHeaders.set(CONTENT_LENGTH_HEADER, getMediaContentLength());
     }
     request.getHeaders().putAll(initiationHeaders);
-    HttpResponse response = executeCurrentRequest(request);
+    MediaUploadEventRecorder eventRecorder =
+        newEventRecorder(request, RequestType.INITIATION, 0, 0);
+    HttpResponse response = executeCurrentRequest(request, RequestType.INITIATION, eventRecorder);
     boolean notificationCompleted = false;
 
     try {
+      if (eventRecorder != null) {
+        eventRecorder.completed(response, 0);
+      }
       updateStateAndNotifyListener(UploadState.INITIATION_COMPLETE);
       notificationCompleted = true;
     } finally {
@@ -504,36 +496,93 @@ public final class MediaHttpUploader {
     return response;
   }
 
+  /**
+   * Returns a recorder of the timings of the given request or {@code null} if there is no event
+   * listener.
+   */
+  private MediaUploadEventRecorder newEventRecorder(
+      HttpRequest request, RequestType requestType, long contentOffset, long buildTimeNanos)
+      throws IOException {
+    if (eventListener == null) {
+      return null;
+    }
+    return new MediaUploadEventRecorder(
+        this, eventListener, nanoClock, request, requestType, contentOffset, buildTimeNanos);
+  }
+
   /**
    * Executes the current request with some minimal common code.
    *
+   * <p>The request is traced in a child span of the current span of the thread, if any.
+   *
    * @param request current request
+   * @param requestType type of the request
+   * @param eventRecorder recorder of the timings of the request or {@code null} for none
    * @return HTTP response
    */
-  private HttpResponse executeCurrentRequestWithoutGZip(HttpRequest request) throws IOException {
+  private HttpResponse executeCurrentRequestWithoutGZip(
+      HttpRequest request, RequestType requestType, MediaUploadEventRecorder eventRecorder)
+      throws IOException {
     // method override for non-POST verbs
-    new MethodOverride().intercept(request);
+    METHOD_OVERRIDE.intercept(request);
     // don't throw an exception so we can let a custom Google exception be thrown
     request.setThrowExceptionOnExecuteError(false);
+    GoogleClientSpan span = GoogleClientSpan.startChildOfCurrent(getSpanName(requestType));
+    span.setAttribute("googleapis.upload.offset", totalBytesServerReceived);
+    if (requestType == RequestType.CHUNK) {
+      span.setAttribute("googleapis.upload.length", currentChunkLength);
+    }
+    span.injectTraceparent(request.getHeaders());
     // execute the request
-    HttpResponse response = request.execute();
+    HttpResponse response;
+    try {
+      response = request.execute();
+      span.setAttribute("http.response.status_code", response.getStatusCode());
+    } catch (IOException e) {
+      if (eventRecorder != null) {
+        eventRecorder.failed(e);
+      }
+      span.recordException(e);
+      throw e;
+    } finally {
+      span.end();
+    }
+    if (eventRecorder != null) {
+      eventRecorder.responseReceived();
+    }
     return response;
   }
 
+  /** Returns the name of the span of a request of the given type. */
+  private static String getSpanName(RequestType requestType) {
+    switch (requestType) {
+      case INITIATION:
+        return "googleapis.upload.initiation";
+      case CHUNK:
+        return "googleapis.upload.chunk";
+      default:
+        return "googleapis.upload.direct";
+    }
+  }
+
   /**
    * Executes the current request with some common code that includes exponential backoff and GZip
    * encoding.
    *
    * @param request current request
+   * @param requestType type of the request
+   * @param eventRecorder recorder of the timings of the request or {@code null} for none
    * @return HTTP response
    */
-  private HttpResponse executeCurrentRequest(HttpRequest request) throws IOException {
+  private HttpResponse executeCurrentRequest(
+      HttpRequest request, RequestType requestType, MediaUploadEventRecorder eventRecorder)
+      throws IOException {
     // enable GZip encoding if necessary
     if (!disableGZipContent && !(request.getContent() instanceof EmptyContent)) {
-      request.setEncoding(new GZipEncoding());
+      request.setEncoding(GZIP_ENCODING);
     }
     // execute request
-    HttpResponse response = executeCurrentRequestWithoutGZip(request);
+    HttpResponse response = executeCurrentRequestWithoutGZip(request, requestType, eventRecorder);
     return response;
   }
 
@@ -546,93 +595,19 @@ public final class MediaHttpUploader {
     if (isMediaLengthKnown()) {
       // We know exactly what the blockSize will be because we know the media content length.
       blockSize = (int) Math.min(chunkSize, getMediaContentLength() - totalBytesServerReceived);
+      mediaContentLengthStr = String.valueOf(getMediaContentLength());
     } else {
       // Use the chunkSize as the blockSize because we do know what what it is yet.
       blockSize = chunkSize;
     }
 
-    AbstractInputStreamContent contentChunk;
-    int actualBlockSize = blockSize;
-    if (isMediaLengthKnown()) {
-      // Mark the current position in case we need to retry the request.
-      contentInputStream.mark(blockSize);
-
-      InputStream limitInputStream = ByteStreams.limit(contentInputStream, blockSize);
-      contentChunk =
-          new InputStreamContent(mediaContent.getType(), limitInputStream)
-              .setRetrySupported(true)
-              .setLength(blockSize)
-              .setCloseInputStream(false);
-      mediaContentLengthStr = String.valueOf(getMediaContentLength());
-    } else {
-      // If the media content length is not known we implement a custom buffered input stream that
-      // enables us to detect the length of the media content when the last chunk is sent. We
-      // accomplish this by always trying to read an extra byte further than the end of the current
-      // chunk.
-      int actualBytesRead;
-      int bytesAllowedToRead;
-
-      // amount of bytes which need to be copied from last chunk buffer
-      int copyBytes = 0;
-      if (currentRequestContentBuffer == null) {
-        bytesAllowedToRead = cachedByte == null ? blockSize + 1 : blockSize;
-        currentRequestContentBuffer = new byte[blockSize + 1];
-        if (cachedByte != null) {
-          currentRequestContentBuffer[0] = cachedByte;
-        }
-      } else {
-        // currentRequestContentBuffer is not null that means one of the following:
-        // 1. This is a request to recover from a server error (e.g. 503)
-        // or
-        // 2. The server received less bytes than the amount of bytes the client had sent. For
-        // example, the client sends bytes 100-199, but the server returns back status code 308,
-        // and its "Range" header is "bytes=0-150".
-        // In that case, the new request will be constructed from the previous request's byte buffer
-        // plus new bytes from the stream.
-        copyBytes = (int) (totalBytesClientSent - totalBytesServerReceived);
-        // shift copyBytes bytes to the beginning - those are the bytes which weren't received by
-        // the server in the last chunk.
-        System.arraycopy(
-            currentRequestContentBuffer,
-            currentChunkLength - copyBytes,
-            currentRequestContentBuffer,
-            0,
-            copyBytes);
-        if (cachedByte != null) {
-          // add the last cached byte to the buffer
-          currentRequestContentBuffer[copyBytes] = cachedByte;
-        }
-
-        bytesAllowedToRead = blockSize - copyBytes;
-      }
-
-      actualBytesRead =
-          ByteStreams.read(
-              contentInputStream,
-              currentRequestContentBuffer,
-              blockSize + 1 - bytesAllowedToRead,
-              bytesAllowedToRead);
-
-      if (actualBytesRead < bytesAllowedToRead) {
-        actualBlockSize = copyBytes + Math.max(0, actualBytesRead);
-        if (cachedByte != null) {
-          actualBlockSize++;
-          cachedByte = null;
-        }
-
-        if (mediaContentLengthStr.equals("*")) {
-          // At this point we know we reached the media content length because we either read less
-          // than the specified chunk size or there is no more data left to be read.
-          mediaContentLengthStr = String.valueOf(totalBytesServerReceived + actualBlockSize);
-        }
-      } else {
-        cachedByte = currentRequestContentBuffer[blockSize];
-      }
-
-      contentChunk =
-          new ByteArrayContent(
-              mediaContent.getType(), currentRequestContentBuffer, 0, actualBlockSize);
-      totalBytesClientSent = totalBytesServerReceived + actualBlockSize;
+    AbstractInputStreamContent contentChunk = chunkSource.nextChunk(blockSize);
+    int actualBlockSize = (int) contentChunk.getLength();
+    if (mediaContentLengthStr.equals("*")
+        && (actualBlockSize < blockSize || !chunkSource.hasMoreContent())) {
+      // At this point we know we reached the media content length because we either read less
+      // than the specified chunk size or there is no more data left to be read.
+      mediaContentLengthStr = String.valueOf(totalBytesServerReceived + actualBlockSize);
     }
 
     currentChunkLength = actualBlockSize;
@@ -770,6 +745,29 @@ public final class MediaHttpUploader {
     return progressListener;
   }
 
+  /**
+   * {@link Beta} <br>
+   * Sets the event listener to send the timings of the requests to or {@code null} for none.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public MediaHttpUploader setEventListener(MediaHttpUploaderEventListener eventListener) {
+    this.eventListener = eventListener;
+    return this;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Returns the event listener to send the timings of the requests to or {@code null} for none.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public MediaHttpUploaderEventListener getEventListener() {
+    return eventListener;
+  }
+
   /**
    * Sets the maximum size of individual chunks that will get uploaded by single HTTP requests. The
    * default value is {@link #DEFAULT_CHUNK_SIZE}.
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.util.Beta;
+import java.io.IOException;
+
+/**
+ * {@link Beta} <br>
+ * Timings and outcome of an attempt of an HTTP request sent by {@link MediaHttpUploader}.
+ *
+ * <p>An event is sent to the {@link MediaHttpUploaderEventListener} for every attempt of a request.
+ * If {@link #isRetry()} is {@code true} the attempt failed and the request is sent again, otherwise
+ * the event is the final outcome of the request: either a response with {@link #getStatusCode()} or
+ * a failure with {@link #getException()}.
+ *
+ * <p>All durations are in nanoseconds.
+ *
+ * @since 2.9
+ */
+@Beta
+public final class MediaHttpUploaderEvent {
+
+  /** Type of the request of an upload event. */
+  public enum RequestType {
+
+    /** The initiation request of a resumable upload. */
+    INITIATION,
+
+    /** A request that uploads a chunk of the media in a resumable upload. */
+    CHUNK,
+
+    /** The single request of a direct upload. */
+    DIRECT_UPLOAD
+  }
+
+  private final MediaHttpUploader uploader;
+  private final RequestType requestType;
+  private boolean retry;
+  private String retryReason;
+  private int retryCount;
+  private long contentOffset;
+  private long contentLength = -1;
+  private long buildTimeNanos;
+  private long timeToFirstByteNanos = -1;
+  private long latencyNanos;
+  private int statusCode;
+  private long acknowledgedBytes;
+  private IOException exception;
+
+  MediaHttpUploaderEvent(MediaHttpUploader uploader, RequestType requestType) {
+    this.uploader = uploader;
+    this.requestType = requestType;
+  }
+
+  /** Returns the uploader that sent the request. */
+  public MediaHttpUploader getUploader() {
+    return uploader;
+  }
+
+  /** Returns the type of the request. */
+  public RequestType getRequestType() {
+    return requestType;
+  }
+
+  /** Returns whether the attempt failed and the request is sent again. */
+  public boolean isRetry() {
+    return retry;
+  }
+
+  /**
+   * Returns the reason the request is sent again, for example {@code "HTTP 503 Service
+   * Unavailable"} or {@code "I/O exception"}, or {@code null} if it is not retried.
+   */
+  public String getRetryReason() {
+    return retryReason;
+  }
+
+  /** Returns the number of times the request was retried before this attempt. */
+  public int getRetryCount() {
+    return retryCount;
+  }
+
+  /**
+   * Returns the offset in the media of the first byte of the chunk of a {@link RequestType#CHUNK}
+   * request, or {@code 0} for other requests.
+   */
+  public long getContentOffset() {
+    return contentOffset;
+  }
+
+  /** Returns the length of the content sent by the attempt or {@code -1} if not known. */
+  public long getContentLength() {
+    return contentLength;
+  }
+
+  /**
+   * Returns the time it took to read the chunk of a {@link RequestType#CHUNK} request from the
+   * media content, or {@code 0} for other requests.
+   */
+  public long getBuildTimeNanos() {
+    return buildTimeNanos;
+  }
+
+  /**
+   * Returns the time from the end of writing the content, or from the start of the attempt if no
+   * content was written, to the response, or {@code -1} if there was no response.
+   */
+  public long getTimeToFirstByteNanos() {
+    return timeToFirstByteNanos;
+  }
+
+  /** Returns the time from the start of the attempt to the response or the failure. */
+  public long getLatencyNanos() {
+    return latencyNanos;
+  }
+
+  /** Returns the HTTP status code of the response or {@code 0} if there was no response. */
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  /**
+   * Returns the number of media bytes the server acknowledged in the response of a request that is
+   * not retried.
+   */
+  public long getAcknowledgedBytes() {
+    return acknowledgedBytes;
+  }
+
+  /** Returns the exception that failed the request or {@code null} for none. */
+  public IOException getException() {
+    return exception;
+  }
+
+  MediaHttpUploaderEvent setRetry(String retryReason) {
+    this.retry = true;
+    this.retryReason = retryReason;
+    return this;
+  }
+
+  MediaHttpUploaderEvent setRetryCount(int retryCount) {
+    this.retryCount = retryCount;
+    return this;
+  }
+
+  MediaHttpUploaderEvent setContentOffset(long contentOffset) {
+    this.contentOffset = contentOffset;
+    return this;
+  }
+
+  MediaHttpUploaderEvent setContentLength(long contentLength) {
+    this.contentLength = contentLength;
+    return this;
+  }
+
+  MediaHttpUploaderEvent setBuildTimeNanos(long buildTimeNanos) {
+    this.buildTimeNanos = buildTimeNanos;
+    return this;
+  }
+
+  MediaHttpUploaderEvent setTimeToFirstByteNanos(long timeToFirstByteNanos) {
+    this.timeToFirstByteNanos = timeToFirstByteNanos;
+    return this;
+  }
+
+  MediaHttpUploaderEvent setLatencyNanos(long latencyNanos) {
+    this.latencyNanos = latencyNanos;
+    return this;
+  }
+
+  MediaHttpUploaderEvent setStatusCode(int statusCode) {
+    this.statusCode = statusCode;
+    return this;
+  }
+
+  MediaHttpUploaderEvent setAcknowledgedBytes(long acknowledgedBytes) {
+    this.acknowledgedBytes = acknowledgedBytes;
+    return this;
+  }
+
+  MediaHttpUploaderEvent setException(IOException exception) {
+    this.exception = exception;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb =
+        new StringBuilder("MediaHttpUploaderEvent{")
+            .append(requestType)
+            .append(", retryCount=")
+            .append(retryCount);
+    if (retry) {
+      sb.append(", retryReason=").append(retryReason);
+    }
+    if (requestType == RequestType.CHUNK) {
+      sb.append(", contentOffset=").append(contentOffset);
+      sb.append(", buildTimeNanos=").append(buildTimeNanos);
+    }
+    sb.append(", contentLength=").append(contentLength);
+    sb.append(", timeToFirstByteNanos=").append(timeToFirstByteNanos);
+    sb.append(", latencyNanos=").append(latencyNanos);
+    sb.append(", statusCode=").append(statusCode);
+    if (!retry) {
+      sb.append(", acknowledgedBytes=").append(acknowledgedBytes);
+    }
+    if (exception != null) {
+      sb.append(", exception=").append(exception);
+    }
+    return sb.append('}').toString();
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.util.Beta;
+
+/**
+ * {@link Beta} <br>
+ * An interface for receiving the timings of the HTTP requests of an upload.
+ *
+ * <p>Unlike {@link MediaHttpUploaderProgressListener}, which is notified of state transitions, this
+ * listener receives a {@link MediaHttpUploaderEvent} for every attempt of every request sent by
+ * {@link MediaHttpUploader}, including the attempts that are retried. See {@link
+ * MediaHttpUploaderHistogramListener} for a listener that aggregates the timings into histograms.
+ *
+ * <p>Sample usage:
+ *
+ * <pre>{@code
+ * public static class MyUploadEventListener implements MediaHttpUploaderEventListener {
+ *
+ *   public void uploadEvent(MediaHttpUploaderEvent event) {
+ *     if (event.isRetry()) {
+ *       System.out.println("Retrying " + event.getRequestType() + ": " + event.getRetryReason());
+ *     } else {
+ *       System.out.println(event.getRequestType() + " took " + event.getLatencyNanos() + "ns");
+ *     }
+ *   }
+ * }
+ * }</pre>
+ *
+ * @since 2.9
+ */
+@Beta
+public interface MediaHttpUploaderEventListener {
+
+  /**
+   * Called when an attempt of an upload request has completed, failed or is about to be retried.
+   *
+   * <p>This method is called on the thread running {@link MediaHttpUploader#upload}, so it should
+   * return quickly.
+   *
+   * @param event upload event
+   */
+  void uploadEvent(MediaHttpUploaderEvent event);
+}
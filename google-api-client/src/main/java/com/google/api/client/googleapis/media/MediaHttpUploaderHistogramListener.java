@@ -0,0 +1,218 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.googleapis.media.MediaHttpUploaderEvent.RequestType;
+import com.google.api.client.util.Beta;
+import com.google.api.client.util.Preconditions;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link Beta} <br>
+ * Upload event listener that aggregates the timings of upload requests into latency histograms.
+ *
+ * <p>It keeps a histogram of the chunk build time and, for each {@link RequestType}, histograms of
+ * the time to first byte and of the latency of every attempt, including attempts that are retried.
+ * It also counts the retries by reason, the failed requests and the bytes acknowledged by the
+ * server.
+ *
+ * <p>A single instance may be shared by several uploaders to aggregate their timings. Subclasses
+ * may override {@link #uploadEvent} to also forward the events, but must call the super method.
+ *
+ * <p>Implementation is thread-safe.
+ *
+ * @since 2.9
+ */
+@Beta
+public class MediaHttpUploaderHistogramListener implements MediaHttpUploaderEventListener {
+
+  /**
+   * Histogram of durations with exponential buckets: bucket {@code 0} counts durations below one
+   * microsecond and bucket {@code i > 0} counts durations of at least {@code 2^(i-1)} and below
+   * {@code 2^i} microseconds. The last bucket also counts all longer durations.
+   *
+   * <p>Implementation is thread-safe.
+   */
+  public static final class Histogram {
+
+    /** Number of buckets, the last one starting at about 9.5 hours. */
+    public static final int BUCKET_COUNT = 37;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /** Records the given duration in nanoseconds, where a negative duration is ignored. */
+    public void record(long nanos) {
+      if (nanos < 0) {
+        return;
+      }
+      long micros = nanos / 1000;
+      int bucket = Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(micros));
+      buckets.incrementAndGet(bucket);
+      count.incrementAndGet();
+      sumNanos.addAndGet(nanos);
+      long max;
+      do {
+        max = maxNanos.get();
+      } while (nanos > max && !maxNanos.compareAndSet(max, nanos));
+    }
+
+    /** Returns the number of recorded durations. */
+    public long getCount() {
+      return count.get();
+    }
+
+    /** Returns the mean of the recorded durations in nanoseconds or {@code 0} for none. */
+    public long getMeanNanos() {
+      long count = getCount();
+      return count == 0 ? 0 : sumNanos.get() / count;
+    }
+
+    /** Returns the maximum of the recorded durations in nanoseconds or {@code 0} for none. */
+    public long getMaxNanos() {
+      return maxNanos.get();
+    }
+
+    /** Returns a snapshot of the counts of the buckets. */
+    public long[] getBucketCounts() {
+      long[] counts = new long[BUCKET_COUNT];
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        counts[i] = buckets.get(i);
+      }
+      return counts;
+    }
+
+    /**
+     * Returns the exclusive upper bound in nanoseconds of the durations counted by the given
+     * bucket, or {@link Long#MAX_VALUE} for the last bucket.
+     */
+    public static long getBucketUpperBoundNanos(int bucket) {
+      Preconditions.checkArgument(bucket >= 0 && bucket < BUCKET_COUNT);
+      return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << bucket) * 1000;
+    }
+
+    /**
+     * Returns an estimate of the given percentile of the recorded durations in nanoseconds, which
+     * is the upper bound of the bucket that contains it capped by the maximum duration, or {@code
+     * 0} for none.
+     *
+     * @param percentile percentile between {@code 0} and {@code 100}
+     */
+    public long getPercentileNanos(double percentile) {
+      Preconditions.checkArgument(percentile >= 0 && percentile <= 100);
+      long[] counts = getBucketCounts();
+      long total = 0;
+      for (long bucketCount : counts) {
+        total += bucketCount;
+      }
+      if (total == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+      long seen = 0;
+      int bucket = 0;
+      while (bucket < BUCKET_COUNT - 1) {
+        seen += counts[bucket];
+        if (seen >= rank) {
+          break;
+        }
+        bucket++;
+      }
+      return Math.min(getBucketUpperBoundNanos(bucket), getMaxNanos());
+    }
+  }
+
+  private final Histogram buildTime = new Histogram();
+  private final Map<RequestType, Histogram> timeToFirstByte = newHistograms();
+  private final Map<RequestType, Histogram> latency = newHistograms();
+  private final ConcurrentMap<String, AtomicLong> retryCounts =
+      new ConcurrentHashMap<String, AtomicLong>();
+  private final AtomicLong failureCount = new AtomicLong();
+  private final AtomicLong acknowledgedBytes = new AtomicLong();
+
+  public void uploadEvent(MediaHttpUploaderEvent event) {
+    if (event.getRequestType() == RequestType.CHUNK && event.getRetryCount() == 0) {
+      buildTime.record(event.getBuildTimeNanos());
+    }
+    timeToFirstByte.get(event.getRequestType()).record(event.getTimeToFirstByteNanos());
+    latency.get(event.getRequestType()).record(event.getLatencyNanos());
+    if (event.isRetry()) {
+      AtomicLong retries = retryCounts.get(event.getRetryReason());
+      if (retries == null) {
+        AtomicLong newRetries = new AtomicLong();
+        retries = retryCounts.putIfAbsent(event.getRetryReason(), newRetries);
+        if (retries == null) {
+          retries = newRetries;
+        }
+      }
+      retries.incrementAndGet();
+    } else if (event.getException() != null) {
+      failureCount.incrementAndGet();
+    } else {
+      acknowledgedBytes.addAndGet(event.getAcknowledgedBytes());
+    }
+  }
+
+  /** Returns the histogram of the time it took to read the chunks from the media content. */
+  public final Histogram getBuildTimeHistogram() {
+    return buildTime;
+  }
+
+  /** Returns the histogram of the time to first byte of the attempts of the given request type. */
+  public final Histogram getTimeToFirstByteHistogram(RequestType requestType) {
+    return timeToFirstByte.get(Preconditions.checkNotNull(requestType));
+  }
+
+  /** Returns the histogram of the latency of the attempts of the given request type. */
+  public final Histogram getLatencyHistogram(RequestType requestType) {
+    return latency.get(Preconditions.checkNotNull(requestType));
+  }
+
+  /** Returns a snapshot of the number of retries by reason, sorted by reason. */
+  public final Map<String, Long> getRetryCounts() {
+    Map<String, Long> counts = new TreeMap<String, Long>();
+    for (Map.Entry<String, AtomicLong> entry : retryCounts.entrySet()) {
+      counts.put(entry.getKey(), entry.getValue().get());
+    }
+    return Collections.unmodifiableMap(counts);
+  }
+
+  /** Returns the number of requests that failed with an exception. */
+  public final long getFailureCount() {
+    return failureCount.get();
+  }
+
+  /** Returns the number of media bytes acknowledged by the server. */
+  public final long getAcknowledgedBytes() {
+    return acknowledgedBytes.get();
+  }
+
+  private static Map<RequestType, Histogram> newHistograms() {
+    Map<RequestType, Histogram> histograms = new EnumMap<RequestType, Histogram>(RequestType.class);
+    for (RequestType requestType : RequestType.values()) {
+      histograms.put(requestType, new Histogram());
+    }
+    return Collections.unmodifiableMap(histograms);
+  }
+}
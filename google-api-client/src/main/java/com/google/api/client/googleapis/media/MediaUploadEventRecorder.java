@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.googleapis.media.MediaHttpUploaderEvent.RequestType;
+import com.google.api.client.http.EmptyContent;
+import com.google.api.client.http.HttpContent;
+import com.google.api.client.http.HttpIOExceptionHandler;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpUnsuccessfulResponseHandler;
+import com.google.api.client.util.NanoClock;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records the timings of the attempts of an upload request and sends them to a {@link
+ * MediaHttpUploaderEventListener}.
+ *
+ * <p>Like {@link MediaUploadErrorHandler} it installs itself as the I/O exception handler and the
+ * unsuccessful response handler of the request, and delegates to the original handlers. It should
+ * be constructed after the {@link MediaUploadErrorHandler} so that it sees whether the request is
+ * retried.
+ */
+class MediaUploadEventRecorder implements HttpUnsuccessfulResponseHandler, HttpIOExceptionHandler {
+
+  private final MediaHttpUploader uploader;
+  private final MediaHttpUploaderEventListener listener;
+  private final NanoClock nanoClock;
+  private final RequestType requestType;
+  private final long contentOffset;
+  private final long buildTimeNanos;
+
+  /** The original {@link HttpIOExceptionHandler} of the HTTP request. */
+  private final HttpIOExceptionHandler originalIOExceptionHandler;
+
+  /** The original {@link HttpUnsuccessfulResponseHandler} of the HTTP request. */
+  private final HttpUnsuccessfulResponseHandler originalUnsuccessfulHandler;
+
+  /** Number of retries so far. */
+  private int retryCount;
+
+  /** Time the current attempt started. */
+  private long attemptStartNanos;
+
+  /** Length of the content of the current attempt or {@code -1} if not known. */
+  private long attemptContentLength;
+
+  /** Time the content was last written or {@code 0} for never. */
+  private long contentWrittenNanos;
+
+  /** Time the response of the last attempt was received. */
+  private long responseNanos;
+
+  MediaUploadEventRecorder(
+      MediaHttpUploader uploader,
+      MediaHttpUploaderEventListener listener,
+      NanoClock nanoClock,
+      HttpRequest request,
+      RequestType requestType,
+      long contentOffset,
+      long buildTimeNanos)
+      throws IOException {
+    this.uploader = uploader;
+    this.listener = listener;
+    this.nanoClock = nanoClock;
+    this.requestType = requestType;
+    this.contentOffset = contentOffset;
+    this.buildTimeNanos = buildTimeNanos;
+    originalIOExceptionHandler = request.getIOExceptionHandler();
+    originalUnsuccessfulHandler = request.getUnsuccessfulResponseHandler();
+
+    request.setIOExceptionHandler(this);
+    request.setUnsuccessfulResponseHandler(this);
+    HttpContent content = request.getContent();
+    if (content != null && !(content instanceof EmptyContent)) {
+      request.setContent(new TimedContent(content));
+    }
+    startAttempt(request);
+  }
+
+  public boolean handleIOException(HttpRequest request, boolean supportsRetry) throws IOException {
+    boolean handled =
+        originalIOExceptionHandler != null
+            && originalIOExceptionHandler.handleIOException(request, supportsRetry);
+    if (handled && supportsRetry) {
+      listener.uploadEvent(newEvent().setRetry("I/O exception"));
+      startAttempt(request);
+    }
+    return handled;
+  }
+
+  public boolean handleResponse(HttpRequest request, HttpResponse response, boolean supportsRetry)
+      throws IOException {
+    responseReceived();
+    boolean handled =
+        originalUnsuccessfulHandler != null
+            && originalUnsuccessfulHandler.handleResponse(request, response, supportsRetry);
+    if (handled && supportsRetry) {
+      String reason = "HTTP " + response.getStatusCode();
+      if (response.getStatusMessage() != null) {
+        reason += " " + response.getStatusMessage();
+      }
+      listener.uploadEvent(newResponseEvent(response).setRetry(reason));
+      startAttempt(request);
+    }
+    return handled;
+  }
+
+  /** Records that the response of the current attempt was received. */
+  void responseReceived() {
+    responseNanos = nanoClock.nanoTime();
+  }
+
+  /**
+   * Sends the final event of a request that received a response.
+   *
+   * @param response response of the request
+   * @param acknowledgedBytes number of media bytes the server acknowledged in the response
+   */
+  void completed(HttpResponse response, long acknowledgedBytes) {
+    listener.uploadEvent(newResponseEvent(response).setAcknowledgedBytes(acknowledgedBytes));
+  }
+
+  /**
+   * Sends the final event of a request that failed.
+   *
+   * @param exception exception that failed the request
+   */
+  void failed(IOException exception) {
+    listener.uploadEvent(
+        newEvent()
+            .setLatencyNanos(nanoClock.nanoTime() - attemptStartNanos)
+            .setException(exception));
+  }
+
+  private void startAttempt(HttpRequest request) throws IOException {
+    HttpContent content = request.getContent();
+    attemptContentLength = content == null ? 0 : content.getLength();
+    attemptStartNanos = nanoClock.nanoTime();
+  }
+
+  private MediaHttpUploaderEvent newEvent() {
+    return new MediaHttpUploaderEvent(uploader, requestType)
+        .setRetryCount(retryCount++)
+        .setContentOffset(contentOffset)
+        .setContentLength(attemptContentLength)
+        .setBuildTimeNanos(buildTimeNanos);
+  }
+
+  private MediaHttpUploaderEvent newResponseEvent(HttpResponse response) {
+    long firstByteFromNanos = Math.max(contentWrittenNanos, attemptStartNanos);
+    return newEvent()
+        .setStatusCode(response.getStatusCode())
+        .setLatencyNanos(responseNanos - attemptStartNanos)
+        .setTimeToFirstByteNanos(responseNanos - firstByteFromNanos);
+  }
+
+  /** Content that records the time it was last written. */
+  private final class TimedContent implements HttpContent {
+
+    private final HttpContent content;
+
+    TimedContent(HttpContent content) {
+      this.content = content;
+    }
+
+    public long getLength() throws IOException {
+      return content.getLength();
+    }
+
+    public String getType() {
+      return content.getType();
+    }
+
+    public boolean retrySupported() {
+      return content.retrySupported();
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+      content.writeTo(out);
+      contentWrittenNanos = nanoClock.nanoTime();
+    }
+  }
+}
@@ -13,7 +13,9 @@
 package com.google.api.client.googleapis.services;
 
 import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.tracing.GoogleClientTracer;
 import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpHeaders;
 import com.google.api.client.http.HttpRequestFactory;
 import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.http.HttpTransport;
@@ -23,7 +25,14 @@ import com.google.api.client.util.Strings;
 import com.google.auth.Credentials;
 import com.google.auth.http.HttpCredentialsAdapter;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -40,6 +49,9 @@ public abstract class AbstractGoogleClient {
 
   private static final String GOOGLE_CLOUD_UNIVERSE_DOMAIN = "GOOGLE_CLOUD_UNIVERSE_DOMAIN";
 
+  /** Maximum number of compiled URI templates cached by a client. */
+  private static final int MAX_URI_TEMPLATE_PLANS = 1024;
+
   /** The request factory for connections to the server. */
   private final HttpRequestFactory requestFactory;
 
@@ -79,6 +91,37 @@ public abstract class AbstractGoogleClient {
 
   private final HttpRequestInitializer httpRequestInitializer;
 
+  /** Executor of the asynchronous requests or {@code null} for the default executor. */
+  private final Executor executor;
+
+  /** Cache of the parsed responses of the GET requests or {@code null} for none. */
+  private final GoogleClientResponseCache responseCache;
+
+  /** Deduplication of the concurrent identical GET requests or {@code null} for none. */
+  private final GoogleClientSingleFlight singleFlight;
+
+  /** Client-side rate limiter of the requests or {@code null} for none. */
+  private final GoogleClientRateLimiter rateLimiter;
+
+  /** Policy of hedged GET requests or {@code null} for none. */
+  private final GoogleClientHedgingPolicy hedgingPolicy;
+
+  /** Circuit breaker of the requests or {@code null} for none. */
+  private final GoogleClientCircuitBreaker circuitBreaker;
+
+  /** Metrics of the requests. */
+  private final GoogleClientMetrics metrics;
+
+  /** Tracer of the requests. */
+  private final GoogleClientTracer tracer;
+
+  /** Default HTTP headers of the requests, which must not be modified. */
+  private final HttpHeaders defaultRequestHeaders;
+
+  /** Compiled URI templates of the requests by URI template. */
+  private final ConcurrentMap<String, UriTemplatePlan> uriTemplatePlans =
+      new ConcurrentHashMap<String, UriTemplatePlan>();
+
   /**
    * @param builder builder
    * @since 1.14
@@ -93,6 +136,7 @@ public abstract class AbstractGoogleClient {
       logger.warning("Application name is not set. Call Builder#setApplicationName.");
     }
     applicationName = builder.applicationName;
+    defaultRequestHeaders = AbstractGoogleClientRequest.newDefaultRequestHeaders(applicationName);
     requestFactory =
         builder.httpRequestInitializer == null
             ? builder.transport.createRequestFactory()
@@ -101,6 +145,14 @@ public abstract class AbstractGoogleClient {
     suppressPatternChecks = builder.suppressPatternChecks;
     suppressRequiredParameterChecks = builder.suppressRequiredParameterChecks;
     httpRequestInitializer = builder.httpRequestInitializer;
+    executor = builder.executor;
+    responseCache = builder.responseCache;
+    singleFlight = builder.singleFlight;
+    rateLimiter = builder.rateLimiter;
+    hedgingPolicy = builder.hedgingPolicy;
+    circuitBreaker = builder.circuitBreaker;
+    metrics = builder.metrics;
+    tracer = builder.tracer;
   }
 
   /**
@@ -242,6 +294,107 @@ public abstract class AbstractGoogleClient {
     return objectParser;
   }
 
+  /**
+   * Returns the executor that runs the requests sent by {@link
+   * AbstractGoogleClientRequest#executeAsync()} and {@link
+   * AbstractGoogleClientRequest#executeUnparsedAsync()}.
+   *
+   * <p>Unless an executor was set with {@link Builder#setExecutor}, it is a shared executor that
+   * starts a virtual thread per request when the JVM supports them (Java 21 or higher), or else a
+   * shared cached pool of daemon threads.
+   *
+   * @since 2.9
+   */
+  public final Executor getExecutor() {
+    return executor == null ? DefaultExecutorHolder.EXECUTOR : executor;
+  }
+
+  /**
+   * Returns the cache of the parsed responses of the GET requests or {@code null} for none.
+   *
+   * @since 2.9
+   */
+  public final GoogleClientResponseCache getResponseCache() {
+    return responseCache;
+  }
+
+  /**
+   * Returns the deduplication of the concurrent identical GET requests or {@code null} for none.
+   *
+   * @since 2.9
+   */
+  public final GoogleClientSingleFlight getSingleFlight() {
+    return singleFlight;
+  }
+
+  /**
+   * Returns the client-side rate limiter of the requests or {@code null} for none.
+   *
+   * @since 2.9
+   */
+  public final GoogleClientRateLimiter getRateLimiter() {
+    return rateLimiter;
+  }
+
+  /**
+   * Returns the policy of hedged GET requests or {@code null} for none.
+   *
+   * @since 2.9
+   */
+  public final GoogleClientHedgingPolicy getHedgingPolicy() {
+    return hedgingPolicy;
+  }
+
+  /**
+   * Returns the circuit breaker of the requests or {@code null} for none.
+   *
+   * @since 2.9
+   */
+  public final GoogleClientCircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  /**
+   * Returns the metrics of the requests, which are {@link GoogleClientMetrics#NOOP} by default.
+   *
+   * @since 2.9
+   */
+  public final GoogleClientMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Returns the tracer of the requests, which is {@link GoogleClientTracer#NOOP} by default.
+   *
+   * @since 2.9
+   */
+  public final GoogleClientTracer getTracer() {
+    return tracer;
+  }
+
+  /**
+   * Returns the default HTTP headers of the requests, which are computed once per client and must
+   * not be modified. A request copies them when its headers are first accessed.
+   */
+  HttpHeaders getDefaultRequestHeaders() {
+    return defaultRequestHeaders;
+  }
+
+  /**
+   * Returns the given URI template of a request compiled against the base URL, which is cached
+   * since the requests of a client use a small set of URI templates.
+   */
+  UriTemplatePlan getUriTemplatePlan(String uriTemplate) {
+    UriTemplatePlan plan = uriTemplatePlans.get(uriTemplate);
+    if (plan == null) {
+      plan = UriTemplatePlan.compile(getBaseUrl(), uriTemplate);
+      if (uriTemplatePlans.size() < MAX_URI_TEMPLATE_PLANS) {
+        uriTemplatePlans.putIfAbsent(uriTemplate, plan);
+      }
+    }
+    return plan;
+  }
+
   /**
    * Initializes a {@link AbstractGoogleClientRequest} using a {@link
    * GoogleClientRequestInitializer}.
@@ -315,6 +468,7 @@ public abstract class AbstractGoogleClient {
     } else {
       batch.setBatchUrl(new GenericUrl(getRootUrl() + batchPath));
     }
+    batch.setTracer(tracer);
     return batch;
   }
 
@@ -362,6 +516,27 @@ public abstract class AbstractGoogleClient {
     return servicePath;
   }
 
+  /** Lazily creates the shared default executor of the asynchronous requests. */
+  private static final class DefaultExecutorHolder {
+
+    static final Executor EXECUTOR = newDefaultExecutor();
+
+    private static Executor newDefaultExecutor() {
+      try {
+        // Executors.newVirtualThreadPerTaskExecutor() is only available on Java 21 or higher
+        Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        return (Executor) method.invoke(null);
+      } catch (Exception e) {
+        logger.log(Level.FINE, "Virtual threads are not available, using a thread pool", e);
+      }
+      return Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder()
+              .setDaemon(true)
+              .setNameFormat("AbstractGoogleClient-%d")
+              .build());
+    }
+  }
+
   /**
    * Builder for {@link AbstractGoogleClient}.
    *
@@ -432,6 +607,30 @@ public abstract class AbstractGoogleClient {
     /** The parsed serviceName value from the rootUrl from the Discovery Doc. */
     String serviceName;
 
+    /** Executor of the asynchronous requests or {@code null} for the default executor. */
+    Executor executor;
+
+    /** Cache of the parsed responses of the GET requests or {@code null} for none. */
+    GoogleClientResponseCache responseCache;
+
+    /** Deduplication of the concurrent identical GET requests or {@code null} for none. */
+    GoogleClientSingleFlight singleFlight;
+
+    /** Client-side rate limiter of the requests or {@code null} for none. */
+    GoogleClientRateLimiter rateLimiter;
+
+    /** Policy of hedged GET requests or {@code null} for none. */
+    GoogleClientHedgingPolicy hedgingPolicy;
+
+    /** Circuit breaker of the requests or {@code null} for none. */
+    GoogleClientCircuitBreaker circuitBreaker;
+
+    /** Metrics of the requests. */
+    GoogleClientMetrics metrics = GoogleClientMetrics.NOOP;
+
+    /** Tracer of the requests. */
+    GoogleClientTracer tracer = GoogleClientTracer.NOOP;
+
     /**
      * Returns an instance of a new builder.
      *
@@ -658,6 +857,208 @@ public abstract class AbstractGoogleClient {
       return this;
     }
 
+    /**
+     * Returns the executor of the asynchronous requests or {@code null} for the default executor.
+     *
+     * @since 2.9
+     */
+    public final Executor getExecutor() {
+      return executor;
+    }
+
+    /**
+     * Sets the executor that runs the requests sent by {@link
+     * AbstractGoogleClientRequest#executeAsync()} and {@link
+     * AbstractGoogleClientRequest#executeUnparsedAsync()} or {@code null} for the default executor
+     * described in {@link AbstractGoogleClient#getExecutor()}.
+     *
+     * <p>The executor is not shut down by the client.
+     *
+     * <p>Overriding is only supported for the purpose of calling the super implementation and
+     * changing the return type, but nothing else.
+     *
+     * @since 2.9
+     */
+    public Builder setExecutor(Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    /**
+     * Returns the cache of the parsed responses of the GET requests or {@code null} for none.
+     *
+     * @since 2.9
+     */
+    public final GoogleClientResponseCache getResponseCache() {
+      return responseCache;
+    }
+
+    /**
+     * Sets the cache of the parsed responses of the GET requests or {@code null} for none.
+     *
+     * <p>Default value is {@code null}. See {@link GoogleClientResponseCache} for how the responses
+     * are cached and revalidated.
+     *
+     * <p>Overriding is only supported for the purpose of calling the super implementation and
+     * changing the return type, but nothing else.
+     *
+     * @since 2.9
+     */
+    public Builder setResponseCache(GoogleClientResponseCache responseCache) {
+      this.responseCache = responseCache;
+      return this;
+    }
+
+    /**
+     * Returns the deduplication of the concurrent identical GET requests or {@code null} for none.
+     *
+     * @since 2.9
+     */
+    public final GoogleClientSingleFlight getSingleFlight() {
+      return singleFlight;
+    }
+
+    /**
+     * Sets the deduplication of the concurrent identical GET requests or {@code null} for none.
+     *
+     * <p>Default value is {@code null}. See {@link GoogleClientSingleFlight} for which requests are
+     * deduplicated.
+     *
+     * <p>Overriding is only supported for the purpose of calling the super implementation and
+     * changing the return type, but nothing else.
+     *
+     * @since 2.9
+     */
+    public Builder setSingleFlight(GoogleClientSingleFlight singleFlight) {
+      this.singleFlight = singleFlight;
+      return this;
+    }
+
+    /**
+     * Returns the client-side rate limiter of the requests or {@code null} for none.
+     *
+     * @since 2.9
+     */
+    public final GoogleClientRateLimiter getRateLimiter() {
+      return rateLimiter;
+    }
+
+    /**
+     * Sets the client-side rate limiter of the requests or {@code null} for none.
+     *
+     * <p>Default value is {@code null}. See {@link TokenBucketRateLimiter} and {@link
+     * AdaptiveThrottlingRateLimiter} for the provided rate limiters.
+     *
+     * <p>Overriding is only supported for the purpose of calling the super implementation and
+     * changing the return type, but nothing else.
+     *
+     * @since 2.9
+     */
+    public Builder setRateLimiter(GoogleClientRateLimiter rateLimiter) {
+      this.rateLimiter = rateLimiter;
+      return this;
+    }
+
+    /**
+     * Returns the policy of hedged GET requests or {@code null} for none.
+     *
+     * @since 2.9
+     */
+    public final GoogleClientHedgingPolicy getHedgingPolicy() {
+      return hedgingPolicy;
+    }
+
+    /**
+     * Sets the policy of hedged GET requests or {@code null} for none.
+     *
+     * <p>Default value is {@code null}. See {@link GoogleClientHedgingPolicy} for when requests are
+     * hedged. The hedged requests are sent on the {@link #setExecutor executor} of the client.
+     *
+     * <p>Overriding is only supported for the purpose of calling the super implementation and
+     * changing the return type, but nothing else.
+     *
+     * @since 2.9
+     */
+    public Builder setHedgingPolicy(GoogleClientHedgingPolicy hedgingPolicy) {
+      this.hedgingPolicy = hedgingPolicy;
+      return this;
+    }
+
+    /**
+     * Returns the circuit breaker of the requests or {@code null} for none.
+     *
+     * @since 2.9
+     */
+    public final GoogleClientCircuitBreaker getCircuitBreaker() {
+      return circuitBreaker;
+    }
+
+    /**
+     * Sets the circuit breaker of the requests or {@code null} for none.
+     *
+     * <p>Default value is {@code null}. See {@link GoogleClientCircuitBreaker} for when requests
+     * fail fast. A circuit breaker may be shared by several clients.
+     *
+     * <p>Overriding is only supported for the purpose of calling the super implementation and
+     * changing the return type, but nothing else.
+     *
+     * @since 2.9
+     */
+    public Builder setCircuitBreaker(GoogleClientCircuitBreaker circuitBreaker) {
+      this.circuitBreaker = circuitBreaker;
+      return this;
+    }
+
+    /**
+     * Returns the metrics of the requests.
+     *
+     * @since 2.9
+     */
+    public final GoogleClientMetrics getMetrics() {
+      return metrics;
+    }
+
+    /**
+     * Sets the metrics of the requests.
+     *
+     * <p>Default value is {@link GoogleClientMetrics#NOOP}. See {@link InMemoryGoogleClientMetrics}
+     * for metrics aggregated in memory.
+     *
+     * <p>Overriding is only supported for the purpose of calling the super implementation and
+     * changing the return type, but nothing else.
+     *
+     * @since 2.9
+     */
+    public Builder setMetrics(GoogleClientMetrics metrics) {
+      this.metrics = Preconditions.checkNotNull(metrics);
+      return this;
+    }
+
+    /**
+     * Returns the tracer of the requests.
+     *
+     * @since 2.9
+     */
+    public final GoogleClientTracer getTracer() {
+      return tracer;
+    }
+
+    /**
+     * Sets the tracer of the requests, which traces the requests and the batch requests of the
+     * client.
+     *
+     * <p>Default value is {@link GoogleClientTracer#NOOP}.
+     *
+     * <p>Overriding is only supported for the purpose of calling the super implementation and
+     * changing the return type, but nothing else.
+     *
+     * @since 2.9
+     */
+    public Builder setTracer(GoogleClientTracer tracer) {
+      this.tracer = Preconditions.checkNotNull(tracer);
+      return this;
+    }
+
     @VisibleForTesting
     String getServiceName() {
       return serviceName;
@@ -21,11 +21,14 @@ import com.google.api.client.googleapis.batch.BatchCallback;
 import com.google.api.client.googleapis.batch.BatchRequest;
 import com.google.api.client.googleapis.media.MediaHttpDownloader;
 import com.google.api.client.googleapis.media.MediaHttpUploader;
+import com.google.api.client.googleapis.tracing.GoogleClientSpan;
+import com.google.api.client.googleapis.tracing.GoogleClientTracer;
 import com.google.api.client.http.AbstractInputStreamContent;
 import com.google.api.client.http.EmptyContent;
 import com.google.api.client.http.GZipEncoding;
 import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpContent;
+import com.google.api.client.http.HttpExecuteInterceptor;
 import com.google.api.client.http.HttpHeaders;
 import com.google.api.client.http.HttpMethods;
 import com.google.api.client.http.HttpRequest;
@@ -34,14 +37,27 @@ import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.http.HttpResponse;
 import com.google.api.client.http.HttpResponseException;
 import com.google.api.client.http.HttpResponseInterceptor;
+import com.google.api.client.http.HttpStatusCodes;
 import com.google.api.client.http.UriTemplate;
 import com.google.api.client.util.GenericData;
 import com.google.api.client.util.Preconditions;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -65,6 +81,17 @@ public abstract class AbstractGoogleClientRequest<T> extends GenericData {
 
   private static final String API_CLIENT_HEADER = "X-Goog-Api-Client";
 
+  /**
+   * Status code {@code 429 Too Many Requests}, which has no constant in {@link HttpStatusCodes}.
+   */
+  private static final int STATUS_CODE_TOO_MANY_REQUESTS = 429;
+
+  /** Method override of the requests, which is thread-safe and shared by all requests. */
+  private static final MethodOverride METHOD_OVERRIDE = new MethodOverride();
+
+  /** GZip encoding of the content, which is stateless and shared by all requests. */
+  private static final GZipEncoding GZIP_ENCODING = new GZipEncoding();
+
   /**
    * The generated request class will pass this constant as part of the header if the RPC supports
    * ApiVersion.
@@ -83,8 +110,11 @@ public abstract class AbstractGoogleClientRequest<T> extends GenericData {
   /** HTTP content or {@code null} for none. */
   private final HttpContent httpContent;
 
-  /** HTTP headers used for the Google client request. */
-  private HttpHeaders requestHeaders = new HttpHeaders();
+  /**
+   * HTTP headers used for the Google client request or {@code null} for the default headers of the
+   * client until they are accessed.
+   */
+  private HttpHeaders requestHeaders;
 
   /** HTTP headers of the last response or {@code null} before request has been executed. */
   private HttpHeaders lastResponseHeaders;
@@ -131,16 +161,22 @@ public abstract class AbstractGoogleClientRequest<T> extends GenericData {
     this.requestMethod = Preconditions.checkNotNull(requestMethod);
     this.uriTemplate = Preconditions.checkNotNull(uriTemplate);
     this.httpContent = httpContent;
+  }
+
+  /**
+   * Returns new default HTTP headers of the requests of a client with the given application name.
+   */
+  static HttpHeaders newDefaultRequestHeaders(String applicationName) {
+    HttpHeaders headers = new HttpHeaders();
     // application name
-    String applicationName = abstractGoogleClient.getApplicationName();
     if (applicationName != null) {
-      requestHeaders.setUserAgent(
-          applicationName + " " + USER_AGENT_SUFFIX + "/" + GoogleUtils.VERSION);
+      headers.setUserAgent(applicationName + " " + USER_AGENT_SUFFIX + "/" + GoogleUtils.VERSION);
     } else {
-      requestHeaders.setUserAgent(USER_AGENT_SUFFIX + "/" + GoogleUtils.VERSION);
+      headers.setUserAgent(USER_AGENT_SUFFIX + "/" + GoogleUtils.VERSION);
     }
     // Set the header for the Api Client version (Java and OS version)
-    requestHeaders.set(API_CLIENT_HEADER, ApiClientVersion.DEFAULT_VERSION);
+    headers.set(API_CLIENT_HEADER, ApiClientVersion.DEFAULT_VERSION);
+    return headers;
   }
 
   /**
@@ -285,6 +321,14 @@ public abstract class AbstractGoogleClientRequest<T> extends GenericData {
     return uriTemplate;
   }
 
+  /**
+   * Returns the key of the API method of the request, which is made of the base URL of the client,
+   * the HTTP method and the URI template.
+   */
+  String getMethodKey() {
+    return abstractGoogleClient.getBaseUrl() + ' ' + requestMethod + ' ' + uriTemplate;
+  }
+
   /** Returns the HTTP content or {@code null} for none. */
   public final HttpContent getHttpContent() {
     return httpContent;
@@ -302,9 +346,23 @@ public abstract class AbstractGoogleClientRequest<T> extends GenericData {
 
   /** Returns the HTTP headers used for the Google client request. */
   public final HttpHeaders getRequestHeaders() {
+    if (requestHeaders == null) {
+      // copy the default headers of the client on first access, since they may be modified
+      requestHeaders = abstractGoogleClient.getDefaultRequestHeaders().clone();
+    }
     return requestHeaders;
   }
 
+  /**
+   * Returns the HTTP headers used for the Google client request without copying the default headers
+   * of the client, so they must not be modified.
+   */
+  private HttpHeaders getRequestHeadersForReading() {
+    return requestHeaders == null
+        ? abstractGoogleClient.getDefaultRequestHeaders()
+        : requestHeaders;
+  }
+
   /**
    * Sets the HTTP headers used for the Google client request.
    *
@@ -315,14 +373,14 @@ public abstract class AbstractGoogleClientRequest<T> extends GenericData {
    * changing the return type, but nothing else.
    */
   public AbstractGoogleClientRequest<T> setRequestHeaders(HttpHeaders headers) {
-    this.requestHeaders = headers;
+    this.requestHeaders = Preconditions.checkNotNull(headers);
     return this;
   }
 
   /** Returns the ApiVersion set in the headers. If ApiVersion is not set, null is returned. */
   @VisibleForTesting
   String getApiVersionHeader() {
-    return (String) requestHeaders.get(API_VERSION_HEADER);
+    return (String) getRequestHeadersForReading().get(API_VERSION_HEADER);
   }
 
   /**
@@ -420,8 +478,8 @@ public abstract class AbstractGoogleClientRequest<T> extends GenericData {
    * @return newly created {@link GenericUrl}
    */
   public GenericUrl buildHttpRequestUrl() {
-    return new GenericUrl(
-        UriTemplate.expand(abstractGoogleClient.getBaseUrl(), uriTemplate, this, true));
+    // same URL as UriTemplate.expand(getBaseUrl(), uriTemplate, this, true)
+    return new GenericUrl(abstractGoogleClient.getUriTemplatePlan(uriTemplate).expand(this));
   }
 
   /**
@@ -453,7 +511,7 @@ public abstract class AbstractGoogleClientRequest<T> extends GenericData {
         getAbstractGoogleClient()
             .getRequestFactory()
             .buildRequest(requestMethodToUse, buildHttpRequestUrl(), httpContent);
-    new MethodOverride().intercept(httpRequest);
+    METHOD_OVERRIDE.intercept(httpRequest);
     httpRequest.setParser(getAbstractGoogleClient().getObjectParser());
     // custom methods may use POST with no content but require a Content-Length header
     if (httpContent == null
@@ -462,21 +520,75 @@ public abstract class AbstractGoogleClientRequest<T> extends GenericData {
             || requestMethod.equals(HttpMethods.PATCH))) {
       httpRequest.setContent(new EmptyContent());
     }
-    httpRequest.getHeaders().putAll(requestHeaders);
+    httpRequest.getHeaders().putAll(getRequestHeadersForReading());
     if (!disableGZipContent) {
-      httpRequest.setEncoding(new GZipEncoding());
+      httpRequest.setEncoding(GZIP_ENCODING);
     }
     httpRequest.setResponseReturnRawInputStream(returnRawInputStream);
+    final GoogleClientRateLimiter rateLimiter = abstractGoogleClient.getRateLimiter();
+    if (rateLimiter != null) {
+      final HttpExecuteInterceptor executeInterceptor = httpRequest.getInterceptor();
+      httpRequest.setInterceptor(
+          new HttpExecuteInterceptor() {
+
+            public void intercept(HttpRequest request) throws IOException {
+              rateLimiter.acquire(AbstractGoogleClientRequest.this);
+              if (executeInterceptor != null) {
+                executeInterceptor.intercept(request);
+              }
+            }
+          });
+    }
+    if (abstractGoogleClient.getTracer() != GoogleClientTracer.NOOP) {
+      final HttpExecuteInterceptor executeInterceptor = httpRequest.getInterceptor();
+      httpRequest.setInterceptor(
+          new HttpExecuteInterceptor() {
+
+            /** Whether the HTTP request was already sent, in which case it is retried. */
+            private boolean sent;
+
+            public void intercept(HttpRequest request) throws IOException {
+              GoogleClientSpan span = GoogleClientSpan.current();
+              if (span != null) {
+                if (sent) {
+                  span.addEvent("retry");
+                }
+                span.injectTraceparent(request.getHeaders());
+              }
+              sent = true;
+              if (executeInterceptor != null) {
+                executeInterceptor.intercept(request);
+              }
+            }
+          });
+    }
+    GoogleClientMetrics metrics = abstractGoogleClient.getMetrics();
+    final RequestMetricsRecorder metricsRecorder =
+        metrics == GoogleClientMetrics.NOOP
+            ? null
+            : RequestMetricsRecorder.install(metrics, this, httpRequest);
     final HttpResponseInterceptor responseInterceptor = httpRequest.getResponseInterceptor();
     httpRequest.setResponseInterceptor(
         new HttpResponseInterceptor() {
 
           public void interceptResponse(HttpResponse response) throws IOException {
+            if (metricsRecorder != null && response.isSuccessStatusCode()) {
+              // error responses were recorded by the unsuccessful response handler
+              metricsRecorder.recordResponse(response);
+            }
             if (responseInterceptor != null) {
               responseInterceptor.interceptResponse(response);
             }
+            IOException exception = null;
             if (!response.isSuccessStatusCode() && httpRequest.getThrowExceptionOnExecuteError()) {
-              throw newExceptionOnError(response);
+              exception = newExceptionOnError(response);
+            }
+            if (rateLimiter != null) {
+              rateLimiter.onResponse(
+                  AbstractGoogleClientRequest.this, response, isQuotaExceeded(response, exception));
+            }
+            if (exception != null) {
+              throw exception;
             }
           }
         });
@@ -506,6 +618,27 @@ public abstract class AbstractGoogleClientRequest<T> extends GenericData {
     return executeUnparsed(false);
   }
 
+  /**
+   * Sends the metadata request to the server on the {@link AbstractGoogleClient#getExecutor()
+   * executor} of the client and returns a future of the raw metadata {@link HttpResponse}.
+   *
+   * <p>The request calls {@link #executeUnparsed()} on another thread, so it must not be modified
+   * until the future is done. The future fails with the {@link IOException} thrown by {@link
+   * #executeUnparsed()}. Callers are responsible for disconnecting the HTTP response by calling
+   * {@link HttpResponse#disconnect}.
+   *
+   * @return future of the {@link HttpResponse}
+   * @since 2.9
+   */
+  public final ListenableFuture<HttpResponse> executeUnparsedAsync() {
+    return submit(
+        new Callable<HttpResponse>() {
+          public HttpResponse call() throws IOException {
+            return executeUnparsed();
+          }
+        });
+  }
+
   /**
    * Sends the media request to the server and returns the raw media {@link HttpResponse}.
    *
@@ -562,7 +695,7 @@ public abstract class AbstractGoogleClientRequest<T> extends GenericData {
     HttpResponse response;
     if (uploader == null) {
       // normal request (not upload)
-      response = buildHttpRequest(usingHead).execute();
+      response = executeHttpRequest(buildHttpRequest(usingHead));
     } else {
       // upload request
       GenericUrl httpRequestUrl = buildHttpRequestUrl();
@@ -572,11 +705,25 @@ public abstract class AbstractGoogleClientRequest<T> extends GenericData {
               .buildRequest(requestMethod, httpRequestUrl, httpContent);
       boolean throwExceptionOnExecuteError = httpRequest.getThrowExceptionOnExecuteError();
 
-      response =
-          uploader
-              .setInitiationHeaders(requestHeaders)
-              .setDisableGZipContent(disableGZipContent)
-              .upload(httpRequestUrl);
+      uploader.setInitiationHeaders(getRequestHeaders()).setDisableGZipContent(disableGZipContent);
+      GoogleClientTracer tracer = abstractGoogleClient.getTracer();
+      if (tracer == GoogleClientTracer.NOOP) {
+        response = uploader.upload(httpRequestUrl);
+      } else {
+        // the requests of the upload are traced in child spans
+        GoogleClientSpan span = startSpan(tracer);
+        GoogleClientSpan.Scope scope = span.makeCurrent();
+        try {
+          response = uploader.upload(httpRequestUrl);
+          span.setAttribute("http.response.status_code", response.getStatusCode());
+        } catch (IOException | RuntimeException e) {
+          span.recordException(e);
+          throw e;
+        } finally {
+          scope.close();
+          span.end();
+        }
+      }
       response.getRequest().setParser(getAbstractGoogleClient().getObjectParser());
       // process any error
       if (throwExceptionOnExecuteError && !response.isSuccessStatusCode()) {
@@ -584,10 +731,110 @@ public abstract class AbstractGoogleClientRequest<T> extends GenericData {
       }
     }
     // process response
+    setLastResponse(response);
+    return response;
+  }
+
+  /**
+   * Sends the given HTTP request, in a span of the {@link AbstractGoogleClient#getTracer() tracer}
+   * of the client that is the current span while it is sent.
+   */
+  private HttpResponse executeHttpRequest(HttpRequest httpRequest) throws IOException {
+    GoogleClientTracer tracer = abstractGoogleClient.getTracer();
+    if (tracer == GoogleClientTracer.NOOP) {
+      return executeWithCircuitBreaker(httpRequest);
+    }
+    GoogleClientSpan span = startSpan(tracer);
+    GoogleClientSpan.Scope scope = span.makeCurrent();
+    try {
+      HttpResponse response = executeWithCircuitBreaker(httpRequest);
+      span.setAttribute("http.response.status_code", response.getStatusCode());
+      return response;
+    } catch (HttpResponseException e) {
+      span.setAttribute("http.response.status_code", e.getStatusCode());
+      span.recordException(e);
+      throw e;
+    } catch (IOException | RuntimeException e) {
+      span.recordException(e);
+      throw e;
+    } finally {
+      scope.close();
+      span.end();
+    }
+  }
+
+  /** Starts a span of the request with the given tracer. */
+  private GoogleClientSpan startSpan(GoogleClientTracer tracer) {
+    GoogleClientSpan span = tracer.startSpan("googleapis.request");
+    span.setAttribute("googleapis.service", abstractGoogleClient.getBaseUrl());
+    span.setAttribute("http.request.method", requestMethod);
+    span.setAttribute("url.template", uriTemplate);
+    return span;
+  }
+
+  /**
+   * Sends the given HTTP request, failing fast if the {@link
+   * AbstractGoogleClient#getCircuitBreaker() circuit breaker} of the client is open for the API
+   * method of the request and recording the outcome otherwise.
+   */
+  private HttpResponse executeWithCircuitBreaker(HttpRequest httpRequest) throws IOException {
+    GoogleClientCircuitBreaker circuitBreaker = abstractGoogleClient.getCircuitBreaker();
+    if (circuitBreaker == null) {
+      return sendHttpRequest(httpRequest);
+    }
+    String key = getMethodKey();
+    boolean probe = circuitBreaker.acquire(key);
+    long startNanos = circuitBreaker.nanoTime();
+    boolean recorded = false;
+    try {
+      HttpResponse response = sendHttpRequest(httpRequest);
+      circuitBreaker.record(
+          key,
+          probe,
+          isServerError(response.getStatusCode()),
+          circuitBreaker.nanoTime() - startNanos);
+      recorded = true;
+      return response;
+    } catch (HttpResponseException e) {
+      circuitBreaker.record(
+          key, probe, isServerError(e.getStatusCode()), circuitBreaker.nanoTime() - startNanos);
+      recorded = true;
+      throw e;
+    } catch (IOException e) {
+      // a request shed by the client or cancelled has no outcome, unlike a timeout
+      if (!(e instanceof GoogleClientThrottledException)
+          && (!(e instanceof InterruptedIOException) || e instanceof SocketTimeoutException)) {
+        circuitBreaker.record(key, probe, true, circuitBreaker.nanoTime() - startNanos);
+        recorded = true;
+      }
+      throw e;
+    } finally {
+      if (!recorded) {
+        circuitBreaker.release(key, probe);
+      }
+    }
+  }
+
+  /** Sends the given HTTP request, recording its last attempt if it fails with an exception. */
+  private static HttpResponse sendHttpRequest(HttpRequest httpRequest) throws IOException {
+    try {
+      return httpRequest.execute();
+    } catch (IOException e) {
+      RequestMetricsRecorder.recordFailure(httpRequest, e);
+      throw e;
+    }
+  }
+
+  /** Returns whether the given status code is a server error, which fails the circuit breaker. */
+  private static boolean isServerError(int statusCode) {
+    return statusCode >= HttpStatusCodes.STATUS_CODE_SERVER_ERROR;
+  }
+
+  /** Records the headers and status of the given response as the last response. */
+  private void setLastResponse(HttpResponse response) {
     lastResponseHeaders = response.getHeaders();
     lastStatusCode = response.getStatusCode();
     lastStatusMessage = response.getStatusMessage();
-    return response;
   }
 
   /**
@@ -605,17 +852,311 @@ public abstract class AbstractGoogleClientRequest<T> extends GenericData {
     return new HttpResponseException(response);
   }
 
+  /**
+   * Returns whether the server rejected the request because the quota of the service was exceeded,
+   * which is reported to the {@link AbstractGoogleClient#getRateLimiter() rate limiter} of the
+   * client.
+   *
+   * <p>Default implementation returns whether the status code is {@code 429 Too Many Requests}, but
+   * subclasses may override to also inspect the parsed error.
+   *
+   * @param response HTTP response, whose content must not be read
+   * @param exception exception returned by {@link #newExceptionOnError} for the response or {@code
+   *     null} if the response is successful or no exception is thrown for it
+   * @since 2.9
+   */
+  protected boolean isQuotaExceeded(HttpResponse response, IOException exception) {
+    return response.getStatusCode() == STATUS_CODE_TOO_MANY_REQUESTS;
+  }
+
   /**
    * Sends the metadata request to the server and returns the parsed metadata response.
    *
+   * <p>If the client has a {@link AbstractGoogleClient#getResponseCache() response cache}, a GET
+   * request revalidates the cached response of its URL and response class and returns a copy of it
+   * if the server responds that it is not modified, see {@link GoogleClientResponseCache}.
+   *
+   * <p>If the client has a {@link AbstractGoogleClient#getSingleFlight() single flight}, a GET
+   * request joins an identical request in flight and returns a copy of its parsed response, see
+   * {@link GoogleClientSingleFlight}.
+   *
+   * <p>If the client has a {@link AbstractGoogleClient#getHedgingPolicy() hedging policy}, a slow
+   * GET request is sent again and the first response is returned, see {@link
+   * GoogleClientHedgingPolicy}.
+   *
    * <p>Subclasses may override by calling the super implementation.
    *
    * @return parsed HTTP response
    */
   public T execute() throws IOException {
+    if (uploader == null && requestMethod.equals(HttpMethods.GET)) {
+      GoogleClientSingleFlight singleFlight = abstractGoogleClient.getSingleFlight();
+      GoogleClientResponseCache responseCache = abstractGoogleClient.getResponseCache();
+      if (singleFlight != null
+          || responseCache != null
+          || abstractGoogleClient.getHedgingPolicy() != null) {
+        HttpRequest httpRequest = buildHttpRequest(false);
+        if (!httpRequest.getRequestMethod().equals(HttpMethods.GET)) {
+          // a long URL is sent in a POST, which is neither cached, deduplicated nor hedged
+          HttpResponse response = executeHttpRequest(httpRequest);
+          setLastResponse(response);
+          return response.parseAs(responseClass);
+        }
+        return singleFlight == null
+            ? executeGet(httpRequest, responseCache)
+            : executeWithSingleFlight(httpRequest, singleFlight, responseCache);
+      }
+    }
     return executeUnparsed().parseAs(responseClass);
   }
 
+  /**
+   * Sends the given GET request, or waits for an identical request in flight, and returns the
+   * parsed metadata response.
+   */
+  private T executeWithSingleFlight(
+      HttpRequest httpRequest,
+      GoogleClientSingleFlight singleFlight,
+      GoogleClientResponseCache responseCache)
+      throws IOException {
+    GoogleClientSingleFlight.Key key =
+        new GoogleClientSingleFlight.Key(
+            httpRequest.getUrl().build(), httpRequest.getHeaders().clone(), responseClass);
+    GoogleClientSingleFlight.Call call = new GoogleClientSingleFlight.Call();
+    GoogleClientSingleFlight.Call inFlight = singleFlight.join(key, call);
+    if (inFlight != null) {
+      Object value = inFlight.await();
+      lastResponseHeaders = inFlight.responseHeaders;
+      lastStatusCode = inFlight.statusCode;
+      lastStatusMessage = inFlight.statusMessage;
+      return responseClass.cast(value);
+    }
+    T result = null;
+    try {
+      result = executeGet(httpRequest, responseCache);
+      call.responseHeaders = lastResponseHeaders;
+      call.statusCode = lastStatusCode;
+      call.statusMessage = lastStatusMessage;
+    } catch (IOException | RuntimeException | Error e) {
+      call.exception = e;
+      throw e;
+    } finally {
+      // the requests that joined copy the parsed response, so it is copied here too if any did
+      call.value = result;
+      if (singleFlight.complete(key, call) && result != null) {
+        result = responseClass.cast(GoogleClientResponseCache.copy(result));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Sends the given GET request to the server, revalidating the cached response of its URL and
+   * response class if there is a response cache, and returns the parsed metadata response.
+   */
+  private T executeGet(HttpRequest httpRequest, GoogleClientResponseCache responseCache)
+      throws IOException {
+    if (responseCache == null || httpRequest.getHeaders().getIfNoneMatch() != null) {
+      // a request revalidated by the caller is left alone
+      GoogleClientHedgingPolicy hedgingPolicy = abstractGoogleClient.getHedgingPolicy();
+      if (hedgingPolicy != null) {
+        return executeHedged(httpRequest, hedgingPolicy);
+      }
+      HttpResponse response = executeHttpRequest(httpRequest);
+      setLastResponse(response);
+      return response.parseAs(responseClass);
+    }
+    GoogleClientResponseCache.Key key =
+        new GoogleClientResponseCache.Key(
+            httpRequest.getUrl().build(), responseClass, httpRequest.getHeaders().getAccept());
+    GoogleClientResponseCache.Entry entry = responseCache.get(key, httpRequest.getHeaders());
+    if (entry != null) {
+      httpRequest.getHeaders().setIfNoneMatch(entry.getETag());
+      // a 304 Not Modified response is not an error, while the other error responses are parsed by
+      // the response interceptor as usual
+      final HttpResponseInterceptor responseInterceptor = httpRequest.getResponseInterceptor();
+      httpRequest.setResponseInterceptor(
+          new HttpResponseInterceptor() {
+
+            public void interceptResponse(HttpResponse response) throws IOException {
+              if (response.getStatusCode() == HttpStatusCodes.STATUS_CODE_NOT_MODIFIED) {
+                response.getRequest().setThrowExceptionOnExecuteError(false);
+              }
+              responseInterceptor.interceptResponse(response);
+            }
+          });
+    }
+    HttpResponse response = executeHttpRequest(httpRequest);
+    if (entry != null && response.getStatusCode() == HttpStatusCodes.STATUS_CODE_NOT_MODIFIED) {
+      response.ignore();
+      setLastResponse(response);
+      return responseClass.cast(responseCache.hit(entry));
+    }
+    setLastResponse(response);
+    T result = response.parseAs(responseClass);
+    if (response.isSuccessStatusCode()) {
+      responseCache.miss(key, httpRequest.getHeaders(), response.getHeaders(), result);
+    }
+    return result;
+  }
+
+  /**
+   * Sends the given GET request to the server and, if it is slower than the hedge delay, a copy of
+   * it, and returns the first parsed metadata response.
+   *
+   * <p>One latency is recorded per request, from the start of the first attempt until its response
+   * headers arrived or, if the first attempt lost, until it was cancelled, so that hedging does not
+   * lower the hedge delay.
+   */
+  private T executeHedged(HttpRequest httpRequest, GoogleClientHedgingPolicy hedgingPolicy)
+      throws IOException {
+    String key = getMethodKey();
+    long delayNanos = hedgingPolicy.startRequest(key);
+    long startNanos = System.nanoTime();
+    if (delayNanos < 0) {
+      // not enough latencies were recorded to compute the hedge delay
+      HedgedAttempt attempt = new HedgedAttempt(httpRequest);
+      attempt.call();
+      hedgingPolicy.recordLatency(key, attempt.headersNanos - startNanos);
+      setLastResponse(attempt.response);
+      return attempt.value;
+    }
+    CompletionService<HedgedAttempt> completionService =
+        new ExecutorCompletionService<HedgedAttempt>(abstractGoogleClient.getExecutor());
+    List<HedgedAttempt> attempts = new ArrayList<HedgedAttempt>(2);
+    List<Future<HedgedAttempt>> futures = new ArrayList<Future<HedgedAttempt>>(2);
+    attempts.add(new HedgedAttempt(httpRequest));
+    futures.add(completionService.submit(attempts.get(0)));
+    try {
+      Future<HedgedAttempt> done = completionService.poll(delayNanos, TimeUnit.NANOSECONDS);
+      if (done == null && hedgingPolicy.tryAcquireHedge()) {
+        attempts.add(new HedgedAttempt(buildHttpRequest(false)));
+        futures.add(completionService.submit(attempts.get(1)));
+      }
+      ExecutionException failure = null;
+      for (int pending = futures.size(); pending > 0; pending--) {
+        if (done == null) {
+          done = completionService.take();
+        }
+        try {
+          HedgedAttempt attempt = done.get();
+          HedgedAttempt first = attempts.get(0);
+          // the first attempt, if it is still waiting for its response, is cancelled now
+          long endNanos = first.headersReceived ? first.headersNanos : System.nanoTime();
+          hedgingPolicy.recordLatency(key, endNanos - startNanos);
+          setLastResponse(attempt.response);
+          return attempt.value;
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e;
+          }
+        }
+        done = null;
+      }
+      Throwable cause = failure.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw (RuntimeException) cause;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      InterruptedIOException interrupted = new InterruptedIOException();
+      interrupted.initCause(e);
+      throw interrupted;
+    } finally {
+      // the attempt that lost, if any, is cancelled
+      for (int i = 0; i < futures.size(); i++) {
+        attempts.get(i).cancelled = true;
+        futures.get(i).cancel(true);
+      }
+    }
+  }
+
+  /** Attempt of a hedged request, which sends it and parses its response. */
+  private final class HedgedAttempt implements Callable<HedgedAttempt> {
+
+    private final HttpRequest httpRequest;
+
+    /** Current span of the thread that created the attempt or {@code null} for none. */
+    private final GoogleClientSpan parentSpan = GoogleClientSpan.current();
+
+    /** Whether the attempt is cancelled, in which case its response is not parsed. */
+    volatile boolean cancelled;
+
+    /** Whether the response headers arrived, at {@link #headersNanos}. */
+    volatile boolean headersReceived;
+
+    /** {@link System#nanoTime()} at which the response headers arrived. */
+    volatile long headersNanos;
+
+    HttpResponse response;
+    T value;
+
+    HedgedAttempt(HttpRequest httpRequest) {
+      this.httpRequest = httpRequest;
+    }
+
+    public HedgedAttempt call() throws IOException {
+      if (parentSpan == null) {
+        return send();
+      }
+      // the span of the attempt is a child of the span of the caller on another thread
+      GoogleClientSpan.Scope scope = parentSpan.makeCurrent();
+      try {
+        return send();
+      } finally {
+        scope.close();
+      }
+    }
+
+    private HedgedAttempt send() throws IOException {
+      response = executeHttpRequest(httpRequest);
+      headersNanos = System.nanoTime();
+      headersReceived = true;
+      if (cancelled) {
+        response.disconnect();
+        throw new InterruptedIOException("Hedged request cancelled");
+      }
+      value = response.parseAs(responseClass);
+      return this;
+    }
+  }
+
+  /**
+   * Sends the metadata request to the server on the {@link AbstractGoogleClient#getExecutor()
+   * executor} of the client and returns a future of the parsed metadata response.
+   *
+   * <p>The request calls {@link #execute()} on another thread, so it must not be modified until the
+   * future is done. The future fails with the {@link IOException} thrown by {@link #execute()}.
+   * Example usage:
+   *
+   * <pre>{@code
+   * ListenableFuture<File> future = drive.files().get(fileId).executeAsync();
+   * Futures.addCallback(future, callback, executor);
+   * }</pre>
+   *
+   * @return future of the parsed HTTP response
+   * @since 2.9
+   */
+  public final ListenableFuture<T> executeAsync() {
+    return submit(
+        new Callable<T>() {
+          public T call() throws IOException {
+            return execute();
+          }
+        });
+  }
+
+  /** Runs the given call on the executor of the client and returns its future. */
+  private <V> ListenableFuture<V> submit(Callable<V> call) {
+    ListenableFutureTask<V> task = ListenableFutureTask.create(call);
+    abstractGoogleClient.getExecutor().execute(task);
+    return task;
+  }
+
   /**
    * Sends the metadata request to the server and returns the metadata content input stream of
    * {@link HttpResponse}.
@@ -690,7 +1231,7 @@ public abstract class AbstractGoogleClientRequest<T> extends GenericData {
     if (downloader == null) {
       executeMedia().download(outputStream);
     } else {
-      downloader.download(buildHttpRequestUrl(), requestHeaders, outputStream);
+      downloader.download(buildHttpRequestUrl(), getRequestHeaders(), outputStream);
     }
   }
 
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.util.Beta;
+import com.google.api.client.util.NanoClock;
+import com.google.api.client.util.Preconditions;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link Beta} <br>
+ * Rate limiter that sheds requests of an API method on the client when the server recently rejected
+ * many of them for exceeding the quota, as in the adaptive throttling described in the "Handling
+ * Overload" chapter of the Site Reliability Engineering book.
+ *
+ * <p>For each API method, it counts over the last {@link #getWindowSeconds()} seconds the requests
+ * and the requests accepted by the server, which are the responses whose quota was not exceeded. A
+ * request is shed with a {@link GoogleClientThrottledException} with probability:
+ *
+ * <pre>
+ * max(0, (requests - multiplier * accepts) / (requests + 1))
+ * </pre>
+ *
+ * <p>where the shed requests are also counted as requests. As long as the server accepts more than
+ * {@code 1 / multiplier} of the requests, no request is shed. A lower {@link #getMultiplier()
+ * multiplier} sheds requests more aggressively.
+ *
+ * <p>Implementation is thread-safe.
+ *
+ * @since 2.9
+ */
+@Beta
+public class AdaptiveThrottlingRateLimiter extends GoogleClientRateLimiter {
+
+  /** Default multiplier of the accepted requests. */
+  public static final double DEFAULT_MULTIPLIER = 2;
+
+  /** Default number of seconds over which requests are counted. */
+  public static final int DEFAULT_WINDOW_SECONDS = 120;
+
+  private final double multiplier;
+  private final int windowSeconds;
+  private final NanoClock nanoClock;
+  private final Random random;
+
+  /** Lock on {@link #windows}. */
+  private final Lock lock = new ReentrantLock();
+
+  /** Windows of request counts by key. */
+  private final Map<String, Window> windows = new HashMap<String, Window>();
+
+  /**
+   * Creates a rate limiter with a {@link #DEFAULT_MULTIPLIER} and a window of {@link
+   * #DEFAULT_WINDOW_SECONDS}.
+   */
+  public AdaptiveThrottlingRateLimiter() {
+    this(DEFAULT_MULTIPLIER, DEFAULT_WINDOW_SECONDS);
+  }
+
+  /**
+   * @param multiplier multiplier of the accepted requests, at least {@code 1}
+   * @param windowSeconds number of seconds over which requests are counted
+   */
+  public AdaptiveThrottlingRateLimiter(double multiplier, int windowSeconds) {
+    this(multiplier, windowSeconds, NanoClock.SYSTEM, new Random());
+  }
+
+  AdaptiveThrottlingRateLimiter(
+      double multiplier, int windowSeconds, NanoClock nanoClock, Random random) {
+    Preconditions.checkArgument(multiplier >= 1);
+    Preconditions.checkArgument(windowSeconds > 0);
+    this.multiplier = multiplier;
+    this.windowSeconds = windowSeconds;
+    this.nanoClock = Preconditions.checkNotNull(nanoClock);
+    this.random = Preconditions.checkNotNull(random);
+  }
+
+  /** Returns the multiplier of the accepted requests. */
+  public final double getMultiplier() {
+    return multiplier;
+  }
+
+  /** Returns the number of seconds over which requests are counted. */
+  public final int getWindowSeconds() {
+    return windowSeconds;
+  }
+
+  /** Returns the current probability that a request of the given key is shed. */
+  public final double getRejectionProbability(String key) {
+    lock.lock();
+    try {
+      Window window = windows.get(key);
+      return window == null ? 0 : window.rejectionProbability(currentSecond());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void acquire(AbstractGoogleClientRequest<?> request) throws IOException {
+    String key = getKey(request);
+    double rejectionProbability;
+    lock.lock();
+    try {
+      Window window = windows.get(key);
+      if (window == null) {
+        return;
+      }
+      long second = currentSecond();
+      rejectionProbability = window.rejectionProbability(second);
+      if (rejectionProbability == 0 || random.nextDouble() >= rejectionProbability) {
+        return;
+      }
+      window.add(second, 1, 0);
+    } finally {
+      lock.unlock();
+    }
+    throw new GoogleClientThrottledException(
+        key,
+        String.format(
+            Locale.US,
+            "Request shed by adaptive throttling with probability %.2f",
+            rejectionProbability));
+  }
+
+  @Override
+  public void onResponse(
+      AbstractGoogleClientRequest<?> request, HttpResponse response, boolean quotaExceeded) {
+    String key = getKey(request);
+    lock.lock();
+    try {
+      Window window = windows.get(key);
+      if (window == null) {
+        window = new Window(windowSeconds);
+        windows.put(key, window);
+      }
+      window.add(currentSecond(), 1, quotaExceeded ? 0 : 1);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private long currentSecond() {
+    return TimeUnit.NANOSECONDS.toSeconds(nanoClock.nanoTime());
+  }
+
+  /**
+   * Counts of requests and accepted requests per second over a sliding window, which is guarded by
+   * the lock of the rate limiter.
+   */
+  private final class Window {
+
+    private final long[] seconds;
+    private final long[] requests;
+    private final long[] accepts;
+
+    Window(int windowSeconds) {
+      seconds = new long[windowSeconds];
+      requests = new long[windowSeconds];
+      accepts = new long[windowSeconds];
+    }
+
+    void add(long second, long requestCount, long acceptCount) {
+      int slot = (int) ((second % seconds.length + seconds.length) % seconds.length);
+      if (seconds[slot] != second) {
+        seconds[slot] = second;
+        requests[slot] = 0;
+        accepts[slot] = 0;
+      }
+      requests[slot] += requestCount;
+      accepts[slot] += acceptCount;
+    }
+
+    double rejectionProbability(long second) {
+      long requestCount = 0;
+      long acceptCount = 0;
+      for (int slot = 0; slot < seconds.length; slot++) {
+        if (second - seconds[slot] < seconds.length) {
+          requestCount += requests[slot];
+          acceptCount += accepts[slot];
+        }
+      }
+      return Math.max(0, (requestCount - multiplier * acceptCount) / (requestCount + 1));
+    }
+  }
+}
@@ -0,0 +1,515 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.util.Beta;
+import com.google.api.client.util.NanoClock;
+import com.google.api.client.util.Preconditions;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link Beta} <br>
+ * Circuit breaker of the requests of a Google client, which fails requests of an API method fast
+ * while the method is failing or slow, instead of letting them wait for timeouts.
+ *
+ * <p>When a circuit breaker is set with {@link AbstractGoogleClient.Builder#setCircuitBreaker}, the
+ * outcome of every metadata request is recorded in the circuit of its API method, identified by the
+ * base URL of the client, the HTTP method and the URI template. A request fails when it gets no
+ * response, for example because of a timeout, or a response with a {@code 5xx} status code, and it
+ * is slow when its response takes at least {@link #getSlowCallMillis()}. Other error responses are
+ * the fault of the request and count as successes.
+ *
+ * <p>A circuit is:
+ *
+ * <ul>
+ *   <li>{@link State#CLOSED} while the requests succeed. It records the outcomes of the last {@link
+ *       #getWindowSize()} requests and opens when at least {@link #getMinimumRequests()} were
+ *       recorded and the failure rate reaches {@link #getFailureRateThreshold()} or the slow call
+ *       rate reaches {@link #getSlowCallRateThreshold()}.
+ *   <li>{@link State#OPEN} for {@link #getOpenMillis()}, during which requests fail with a {@link
+ *       GoogleClientCircuitOpenException} without being sent.
+ *   <li>{@link State#HALF_OPEN} afterwards, when it lets {@link #getProbeRequests()} probe requests
+ *       through and fails the others. It closes if all of them succeed and are not slow, and opens
+ *       again as soon as one of them fails or is slow.
+ * </ul>
+ *
+ * <p>Media uploads and batch requests do not go through the circuit breaker.
+ *
+ * <p>Implementation is thread-safe.
+ *
+ * @since 2.9
+ */
+@Beta
+public final class GoogleClientCircuitBreaker {
+
+  /** State of a circuit. */
+  public enum State {
+
+    /** Requests are sent and their outcomes are recorded. */
+    CLOSED,
+
+    /** Requests fail fast. */
+    OPEN,
+
+    /** Probe requests are sent to find out whether the API method recovered. */
+    HALF_OPEN
+  }
+
+  private final int windowSize;
+  private final int minimumRequests;
+  private final double failureRateThreshold;
+  private final double slowCallRateThreshold;
+  private final long slowCallMillis;
+  private final long openMillis;
+  private final int probeRequests;
+  private final NanoClock nanoClock;
+
+  /** Lock on {@link #circuits}. */
+  private final Lock lock = new ReentrantLock();
+
+  /** Circuits by key. */
+  private final Map<String, Circuit> circuits = new HashMap<String, Circuit>();
+
+  private final AtomicLong openedCount = new AtomicLong();
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  GoogleClientCircuitBreaker(Builder builder) {
+    windowSize = builder.windowSize;
+    minimumRequests = Math.min(builder.minimumRequests, builder.windowSize);
+    failureRateThreshold = builder.failureRateThreshold;
+    slowCallRateThreshold = builder.slowCallRateThreshold;
+    slowCallMillis = builder.slowCallMillis;
+    openMillis = builder.openMillis;
+    probeRequests = builder.probeRequests;
+    nanoClock = builder.nanoClock;
+  }
+
+  /** Creates a circuit breaker with the default settings of {@link Builder}. */
+  public GoogleClientCircuitBreaker() {
+    this(new Builder());
+  }
+
+  /** Returns the number of most recent outcomes recorded by a closed circuit. */
+  public int getWindowSize() {
+    return windowSize;
+  }
+
+  /** Returns the minimum number of recorded outcomes before a closed circuit may open. */
+  public int getMinimumRequests() {
+    return minimumRequests;
+  }
+
+  /** Returns the failure rate at which a closed circuit opens. */
+  public double getFailureRateThreshold() {
+    return failureRateThreshold;
+  }
+
+  /** Returns the slow call rate at which a closed circuit opens. */
+  public double getSlowCallRateThreshold() {
+    return slowCallRateThreshold;
+  }
+
+  /** Returns the duration in milliseconds from which a request is slow. */
+  public long getSlowCallMillis() {
+    return slowCallMillis;
+  }
+
+  /** Returns the duration in milliseconds for which a circuit stays open. */
+  public long getOpenMillis() {
+    return openMillis;
+  }
+
+  /** Returns the number of probe requests of a half-open circuit. */
+  public int getProbeRequests() {
+    return probeRequests;
+  }
+
+  /** Returns the number of times a circuit opened. */
+  public long getOpenedCount() {
+    return openedCount.get();
+  }
+
+  /** Returns the number of requests that failed fast. */
+  public long getRejectedCount() {
+    return rejectedCount.get();
+  }
+
+  /** Returns the state of the circuit of the given key. */
+  public State getState(String key) {
+    lock.lock();
+    try {
+      Circuit circuit = circuits.get(key);
+      if (circuit == null) {
+        return State.CLOSED;
+      }
+      circuit.updateState(nanoClock.nanoTime());
+      return circuit.state;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the failure rate of the outcomes recorded by the circuit of the given key, or {@code 0}
+   * if it recorded none.
+   */
+  public double getFailureRate(String key) {
+    lock.lock();
+    try {
+      Circuit circuit = circuits.get(key);
+      return circuit == null || circuit.count == 0 ? 0 : (double) circuit.failures / circuit.count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the slow call rate of the outcomes recorded by the circuit of the given key, or {@code
+   * 0} if it recorded none.
+   */
+  public double getSlowCallRate(String key) {
+    lock.lock();
+    try {
+      Circuit circuit = circuits.get(key);
+      return circuit == null || circuit.count == 0 ? 0 : (double) circuit.slowCalls / circuit.count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Closes all the circuits and discards their recorded outcomes. */
+  public void reset() {
+    lock.lock();
+    try {
+      circuits.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Acquires the permission to send a request of the given key.
+   *
+   * @return whether the request is a probe request of a half-open circuit
+   * @throws GoogleClientCircuitOpenException if the request must fail fast
+   */
+  boolean acquire(String key) throws GoogleClientCircuitOpenException {
+    lock.lock();
+    try {
+      Circuit circuit = circuits.get(key);
+      if (circuit == null) {
+        return false;
+      }
+      long now = nanoClock.nanoTime();
+      circuit.updateState(now);
+      switch (circuit.state) {
+        case OPEN:
+          rejectedCount.incrementAndGet();
+          throw new GoogleClientCircuitOpenException(
+              key, TimeUnit.NANOSECONDS.toMillis(circuit.openUntilNanos - now));
+        case HALF_OPEN:
+          if (circuit.probesInFlight + circuit.probeSuccesses >= probeRequests) {
+            rejectedCount.incrementAndGet();
+            throw new GoogleClientCircuitOpenException(key, 0);
+          }
+          circuit.probesInFlight++;
+          return true;
+        default:
+          return false;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Records the outcome of a request of the given key.
+   *
+   * @param key key of the request
+   * @param probe whether the request is a probe request as returned by {@link #acquire}
+   * @param failed whether the request failed
+   * @param latencyNanos latency of the request in nanoseconds
+   */
+  void record(String key, boolean probe, boolean failed, long latencyNanos) {
+    boolean slow = latencyNanos >= TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+    lock.lock();
+    try {
+      Circuit circuit = circuits.get(key);
+      if (circuit == null) {
+        circuit = new Circuit();
+        circuits.put(key, circuit);
+      }
+      long now = nanoClock.nanoTime();
+      circuit.updateState(now);
+      if (circuit.state == State.HALF_OPEN) {
+        // only the outcomes of the probe requests decide whether the circuit closes
+        if (!probe) {
+          return;
+        }
+        circuit.probesInFlight--;
+        if (failed || slow) {
+          circuit.open(now);
+        } else if (++circuit.probeSuccesses >= probeRequests) {
+          circuit.close();
+        }
+      } else if (circuit.state == State.CLOSED) {
+        circuit.add(failed, slow);
+        if (circuit.count >= minimumRequests
+            && (circuit.failures >= failureRateThreshold * circuit.count
+                || circuit.slowCalls >= slowCallRateThreshold * circuit.count)) {
+          circuit.open(now);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns the current value of the nano clock used to measure the latency of requests. */
+  long nanoTime() {
+    return nanoClock.nanoTime();
+  }
+
+  /** Releases the permission of a request of the given key that has no outcome to record. */
+  void release(String key, boolean probe) {
+    if (!probe) {
+      return;
+    }
+    lock.lock();
+    try {
+      Circuit circuit = circuits.get(key);
+      if (circuit != null && circuit.state == State.HALF_OPEN) {
+        circuit.probesInFlight--;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Circuit of an API method, which is guarded by the lock of the circuit breaker. */
+  private final class Circuit {
+
+    State state = State.CLOSED;
+
+    /** Recorded outcomes in a ring, where bit 0 is set for a failure and bit 1 for a slow call. */
+    private final byte[] outcomes = new byte[windowSize];
+
+    private int next;
+    int count;
+    int failures;
+    int slowCalls;
+
+    long openUntilNanos;
+    int probesInFlight;
+    int probeSuccesses;
+
+    void add(boolean failed, boolean slow) {
+      if (count == windowSize) {
+        byte removed = outcomes[next];
+        failures -= removed & 1;
+        slowCalls -= removed >> 1;
+      } else {
+        count++;
+      }
+      outcomes[next] = (byte) ((failed ? 1 : 0) | (slow ? 2 : 0));
+      failures += failed ? 1 : 0;
+      slowCalls += slow ? 1 : 0;
+      next = (next + 1) % windowSize;
+    }
+
+    void open(long now) {
+      state = State.OPEN;
+      openUntilNanos = now + TimeUnit.MILLISECONDS.toNanos(openMillis);
+      openedCount.incrementAndGet();
+    }
+
+    void close() {
+      state = State.CLOSED;
+      next = 0;
+      count = 0;
+      failures = 0;
+      slowCalls = 0;
+    }
+
+    void updateState(long now) {
+      if (state == State.OPEN && now - openUntilNanos >= 0) {
+        state = State.HALF_OPEN;
+        probesInFlight = 0;
+        probeSuccesses = 0;
+      }
+    }
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Builder of {@link GoogleClientCircuitBreaker}.
+   *
+   * <p>Implementation is not thread-safe.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public static final class Builder {
+
+    int windowSize = 100;
+    int minimumRequests = 20;
+    double failureRateThreshold = 0.5;
+    double slowCallRateThreshold = 1;
+    long slowCallMillis = 60000;
+    long openMillis = 30000;
+    int probeRequests = 3;
+    NanoClock nanoClock = NanoClock.SYSTEM;
+
+    /** Returns the number of most recent outcomes recorded by a closed circuit. */
+    public int getWindowSize() {
+      return windowSize;
+    }
+
+    /**
+     * Sets the number of most recent outcomes recorded by a closed circuit.
+     *
+     * <p>Default value is {@code 100}.
+     */
+    public Builder setWindowSize(int windowSize) {
+      Preconditions.checkArgument(windowSize > 0);
+      this.windowSize = windowSize;
+      return this;
+    }
+
+    /** Returns the minimum number of recorded outcomes before a closed circuit may open. */
+    public int getMinimumRequests() {
+      return minimumRequests;
+    }
+
+    /**
+     * Sets the minimum number of recorded outcomes before a closed circuit may open, which is
+     * capped by the window size.
+     *
+     * <p>Default value is {@code 20}.
+     */
+    public Builder setMinimumRequests(int minimumRequests) {
+      Preconditions.checkArgument(minimumRequests > 0);
+      this.minimumRequests = minimumRequests;
+      return this;
+    }
+
+    /** Returns the failure rate at which a closed circuit opens. */
+    public double getFailureRateThreshold() {
+      return failureRateThreshold;
+    }
+
+    /**
+     * Sets the failure rate between {@code 0} exclusive and {@code 1} inclusive at which a closed
+     * circuit opens.
+     *
+     * <p>Default value is {@code 0.5}.
+     */
+    public Builder setFailureRateThreshold(double failureRateThreshold) {
+      Preconditions.checkArgument(failureRateThreshold > 0 && failureRateThreshold <= 1);
+      this.failureRateThreshold = failureRateThreshold;
+      return this;
+    }
+
+    /** Returns the slow call rate at which a closed circuit opens. */
+    public double getSlowCallRateThreshold() {
+      return slowCallRateThreshold;
+    }
+
+    /**
+     * Sets the slow call rate between {@code 0} exclusive and {@code 1} inclusive at which a closed
+     * circuit opens.
+     *
+     * <p>Default value is {@code 1}.
+     */
+    public Builder setSlowCallRateThreshold(double slowCallRateThreshold) {
+      Preconditions.checkArgument(slowCallRateThreshold > 0 && slowCallRateThreshold <= 1);
+      this.slowCallRateThreshold = slowCallRateThreshold;
+      return this;
+    }
+
+    /** Returns the duration in milliseconds from which a request is slow. */
+    public long getSlowCallMillis() {
+      return slowCallMillis;
+    }
+
+    /**
+     * Sets the duration in milliseconds from which a request is slow.
+     *
+     * <p>Default value is {@code 60000}.
+     */
+    public Builder setSlowCallMillis(long slowCallMillis) {
+      Preconditions.checkArgument(slowCallMillis > 0);
+      this.slowCallMillis = slowCallMillis;
+      return this;
+    }
+
+    /** Returns the duration in milliseconds for which a circuit stays open. */
+    public long getOpenMillis() {
+      return openMillis;
+    }
+
+    /**
+     * Sets the duration in milliseconds for which a circuit stays open.
+     *
+     * <p>Default value is {@code 30000}.
+     */
+    public Builder setOpenMillis(long openMillis) {
+      Preconditions.checkArgument(openMillis >= 0);
+      this.openMillis = openMillis;
+      return this;
+    }
+
+    /** Returns the number of probe requests of a half-open circuit. */
+    public int getProbeRequests() {
+      return probeRequests;
+    }
+
+    /**
+     * Sets the number of probe requests of a half-open circuit.
+     *
+     * <p>Default value is {@code 3}.
+     */
+    public Builder setProbeRequests(int probeRequests) {
+      Preconditions.checkArgument(probeRequests > 0);
+      this.probeRequests = probeRequests;
+      return this;
+    }
+
+    /** Returns the nano clock used to measure latencies and the time a circuit stays open. */
+    public NanoClock getNanoClock() {
+      return nanoClock;
+    }
+
+    /**
+     * Sets the nano clock used to measure latencies and the time a circuit stays open.
+     *
+     * <p>Default value is {@link NanoClock#SYSTEM}. Overriding is mostly useful for testing.
+     */
+    public Builder setNanoClock(NanoClock nanoClock) {
+      this.nanoClock = Preconditions.checkNotNull(nanoClock);
+      return this;
+    }
+
+    /** Returns a new instance of the circuit breaker based on the options in this builder. */
+    public GoogleClientCircuitBreaker build() {
+      return new GoogleClientCircuitBreaker(this);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.util.Beta;
+import java.io.IOException;
+
+/**
+ * {@link Beta} <br>
+ * Exception thrown when a request fails fast without being sent to the server because the circuit
+ * of its API method is open in the {@link GoogleClientCircuitBreaker} of its client.
+ *
+ * @since 2.9
+ */
+@Beta
+public class GoogleClientCircuitOpenException extends IOException {
+
+  private static final long serialVersionUID = 1L;
+
+  /** Key of the circuit. */
+  private final String key;
+
+  /** Time in milliseconds until the circuit lets a probe request through. */
+  private final long retryAfterMillis;
+
+  /**
+   * @param key key of the circuit
+   * @param retryAfterMillis time in milliseconds until the circuit lets a probe request through
+   */
+  public GoogleClientCircuitOpenException(String key, long retryAfterMillis) {
+    super("Circuit of " + key + " is open, retry after " + retryAfterMillis + " ms");
+    this.key = key;
+    this.retryAfterMillis = retryAfterMillis;
+  }
+
+  /** Returns the key of the circuit. */
+  public final String getKey() {
+    return key;
+  }
+
+  /**
+   * Returns the time in milliseconds until the circuit lets a probe request through, which is
+   * {@code 0} if the circuit is half-open and all its probe requests are in flight.
+   */
+  public final long getRetryAfterMillis() {
+    return retryAfterMillis;
+  }
+}
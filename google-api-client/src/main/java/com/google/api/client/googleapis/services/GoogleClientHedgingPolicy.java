@@ -0,0 +1,220 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.util.Beta;
+import com.google.api.client.util.Preconditions;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link Beta} <br>
+ * Policy of hedged GET requests of a Google client, which sends a second copy of a request that is
+ * slower than most requests of its API method and takes whichever response completes first.
+ *
+ * <p>When a policy is set with {@link AbstractGoogleClient.Builder#setHedgingPolicy}, {@link
+ * AbstractGoogleClientRequest#execute()} of a GET request sends the request on the {@link
+ * AbstractGoogleClient#getExecutor() executor} of the client and waits for it for the hedge delay,
+ * which is the {@link #getPercentile() percentile} of the recent latencies of the API method but at
+ * least {@link #getMinDelayMillis()}. If the request has not completed by then, a copy of it is
+ * sent and the first response to be parsed successfully is returned. The other request is
+ * cancelled: its thread is interrupted and its response is disconnected without being parsed.
+ *
+ * <p>The hedge budget caps the extra load: every request adds {@link #getMaxHedgeRatio()} to the
+ * budget, up to {@link #MAX_BUDGET}, and a hedge is only sent if it can take one from the budget.
+ * No hedge is sent for an API method until {@link #MIN_SAMPLE_COUNT} latencies were recorded. The
+ * latency of a request is measured from the start of its first copy until its response headers
+ * arrive or, if the hedge won, until the first copy is cancelled.
+ *
+ * <p>Requests revalidated with a {@link AbstractGoogleClient#getResponseCache() response cache} are
+ * not hedged.
+ *
+ * <p>Implementation is thread-safe.
+ *
+ * @since 2.9
+ */
+@Beta
+public final class GoogleClientHedgingPolicy {
+
+  /** Default percentile of the latencies used as the hedge delay. */
+  public static final double DEFAULT_PERCENTILE = 95;
+
+  /** Default maximum ratio of hedges to requests. */
+  public static final double DEFAULT_MAX_HEDGE_RATIO = 0.05;
+
+  /** Default minimum hedge delay in milliseconds. */
+  public static final long DEFAULT_MIN_DELAY_MILLIS = 10;
+
+  /** Maximum number of hedges in the budget, which caps the hedges sent in a burst. */
+  public static final int MAX_BUDGET = 10;
+
+  /** Minimum number of latencies of an API method recorded before a hedge is sent. */
+  public static final int MIN_SAMPLE_COUNT = 32;
+
+  /** Number of recent latencies of an API method used to compute the hedge delay. */
+  static final int SAMPLE_COUNT = 256;
+
+  /** Number of latencies recorded between two computations of the hedge delay. */
+  private static final int RECOMPUTE_INTERVAL = 16;
+
+  private final double percentile;
+  private final double maxHedgeRatio;
+  private final long minDelayMillis;
+
+  /** Lock on {@link #latencies} and {@link #budget}. */
+  private final Lock lock = new ReentrantLock();
+
+  /** Recent latencies by key. */
+  private final Map<String, Latencies> latencies = new HashMap<String, Latencies>();
+
+  private double budget = MAX_BUDGET;
+
+  private final AtomicLong hedgeCount = new AtomicLong();
+
+  /**
+   * Creates a policy with a {@link #DEFAULT_PERCENTILE}, a {@link #DEFAULT_MAX_HEDGE_RATIO} and a
+   * {@link #DEFAULT_MIN_DELAY_MILLIS}.
+   */
+  public GoogleClientHedgingPolicy() {
+    this(DEFAULT_PERCENTILE, DEFAULT_MAX_HEDGE_RATIO, DEFAULT_MIN_DELAY_MILLIS);
+  }
+
+  /**
+   * @param percentile percentile between {@code 0} and {@code 100} of the latencies used as the
+   *     hedge delay
+   * @param maxHedgeRatio maximum ratio of hedges to requests between {@code 0} and {@code 1}
+   * @param minDelayMillis minimum hedge delay in milliseconds
+   */
+  public GoogleClientHedgingPolicy(double percentile, double maxHedgeRatio, long minDelayMillis) {
+    Preconditions.checkArgument(percentile >= 0 && percentile <= 100);
+    Preconditions.checkArgument(maxHedgeRatio >= 0 && maxHedgeRatio <= 1);
+    Preconditions.checkArgument(minDelayMillis >= 0);
+    this.percentile = percentile;
+    this.maxHedgeRatio = maxHedgeRatio;
+    this.minDelayMillis = minDelayMillis;
+  }
+
+  /** Returns the percentile of the latencies used as the hedge delay. */
+  public double getPercentile() {
+    return percentile;
+  }
+
+  /** Returns the maximum ratio of hedges to requests. */
+  public double getMaxHedgeRatio() {
+    return maxHedgeRatio;
+  }
+
+  /** Returns the minimum hedge delay in milliseconds. */
+  public long getMinDelayMillis() {
+    return minDelayMillis;
+  }
+
+  /** Returns the number of hedges sent. */
+  public long getHedgeCount() {
+    return hedgeCount.get();
+  }
+
+  /**
+   * Returns the current hedge delay in milliseconds of the given key, which identifies an API
+   * method, or {@code -1} if not enough latencies were recorded.
+   */
+  public long getHedgeDelayMillis(String key) {
+    long delayNanos = getHedgeDelayNanos(key);
+    return delayNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(delayNanos);
+  }
+
+  /**
+   * Starts a request of the given key, adding to the hedge budget, and returns its hedge delay in
+   * nanoseconds or {@code -1} if it must not be hedged.
+   */
+  long startRequest(String key) {
+    lock.lock();
+    try {
+      budget = Math.min(MAX_BUDGET, budget + maxHedgeRatio);
+    } finally {
+      lock.unlock();
+    }
+    return getHedgeDelayNanos(key);
+  }
+
+  /** Takes a hedge from the budget and returns whether the budget allowed it. */
+  boolean tryAcquireHedge() {
+    lock.lock();
+    try {
+      if (budget < 1) {
+        return false;
+      }
+      budget--;
+    } finally {
+      lock.unlock();
+    }
+    hedgeCount.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Records the latency in nanoseconds of a request of the given key, measured from the start of
+   * its first copy.
+   */
+  void recordLatency(String key, long nanos) {
+    lock.lock();
+    try {
+      Latencies keyLatencies = latencies.get(key);
+      if (keyLatencies == null) {
+        keyLatencies = new Latencies();
+        latencies.put(key, keyLatencies);
+      }
+      keyLatencies.record(nanos);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private long getHedgeDelayNanos(String key) {
+    lock.lock();
+    try {
+      Latencies keyLatencies = latencies.get(key);
+      return keyLatencies == null ? -1 : keyLatencies.delayNanos;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Ring of recent latencies of an API method, which is guarded by the lock of the policy. */
+  private final class Latencies {
+
+    private final long[] samples = new long[SAMPLE_COUNT];
+    private long count;
+
+    /** Hedge delay in nanoseconds or {@code -1} if not enough latencies were recorded. */
+    long delayNanos = -1;
+
+    void record(long nanos) {
+      samples[(int) (count++ % SAMPLE_COUNT)] = nanos;
+      if (count >= MIN_SAMPLE_COUNT && (delayNanos < 0 || count % RECOMPUTE_INTERVAL == 0)) {
+        long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, SAMPLE_COUNT));
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        long percentileNanos = sorted[Math.max(0, rank - 1)];
+        delayNanos = Math.max(percentileNanos, TimeUnit.MILLISECONDS.toNanos(minDelayMillis));
+      }
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.util.Beta;
+
+/**
+ * {@link Beta} <br>
+ * Service provider interface of the metrics of the requests of a Google client.
+ *
+ * <p>When metrics are set with {@link AbstractGoogleClient.Builder#setMetrics}, {@link
+ * #recordAttempt} is called once for every attempt of sending a metadata request, including retries
+ * and redirects. Media uploads and batch requests are not recorded. Implementations may export the
+ * attempts to a monitoring system or aggregate them, see {@link InMemoryGoogleClientMetrics}.
+ *
+ * <p>Implementations must be thread-safe and should return quickly, since they are called on the
+ * thread that sends the request.
+ *
+ * @since 2.9
+ */
+@Beta
+public interface GoogleClientMetrics {
+
+  /** Metrics that record nothing, which is the default of a client. */
+  GoogleClientMetrics NOOP =
+      new GoogleClientMetrics() {
+        public void recordAttempt(GoogleClientRequestAttempt attempt) {}
+      };
+
+  /**
+   * Records the given completed attempt of sending a request.
+   *
+   * @param attempt completed attempt
+   */
+  void recordAttempt(GoogleClientRequestAttempt attempt);
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.util.Beta;
+import java.io.IOException;
+
+/**
+ * {@link Beta} <br>
+ * Client-side rate limiter of the requests of a Google client, which delays or sheds requests
+ * before they are sent so that they do not exceed the quota of the service.
+ *
+ * <p>When a rate limiter is set with {@link AbstractGoogleClient.Builder#setRateLimiter}, {@link
+ * #acquire} is called before every attempt of sending a request, including retries, and {@link
+ * #onResponse} is called with the final response of the request. Media uploads and batch requests
+ * are not rate limited.
+ *
+ * <p>Rate limiters usually keep a separate state per API method, identified by {@link #getKey}.
+ * Implementations must be thread-safe since a rate limiter is shared by all the requests of a
+ * client and may be shared by several clients.
+ *
+ * @since 2.9
+ * @see TokenBucketRateLimiter
+ * @see AdaptiveThrottlingRateLimiter
+ */
+@Beta
+public abstract class GoogleClientRateLimiter {
+
+  /**
+   * Acquires a permit to send an attempt of the given request, blocking until the request may be
+   * sent.
+   *
+   * @param request request to send
+   * @throws GoogleClientThrottledException if the request is shed and must not be sent
+   * @throws IOException if the thread is interrupted while waiting
+   */
+  public abstract void acquire(AbstractGoogleClientRequest<?> request) throws IOException;
+
+  /**
+   * Records the final response of the given request.
+   *
+   * @param request request that was sent
+   * @param response HTTP response, whose content must not be read
+   * @param quotaExceeded whether the server rejected the request because the quota of the service
+   *     was exceeded, see {@link AbstractGoogleClientRequest#isQuotaExceeded}
+   */
+  public abstract void onResponse(
+      AbstractGoogleClientRequest<?> request, HttpResponse response, boolean quotaExceeded);
+
+  /**
+   * Returns the key of the state kept for the given request.
+   *
+   * <p>Default implementation identifies the API method of the request by the root URL and service
+   * path of its client, its HTTP method and its URI template, but subclasses may override, for
+   * example to share a single state by all the methods of a service.
+   */
+  protected String getKey(AbstractGoogleClientRequest<?> request) {
+    return request.getMethodKey();
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.util.Beta;
+import java.io.IOException;
+
+/**
+ * {@link Beta} <br>
+ * Completed attempt of sending a request of a Google client, which is recorded by {@link
+ * GoogleClientMetrics}.
+ *
+ * <p>An attempt is labeled with the service, the API method and the universe domain of its request.
+ * It either got a response with a {@link #getStatusCode()} or failed with {@link #getException()}.
+ *
+ * @since 2.9
+ */
+@Beta
+public final class GoogleClientRequestAttempt {
+
+  private final String service;
+  private final String method;
+  private final String universeDomain;
+  private final int attemptCount;
+  private final long latencyNanos;
+  private final int statusCode;
+  private final long requestContentLength;
+  private final long responseContentLength;
+  private final IOException exception;
+
+  GoogleClientRequestAttempt(
+      String service,
+      String method,
+      String universeDomain,
+      int attemptCount,
+      long latencyNanos,
+      int statusCode,
+      long requestContentLength,
+      long responseContentLength,
+      IOException exception) {
+    this.service = service;
+    this.method = method;
+    this.universeDomain = universeDomain;
+    this.attemptCount = attemptCount;
+    this.latencyNanos = latencyNanos;
+    this.statusCode = statusCode;
+    this.requestContentLength = requestContentLength;
+    this.responseContentLength = responseContentLength;
+    this.exception = exception;
+  }
+
+  /**
+   * Returns the label of the service, which is the {@link AbstractGoogleClient#getBaseUrl() base
+   * URL} of the client, for example {@code "https://www.googleapis.com/drive/v3/"}.
+   */
+  public String getService() {
+    return service;
+  }
+
+  /**
+   * Returns the label of the API method, which is the HTTP method and the URI template of the
+   * request, for example {@code "GET files/{fileId}"}.
+   */
+  public String getMethod() {
+    return method;
+  }
+
+  /** Returns the label of the universe domain of the client. */
+  public String getUniverseDomain() {
+    return universeDomain;
+  }
+
+  /** Returns the number of the attempt, starting at {@code 1}. */
+  public int getAttemptCount() {
+    return attemptCount;
+  }
+
+  /** Returns whether the attempt is a retry or a redirect of the request. */
+  public boolean isRetry() {
+    return attemptCount > 1;
+  }
+
+  /** Returns the time in nanoseconds from sending the request to the response or the failure. */
+  public long getLatencyNanos() {
+    return latencyNanos;
+  }
+
+  /** Returns the HTTP status code of the response or {@code 0} if there was no response. */
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  /**
+   * Returns the declared length of the content of the request, before any content encoding, or
+   * {@code -1} if not known.
+   */
+  public long getRequestContentLength() {
+    return requestContentLength;
+  }
+
+  /**
+   * Returns the declared length of the content of the response from its {@code Content-Length}
+   * header or {@code -1} if it has none.
+   *
+   * <p>The attempt is recorded when the response headers arrive, before its content is read, so
+   * this is not the number of bytes read: it is {@code -1} for a chunked response and the
+   * compressed length for a gzip-encoded response.
+   */
+  public long getResponseContentLength() {
+    return responseContentLength;
+  }
+
+  /** Returns the exception that failed the attempt or {@code null} for none. */
+  public IOException getException() {
+    return exception;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb =
+        new StringBuilder("GoogleClientRequestAttempt{")
+            .append(service)
+            .append(", ")
+            .append(method)
+            .append(", universeDomain=")
+            .append(universeDomain)
+            .append(", attemptCount=")
+            .append(attemptCount)
+            .append(", latencyNanos=")
+            .append(latencyNanos)
+            .append(", statusCode=")
+            .append(statusCode)
+            .append(", requestContentLength=")
+            .append(requestContentLength)
+            .append(", responseContentLength=")
+            .append(responseContentLength);
+    if (exception != null) {
+      sb.append(", exception=").append(exception);
+    }
+    return sb.append('}').toString();
+  }
+}
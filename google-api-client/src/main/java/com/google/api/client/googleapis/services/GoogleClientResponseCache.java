@@ -0,0 +1,277 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.util.Beta;
+import com.google.api.client.util.GenericData;
+import com.google.api.client.util.Preconditions;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link Beta} <br>
+ * Size-bounded cache of the parsed responses of the GET requests of a Google client, which are
+ * revalidated with their ETag.
+ *
+ * <p>When a cache is set with {@link AbstractGoogleClient.Builder#setResponseCache}, {@link
+ * AbstractGoogleClientRequest#execute()} of a GET request sends the ETag of the cached response of
+ * the same URL in an {@code If-None-Match} header. If the server responds with {@code 304 Not
+ * Modified}, a copy of the cached parsed response is returned without reading or parsing any
+ * content. Otherwise the response is parsed and, if it has an ETag, cached.
+ *
+ * <p>Responses are cached by URL, response class and {@code Accept} header, so that requests that
+ * parse the response of the same URL into different classes do not share it. The values of the
+ * request headers named by the {@code Vary} header of a response are stored with it, and the cached
+ * response is only used by requests with the same values. Responses with {@code Vary: *} or {@code
+ * Cache-Control: no-store} are not cached. The least recently used response is evicted when the
+ * cache holds {@link #getMaximumSize()} responses.
+ *
+ * <p>The cache does not take the credentials of the requests into account, so a cache must not be
+ * shared by clients with different credentials. Parsed responses of type {@link GenericData} are
+ * deep-copied when they are cached and when they are returned, so callers may modify them.
+ *
+ * <p>Implementation is thread-safe.
+ *
+ * @since 2.9
+ */
+@Beta
+public final class GoogleClientResponseCache {
+
+  /** Default maximum number of cached responses. */
+  public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+  private final int maximumSize;
+
+  /** Lock on {@link #entries}. */
+  private final Lock lock = new ReentrantLock();
+
+  /** Cached responses by key in access order. */
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  /** Creates a cache of at most {@link #DEFAULT_MAXIMUM_SIZE} responses. */
+  public GoogleClientResponseCache() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /** @param maximumSize maximum number of cached responses */
+  public GoogleClientResponseCache(int maximumSize) {
+    Preconditions.checkArgument(maximumSize > 0);
+    this.maximumSize = maximumSize;
+  }
+
+  /** Returns the maximum number of cached responses. */
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  /** Returns the number of cached responses. */
+  public int size() {
+    lock.lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Removes all the cached responses. */
+  public void clear() {
+    lock.lock();
+    try {
+      entries.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns the number of requests that were answered from the cache after a revalidation. */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /** Returns the number of requests whose response content was read and parsed. */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * Returns the cached response of the given key that matches the given request headers or {@code
+   * null} for none.
+   */
+  Entry get(Key key, HttpHeaders requestHeaders) {
+    Entry entry;
+    lock.lock();
+    try {
+      entry = entries.get(key);
+    } finally {
+      lock.unlock();
+    }
+    return entry != null && entry.matches(requestHeaders) ? entry : null;
+  }
+
+  /** Records that a request was answered from the given cached response. */
+  Object hit(Entry entry) {
+    hitCount.incrementAndGet();
+    return copy(entry.value);
+  }
+
+  /**
+   * Records that the response of a request was parsed, and caches it if it has an ETag or removes
+   * the cached response of the key otherwise.
+   *
+   * @param key key of the request
+   * @param requestHeaders headers of the request
+   * @param responseHeaders headers of the response
+   * @param value parsed response
+   */
+  void miss(Key key, HttpHeaders requestHeaders, HttpHeaders responseHeaders, Object value) {
+    missCount.incrementAndGet();
+    Entry entry = newEntry(requestHeaders, responseHeaders, value);
+    lock.lock();
+    try {
+      if (entry == null) {
+        entries.remove(key);
+        return;
+      }
+      entries.put(key, entry);
+      if (entries.size() > maximumSize) {
+        // the eldest entry is the least recently used one
+        entries.remove(entries.keySet().iterator().next());
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns a new entry of the given response or {@code null} if it may not be cached. */
+  private static Entry newEntry(
+      HttpHeaders requestHeaders, HttpHeaders responseHeaders, Object value) {
+    String eTag = responseHeaders.getETag();
+    String cacheControl = responseHeaders.getCacheControl();
+    if (eTag == null
+        || value == null
+        || cacheControl != null && cacheControl.toLowerCase(Locale.US).contains("no-store")) {
+      return null;
+    }
+    List<String> varyNames = new ArrayList<String>();
+    String vary = responseHeaders.getFirstHeaderStringValue("Vary");
+    if (vary != null) {
+      for (String name : vary.split(",")) {
+        name = name.trim();
+        if (name.equals("*")) {
+          return null;
+        }
+        if (!name.isEmpty()) {
+          varyNames.add(name);
+        }
+      }
+    }
+    String[] names = varyNames.toArray(new String[varyNames.size()]);
+    String[] values = new String[names.length];
+    for (int i = 0; i < names.length; i++) {
+      values[i] = requestHeaders.getFirstHeaderStringValue(names[i]);
+    }
+    return new Entry(eTag, copy(value), names, values);
+  }
+
+  /** Returns a copy of the given parsed response that the caller may modify. */
+  static Object copy(Object value) {
+    return value instanceof GenericData ? ((GenericData) value).clone() : value;
+  }
+
+  /** Key of the cached responses. */
+  static final class Key {
+
+    private final String url;
+    private final Class<?> responseClass;
+    private final String accept;
+    private final int hashCode;
+
+    /**
+     * @param url URL of the request
+     * @param responseClass response class to parse the response into
+     * @param accept {@code Accept} header of the request or {@code null} for none
+     */
+    Key(String url, Class<?> responseClass, String accept) {
+      this.url = url;
+      this.responseClass = responseClass;
+      this.accept = accept;
+      hashCode =
+          31 * (31 * url.hashCode() + responseClass.hashCode())
+              + (accept == null ? 0 : accept.hashCode());
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return hashCode == other.hashCode
+          && url.equals(other.url)
+          && responseClass == other.responseClass
+          && (accept == null ? other.accept == null : accept.equals(other.accept));
+    }
+  }
+
+  /** Cached parsed response. */
+  static final class Entry {
+
+    private final String eTag;
+    private final Object value;
+    private final String[] varyNames;
+    private final String[] varyValues;
+
+    Entry(String eTag, Object value, String[] varyNames, String[] varyValues) {
+      this.eTag = eTag;
+      this.value = value;
+      this.varyNames = varyNames;
+      this.varyValues = varyValues;
+    }
+
+    /** Returns the ETag of the response. */
+    String getETag() {
+      return eTag;
+    }
+
+    /** Returns whether the given request headers have the values of the vary headers. */
+    boolean matches(HttpHeaders requestHeaders) {
+      for (int i = 0; i < varyNames.length; i++) {
+        String value = requestHeaders.getFirstHeaderStringValue(varyNames[i]);
+        if (value == null ? varyValues[i] != null : !value.equals(varyValues[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
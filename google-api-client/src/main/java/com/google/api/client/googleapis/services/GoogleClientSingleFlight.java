@@ -0,0 +1,201 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.util.Beta;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link Beta} <br>
+ * Deduplicates the concurrent identical GET requests of a Google client, so that they share a
+ * single HTTP request and parse.
+ *
+ * <p>When it is set with {@link AbstractGoogleClient.Builder#setSingleFlight}, {@link
+ * AbstractGoogleClientRequest#execute()} of a GET request first looks for an identical request in
+ * flight, which is a request with the same URL, request headers and response class. If there is
+ * one, it waits for it to complete and returns a copy of its parsed response or throws its
+ * exception. Otherwise the request is sent and any identical request started before it completes
+ * joins it.
+ *
+ * <p>Requests are not deduplicated once they complete, see {@link GoogleClientResponseCache} for
+ * caching responses. The credentials of the requests are not taken into account, so an instance
+ * must not be shared by clients with different credentials. Parsed responses of type {@link
+ * com.google.api.client.util.GenericData} are deep-copied for each request that joined, so callers
+ * may modify them.
+ *
+ * <p>Implementation is thread-safe.
+ *
+ * @since 2.9
+ */
+@Beta
+public final class GoogleClientSingleFlight {
+
+  /** Lock on {@link #calls}. */
+  private final Lock lock = new ReentrantLock();
+
+  /** Calls in flight by key. */
+  private final Map<Key, Call> calls = new HashMap<Key, Call>();
+
+  private final AtomicLong sharedCount = new AtomicLong();
+
+  /** Returns the number of requests in flight that may be joined. */
+  public int getInFlightCount() {
+    lock.lock();
+    try {
+      return calls.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns the number of requests that joined an identical request in flight. */
+  public long getSharedCount() {
+    return sharedCount.get();
+  }
+
+  /**
+   * Joins the call in flight of the given key or else starts the given call.
+   *
+   * @return call in flight to wait for, or {@code null} if the given call was started and the
+   *     caller must {@link #complete} it
+   */
+  Call join(Key key, Call call) {
+    lock.lock();
+    try {
+      Call inFlight = calls.get(key);
+      if (inFlight != null) {
+        inFlight.joinCount++;
+        sharedCount.incrementAndGet();
+        return inFlight;
+      }
+      calls.put(key, call);
+      return null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Completes the given started call with the given parsed response or exception, and wakes up the
+   * requests that joined it.
+   *
+   * @return whether any request joined the call
+   */
+  boolean complete(Key key, Call call) {
+    boolean joined;
+    lock.lock();
+    try {
+      calls.remove(key);
+      joined = call.joinCount > 0;
+    } finally {
+      lock.unlock();
+    }
+    call.done.countDown();
+    return joined;
+  }
+
+  /** Key of identical requests. */
+  static final class Key {
+
+    private final String url;
+    private final HttpHeaders requestHeaders;
+    private final Class<?> responseClass;
+    private final int hashCode;
+
+    /**
+     * @param url URL of the request
+     * @param requestHeaders headers of the request, which must not be modified afterwards
+     * @param responseClass response class to parse the response into
+     */
+    Key(String url, HttpHeaders requestHeaders, Class<?> responseClass) {
+      this.url = url;
+      this.requestHeaders = requestHeaders;
+      this.responseClass = responseClass;
+      hashCode = 31 * (31 * url.hashCode() + requestHeaders.hashCode()) + responseClass.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return hashCode == other.hashCode
+          && url.equals(other.url)
+          && responseClass == other.responseClass
+          && requestHeaders.equals(other.requestHeaders);
+    }
+  }
+
+  /** Request in flight and, once it is done, its outcome. */
+  static final class Call {
+
+    final CountDownLatch done = new CountDownLatch(1);
+
+    /** Number of requests that joined the call, guarded by the lock of the single flight. */
+    int joinCount;
+
+    /** Parsed response, which must not be modified once the call is done. */
+    Object value;
+
+    /** Exception thrown by the request or {@code null} for none. */
+    Throwable exception;
+
+    HttpHeaders responseHeaders;
+    int statusCode;
+    String statusMessage;
+
+    /**
+     * Waits for the call to be done and returns a copy of its parsed response or throws its
+     * exception.
+     */
+    Object await() throws IOException {
+      try {
+        done.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        InterruptedIOException interrupted = new InterruptedIOException();
+        interrupted.initCause(e);
+        throw interrupted;
+      }
+      if (exception instanceof IOException) {
+        throw (IOException) exception;
+      }
+      if (exception instanceof RuntimeException) {
+        throw (RuntimeException) exception;
+      }
+      if (exception instanceof Error) {
+        throw (Error) exception;
+      }
+      return GoogleClientResponseCache.copy(value);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.util.Beta;
+import java.io.IOException;
+
+/**
+ * {@link Beta} <br>
+ * Exception thrown when a request is shed by the {@link GoogleClientRateLimiter} of its client
+ * without being sent to the server.
+ *
+ * @since 2.9
+ */
+@Beta
+public class GoogleClientThrottledException extends IOException {
+
+  private static final long serialVersionUID = 1L;
+
+  /** Key of the state of the rate limiter that shed the request. */
+  private final String key;
+
+  /**
+   * @param key key of the state of the rate limiter that shed the request
+   * @param message detail message
+   */
+  public GoogleClientThrottledException(String key, String message) {
+    super(message);
+    this.key = key;
+  }
+
+  /** Returns the key of the state of the rate limiter that shed the request. */
+  public final String getKey() {
+    return key;
+  }
+}
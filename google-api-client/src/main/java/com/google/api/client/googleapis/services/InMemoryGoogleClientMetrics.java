@@ -0,0 +1,198 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.googleapis.media.MediaHttpUploaderHistogramListener.Histogram;
+import com.google.api.client.util.Beta;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Beta} <br>
+ * Metrics that aggregate the attempts of the requests in memory per service, API method and
+ * universe domain, which is mostly useful for testing and for exporting snapshots.
+ *
+ * <p>Implementation is thread-safe.
+ *
+ * @since 2.9
+ */
+@Beta
+public class InMemoryGoogleClientMetrics implements GoogleClientMetrics {
+
+  /**
+   * {@link Beta} <br>
+   * Aggregated attempts of the requests of an API method.
+   *
+   * <p>Implementation is thread-safe.
+   */
+  @Beta
+  public static final class MethodMetrics {
+
+    private final String service;
+    private final String method;
+    private final String universeDomain;
+    private final AtomicLong attemptCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong requestContentLength = new AtomicLong();
+    private final AtomicLong responseContentLength = new AtomicLong();
+    private final ConcurrentMap<Integer, AtomicLong> statusCodeCounts =
+        new ConcurrentHashMap<Integer, AtomicLong>();
+    private final Histogram latency = new Histogram();
+
+    MethodMetrics(String service, String method, String universeDomain) {
+      this.service = service;
+      this.method = method;
+      this.universeDomain = universeDomain;
+    }
+
+    void record(GoogleClientRequestAttempt attempt) {
+      attemptCount.incrementAndGet();
+      if (attempt.isRetry()) {
+        retryCount.incrementAndGet();
+      }
+      if (attempt.getStatusCode() == 0) {
+        failureCount.incrementAndGet();
+      } else {
+        AtomicLong count = statusCodeCounts.get(attempt.getStatusCode());
+        if (count == null) {
+          AtomicLong newCount = new AtomicLong();
+          count = statusCodeCounts.putIfAbsent(attempt.getStatusCode(), newCount);
+          if (count == null) {
+            count = newCount;
+          }
+        }
+        count.incrementAndGet();
+      }
+      if (attempt.getRequestContentLength() > 0) {
+        requestContentLength.addAndGet(attempt.getRequestContentLength());
+      }
+      if (attempt.getResponseContentLength() > 0) {
+        responseContentLength.addAndGet(attempt.getResponseContentLength());
+      }
+      latency.record(attempt.getLatencyNanos());
+    }
+
+    /** Returns the label of the service. */
+    public String getService() {
+      return service;
+    }
+
+    /** Returns the label of the API method. */
+    public String getMethod() {
+      return method;
+    }
+
+    /** Returns the label of the universe domain. */
+    public String getUniverseDomain() {
+      return universeDomain;
+    }
+
+    /** Returns the number of attempts, including retries. */
+    public long getAttemptCount() {
+      return attemptCount.get();
+    }
+
+    /** Returns the number of attempts that are retries or redirects. */
+    public long getRetryCount() {
+      return retryCount.get();
+    }
+
+    /** Returns the number of attempts that got no response. */
+    public long getFailureCount() {
+      return failureCount.get();
+    }
+
+    /**
+     * Returns the total of the declared content lengths of the requests, see {@link
+     * GoogleClientRequestAttempt#getRequestContentLength()}.
+     */
+    public long getRequestContentLength() {
+      return requestContentLength.get();
+    }
+
+    /**
+     * Returns the total of the declared content lengths of the responses, see {@link
+     * GoogleClientRequestAttempt#getResponseContentLength()}.
+     */
+    public long getResponseContentLength() {
+      return responseContentLength.get();
+    }
+
+    /** Returns a snapshot of the number of responses by status code, sorted by status code. */
+    public Map<Integer, Long> getStatusCodeCounts() {
+      Map<Integer, Long> counts = new TreeMap<Integer, Long>();
+      for (Map.Entry<Integer, AtomicLong> entry : statusCodeCounts.entrySet()) {
+        counts.put(entry.getKey(), entry.getValue().get());
+      }
+      return Collections.unmodifiableMap(counts);
+    }
+
+    /** Returns the histogram of the latencies of the attempts. */
+    public Histogram getLatencyHistogram() {
+      return latency;
+    }
+  }
+
+  /** Metrics by labels joined by newlines, which do not appear in them. */
+  private final ConcurrentMap<String, MethodMetrics> metrics =
+      new ConcurrentHashMap<String, MethodMetrics>();
+
+  public void recordAttempt(GoogleClientRequestAttempt attempt) {
+    String key = getKey(attempt.getService(), attempt.getMethod(), attempt.getUniverseDomain());
+    MethodMetrics methodMetrics = metrics.get(key);
+    if (methodMetrics == null) {
+      MethodMetrics newMethodMetrics =
+          new MethodMetrics(attempt.getService(), attempt.getMethod(), attempt.getUniverseDomain());
+      methodMetrics = metrics.putIfAbsent(key, newMethodMetrics);
+      if (methodMetrics == null) {
+        methodMetrics = newMethodMetrics;
+      }
+    }
+    methodMetrics.record(attempt);
+  }
+
+  /**
+   * Returns the metrics of the given labels or {@code null} if no attempt was recorded for them.
+   *
+   * @param service label of the service, see {@link GoogleClientRequestAttempt#getService()}
+   * @param method label of the API method, see {@link GoogleClientRequestAttempt#getMethod()}
+   * @param universeDomain label of the universe domain
+   */
+  public final MethodMetrics getMethodMetrics(
+      String service, String method, String universeDomain) {
+    return metrics.get(getKey(service, method, universeDomain));
+  }
+
+  /** Returns a snapshot of the metrics of all the labels with recorded attempts. */
+  public final List<MethodMetrics> getAllMethodMetrics() {
+    return Collections.unmodifiableList(new ArrayList<MethodMetrics>(metrics.values()));
+  }
+
+  /** Discards all the recorded attempts. */
+  public final void clear() {
+    metrics.clear();
+  }
+
+  private static String getKey(String service, String method, String universeDomain) {
+    return service + '\n' + method + '\n' + universeDomain;
+  }
+}
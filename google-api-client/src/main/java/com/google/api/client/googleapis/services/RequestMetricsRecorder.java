@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.http.HttpContent;
+import com.google.api.client.http.HttpExecuteInterceptor;
+import com.google.api.client.http.HttpIOExceptionHandler;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpUnsuccessfulResponseHandler;
+import java.io.IOException;
+
+/**
+ * Records the attempts of an HTTP request of a Google client request to its {@link
+ * GoogleClientMetrics}.
+ *
+ * <p>It is installed as the execute interceptor, the unsuccessful response handler and the I/O
+ * exception handler of the HTTP request, delegating to the ones it replaces. An attempt starts
+ * after the execute interceptors ran and is recorded when it gets an error response or an I/O
+ * exception that is retried, or else by {@link #recordResponse} or {@link #recordFailure}.
+ *
+ * <p>Implementation is not thread-safe, like the HTTP request.
+ */
+final class RequestMetricsRecorder
+    implements HttpExecuteInterceptor, HttpUnsuccessfulResponseHandler, HttpIOExceptionHandler {
+
+  private final GoogleClientMetrics metrics;
+  private final String service;
+  private final String method;
+  private final String universeDomain;
+  private final HttpExecuteInterceptor interceptor;
+  private final HttpUnsuccessfulResponseHandler unsuccessfulResponseHandler;
+  private final HttpIOExceptionHandler ioExceptionHandler;
+
+  private int attemptCount;
+  private boolean attemptInProgress;
+  private long startNanos;
+  private long requestContentLength;
+
+  private RequestMetricsRecorder(
+      GoogleClientMetrics metrics,
+      AbstractGoogleClientRequest<?> request,
+      HttpRequest httpRequest) {
+    this.metrics = metrics;
+    AbstractGoogleClient client = request.getAbstractGoogleClient();
+    service = client.getBaseUrl();
+    method = request.getRequestMethod() + ' ' + request.getUriTemplate();
+    universeDomain = client.getUniverseDomain();
+    interceptor = httpRequest.getInterceptor();
+    unsuccessfulResponseHandler = httpRequest.getUnsuccessfulResponseHandler();
+    ioExceptionHandler = httpRequest.getIOExceptionHandler();
+  }
+
+  /**
+   * Installs a new recorder of the given HTTP request of the given request, which must be done
+   * after any other execute interceptor is set.
+   */
+  static RequestMetricsRecorder install(
+      GoogleClientMetrics metrics,
+      AbstractGoogleClientRequest<?> request,
+      HttpRequest httpRequest) {
+    RequestMetricsRecorder recorder = new RequestMetricsRecorder(metrics, request, httpRequest);
+    httpRequest
+        .setInterceptor(recorder)
+        .setUnsuccessfulResponseHandler(recorder)
+        .setIOExceptionHandler(recorder);
+    return recorder;
+  }
+
+  /**
+   * Records the attempt in progress of the given HTTP request, if it has a recorder, as failed with
+   * the given exception thrown by {@link HttpRequest#execute()}.
+   */
+  static void recordFailure(HttpRequest httpRequest, IOException exception) {
+    if (httpRequest.getInterceptor() instanceof RequestMetricsRecorder) {
+      ((RequestMetricsRecorder) httpRequest.getInterceptor()).record(0, -1, exception);
+    }
+  }
+
+  /** Records the attempt in progress as successful with the given response. */
+  void recordResponse(HttpResponse response) {
+    record(response.getStatusCode(), getResponseContentLength(response), null);
+  }
+
+  public void intercept(HttpRequest request) throws IOException {
+    if (interceptor != null) {
+      interceptor.intercept(request);
+    }
+    HttpContent content = request.getContent();
+    requestContentLength = content == null ? 0 : content.getLength();
+    attemptCount++;
+    attemptInProgress = true;
+    startNanos = System.nanoTime();
+  }
+
+  public boolean handleResponse(HttpRequest request, HttpResponse response, boolean supportsRetry)
+      throws IOException {
+    record(response.getStatusCode(), getResponseContentLength(response), null);
+    return unsuccessfulResponseHandler != null
+        && unsuccessfulResponseHandler.handleResponse(request, response, supportsRetry);
+  }
+
+  public boolean handleIOException(HttpRequest request, boolean supportsRetry) throws IOException {
+    boolean retry =
+        ioExceptionHandler != null && ioExceptionHandler.handleIOException(request, supportsRetry);
+    if (retry) {
+      // the exception is not known, and it is only thrown if the request is not retried
+      record(0, -1, null);
+    }
+    return retry;
+  }
+
+  private void record(int statusCode, long responseContentLength, IOException exception) {
+    if (!attemptInProgress) {
+      return;
+    }
+    attemptInProgress = false;
+    metrics.recordAttempt(
+        new GoogleClientRequestAttempt(
+            service,
+            method,
+            universeDomain,
+            attemptCount,
+            System.nanoTime() - startNanos,
+            statusCode,
+            requestContentLength,
+            responseContentLength,
+            exception));
+  }
+
+  /**
+   * Returns the declared content length of the given response, as its content is not read yet when
+   * the attempt is recorded.
+   */
+  private static long getResponseContentLength(HttpResponse response) {
+    Long contentLength = response.getHeaders().getContentLength();
+    return contentLength == null ? -1 : contentLength;
+  }
+}
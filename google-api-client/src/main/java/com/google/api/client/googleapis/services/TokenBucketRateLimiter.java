@@ -0,0 +1,241 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.util.Beta;
+import com.google.api.client.util.NanoClock;
+import com.google.api.client.util.Preconditions;
+import com.google.api.client.util.Sleeper;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link Beta} <br>
+ * Rate limiter that delays the requests of each API method to a rate of permits per second with a
+ * token bucket, and slows down when the server responds that the quota is exceeded.
+ *
+ * <p>Each API method has a bucket of at most {@link #getMaxBurstPermits()} permits that is refilled
+ * at its current rate, which starts at {@link #getPermitsPerSecond()}. A request takes a permit
+ * from the bucket of its method and waits until the permit is refilled if the bucket is empty.
+ * Requests that would wait longer than {@link #getMaxDelayMillis()} are shed with a {@link
+ * GoogleClientThrottledException}.
+ *
+ * <p>When the quota of a method is exceeded, its rate is halved down to a {@link #MIN_RATE_DIVISOR
+ * sixteenth} of the configured rate and the requests of the method are delayed for the number of
+ * seconds of the {@code Retry-After} header of the response if any. Every successful response then
+ * increases the rate by a sixteenth of the configured rate up to the configured rate.
+ *
+ * <p>Implementation is thread-safe.
+ *
+ * @since 2.9
+ */
+@Beta
+public class TokenBucketRateLimiter extends GoogleClientRateLimiter {
+
+  /** Divisor of the configured rate that gives the minimum rate and the rate increment. */
+  public static final int MIN_RATE_DIVISOR = 16;
+
+  private final double permitsPerSecond;
+  private final int maxBurstPermits;
+  private final long maxDelayMillis;
+  private final NanoClock nanoClock;
+  private final Sleeper sleeper;
+
+  /** Lock on {@link #buckets}, which requests do not hold while they wait. */
+  private final Lock lock = new ReentrantLock();
+
+  /** Buckets by key. */
+  private final Map<String, Bucket> buckets = new HashMap<String, Bucket>();
+
+  /**
+   * Creates a rate limiter with a burst of one second of permits that never sheds requests.
+   *
+   * @param permitsPerSecond rate of permits per second of each API method
+   */
+  public TokenBucketRateLimiter(double permitsPerSecond) {
+    this(permitsPerSecond, Math.max(1, (int) permitsPerSecond), Long.MAX_VALUE);
+  }
+
+  /**
+   * @param permitsPerSecond rate of permits per second of each API method
+   * @param maxBurstPermits maximum number of permits that may be taken at once
+   * @param maxDelayMillis maximum time in milliseconds a request waits for a permit before it is
+   *     shed
+   */
+  public TokenBucketRateLimiter(double permitsPerSecond, int maxBurstPermits, long maxDelayMillis) {
+    this(permitsPerSecond, maxBurstPermits, maxDelayMillis, NanoClock.SYSTEM, Sleeper.DEFAULT);
+  }
+
+  TokenBucketRateLimiter(
+      double permitsPerSecond,
+      int maxBurstPermits,
+      long maxDelayMillis,
+      NanoClock nanoClock,
+      Sleeper sleeper) {
+    Preconditions.checkArgument(permitsPerSecond > 0);
+    Preconditions.checkArgument(maxBurstPermits > 0);
+    Preconditions.checkArgument(maxDelayMillis >= 0);
+    this.permitsPerSecond = permitsPerSecond;
+    this.maxBurstPermits = maxBurstPermits;
+    this.maxDelayMillis = maxDelayMillis;
+    this.nanoClock = Preconditions.checkNotNull(nanoClock);
+    this.sleeper = Preconditions.checkNotNull(sleeper);
+  }
+
+  /** Returns the configured rate of permits per second of each API method. */
+  public final double getPermitsPerSecond() {
+    return permitsPerSecond;
+  }
+
+  /** Returns the maximum number of permits that may be taken at once. */
+  public final int getMaxBurstPermits() {
+    return maxBurstPermits;
+  }
+
+  /** Returns the maximum time in milliseconds a request waits for a permit before it is shed. */
+  public final long getMaxDelayMillis() {
+    return maxDelayMillis;
+  }
+
+  /**
+   * Returns the current rate of permits per second of the given key, which is lower than the
+   * configured rate after the quota was exceeded.
+   */
+  public final double getCurrentPermitsPerSecond(String key) {
+    lock.lock();
+    try {
+      Bucket bucket = buckets.get(key);
+      return bucket == null ? permitsPerSecond : bucket.rate;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void acquire(AbstractGoogleClientRequest<?> request) throws IOException {
+    String key = getKey(request);
+    long delayNanos;
+    lock.lock();
+    try {
+      long now = nanoClock.nanoTime();
+      Bucket bucket = getBucket(key, now);
+      bucket.refill(now);
+      // the permit is reserved now, so that concurrent requests wait for the following permits
+      double permits = bucket.permits - 1;
+      delayNanos = permits >= 0 ? 0 : (long) (-permits / bucket.rate * TimeUnit.SECONDS.toNanos(1));
+      delayNanos = Math.max(delayNanos, bucket.pausedUntilNanos - now);
+      if (delayNanos > TimeUnit.MILLISECONDS.toNanos(maxDelayMillis)) {
+        throw new GoogleClientThrottledException(
+            key,
+            "Request shed by the rate limiter, it would wait "
+                + TimeUnit.NANOSECONDS.toMillis(delayNanos)
+                + " ms for a permit");
+      }
+      bucket.permits = permits;
+    } finally {
+      lock.unlock();
+    }
+    if (delayNanos > 0) {
+      try {
+        sleeper.sleep(TimeUnit.NANOSECONDS.toMillis(delayNanos));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        InterruptedIOException interrupted = new InterruptedIOException();
+        interrupted.initCause(e);
+        throw interrupted;
+      }
+    }
+  }
+
+  @Override
+  public void onResponse(
+      AbstractGoogleClientRequest<?> request, HttpResponse response, boolean quotaExceeded) {
+    String key = getKey(request);
+    long retryAfterNanos = quotaExceeded ? getRetryAfterNanos(response) : 0;
+    lock.lock();
+    try {
+      long now = nanoClock.nanoTime();
+      Bucket bucket = getBucket(key, now);
+      bucket.refill(now);
+      if (quotaExceeded) {
+        bucket.rate = Math.max(bucket.rate / 2, permitsPerSecond / MIN_RATE_DIVISOR);
+        bucket.pausedUntilNanos = Math.max(bucket.pausedUntilNanos, now + retryAfterNanos);
+      } else if (response.isSuccessStatusCode()) {
+        bucket.rate = Math.min(permitsPerSecond, bucket.rate + permitsPerSecond / MIN_RATE_DIVISOR);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns the bucket of the given key, which must be called while holding the lock. */
+  private Bucket getBucket(String key, long now) {
+    Bucket bucket = buckets.get(key);
+    if (bucket == null) {
+      bucket = new Bucket(permitsPerSecond, maxBurstPermits, now);
+      buckets.put(key, bucket);
+    }
+    return bucket;
+  }
+
+  /** Returns the delay of the {@code Retry-After} header in nanoseconds or {@code 0} for none. */
+  private static long getRetryAfterNanos(HttpResponse response) {
+    String retryAfter = response.getHeaders().getFirstHeaderStringValue("Retry-After");
+    if (retryAfter != null) {
+      try {
+        return TimeUnit.SECONDS.toNanos(Math.max(0, Long.parseLong(retryAfter.trim())));
+      } catch (NumberFormatException e) {
+        // HTTP date, which is not supported
+      }
+    }
+    return 0;
+  }
+
+  /** Token bucket of an API method, which is guarded by the lock of the rate limiter. */
+  private static final class Bucket {
+
+    /** Current rate of permits per second. */
+    double rate;
+
+    /** Maximum number of permits. */
+    final int maxPermits;
+
+    /** Number of available permits, which is negative when permits are reserved. */
+    double permits;
+
+    long refilledNanos;
+    long pausedUntilNanos;
+
+    Bucket(double rate, int maxPermits, long now) {
+      this.rate = rate;
+      this.maxPermits = maxPermits;
+      permits = maxPermits;
+      refilledNanos = now;
+      pausedUntilNanos = now;
+    }
+
+    void refill(long now) {
+      double elapsedSeconds = (double) (now - refilledNanos) / TimeUnit.SECONDS.toNanos(1);
+      permits = Math.min(maxPermits, permits + elapsedSeconds * rate);
+      refilledNanos = now;
+    }
+  }
+}
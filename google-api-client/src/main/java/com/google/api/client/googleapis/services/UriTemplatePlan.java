@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.UriTemplate;
+import com.google.api.client.util.Data;
+import com.google.api.client.util.escape.CharEscapers;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * URI template of an {@link AbstractGoogleClientRequest} compiled against the base URL of its
+ * client.
+ *
+ * <p>Expands to the same URL as {@link UriTemplate#expand(String, String, Object, boolean)} with
+ * unused parameters added as query parameters, but the base URL is resolved and the template is
+ * split into literals and expressions only once. Simple and reserved expressions of values of a
+ * primitive type, which are most path parameters, are expanded directly; other expressions are
+ * delegated to {@link UriTemplate}.
+ *
+ * <p>Implementation is immutable and thread-safe.
+ */
+final class UriTemplatePlan {
+
+  /** Operators of the expressions that {@link UriTemplate} supports. */
+  private static final String OPERATORS = "+#./;?&";
+
+  /** URI template resolved against the base URL. */
+  private final String pathUri;
+
+  /** Literals and expressions of the URI template or {@code null} if it is malformed. */
+  private final List<Object> parts;
+
+  private UriTemplatePlan(String pathUri, List<Object> parts) {
+    this.pathUri = pathUri;
+    this.parts = parts;
+  }
+
+  /**
+   * Compiles the given URI template relative to the given base URL.
+   *
+   * @param baseUrl base URL which the URI template is relative to
+   * @param uriTemplate URI template as described in {@link UriTemplate#expand(String, String,
+   *     Object, boolean)}
+   */
+  static UriTemplatePlan compile(String baseUrl, String uriTemplate) {
+    String pathUri;
+    if (uriTemplate.startsWith("/")) {
+      // remove the base path from the base URL
+      GenericUrl url = new GenericUrl(baseUrl);
+      url.setRawPath(null);
+      pathUri = url.build() + uriTemplate;
+    } else if (uriTemplate.startsWith("http://") || uriTemplate.startsWith("https://")) {
+      pathUri = uriTemplate;
+    } else {
+      pathUri = baseUrl + uriTemplate;
+    }
+    List<Object> parts = new ArrayList<Object>();
+    int cur = 0;
+    int length = pathUri.length();
+    while (cur < length) {
+      int next = pathUri.indexOf('{', cur);
+      if (next == -1) {
+        parts.add(pathUri.substring(cur));
+        break;
+      }
+      int close = pathUri.indexOf('}', next + 2);
+      if (close == -1) {
+        // let UriTemplate report the malformed template
+        return new UriTemplatePlan(pathUri, null);
+      }
+      if (next > cur) {
+        parts.add(pathUri.substring(cur, next));
+      }
+      parts.add(new Expression(pathUri.substring(next, close + 1)));
+      cur = close + 1;
+    }
+    return new UriTemplatePlan(pathUri, parts);
+  }
+
+  /**
+   * Expands the URI template with the given parameters, adding the parameters that do not match the
+   * template as query parameters.
+   *
+   * @param parameters object with parameters designated by Key annotations
+   */
+  String expand(Object parameters) {
+    if (parts == null) {
+      return UriTemplate.expand(pathUri, parameters, true);
+    }
+    // same order as UriTemplate, which matters for the query parameters
+    Map<String, Object> variableMap = new LinkedHashMap<String, Object>();
+    for (Map.Entry<String, Object> entry : Data.mapOf(parameters).entrySet()) {
+      Object value = entry.getValue();
+      if (value != null && !Data.isNull(value)) {
+        variableMap.put(entry.getKey(), value);
+      }
+    }
+    StringBuilder buf = new StringBuilder(pathUri.length() + 64);
+    for (Object part : parts) {
+      if (part instanceof String) {
+        buf.append((String) part);
+      } else {
+        ((Expression) part).expand(variableMap, buf);
+      }
+    }
+    addQueryParams(variableMap, buf);
+    return buf.toString();
+  }
+
+  /** Appends the given parameters as query parameters like {@link GenericUrl#build()}. */
+  private static void addQueryParams(Map<String, Object> variableMap, StringBuilder buf) {
+    boolean first = true;
+    for (Map.Entry<String, Object> entry : variableMap.entrySet()) {
+      String name = CharEscapers.escapeUriQuery(entry.getKey());
+      Object value = entry.getValue();
+      if (value instanceof Collection<?>) {
+        for (Object repeatedValue : (Collection<?>) value) {
+          first = appendParam(first, buf, name, repeatedValue);
+        }
+      } else {
+        first = appendParam(first, buf, name, value);
+      }
+    }
+  }
+
+  /**
+   * Appends the given query parameter, unless its value is {@code null} or a {@link Data#isNull}
+   * placeholder, which may be elements of a repeated parameter.
+   *
+   * @return whether no query parameter has been appended yet
+   */
+  private static boolean appendParam(boolean first, StringBuilder buf, String name, Object value) {
+    if (value == null || Data.isNull(value)) {
+      return first;
+    }
+    buf.append(first ? '?' : '&').append(name);
+    String stringValue = CharEscapers.escapeUriQuery(value.toString());
+    if (stringValue.length() != 0) {
+      buf.append('=').append(stringValue);
+    }
+    return false;
+  }
+
+  /** Expression of a URI template, for example {@code "{+name}"}. */
+  private static final class Expression {
+
+    /** Expression including the braces. */
+    private final String text;
+
+    /** Variable names without operator and explode modifier. */
+    private final String[] varNames;
+
+    /** Whether the expression is a simple expression. */
+    private final boolean simple;
+
+    /** Whether the expression is a simple or reserved expression, which may be expanded here. */
+    private final boolean direct;
+
+    Expression(String text) {
+      this.text = text;
+      String templates = text.substring(1, text.length() - 1);
+      char operator = templates.isEmpty() ? 0 : templates.charAt(0);
+      boolean hasOperator = OPERATORS.indexOf(operator) != -1;
+      simple = !hasOperator;
+      direct = !hasOperator || operator == '+';
+      varNames = templates.split(",", -1);
+      for (int i = 0; i < varNames.length; i++) {
+        String varName = varNames[i];
+        int start = i == 0 && hasOperator ? 1 : 0;
+        int end = varName.endsWith("*") ? varName.length() - 1 : varName.length();
+        varNames[i] = varName.substring(start, end);
+      }
+    }
+
+    /** Removes the values of the variables from the given map and appends their expansion. */
+    void expand(Map<String, Object> variableMap, StringBuilder buf) {
+      Object[] values = new Object[varNames.length];
+      boolean primitive = true;
+      for (int i = 0; i < varNames.length; i++) {
+        values[i] = variableMap.remove(varNames[i]);
+        primitive &= Data.isValueOfPrimitiveType(values[i]);
+      }
+      if (!direct || !primitive) {
+        Map<String, Object> expressionMap = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < varNames.length; i++) {
+          if (values[i] != null) {
+            expressionMap.put(varNames[i], values[i]);
+          }
+        }
+        buf.append(UriTemplate.expand(text, expressionMap, false));
+        return;
+      }
+      boolean first = true;
+      for (Object value : values) {
+        if (value == null) {
+          continue;
+        }
+        if (!first) {
+          buf.append(',');
+        }
+        first = false;
+        buf.append(
+            simple
+                ? CharEscapers.escapeUriConformant(value.toString())
+                : CharEscapers.escapeUriPathWithoutReserved(value.toString()));
+      }
+    }
+  }
+}
@@ -16,6 +16,7 @@ package com.google.api.client.googleapis.services.json;
 
 import com.google.api.client.googleapis.batch.BatchRequest;
 import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
 import com.google.api.client.googleapis.json.GoogleJsonErrorContainer;
 import com.google.api.client.googleapis.json.GoogleJsonResponseException;
 import com.google.api.client.googleapis.services.AbstractGoogleClientRequest;
@@ -23,6 +24,7 @@ import com.google.api.client.http.HttpHeaders;
 import com.google.api.client.http.HttpResponse;
 import com.google.api.client.http.UriTemplate;
 import com.google.api.client.http.json.JsonHttpContent;
+import com.google.api.client.util.Beta;
 import java.io.IOException;
 
 /**
@@ -113,11 +115,90 @@ public abstract class AbstractGoogleJsonClientRequest<T> extends AbstractGoogleC
     super.queue(batchRequest, GoogleJsonErrorContainer.class, callback);
   }
 
+  /**
+   * {@link Beta} <br>
+   * Sends the metadata request to the server and returns the response whose items, the elements of
+   * the given array field, are parsed one at a time while they are read, see {@link
+   * StreamingJsonResponse}.
+   *
+   * <p>Callers are responsible for closing the returned response, unless they read all the items.
+   *
+   * @param <I> type of the items
+   * @param itemsField name of the array field of the items in the JSON response
+   * @param itemClass class of the items
+   * @return streaming JSON response
+   * @since 2.9
+   */
+  @Beta
+  public final <I> StreamingJsonResponse<T, I> executeStreaming(
+      String itemsField, Class<I> itemClass) throws IOException {
+    AbstractGoogleJsonClient client = getAbstractGoogleClient();
+    return new StreamingJsonResponse<T, I>(
+        executeUnparsed(),
+        client.getJsonFactory(),
+        client.getObjectParser().getWrapperKeys(),
+        getResponseClass(),
+        itemsField,
+        itemClass);
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Returns an iteration over the items of all the pages of this list request, which fetches the
+   * next pages while the items of the current page are consumed, see {@link JsonPaginator}.
+   *
+   * <p>The request is not modified and must not be modified until the iteration is done.
+   *
+   * @param <I> type of the items
+   * @param itemsField name of the array field of the items in the JSON response
+   * @param itemClass class of the items
+   * @return paginator, which fetches the first page when {@link JsonPaginator#hasNext()} is first
+   *     called
+   * @since 2.9
+   */
+  @Beta
+  public final <I> JsonPaginator<T, I> paginate(String itemsField, Class<I> itemClass) {
+    return new JsonPaginator<T, I>(this, itemsField, itemClass);
+  }
+
   @Override
   protected GoogleJsonResponseException newExceptionOnError(HttpResponse response) {
     return GoogleJsonResponseException.from(getAbstractGoogleClient().getJsonFactory(), response);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Also returns {@code true} if the parsed error has the {@code RESOURCE_EXHAUSTED} status or a
+   * {@code rateLimitExceeded} or {@code userRateLimitExceeded} reason, which some services respond
+   * with {@code 403 Forbidden}.
+   */
+  @Override
+  protected boolean isQuotaExceeded(HttpResponse response, IOException exception) {
+    if (super.isQuotaExceeded(response, exception)) {
+      return true;
+    }
+    GoogleJsonError details =
+        exception instanceof GoogleJsonResponseException
+            ? ((GoogleJsonResponseException) exception).getDetails()
+            : null;
+    if (details == null) {
+      return false;
+    }
+    if ("RESOURCE_EXHAUSTED".equals(details.get("status"))) {
+      return true;
+    }
+    if (details.getErrors() != null) {
+      for (GoogleJsonError.ErrorInfo errorInfo : details.getErrors()) {
+        if ("rateLimitExceeded".equals(errorInfo.getReason())
+            || "userRateLimitExceeded".equals(errorInfo.getReason())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   /** Returns POJO that can be serialized into JSON content or {@code null} for none. */
   public Object getJsonContent() {
     return jsonContent;
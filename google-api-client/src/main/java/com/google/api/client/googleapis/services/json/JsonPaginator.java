@@ -0,0 +1,297 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services.json;
+
+import com.google.api.client.util.Beta;
+import com.google.api.client.util.ClassInfo;
+import com.google.api.client.util.Data;
+import com.google.api.client.util.FieldInfo;
+import com.google.api.client.util.GenericData;
+import com.google.api.client.util.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * {@link Beta} <br>
+ * Iteration over the items of all the pages of a list request, which fetches the next pages on the
+ * {@link com.google.api.client.googleapis.services.AbstractGoogleClient#getExecutor() executor} of
+ * the client while the items of the current page are consumed.
+ *
+ * <p>By default the pages are fetched with page tokens: the {@code nextPageToken} field of a page
+ * is sent in the {@code pageToken} parameter of the request of the next page, which is sent as soon
+ * as the page is received. So at most one page is fetched ahead of the page being consumed.
+ *
+ * <p>For APIs that page with an offset, {@link #setOffsetPaging} fetches up to a given number of
+ * pages in parallel, at consecutive offsets, until a page has fewer items than the page size.
+ *
+ * <p>Each page is fetched by a copy of the request, which is not modified. Sample usage:
+ *
+ * <pre>{@code
+ * JsonPaginator<FileList, File> files =
+ *     drive.files().list().setPageSize(1000).paginate("files", File.class);
+ * try {
+ *   while (files.hasNext()) {
+ *     File file = files.next();
+ *     // process file..
+ *   }
+ * } finally {
+ *   files.close();
+ * }
+ * }</pre>
+ *
+ * <p>Implementation is not thread-safe.
+ *
+ * @param <T> type of the response of a page
+ * @param <I> type of the items
+ * @since 2.9
+ */
+@Beta
+public final class JsonPaginator<T, I> implements Closeable {
+
+  /** Default name of the request parameter of the page token. */
+  public static final String DEFAULT_PAGE_TOKEN_PARAMETER = "pageToken";
+
+  /** Default name of the response field of the token of the next page. */
+  public static final String DEFAULT_NEXT_PAGE_TOKEN_FIELD = "nextPageToken";
+
+  private final AbstractGoogleJsonClientRequest<T> request;
+  private final String itemsField;
+  private final Class<I> itemClass;
+
+  private String pageTokenParameter = DEFAULT_PAGE_TOKEN_PARAMETER;
+  private String nextPageTokenField = DEFAULT_NEXT_PAGE_TOKEN_FIELD;
+
+  /** Name of the request parameter of the offset or {@code null} for page tokens. */
+  private String offsetParameter;
+
+  private int pageSize;
+  private int parallelism = 1;
+
+  /** Fetches of the next pages in order. */
+  private final Deque<ListenableFuture<T>> fetches = new ArrayDeque<ListenableFuture<T>>();
+
+  /** Page whose items are consumed or {@code null} before the first page. */
+  private T currentPage;
+
+  private Iterator<?> currentItems = Collections.emptyIterator();
+
+  /** Offset of the next page to fetch with offset paging. */
+  private long nextOffset;
+
+  /** Whether the last page was fetched or the paginator is closed. */
+  private boolean lastPageFetched;
+
+  private boolean started;
+
+  /**
+   * @param request list request of the first page
+   * @param itemsField name of the array field of the items in a page
+   * @param itemClass class of the items
+   */
+  JsonPaginator(AbstractGoogleJsonClientRequest<T> request, String itemsField, Class<I> itemClass) {
+    Preconditions.checkArgument(request.getMediaHttpUploader() == null);
+    this.request = request;
+    this.itemsField = Preconditions.checkNotNull(itemsField);
+    this.itemClass = Preconditions.checkNotNull(itemClass);
+  }
+
+  /**
+   * Sets the name of the request parameter of the page token, which is {@link
+   * #DEFAULT_PAGE_TOKEN_PARAMETER} by default.
+   */
+  public JsonPaginator<T, I> setPageTokenParameter(String pageTokenParameter) {
+    Preconditions.checkState(!started);
+    this.pageTokenParameter = Preconditions.checkNotNull(pageTokenParameter);
+    return this;
+  }
+
+  /**
+   * Sets the name of the response field of the token of the next page, which is {@link
+   * #DEFAULT_NEXT_PAGE_TOKEN_FIELD} by default.
+   */
+  public JsonPaginator<T, I> setNextPageTokenField(String nextPageTokenField) {
+    Preconditions.checkState(!started);
+    this.nextPageTokenField = Preconditions.checkNotNull(nextPageTokenField);
+    return this;
+  }
+
+  /**
+   * Pages with an offset rather than with page tokens, fetching up to the given number of pages in
+   * parallel.
+   *
+   * <p>The offset of the first page is the value of the offset parameter of the request, or {@code
+   * 0} if it is not set, and the offset of each next page is incremented by the page size. The page
+   * size must be the maximum number of items per page requested by the request, since the last page
+   * is the first one with fewer items.
+   *
+   * @param offsetParameter name of the request parameter of the offset of the first item of a page,
+   *     for example {@code startIndex}
+   * @param pageSize maximum number of items of a page
+   * @param parallelism maximum number of pages fetched in parallel
+   */
+  public JsonPaginator<T, I> setOffsetPaging(
+      String offsetParameter, int pageSize, int parallelism) {
+    Preconditions.checkState(!started);
+    Preconditions.checkArgument(pageSize > 0);
+    Preconditions.checkArgument(parallelism > 0);
+    this.offsetParameter = Preconditions.checkNotNull(offsetParameter);
+    this.pageSize = pageSize;
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * Returns the response of the page of the last item returned by {@link #next()} or {@code null}
+   * before the first page is received.
+   */
+  public T getCurrentPage() {
+    return currentPage;
+  }
+
+  /** Returns whether there is another item, waiting for the next pages as needed. */
+  public boolean hasNext() throws IOException {
+    if (!started) {
+      started = true;
+      if (offsetParameter != null) {
+        Object offset = request.get(offsetParameter);
+        nextOffset = offset == null ? 0 : ((Number) offset).longValue();
+      }
+      fetchNextPages(offsetParameter == null ? (String) request.get(pageTokenParameter) : null);
+    }
+    while (!currentItems.hasNext()) {
+      if (fetches.isEmpty()) {
+        return false;
+      }
+      T page = awaitNextPage();
+      currentPage = page;
+      Collection<?> items = (Collection<?>) getField(page, itemsField);
+      currentItems = items == null ? Collections.emptyIterator() : items.iterator();
+      if (offsetParameter == null) {
+        // the next page is fetched while the items of this page are consumed
+        String nextPageToken = (String) getField(page, nextPageTokenField);
+        if (nextPageToken == null || nextPageToken.isEmpty()) {
+          lastPageFetched = true;
+        }
+        fetchNextPages(nextPageToken);
+      } else {
+        if (items == null || items.size() < pageSize) {
+          // the pages fetched after the last page are empty
+          close();
+        }
+        fetchNextPages(null);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the next item.
+   *
+   * @throws NoSuchElementException if there is no other item
+   */
+  public I next() throws IOException {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return itemClass.cast(currentItems.next());
+  }
+
+  /** Cancels the fetches of the next pages, after which only the current page may be consumed. */
+  public void close() {
+    lastPageFetched = true;
+    for (ListenableFuture<T> fetch : fetches) {
+      fetch.cancel(true);
+    }
+    fetches.clear();
+  }
+
+  /**
+   * Starts the fetches of the next pages until the maximum number of fetches is reached or the last
+   * page was fetched.
+   *
+   * @param pageToken token of the next page for page tokens
+   */
+  private void fetchNextPages(String pageToken) {
+    while (!lastPageFetched && fetches.size() < parallelism) {
+      @SuppressWarnings("unchecked")
+      AbstractGoogleJsonClientRequest<T> pageRequest =
+          (AbstractGoogleJsonClientRequest<T>) request.clone();
+      if (offsetParameter == null) {
+        if (pageToken != null) {
+          pageRequest.set(pageTokenParameter, pageToken);
+        }
+        // the token of the page after it is only known once it is received
+        fetches.add(pageRequest.executeAsync());
+        return;
+      }
+      setParameter(pageRequest, offsetParameter, nextOffset);
+      nextOffset += pageSize;
+      fetches.add(pageRequest.executeAsync());
+    }
+  }
+
+  /** Waits for the next page and returns it. */
+  private T awaitNextPage() throws IOException {
+    ListenableFuture<T> fetch = fetches.removeFirst();
+    try {
+      return fetch.get();
+    } catch (ExecutionException e) {
+      close();
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw (RuntimeException) cause;
+    } catch (InterruptedException e) {
+      close();
+      Thread.currentThread().interrupt();
+      InterruptedIOException interrupted = new InterruptedIOException();
+      interrupted.initCause(e);
+      throw interrupted;
+    }
+  }
+
+  /** Returns the value of the given field of the given page or {@code null} for none. */
+  private static Object getField(Object page, String name) {
+    if (page instanceof GenericData) {
+      return ((GenericData) page).get(name);
+    }
+    FieldInfo fieldInfo = ClassInfo.of(page.getClass()).getFieldInfo(name);
+    return fieldInfo == null ? null : fieldInfo.getValue(page);
+  }
+
+  /** Sets the given numeric parameter of the given request to a value of the type of its field. */
+  private static void setParameter(
+      AbstractGoogleJsonClientRequest<?> request, String name, long value) {
+    FieldInfo fieldInfo = request.getClassInfo().getFieldInfo(name);
+    request.set(
+        name,
+        fieldInfo == null
+            ? value
+            : Data.parsePrimitiveValue(fieldInfo.getGenericType(), String.valueOf(value)));
+  }
+}
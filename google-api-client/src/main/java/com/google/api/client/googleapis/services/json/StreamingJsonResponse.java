@@ -0,0 +1,195 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services.json;
+
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.json.CustomizeJsonParser;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonParser;
+import com.google.api.client.json.JsonToken;
+import com.google.api.client.util.Beta;
+import com.google.api.client.util.Preconditions;
+import com.google.api.client.util.Types;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * {@link Beta} <br>
+ * JSON response whose items, the elements of an array field of the response, are parsed one at a
+ * time while they are read, so that a large list response is not held in memory.
+ *
+ * <p>The other fields of the response, such as {@code nextPageToken}, are parsed into {@link
+ * #getResponse()}. The fields before the array field are parsed when the response is received and
+ * the fields after it are parsed when the last item was read, i.e. when {@link #hasNext()} returns
+ * {@code false}, at which point the response is closed. Sample usage:
+ *
+ * <pre>{@code
+ * StreamingJsonResponse<FileList, File> response =
+ *     drive.files().list().executeStreaming("files", File.class);
+ * try {
+ *   while (response.hasNext()) {
+ *     File file = response.next();
+ *     // process file..
+ *   }
+ *   String nextPageToken = response.getResponse().getNextPageToken();
+ * } finally {
+ *   response.close();
+ * }
+ * }</pre>
+ *
+ * <p>Implementation is not thread-safe.
+ *
+ * @param <T> type of the response
+ * @param <I> type of the items
+ * @since 2.9
+ */
+@Beta
+public final class StreamingJsonResponse<T, I> implements Closeable {
+
+  private final HttpResponse response;
+  private final JsonParser parser;
+  private final String itemsField;
+  private final Class<I> itemClass;
+  private final T value;
+
+  /** Parser customizer that stops at the items field of the response. */
+  private final CustomizeJsonParser stopAtItems =
+      new CustomizeJsonParser() {
+        @Override
+        public boolean stopAt(Object context, String key) {
+          return context == value && key.equals(itemsField);
+        }
+      };
+
+  /** Whether the parser is at the next item. */
+  private boolean atItem;
+
+  private boolean closed;
+
+  /**
+   * @param response HTTP response, which is disconnected when this response is closed
+   * @param jsonFactory JSON factory
+   * @param wrapperKeys keys of the wrapper of the response in the JSON content, which may be empty
+   * @param responseClass class of the response
+   * @param itemsField name of the array field of the items
+   * @param itemClass class of the items
+   */
+  StreamingJsonResponse(
+      HttpResponse response,
+      JsonFactory jsonFactory,
+      Set<String> wrapperKeys,
+      Class<T> responseClass,
+      String itemsField,
+      Class<I> itemClass)
+      throws IOException {
+    this.response = response;
+    this.itemsField = Preconditions.checkNotNull(itemsField);
+    this.itemClass = Preconditions.checkNotNull(itemClass);
+    value = Types.newInstance(responseClass);
+    parser = jsonFactory.createJsonParser(response.getContent(), response.getContentCharset());
+    boolean initialized = false;
+    try {
+      if (!wrapperKeys.isEmpty()) {
+        String wrapperKey = parser.skipToKey(wrapperKeys);
+        Preconditions.checkArgument(
+            wrapperKey != null && parser.getCurrentToken() != JsonToken.END_OBJECT,
+            "wrapper key(s) not found: %s",
+            wrapperKeys);
+      }
+      parseFields();
+      initialized = true;
+    } finally {
+      if (!initialized) {
+        close();
+      }
+    }
+  }
+
+  /** Returns the HTTP response headers. */
+  public HttpHeaders getResponseHeaders() {
+    return response.getHeaders();
+  }
+
+  /**
+   * Returns the response, whose fields other than the items field are parsed if {@link #hasNext()}
+   * returned {@code false} and only the fields before the items field otherwise.
+   */
+  public T getResponse() {
+    return value;
+  }
+
+  /**
+   * Returns whether there is another item, or else parses the rest of the response and closes it.
+   */
+  public boolean hasNext() throws IOException {
+    if (!atItem && !closed) {
+      // the remaining fields follow the array of the items
+      parser.nextToken();
+      parseFields();
+    }
+    return atItem;
+  }
+
+  /**
+   * Parses and returns the next item.
+   *
+   * @throws NoSuchElementException if there is no other item
+   */
+  public I next() throws IOException {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    I item = parser.parse(itemClass);
+    atItem = parser.nextToken() != JsonToken.END_ARRAY;
+    return item;
+  }
+
+  /**
+   * Parses the fields of the response until the items field, after which the parser is at the first
+   * item if there is one, or else until the end of the response, which is then closed.
+   */
+  private void parseFields() throws IOException {
+    parser.parse(value, stopAtItems);
+    JsonToken token = parser.getCurrentToken();
+    if (token == JsonToken.START_ARRAY) {
+      atItem = parser.nextToken() != JsonToken.END_ARRAY;
+    } else if (token == JsonToken.VALUE_NULL) {
+      atItem = false;
+    } else {
+      Preconditions.checkState(
+          token == null || token == JsonToken.END_OBJECT,
+          "items field %s is not an array",
+          itemsField);
+      close();
+    }
+  }
+
+  /** Closes the JSON parser and disconnects the HTTP response. */
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    atItem = false;
+    try {
+      parser.close();
+    } finally {
+      response.disconnect();
+    }
+  }
+}
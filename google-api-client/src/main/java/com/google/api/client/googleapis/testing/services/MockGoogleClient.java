@@ -13,11 +13,19 @@
 package com.google.api.client.googleapis.testing.services;
 
 import com.google.api.client.googleapis.services.AbstractGoogleClient;
+import com.google.api.client.googleapis.services.GoogleClientCircuitBreaker;
+import com.google.api.client.googleapis.services.GoogleClientHedgingPolicy;
+import com.google.api.client.googleapis.services.GoogleClientMetrics;
+import com.google.api.client.googleapis.services.GoogleClientRateLimiter;
 import com.google.api.client.googleapis.services.GoogleClientRequestInitializer;
+import com.google.api.client.googleapis.services.GoogleClientResponseCache;
+import com.google.api.client.googleapis.services.GoogleClientSingleFlight;
+import com.google.api.client.googleapis.tracing.GoogleClientTracer;
 import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.http.HttpTransport;
 import com.google.api.client.util.Beta;
 import com.google.api.client.util.ObjectParser;
+import java.util.concurrent.Executor;
 
 /**
  * {@link Beta} <br>
@@ -123,5 +131,45 @@ public class MockGoogleClient extends AbstractGoogleClient {
     public Builder setSuppressAllChecks(boolean suppressAllChecks) {
       return (Builder) super.setSuppressAllChecks(suppressAllChecks);
     }
+
+    @Override
+    public Builder setExecutor(Executor executor) {
+      return (Builder) super.setExecutor(executor);
+    }
+
+    @Override
+    public Builder setResponseCache(GoogleClientResponseCache responseCache) {
+      return (Builder) super.setResponseCache(responseCache);
+    }
+
+    @Override
+    public Builder setSingleFlight(GoogleClientSingleFlight singleFlight) {
+      return (Builder) super.setSingleFlight(singleFlight);
+    }
+
+    @Override
+    public Builder setRateLimiter(GoogleClientRateLimiter rateLimiter) {
+      return (Builder) super.setRateLimiter(rateLimiter);
+    }
+
+    @Override
+    public Builder setHedgingPolicy(GoogleClientHedgingPolicy hedgingPolicy) {
+      return (Builder) super.setHedgingPolicy(hedgingPolicy);
+    }
+
+    @Override
+    public Builder setCircuitBreaker(GoogleClientCircuitBreaker circuitBreaker) {
+      return (Builder) super.setCircuitBreaker(circuitBreaker);
+    }
+
+    @Override
+    public Builder setMetrics(GoogleClientMetrics metrics) {
+      return (Builder) super.setMetrics(metrics);
+    }
+
+    @Override
+    public Builder setTracer(GoogleClientTracer tracer) {
+      return (Builder) super.setTracer(tracer);
+    }
   }
 }
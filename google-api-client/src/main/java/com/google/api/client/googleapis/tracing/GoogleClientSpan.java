@@ -0,0 +1,216 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.tracing;
+
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.util.Beta;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * {@link Beta} <br>
+ * Span of the tracing of a Google client, which is started by a {@link GoogleClientTracer}.
+ *
+ * <p>A span is ended exactly once by the code that started it. While a span is the {@link
+ * #current() current span} of a thread, which it is between {@link #makeCurrent()} and the close of
+ * the returned scope, the spans started on the thread by the client are its children.
+ *
+ * <p>Implementations must be thread-safe.
+ *
+ * @since 2.9
+ */
+@Beta
+public abstract class GoogleClientSpan {
+
+  /** Name of the header of the W3C Trace Context that propagates the trace of a request. */
+  public static final String TRACEPARENT_HEADER = "traceparent";
+
+  /** Span that records nothing, which is started by {@link GoogleClientTracer#NOOP}. */
+  public static final GoogleClientSpan NOOP =
+      new GoogleClientSpan() {
+        @Override
+        public GoogleClientTracer getTracer() {
+          return GoogleClientTracer.NOOP;
+        }
+
+        @Override
+        public void setAttribute(String key, String value) {}
+
+        @Override
+        public void setAttribute(String key, long value) {}
+
+        @Override
+        public void addEvent(String name) {}
+
+        @Override
+        public void recordException(Throwable exception) {}
+
+        @Override
+        public void end() {}
+      };
+
+  /** Current span of each thread. */
+  private static final ThreadLocal<GoogleClientSpan> CURRENT = new ThreadLocal<GoogleClientSpan>();
+
+  /** Returns the current span of the thread or {@code null} for none. */
+  public static GoogleClientSpan current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Starts a child span of the {@link #current() current span} of the thread with its tracer, or
+   * returns {@link #NOOP} if there is no current span.
+   *
+   * @param name name of the span
+   * @return started span, which must be {@link #end() ended}
+   */
+  public static GoogleClientSpan startChildOfCurrent(String name) {
+    GoogleClientSpan current = CURRENT.get();
+    return current == null ? NOOP : current.getTracer().startSpan(name, current);
+  }
+
+  /**
+   * Runs the given refresh of a credential in a {@code "googleapis.credential.refresh"} child span
+   * of the {@link #current() current span} of the thread, which records its exception, if any.
+   *
+   * @param refresh refresh of the credential
+   * @return result of the refresh
+   */
+  public static <T> T refreshCredential(Refresh<T> refresh) throws IOException {
+    GoogleClientSpan span = startChildOfCurrent("googleapis.credential.refresh");
+    try {
+      return refresh.run();
+    } catch (IOException | RuntimeException e) {
+      span.recordException(e);
+      throw e;
+    } finally {
+      span.end();
+    }
+  }
+
+  /** Returns the tracer that started the span. */
+  public abstract GoogleClientTracer getTracer();
+
+  /**
+   * Sets a string attribute of the span.
+   *
+   * @param key key of the attribute
+   * @param value value of the attribute
+   */
+  public abstract void setAttribute(String key, String value);
+
+  /**
+   * Sets a numeric attribute of the span.
+   *
+   * @param key key of the attribute
+   * @param value value of the attribute
+   */
+  public abstract void setAttribute(String key, long value);
+
+  /**
+   * Adds an event to the span, for example a retry of the request.
+   *
+   * @param name name of the event
+   */
+  public abstract void addEvent(String name);
+
+  /**
+   * Records the exception that failed the operation of the span.
+   *
+   * @param exception exception
+   */
+  public abstract void recordException(Throwable exception);
+
+  /** Ends the span. */
+  public abstract void end();
+
+  /**
+   * Returns the value of the {@link #TRACEPARENT_HEADER} header that propagates the span to the
+   * server, for example {@code 00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01}, or {@code
+   * null} to not propagate it.
+   *
+   * <p>Default implementation returns {@code null}, but subclasses may override.
+   */
+  public String getTraceparent() {
+    return null;
+  }
+
+  /**
+   * Sets the {@link #TRACEPARENT_HEADER} header of the given request headers to the {@link
+   * #getTraceparent() trace parent} of the span, if any.
+   *
+   * @param headers request headers
+   */
+  public final void injectTraceparent(HttpHeaders headers) {
+    String traceparent = getTraceparent();
+    if (traceparent != null) {
+      headers.set(TRACEPARENT_HEADER, traceparent);
+    }
+  }
+
+  /**
+   * Makes the span the current span of the thread until the returned scope is closed, which must be
+   * done on the same thread.
+   *
+   * @return scope that restores the previous current span of the thread when it is closed
+   */
+  public final Scope makeCurrent() {
+    Scope scope = new Scope(CURRENT.get());
+    CURRENT.set(this);
+    return scope;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Refresh of a credential that is run by {@link #refreshCredential}.
+   *
+   * @param <T> type of the result of the refresh
+   * @since 2.9
+   */
+  @Beta
+  public interface Refresh<T> {
+
+    /** Runs the refresh and returns its result. */
+    T run() throws IOException;
+  }
+
+  /**
+   * {@link Beta} <br>
+   * Scope of a current span, which restores the previous current span of the thread when it is
+   * closed.
+   *
+   * @since 2.9
+   */
+  @Beta
+  public static final class Scope implements Closeable {
+
+    /** Previous current span of the thread or {@code null} for none. */
+    private final GoogleClientSpan previous;
+
+    Scope(GoogleClientSpan previous) {
+      this.previous = previous;
+    }
+
+    /** Restores the previous current span of the thread. */
+    @Override
+    public void close() {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+}
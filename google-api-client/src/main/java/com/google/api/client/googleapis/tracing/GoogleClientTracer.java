@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.tracing;
+
+import com.google.api.client.util.Beta;
+
+/**
+ * {@link Beta} <br>
+ * Service provider interface of the tracing of the requests of a Google client.
+ *
+ * <p>When a tracer is set with {@link
+ * com.google.api.client.googleapis.services.AbstractGoogleClient.Builder#setTracer}, every
+ * execution of a request of the client is traced in a span, which is the {@link
+ * GoogleClientSpan#current() current span} while the request is sent. The spans of the chunks of a
+ * media upload, of the parts of a batch request and of the refreshes of the credential of the
+ * request are children of the current span. The {@code traceparent} header of the <a
+ * href="https://www.w3.org/TR/trace-context/">W3C Trace Context</a> is sent with every HTTP request
+ * of a span that has a {@link GoogleClientSpan#getTraceparent() trace parent}.
+ *
+ * <p>The default tracer of a client is {@link #NOOP}, in which case nothing is traced and the
+ * requests are sent as they would be without tracing. Implementations may record spans in a tracing
+ * system, for example an OpenTelemetry bridge returns spans that wrap the spans of an OpenTelemetry
+ * {@code Tracer}:
+ *
+ * <pre>{@code
+ * public GoogleClientSpan startSpan(String name, GoogleClientSpan parent) {
+ *   SpanBuilder builder = otelTracer.spanBuilder(name).setSpanKind(SpanKind.CLIENT);
+ *   if (parent instanceof OtelSpan) {
+ *     builder.setParent(Context.current().with(((OtelSpan) parent).span));
+ *   }
+ *   return new OtelSpan(this, builder.startSpan());
+ * }
+ * }</pre>
+ *
+ * <p>Implementations must be thread-safe.
+ *
+ * @since 2.9
+ */
+@Beta
+public abstract class GoogleClientTracer {
+
+  /** Tracer that traces nothing, which is the default of a client. */
+  public static final GoogleClientTracer NOOP =
+      new GoogleClientTracer() {
+        @Override
+        public GoogleClientSpan startSpan(String name, GoogleClientSpan parent) {
+          return GoogleClientSpan.NOOP;
+        }
+      };
+
+  /**
+   * Starts a span whose parent is the {@link GoogleClientSpan#current() current span} of the
+   * thread, if any.
+   *
+   * @param name name of the span
+   * @return started span, which must be {@link GoogleClientSpan#end() ended}
+   */
+  public final GoogleClientSpan startSpan(String name) {
+    return startSpan(name, GoogleClientSpan.current());
+  }
+
+  /**
+   * Starts a span.
+   *
+   * @param name name of the span
+   * @param parent parent span, which may have been started by another tracer, or {@code null} for a
+   *     root span
+   * @return started span, which must be {@link GoogleClientSpan#end() ended}
+   */
+  public abstract GoogleClientSpan startSpan(String name, GoogleClientSpan parent);
+}
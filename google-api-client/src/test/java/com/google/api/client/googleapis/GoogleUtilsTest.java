@@ -15,7 +15,14 @@
 package com.google.api.client.googleapis;
 
 import java.security.KeyStore;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import junit.framework.TestCase;
 
@@ -38,6 +45,34 @@ public class GoogleUtilsTest extends TestCase {
     assertEquals(71, trustStore.size());
   }
 
+  public void testGetCertificateTrustStore_concurrent() throws Exception {
+    GoogleUtils.certTrustStore = null;
+    final CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<KeyStore>> futures = new ArrayList<Future<KeyStore>>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(
+            executor.submit(
+                new Callable<KeyStore>() {
+                  public KeyStore call() throws Exception {
+                    start.await();
+                    return GoogleUtils.getCertificateTrustStore();
+                  }
+                }));
+      }
+      start.countDown();
+      KeyStore trustStore = futures.get(0).get();
+      assertEquals(71, trustStore.size());
+      // the key store is loaded once and never published before it is loaded
+      for (Future<KeyStore> future : futures) {
+        assertSame(trustStore, future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   public void testVersionMatcher() {
     String version = "1.30.3";
     Matcher matcher = GoogleUtils.VERSION_PATTERN.matcher(version);
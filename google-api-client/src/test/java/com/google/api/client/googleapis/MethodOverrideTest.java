@@ -129,4 +129,23 @@ public class MethodOverrideTest extends TestCase {
     content.writeTo(out);
     assertEquals(new String(arr2), out.toString());
   }
+
+  public void testIsUrlTooLong() {
+    String[] fillers = {"x", "-", "\u00e9", "\u20ac", "\ud83d\ude00", " "};
+    for (String filler : fillers) {
+      for (int count = 1; count < MethodOverride.MAX_URL_LENGTH; count += 7) {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+          value.append(filler);
+        }
+        GenericUrl url = new GenericUrl("https://user@www.googleapis.com:8080/a/b%20c?q=1#frag");
+        url.getPathParts().add(value.toString());
+        url.set("list", Arrays.asList("1", value.toString()));
+        assertEquals(
+            filler + count,
+            url.build().length() > MethodOverride.MAX_URL_LENGTH,
+            MethodOverride.isUrlTooLong(url));
+      }
+    }
+  }
 }
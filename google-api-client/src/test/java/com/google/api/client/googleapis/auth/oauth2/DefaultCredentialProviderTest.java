@@ -38,6 +38,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import junit.framework.TestCase;
@@ -135,6 +140,35 @@ public class DefaultCredentialProviderTest extends TestCase {
     assertSame(firstCall, secondCall);
   }
 
+  public void testDefaultCredentialCaches_concurrent() throws Exception {
+    final MockMetadataServerTransport transport = new MockMetadataServerTransport(ACCESS_TOKEN);
+    final TestDefaultCredentialProvider testProvider = new TestDefaultCredentialProvider();
+    final CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<GoogleCredential>> futures = new ArrayList<Future<GoogleCredential>>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(
+            executor.submit(
+                new Callable<GoogleCredential>() {
+                  public GoogleCredential call() throws Exception {
+                    start.await();
+                    return testProvider.getDefaultCredential(transport, JSON_FACTORY);
+                  }
+                }));
+      }
+      start.countDown();
+      GoogleCredential credential = futures.get(0).get();
+      assertNotNull(credential);
+      // the environment is detected and the credential created only once
+      for (Future<GoogleCredential> future : futures) {
+        assertSame(credential, future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   public void testGetDefaultCredentials_cloudshell() throws IOException {
     HttpTransport transport = new MockHttpTransport();
     TestDefaultCredentialProvider testProvider = new TestDefaultCredentialProvider();
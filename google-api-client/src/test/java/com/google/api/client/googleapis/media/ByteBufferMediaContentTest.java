@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.util.ByteStreams;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.TestCase;
+
+/** Tests {@link ByteBufferMediaContent}. */
+public class ByteBufferMediaContentTest extends TestCase {
+
+  private static class CountingDemandListener implements ByteBufferMediaContent.DemandListener {
+
+    int calls;
+
+    public void onDemand(ByteBufferMediaContent content) {
+      calls++;
+    }
+  }
+
+  public void testOffer_backPressure() throws Exception {
+    ByteBufferMediaContent content = new ByteBufferMediaContent("text/plain", 10);
+    CountingDemandListener listener = new CountingDemandListener();
+    content.setDemandListener(listener);
+
+    assertTrue(content.offer(ByteBuffer.wrap(new byte[6])));
+    assertTrue(content.offer(ByteBuffer.wrap(new byte[4])));
+    assertFalse(content.offer(ByteBuffer.wrap(new byte[1])));
+    assertEquals(0, listener.calls);
+
+    List<ByteBuffer> slices = new ArrayList<ByteBuffer>();
+    assertEquals(3, content.drainTo(slices, 3));
+    // still above half of the capacity
+    assertEquals(0, listener.calls);
+    assertEquals(4, content.drainTo(slices, 4));
+    assertEquals(1, listener.calls);
+    assertTrue(content.offer(ByteBuffer.wrap(new byte[1])));
+  }
+
+  public void testOffer_largerThanCapacityWhenEmpty() {
+    ByteBufferMediaContent content = new ByteBufferMediaContent("text/plain", 10);
+    assertTrue(content.offer(ByteBuffer.wrap(new byte[20])));
+    assertFalse(content.offer(ByteBuffer.wrap(new byte[1])));
+  }
+
+  public void testOffer_afterComplete() {
+    ByteBufferMediaContent content = new ByteBufferMediaContent("text/plain", 10);
+    content.complete();
+    try {
+      content.offer(ByteBuffer.wrap(new byte[1]));
+      fail("expected " + IllegalStateException.class);
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  public void testDrainTo_slicesWithoutCopying() throws Exception {
+    byte[] data = {1, 2, 3, 4, 5, 6, 7};
+    ByteBufferMediaContent content = new ByteBufferMediaContent("text/plain", 100);
+    content.offer(ByteBuffer.wrap(data, 0, 4));
+    content.offer(ByteBuffer.wrap(data, 4, 3));
+    content.complete();
+
+    List<ByteBuffer> slices = new ArrayList<ByteBuffer>();
+    assertEquals(5, content.drainTo(slices, 5));
+    assertEquals(2, slices.size());
+    assertSame(data, slices.get(0).array());
+    assertSame(data, slices.get(1).array());
+    assertEquals(1, slices.get(1).remaining());
+    assertTrue(content.awaitContent());
+    assertEquals(2, content.drainTo(slices, 5));
+    assertFalse(content.awaitContent());
+    assertEquals(0, content.drainTo(slices, 5));
+  }
+
+  public void testGetInputStream() throws Exception {
+    final byte[] data = new byte[1000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    final ByteBufferMediaContent content = new ByteBufferMediaContent("text/plain", 64);
+    Thread producer =
+        new Thread() {
+          @Override
+          public void run() {
+            try {
+              for (int offset = 0; offset < data.length; offset += 50) {
+                content.put(ByteBuffer.wrap(data, offset, 50));
+              }
+              content.complete();
+            } catch (InterruptedException e) {
+              content.fail(new IOException(e));
+            }
+          }
+        };
+    producer.start();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ByteStreams.copy(content.getInputStream(), out);
+    producer.join();
+    assertTrue(Arrays.equals(data, out.toByteArray()));
+  }
+
+  public void testGetInputStream_failure() throws Exception {
+    ByteBufferMediaContent content = new ByteBufferMediaContent("text/plain", 64);
+    content.offer(ByteBuffer.wrap(new byte[3]));
+    content.fail(new IOException("failed"));
+    try {
+      ByteStreams.copy(content.getInputStream(), new ByteArrayOutputStream());
+      fail("expected " + IOException.class);
+    } catch (IOException e) {
+      assertEquals("failed", e.getCause().getMessage());
+    }
+  }
+
+  public void testByteBuffersContent() throws Exception {
+    ByteBuffer direct = ByteBuffer.allocateDirect(3);
+    direct.put(new byte[] {4, 5, 6}).flip();
+    List<ByteBuffer> slices =
+        new ArrayList<ByteBuffer>(Arrays.asList(ByteBuffer.wrap(new byte[] {0, 1, 2, 3}), direct));
+    ByteBuffersContent.discard(slices, 1);
+    ByteBuffersContent chunk = new ByteBuffersContent("text/plain", slices);
+    assertEquals(6, chunk.getLength());
+
+    byte[] expected = {1, 2, 3, 4, 5, 6};
+    for (int i = 0; i < 2; i++) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      chunk.writeTo(out);
+      assertTrue(Arrays.equals(expected, out.toByteArray()));
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ByteStreams.copy(chunk.getInputStream(), out);
+    assertTrue(Arrays.equals(expected, out.toByteArray()));
+
+    ByteBuffersContent.discard(slices, 4);
+    assertEquals(1, slices.size());
+    assertEquals(2, ByteBuffersContent.remaining(slices));
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.http.AbstractInputStreamContent;
+import com.google.api.client.http.ByteArrayContent;
+import com.google.api.client.http.FileContent;
+import com.google.api.client.http.InputStreamContent;
+import com.google.api.client.testing.util.TestableByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import junit.framework.TestCase;
+
+/** Tests {@link MediaChunkSource}. */
+public class MediaChunkSourceTest extends TestCase {
+
+  private static final byte[] DATA = new byte[25];
+
+  static {
+    for (int i = 0; i < DATA.length; i++) {
+      DATA[i] = (byte) i;
+    }
+  }
+
+  public void testCreate() throws Exception {
+    assertTrue(
+        MediaChunkSource.create(new ByteArrayContent("text/plain", DATA))
+            instanceof MediaChunkSource.ByteArraySource);
+    assertTrue(
+        MediaChunkSource.create(
+                new InputStreamContent("text/plain", new TestableByteArrayInputStream(DATA)))
+            instanceof MediaChunkSource.RingBufferSource);
+    assertTrue(
+        MediaChunkSource.create(new ByteBufferMediaContent("text/plain", 10))
+            instanceof MediaChunkSource.ByteBufferSource);
+  }
+
+  public void testRingBufferSource() throws Exception {
+    subtestPartialAcknowledgements(
+        MediaChunkSource.create(
+            new InputStreamContent("text/plain", new TestableByteArrayInputStream(DATA))));
+  }
+
+  public void testByteArraySource() throws Exception {
+    subtestPartialAcknowledgements(
+        MediaChunkSource.create(new ByteArrayContent("text/plain", DATA)));
+  }
+
+  public void testByteBufferSource() throws Exception {
+    ByteBufferMediaContent content = new ByteBufferMediaContent("text/plain", 100);
+    content.offer(ByteBuffer.wrap(DATA, 0, 7));
+    content.offer(ByteBuffer.wrap(DATA, 7, DATA.length - 7));
+    content.complete();
+    subtestPartialAcknowledgements(MediaChunkSource.create(content));
+  }
+
+  public void testFileSource() throws Exception {
+    File file = File.createTempFile("media", ".bin");
+    try {
+      FileOutputStream out = new FileOutputStream(file);
+      out.write(DATA);
+      out.close();
+      MediaChunkSource source = MediaChunkSource.create(new FileContent("text/plain", file));
+      assertTrue(source instanceof MediaChunkSource.FileSource);
+      subtestPartialAcknowledgements(source);
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void testRingBufferSource_closesStream() throws Exception {
+    TestableByteArrayInputStream in = new TestableByteArrayInputStream(DATA);
+    MediaChunkSource source = MediaChunkSource.create(new InputStreamContent("text/plain", in));
+    source.close();
+    assertTrue(in.isClosed());
+
+    in = new TestableByteArrayInputStream(DATA);
+    source =
+        MediaChunkSource.create(
+            new InputStreamContent("text/plain", in).setCloseInputStream(false));
+    source.close();
+    assertFalse(in.isClosed());
+  }
+
+  /**
+   * Uploads {@link #DATA} in chunks of 10 bytes, of which the server acknowledges only some, and
+   * checks that every chunk starts at the first unacknowledged byte.
+   */
+  private void subtestPartialAcknowledgements(MediaChunkSource source) throws Exception {
+    int offset = 0;
+    int[] acknowledged = {4, 10, 0, 7, 3, 1};
+    for (int bytes : acknowledged) {
+      AbstractInputStreamContent chunk = source.nextChunk(10);
+      int length = Math.min(10, DATA.length - offset);
+      // asked before the chunk is written, like the uploader does
+      assertEquals(offset + length < DATA.length, source.hasMoreContent());
+      assertChunk(chunk, offset, length);
+      if (!(chunk instanceof InputStreamContent)) {
+        // the chunk can be written again when the request is retried
+        assertChunk(chunk, offset, length);
+      }
+      source.acknowledge(bytes);
+      offset += bytes;
+    }
+    assertEquals(25, offset);
+    assertEquals(0, source.nextChunk(10).getLength());
+    assertFalse(source.hasMoreContent());
+    source.close();
+  }
+
+  private static void assertChunk(AbstractInputStreamContent chunk, int offset, int length)
+      throws IOException {
+    assertEquals(length, chunk.getLength());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    chunk.writeTo(out);
+    assertTrue(Arrays.equals(Arrays.copyOfRange(DATA, offset, offset + length), out.toByteArray()));
+  }
+}
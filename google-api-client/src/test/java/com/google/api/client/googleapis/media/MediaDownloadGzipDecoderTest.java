@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+import junit.framework.TestCase;
+
+/** Tests {@link MediaDownloadGzipDecoder}. */
+public class MediaDownloadGzipDecoderTest extends TestCase {
+
+  private static byte[] gzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+    gzip.write(bytes);
+    gzip.close();
+    return compressed.toByteArray();
+  }
+
+  private static byte[] concat(byte[]... arrays) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (byte[] array : arrays) {
+      out.write(array, 0, array.length);
+    }
+    return out.toByteArray();
+  }
+
+  /** Decodes the given bytes, writing them in pieces of the given size. */
+  private static byte[] decode(byte[] bytes, int pieceSize) throws IOException {
+    MediaDownloadGzipDecoder decoder = new MediaDownloadGzipDecoder();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    OutputStream in = decoder.transform(out);
+    for (int i = 0; i < bytes.length; i += pieceSize) {
+      in.write(bytes, i, Math.min(pieceSize, bytes.length - i));
+    }
+    decoder.finish();
+    return out.toByteArray();
+  }
+
+  public void testDecode() throws IOException {
+    byte[] media = new byte[100000];
+    new Random(1).nextBytes(media);
+    byte[] compressed = gzip(media);
+    for (int pieceSize : new int[] {1, 7, 4096, compressed.length}) {
+      assertTrue(Arrays.equals(media, decode(compressed, pieceSize)));
+    }
+  }
+
+  public void testDecode_members() throws IOException {
+    byte[] first = "first member ".getBytes("UTF-8");
+    byte[] second = "second member".getBytes("UTF-8");
+    byte[] compressed = concat(gzip(first), gzip(second));
+    assertTrue(Arrays.equals(concat(first, second), decode(compressed, 3)));
+  }
+
+  public void testDecode_headerFields() throws IOException {
+    byte[] member = gzip("media".getBytes("UTF-8"));
+    // set FEXTRA, FNAME and FCOMMENT
+    byte[] header = {
+      0x1f, (byte) 0x8b, 8, 4 | 8 | 16, 0, 0, 0, 0, 0, (byte) 0xff, 2, 0, 'x', 'y', 'a', 0, 'b', 0
+    };
+    byte[] compressed = concat(header, Arrays.copyOfRange(member, 10, member.length));
+    assertEquals("media", new String(decode(compressed, 1), "UTF-8"));
+  }
+
+  public void testDecode_truncated() throws IOException {
+    byte[] compressed = gzip("media".getBytes("UTF-8"));
+    try {
+      decode(Arrays.copyOf(compressed, compressed.length - 1), 1);
+      fail("expected " + ZipException.class);
+    } catch (ZipException e) {
+      assertEquals("Truncated gzip media", e.getMessage());
+    }
+  }
+
+  public void testDecode_corrupt() throws IOException {
+    byte[] compressed = gzip("media".getBytes("UTF-8"));
+    compressed[compressed.length - 5]++;
+    try {
+      decode(compressed, 1);
+      fail("expected " + ZipException.class);
+    } catch (ZipException e) {
+      assertEquals("Corrupt gzip media: CRC-32 or size mismatch", e.getMessage());
+    }
+  }
+
+  public void testDecode_notGzip() throws IOException {
+    try {
+      decode("media".getBytes("UTF-8"), 1);
+      fail("expected " + ZipException.class);
+    } catch (ZipException e) {
+      assertEquals("Not gzip media", e.getMessage());
+    }
+  }
+}
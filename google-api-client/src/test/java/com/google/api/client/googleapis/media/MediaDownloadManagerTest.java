@@ -0,0 +1,273 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.googleapis.media.MediaHttpDownloaderTest.RangeMediaTransport;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.TestCase;
+
+/** Tests {@link MediaDownloadManager}. */
+public class MediaDownloadManagerTest extends TestCase {
+
+  /** Transport that tracks the maximum number of concurrent requests by host. */
+  static class HostTrackingTransport extends RangeMediaTransport {
+
+    final ConcurrentHashMap<String, AtomicInteger> concurrentRequestsByHost =
+        new ConcurrentHashMap<String, AtomicInteger>();
+    final ConcurrentHashMap<String, AtomicInteger> maxConcurrentRequestsByHost =
+        new ConcurrentHashMap<String, AtomicInteger>();
+
+    HostTrackingTransport(int length) {
+      super(length);
+    }
+
+    @Override
+    LowLevelHttpResponse serve(MockLowLevelHttpRequest request) throws IOException {
+      String host = new GenericUrl(request.getUrl()).getHost();
+      concurrentRequestsByHost.putIfAbsent(host, new AtomicInteger());
+      maxConcurrentRequestsByHost.putIfAbsent(host, new AtomicInteger());
+      int concurrent = concurrentRequestsByHost.get(host).incrementAndGet();
+      try {
+        AtomicInteger max = maxConcurrentRequestsByHost.get(host);
+        int current;
+        do {
+          current = max.get();
+        } while (concurrent > current && !max.compareAndSet(current, concurrent));
+        if (request.getUrl().contains("fail")) {
+          return new MockLowLevelHttpResponse().setStatusCode(500);
+        }
+        return super.serve(request);
+      } finally {
+        concurrentRequestsByHost.get(host).decrementAndGet();
+      }
+    }
+  }
+
+  public void testDownload() throws Exception {
+    HostTrackingTransport fakeTransport = new HostTrackingTransport(3000);
+    MediaDownloadManager manager =
+        new MediaDownloadManager.Builder(fakeTransport, null)
+            .setMaxConcurrentDownloads(4)
+            .setMaxConcurrentDownloadsPerHost(1)
+            .build();
+    List<ListenableFuture<Long>> futures = new ArrayList<ListenableFuture<Long>>();
+    List<ByteArrayOutputStream> outputStreams = new ArrayList<ByteArrayOutputStream>();
+    for (int i = 0; i < 30; i++) {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      outputStreams.add(outputStream);
+      GenericUrl url = new GenericUrl("http://host" + (i % 3) + ".test.com/media/" + i);
+      futures.add(manager.download(url, outputStream));
+    }
+    for (int i = 0; i < 30; i++) {
+      assertEquals(Long.valueOf(3000), futures.get(i).get());
+      assertTrue(Arrays.equals(fakeTransport.media, outputStreams.get(i).toByteArray()));
+    }
+    for (AtomicInteger max : fakeTransport.maxConcurrentRequestsByHost.values()) {
+      assertEquals(1, max.get());
+    }
+    assertEquals(3, fakeTransport.maxConcurrentRequestsByHost.size());
+    assertEquals(30, manager.getCompletedCount());
+    assertEquals(30 * 3000, manager.getBytesDownloaded());
+    assertEquals(0, manager.getRunningCount());
+    assertTrue(manager.getThroughputBytesPerSecond() > 0);
+  }
+
+  public void testDownload_failure() throws Exception {
+    HostTrackingTransport fakeTransport = new HostTrackingTransport(3000);
+    MediaDownloadManager manager = new MediaDownloadManager.Builder(fakeTransport, null).build();
+    ListenableFuture<Long> failing =
+        manager.download(
+            new GenericUrl("http://www.test.com/media/fail"), new ByteArrayOutputStream());
+    ListenableFuture<Long> succeeding =
+        manager.download(
+            new GenericUrl("http://www.test.com/media/ok"), new ByteArrayOutputStream());
+    try {
+      failing.get();
+      fail("expected " + ExecutionException.class);
+    } catch (ExecutionException e) {
+      assertEquals(500, ((HttpResponseException) e.getCause()).getStatusCode());
+    }
+    assertEquals(Long.valueOf(3000), succeeding.get());
+    assertEquals(1, manager.getFailedCount());
+    assertEquals(1, manager.getCompletedCount());
+  }
+
+  public void testDownload_path() throws Exception {
+    HostTrackingTransport fakeTransport = new HostTrackingTransport(5000);
+    MediaDownloadManager manager = new MediaDownloadManager.Builder(fakeTransport, null).build();
+    MediaHttpDownloader downloader = manager.newDownloader().setChunkSize(1000).setParallelism(2);
+    File file = File.createTempFile("media", ".bin");
+    try {
+      assertEquals(
+          Long.valueOf(5000),
+          manager
+              .download(
+                  downloader, new GenericUrl("http://www.test.com/media"), null, file.toPath())
+              .get());
+      assertTrue(Arrays.equals(fakeTransport.media, Files.readAllBytes(file.toPath())));
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void testDownload_pathParallelPositionalWrites() throws Exception {
+    final File file = File.createTempFile("media", ".bin");
+    final AtomicBoolean laterChunkWritten = new AtomicBoolean();
+    HostTrackingTransport fakeTransport =
+        new HostTrackingTransport(4000) {
+          @Override
+          LowLevelHttpResponse serve(MockLowLevelHttpRequest request) throws IOException {
+            if (request.getFirstHeaderValue("Range").startsWith("bytes=1000-")) {
+              // the next chunk is written at its position while this one is held back
+              long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+              while (file.length() < 3000 && System.nanoTime() < deadline) {
+                try {
+                  Thread.sleep(10);
+                } catch (InterruptedException e) {
+                  throw new IOException(e);
+                }
+              }
+              laterChunkWritten.set(file.length() >= 3000);
+            }
+            return super.serve(request);
+          }
+        };
+    MediaDownloadManager manager = new MediaDownloadManager.Builder(fakeTransport, null).build();
+    MediaHttpDownloader downloader = manager.newDownloader().setChunkSize(1000).setParallelism(3);
+    try {
+      assertEquals(
+          Long.valueOf(4000),
+          manager
+              .download(
+                  downloader, new GenericUrl("http://www.test.com/media"), null, file.toPath())
+              .get());
+      assertTrue(laterChunkWritten.get());
+      assertTrue(Arrays.equals(fakeTransport.media, Files.readAllBytes(file.toPath())));
+      assertEquals(4000, manager.getBytesDownloaded());
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void testDownload_cancelRunning() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch cancelled = new CountDownLatch(1);
+    HostTrackingTransport fakeTransport =
+        new HostTrackingTransport(10000) {
+          @Override
+          LowLevelHttpResponse serve(MockLowLevelHttpRequest request) throws IOException {
+            if (request.getFirstHeaderValue("Range").startsWith("bytes=2000-")) {
+              started.countDown();
+              try {
+                cancelled.await();
+              } catch (InterruptedException e) {
+                throw new IOException(e);
+              }
+            }
+            return super.serve(request);
+          }
+        };
+    MediaDownloadManager manager = new MediaDownloadManager.Builder(fakeTransport, null).build();
+    MediaHttpDownloader downloader = manager.newDownloader().setChunkSize(1000);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ListenableFuture<Long> future =
+        manager.download(
+            downloader, new GenericUrl("http://www.test.com/media"), null, outputStream);
+    started.await();
+    assertTrue(future.cancel(true));
+    cancelled.countDown();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (manager.getRunningCount() != 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    // the download stopped at the first bytes it received after the cancellation
+    assertEquals(0, manager.getRunningCount());
+    assertEquals(2000, outputStream.size());
+    assertEquals(3, fakeTransport.ranges.size());
+    assertEquals(0, manager.getFailedCount());
+  }
+
+  public void testMaxBytesPerSecond() throws Exception {
+    HostTrackingTransport fakeTransport = new HostTrackingTransport(100000);
+    MediaDownloadManager manager =
+        new MediaDownloadManager.Builder(fakeTransport, null).setMaxBytesPerSecond(1000000).build();
+    long start = System.nanoTime();
+    List<ListenableFuture<Long>> futures = new ArrayList<ListenableFuture<Long>>();
+    for (int i = 0; i < 3; i++) {
+      futures.add(
+          manager.download(
+              new GenericUrl("http://www.test.com/media"), new ByteArrayOutputStream()));
+    }
+    for (ListenableFuture<Long> future : futures) {
+      future.get();
+    }
+    // the first 64KB read is free, the rest takes 300000 - 65536 microseconds
+    assertTrue(System.nanoTime() - start >= 200000000L);
+  }
+
+  public void testShutdown() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final SettableFuture<Runnable> blocked = SettableFuture.create();
+    Executor executor =
+        new Executor() {
+          public void execute(Runnable command) {
+            // hold the first download until the test runs it
+            blocked.set(command);
+            started.countDown();
+          }
+        };
+    MediaDownloadManager manager =
+        new MediaDownloadManager.Builder(new HostTrackingTransport(10), null)
+            .setMaxConcurrentDownloads(1)
+            .setExecutor(executor)
+            .build();
+    ListenableFuture<Long> first =
+        manager.download(new GenericUrl("http://www.test.com/a"), new ByteArrayOutputStream());
+    ListenableFuture<Long> second =
+        manager.download(new GenericUrl("http://www.test.com/b"), new ByteArrayOutputStream());
+    started.await();
+    assertEquals(1, manager.getPendingCount());
+    manager.shutdown();
+    assertTrue(second.isCancelled());
+    blocked.get().run();
+    assertEquals(Long.valueOf(10), first.get());
+    try {
+      manager.download(new GenericUrl("http://www.test.com/c"), new ByteArrayOutputStream());
+      fail("expected " + IllegalStateException.class);
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+}
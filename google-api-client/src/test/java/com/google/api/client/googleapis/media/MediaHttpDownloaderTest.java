@@ -21,8 +21,39 @@ import com.google.api.client.http.LowLevelHttpResponse;
 import com.google.api.client.testing.http.MockHttpTransport;
 import com.google.api.client.testing.http.MockLowLevelHttpRequest;
 import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.client.util.BackOff;
+import com.google.api.client.util.Base64;
+import com.google.api.client.util.NanoClock;
+import com.google.api.client.util.Sleeper;
+import com.google.api.client.util.store.DataStore;
+import com.google.api.client.util.store.MemoryDataStoreFactory;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Ints;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 import junit.framework.TestCase;
 
 /**
@@ -127,6 +158,142 @@ public class MediaHttpDownloaderTest extends TestCase {
     }
   }
 
+  /**
+   * Transport that serves ranges of the given media in any order and from any thread, sleeping a
+   * little to let concurrent requests complete out of order.
+   */
+  static class RangeMediaTransport extends MockHttpTransport {
+
+    final byte[] media;
+    final AtomicInteger lowLevelExecCalls = new AtomicInteger();
+    final AtomicInteger concurrentRequests = new AtomicInteger();
+    final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+
+    /** First byte position of a range that fails with a server error or {@code -1} for none. */
+    volatile long failingBytePos = -1;
+
+    /** ETag of the media or {@code null} for none. */
+    volatile String eTag;
+
+    /** {@code If-Match} header of the last request. */
+    volatile String lastIfMatch;
+
+    /** Range headers of the requests. */
+    final List<String> ranges = Collections.synchronizedList(new ArrayList<String>());
+
+    /**
+     * Number of bytes after which the content of the next response fails or {@code -1} for none.
+     */
+    volatile int failContentAfterBytes = -1;
+
+    /** Whether the Range header is ignored and the whole media is sent. */
+    volatile boolean ignoreRange;
+
+    /** Time that the transport advances by the number of bytes it serves. */
+    final AtomicLong nanoTime = new AtomicLong();
+
+    /** Nanoseconds it takes to serve a byte. */
+    volatile long nanosPerByte;
+
+    final NanoClock nanoClock =
+        new NanoClock() {
+          public long nanoTime() {
+            return nanoTime.get();
+          }
+        };
+
+    /** Value of the {@code x-goog-hash} header or {@code null} for none. */
+    volatile String googHash;
+
+    RangeMediaTransport(int length) {
+      media = new byte[length];
+      new Random(length).nextBytes(media);
+    }
+
+    RangeMediaTransport(byte[] media) {
+      this.media = media;
+    }
+
+    @Override
+    public LowLevelHttpRequest buildRequest(String name, String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+          lowLevelExecCalls.incrementAndGet();
+          int concurrent = concurrentRequests.incrementAndGet();
+          try {
+            int max;
+            do {
+              max = maxConcurrentRequests.get();
+            } while (concurrent > max && !maxConcurrentRequests.compareAndSet(max, concurrent));
+            return serve(this);
+          } finally {
+            concurrentRequests.decrementAndGet();
+          }
+        }
+      };
+    }
+
+    LowLevelHttpResponse serve(MockLowLevelHttpRequest request) throws IOException {
+      String range = request.getFirstHeaderValue("Range");
+      ranges.add(range);
+      if (ignoreRange) {
+        range = null;
+      }
+      MockLowLevelHttpResponse response = new MockLowLevelHttpResponse();
+      int first = 0;
+      int last = media.length - 1;
+      if (range != null) {
+        first = Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+        String lastString = range.substring(range.indexOf('-') + 1);
+        if (!lastString.isEmpty()) {
+          last = Math.min(last, Integer.parseInt(lastString));
+        }
+      }
+      if (first == failingBytePos) {
+        return response.setStatusCode(500);
+      }
+      if (first >= media.length) {
+        response.addHeader("Content-Range", "bytes */" + media.length);
+        return response.setStatusCode(416);
+      }
+      String ifMatch = request.getFirstHeaderValue("If-Match");
+      lastIfMatch = ifMatch;
+      if (ifMatch != null && !ifMatch.equals(eTag)) {
+        return response.setStatusCode(412);
+      }
+      if (eTag != null) {
+        response.addHeader("ETag", eTag);
+      }
+      if (googHash != null) {
+        response.addHeader("x-goog-hash", googHash);
+      }
+      try {
+        Thread.sleep(new Random().nextInt(5));
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+      response.setStatusCode(range == null ? 200 : 206);
+      response.addHeader("Content-Range", "bytes " + first + "-" + last + "/" + media.length);
+      nanoTime.addAndGet(nanosPerByte * (last - first + 1));
+      InputStream content = new ByteArrayInputStream(media, first, last - first + 1);
+      if (failContentAfterBytes != -1) {
+        content =
+            new SequenceInputStream(
+                ByteStreams.limit(content, failContentAfterBytes),
+                new InputStream() {
+                  @Override
+                  public int read() throws IOException {
+                    throw new IOException("connection reset");
+                  }
+                });
+        failContentAfterBytes = -1;
+      }
+      response.setContent(content);
+      return response;
+    }
+  }
+
   private static class ProgressListenerWithTwoDownloadCalls
       implements MediaHttpDownloaderProgressListener {
 
@@ -467,4 +634,652 @@ public class MediaHttpDownloaderTest extends TestCase {
     // should be 1 call made: 1 download request with server error
     assertEquals(1, fakeTransport.lowLevelExecCalls);
   }
+
+  public void testParallelDownload_outputStream() throws Exception {
+    int chunkSize = 1000;
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(chunkSize * 20 + 7);
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null).setChunkSize(chunkSize).setParallelism(4);
+    final List<Long> progress = new ArrayList<Long>();
+    downloader.setProgressListener(
+        new MediaHttpDownloaderProgressListener() {
+          public void progressChanged(MediaHttpDownloader downloader) {
+            progress.add(downloader.getNumBytesDownloaded());
+          }
+        });
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    downloader.download(new GenericUrl(TEST_REQUEST_URL), outputStream);
+
+    assertTrue(Arrays.equals(fakeTransport.media, outputStream.toByteArray()));
+    assertEquals(21, fakeTransport.lowLevelExecCalls.get());
+    assertTrue(fakeTransport.maxConcurrentRequests.get() <= 4);
+    assertEquals(MediaHttpDownloader.DownloadState.MEDIA_COMPLETE, downloader.getDownloadState());
+    assertEquals(fakeTransport.media.length, downloader.getNumBytesDownloaded());
+    // progress is reported in order from the calling thread
+    assertEquals(21, progress.size());
+    for (int i = 0; i < 20; i++) {
+      assertEquals(Long.valueOf((i + 1) * chunkSize), progress.get(i));
+    }
+  }
+
+  public void testParallelDownload_fileChannel() throws Exception {
+    int chunkSize = 1000;
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(chunkSize * 10 + 1);
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null).setChunkSize(chunkSize).setParallelism(3);
+    downloader.setContentRange(500, 8499);
+    File file = File.createTempFile("media", ".bin");
+    try {
+      RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+      try {
+        FileChannel fileChannel = randomAccessFile.getChannel();
+        fileChannel.write(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+        downloader.download(new GenericUrl(TEST_REQUEST_URL), null, fileChannel);
+        assertEquals(3 + 8000, fileChannel.position());
+        assertEquals(3 + 8000, fileChannel.size());
+      } finally {
+        randomAccessFile.close();
+      }
+      byte[] expected = new byte[3 + 8000];
+      expected[0] = 1;
+      expected[1] = 2;
+      expected[2] = 3;
+      System.arraycopy(fakeTransport.media, 500, expected, 3, 8000);
+      assertTrue(Arrays.equals(expected, Files.readAllBytes(file.toPath())));
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void testParallelDownload_failure() throws Exception {
+    int chunkSize = 1000;
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(chunkSize * 20);
+    fakeTransport.failingBytePos = chunkSize * 5;
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      MediaHttpDownloader downloader =
+          new MediaHttpDownloader(fakeTransport, null)
+              .setChunkSize(chunkSize)
+              .setParallelism(2)
+              .setExecutor(executor);
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      try {
+        downloader.download(new GenericUrl(TEST_REQUEST_URL), outputStream);
+        fail("expected " + HttpResponseException.class);
+      } catch (HttpResponseException e) {
+        assertEquals(500, e.getStatusCode());
+      }
+      // the chunks before the failed one were written
+      assertEquals(chunkSize * 5, outputStream.size());
+      assertEquals(chunkSize * 5, downloader.getNumBytesDownloaded());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public void testParallelDownload_failureWaitsForRunningChunks() throws Exception {
+    final int chunkSize = 1000;
+    final CountDownLatch slowChunkStarted = new CountDownLatch(1);
+    final AtomicBoolean slowChunkServed = new AtomicBoolean();
+    RangeMediaTransport fakeTransport =
+        new RangeMediaTransport(chunkSize * 4) {
+          @Override
+          LowLevelHttpResponse serve(MockLowLevelHttpRequest request) throws IOException {
+            String range = request.getFirstHeaderValue("Range");
+            try {
+              if (range.startsWith("bytes=" + chunkSize + "-")) {
+                // fail only once the next chunk is running
+                slowChunkStarted.await();
+              } else if (range.startsWith("bytes=" + chunkSize * 2 + "-")) {
+                slowChunkStarted.countDown();
+                Thread.sleep(200);
+                slowChunkServed.set(true);
+              }
+            } catch (InterruptedException e) {
+              throw new IOException(e);
+            }
+            return super.serve(request);
+          }
+        };
+    fakeTransport.failingBytePos = chunkSize;
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null).setChunkSize(chunkSize).setParallelism(2);
+    File file = File.createTempFile("media", ".bin");
+    try {
+      try {
+        downloader.download(new GenericUrl(TEST_REQUEST_URL), null, file.toPath());
+        fail("expected " + HttpResponseException.class);
+      } catch (HttpResponseException e) {
+        assertEquals(500, e.getStatusCode());
+      }
+      // the running chunk finished before the download returned
+      assertTrue(slowChunkServed.get());
+      assertEquals(0, fakeTransport.concurrentRequests.get());
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void testChunkedDownload_changingETagWithoutSessionStore() throws Exception {
+    int chunkSize = 1000;
+    for (int parallelism = 1; parallelism <= 2; parallelism++) {
+      final AtomicInteger responses = new AtomicInteger();
+      RangeMediaTransport fakeTransport =
+          new RangeMediaTransport(chunkSize * 3 + 500) {
+            @Override
+            LowLevelHttpResponse serve(MockLowLevelHttpRequest request) throws IOException {
+              // weak ETag that differs in every range response
+              eTag = "W/\"" + responses.incrementAndGet() + "\"";
+              return super.serve(request);
+            }
+          };
+      MediaHttpDownloader downloader =
+          new MediaHttpDownloader(fakeTransport, null)
+              .setChunkSize(chunkSize)
+              .setParallelism(parallelism);
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      downloader.download(new GenericUrl(TEST_REQUEST_URL), outputStream);
+
+      assertTrue(Arrays.equals(fakeTransport.media, outputStream.toByteArray()));
+      assertNull(fakeTransport.lastIfMatch);
+      assertEquals(4, responses.get());
+    }
+  }
+
+  public void testSessionStore_resume() throws Exception {
+    int chunkSize = 1000;
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(chunkSize * 5 + 10);
+    fakeTransport.eTag = "\"v1\"";
+    fakeTransport.failingBytePos = chunkSize * 3;
+    DataStore<MediaDownloadSession> store =
+        MediaDownloadSession.getDefaultDataStore(new MemoryDataStoreFactory());
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null)
+            .setChunkSize(chunkSize)
+            .setSessionStore(store, "media");
+    try {
+      downloader.download(new GenericUrl(TEST_REQUEST_URL), outputStream);
+      fail("expected " + HttpResponseException.class);
+    } catch (HttpResponseException e) {
+      assertEquals(500, e.getStatusCode());
+    }
+    assertEquals(
+        new MediaDownloadSession()
+            .setBytesDownloaded(chunkSize * 3)
+            .setMediaContentLength(chunkSize * 5 + 10)
+            .setETag("\"v1\""),
+        store.get("media"));
+
+    // a new downloader resumes from the checkpoint
+    fakeTransport.failingBytePos = -1;
+    fakeTransport.lowLevelExecCalls.set(0);
+    downloader =
+        new MediaHttpDownloader(fakeTransport, null)
+            .setChunkSize(chunkSize)
+            .setSessionStore(store, "media");
+    downloader.download(new GenericUrl(TEST_REQUEST_URL), outputStream);
+    assertTrue(Arrays.equals(fakeTransport.media, outputStream.toByteArray()));
+    assertEquals(3, fakeTransport.lowLevelExecCalls.get());
+    assertEquals("\"v1\"", fakeTransport.lastIfMatch);
+    assertNull(store.get("media"));
+  }
+
+  public void testSessionStore_mediaChanged() throws Exception {
+    int chunkSize = 1000;
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(chunkSize * 5);
+    fakeTransport.eTag = "\"v2\"";
+    DataStore<MediaDownloadSession> store =
+        MediaDownloadSession.getDefaultDataStore(new MemoryDataStoreFactory());
+    store.set(
+        "media",
+        new MediaDownloadSession()
+            .setBytesDownloaded(chunkSize * 2)
+            .setMediaContentLength(chunkSize * 5)
+            .setETag("\"v1\""));
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null)
+            .setChunkSize(chunkSize)
+            .setSessionStore(store, "media");
+    try {
+      downloader.download(new GenericUrl(TEST_REQUEST_URL), new ByteArrayOutputStream());
+      fail("expected " + HttpResponseException.class);
+    } catch (HttpResponseException e) {
+      assertEquals(412, e.getStatusCode());
+    }
+    // the next download starts over
+    assertNull(store.get("media"));
+  }
+
+  public void testDownload_writableByteChannel() throws Exception {
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(100000);
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null).setDirectDownloadEnabled(true);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    downloader.download(new GenericUrl(TEST_REQUEST_URL), Channels.newChannel(outputStream));
+    assertTrue(Arrays.equals(fakeTransport.media, outputStream.toByteArray()));
+    assertEquals(MediaHttpDownloader.DownloadState.MEDIA_COMPLETE, downloader.getDownloadState());
+  }
+
+  public void testDownload_pathWithPreallocation() throws Exception {
+    int chunkSize = 1000;
+    final RangeMediaTransport fakeTransport = new RangeMediaTransport(chunkSize * 4 + 1);
+    final File file = File.createTempFile("media", ".bin");
+    try {
+      Files.write(file.toPath(), new byte[chunkSize * 10]);
+      MediaHttpDownloader downloader =
+          new MediaHttpDownloader(fakeTransport, null)
+              .setChunkSize(chunkSize)
+              .setPreallocationEnabled(true);
+      final List<Long> fileLengths = new ArrayList<Long>();
+      downloader.setProgressListener(
+          new MediaHttpDownloaderProgressListener() {
+            public void progressChanged(MediaHttpDownloader downloader) {
+              fileLengths.add(file.length());
+            }
+          });
+      downloader.download(new GenericUrl(TEST_REQUEST_URL), file.toPath());
+      // the overwritten file is extended to the media length after the first response
+      for (Long fileLength : fileLengths) {
+        assertEquals(Long.valueOf(fakeTransport.media.length), fileLength);
+      }
+      assertTrue(Arrays.equals(fakeTransport.media, Files.readAllBytes(file.toPath())));
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void testDownload_pathResume() throws Exception {
+    int chunkSize = 1000;
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(chunkSize * 4);
+    DataStore<MediaDownloadSession> store =
+        MediaDownloadSession.getDefaultDataStore(new MemoryDataStoreFactory());
+    store.set(
+        "media",
+        new MediaDownloadSession()
+            .setBytesDownloaded(chunkSize * 2)
+            .setMediaContentLength(chunkSize * 4));
+    File file = File.createTempFile("media", ".bin");
+    try {
+      // the checkpointed bytes followed by bytes written after the checkpoint
+      byte[] partial = Arrays.copyOf(fakeTransport.media, chunkSize * 2 + 10);
+      partial[chunkSize * 2] = (byte) ~fakeTransport.media[chunkSize * 2];
+      Files.write(file.toPath(), partial);
+      MediaHttpDownloader downloader =
+          new MediaHttpDownloader(fakeTransport, null)
+              .setChunkSize(chunkSize)
+              .setSessionStore(store, "media");
+      downloader.download(new GenericUrl(TEST_REQUEST_URL), file.toPath());
+      assertEquals(2, fakeTransport.lowLevelExecCalls.get());
+      assertTrue(Arrays.equals(fakeTransport.media, Files.readAllBytes(file.toPath())));
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void testAdaptiveChunkSize() throws Exception {
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(50000);
+    fakeTransport.nanosPerByte = 1;
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null)
+            .setMaximumChunkSize(10000)
+            .setChunkSize(1000)
+            .setAdaptiveChunkSizeEnabled(true);
+    downloader.nanoClock = fakeTransport.nanoClock;
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    downloader.download(new GenericUrl(TEST_REQUEST_URL), outputStream);
+    assertTrue(Arrays.equals(fakeTransport.media, outputStream.toByteArray()));
+    // the fast transport doubles the chunks up to the maximum
+    assertEquals(
+        Arrays.asList(
+            "bytes=0-999",
+            "bytes=1000-2999",
+            "bytes=3000-6999",
+            "bytes=7000-14999",
+            "bytes=15000-24999",
+            "bytes=25000-34999",
+            "bytes=35000-44999",
+            "bytes=45000-54999"),
+        fakeTransport.ranges);
+  }
+
+  public void testAdaptiveChunkSize_slow() throws Exception {
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(10000);
+    // a thousand bytes per second sizes the chunks to five thousand bytes
+    fakeTransport.nanosPerByte = 1000000;
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null)
+            .setChunkSize(1000)
+            .setAdaptiveChunkSizeEnabled(true);
+    downloader.nanoClock = fakeTransport.nanoClock;
+    downloader.download(new GenericUrl(TEST_REQUEST_URL), new ByteArrayOutputStream());
+    assertEquals(
+        Arrays.asList("bytes=0-999", "bytes=1000-2999", "bytes=3000-6999", "bytes=7000-11999"),
+        fakeTransport.ranges);
+  }
+
+  public void testMaximumChunkSize() {
+    MediaHttpDownloader downloader = new MediaHttpDownloader(new MockHttpTransport(), null);
+    try {
+      downloader.setChunkSize(MediaHttpDownloader.MAXIMUM_CHUNK_SIZE + 1);
+      fail("expected " + IllegalArgumentException.class);
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    downloader
+        .setMaximumChunkSize(MediaHttpDownloader.MAXIMUM_CHUNK_SIZE * 4)
+        .setChunkSize(MediaHttpDownloader.MAXIMUM_CHUNK_SIZE + 1);
+    assertEquals(MediaHttpDownloader.MAXIMUM_CHUNK_SIZE + 1, downloader.getChunkSize());
+    downloader.setMaximumChunkSize(1000);
+    assertEquals(1000, downloader.getChunkSize());
+  }
+
+  public void testResumeMidChunk() throws Exception {
+    int chunkSize = 1000;
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(chunkSize * 3);
+    DataStore<MediaDownloadSession> store =
+        MediaDownloadSession.getDefaultDataStore(new MemoryDataStoreFactory());
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null)
+            .setChunkSize(chunkSize)
+            .setSessionStore(store, "media");
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    fakeTransport.failContentAfterBytes = 300;
+    try {
+      downloader.download(new GenericUrl(TEST_REQUEST_URL), outputStream);
+      fail("expected " + IOException.class);
+    } catch (IOException e) {
+      assertEquals("connection reset", e.getMessage());
+    }
+    // the bytes written before the failure are counted and checkpointed
+    assertEquals(300, downloader.getNumBytesDownloaded());
+    assertEquals(300, store.get("media").getBytesDownloaded());
+
+    downloader =
+        new MediaHttpDownloader(fakeTransport, null)
+            .setChunkSize(chunkSize)
+            .setSessionStore(store, "media");
+    downloader.download(new GenericUrl(TEST_REQUEST_URL), outputStream);
+    assertTrue(Arrays.equals(fakeTransport.media, outputStream.toByteArray()));
+    assertEquals("bytes=300-1299", fakeTransport.ranges.get(1));
+  }
+
+  public void testResumeMidChunk_rangeIgnored() throws Exception {
+    int chunkSize = 1000;
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(chunkSize * 3);
+    DataStore<MediaDownloadSession> store =
+        MediaDownloadSession.getDefaultDataStore(new MemoryDataStoreFactory());
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    fakeTransport.failContentAfterBytes = 300;
+    try {
+      new MediaHttpDownloader(fakeTransport, null)
+          .setChunkSize(chunkSize)
+          .setSessionStore(store, "media")
+          .download(new GenericUrl(TEST_REQUEST_URL), outputStream);
+      fail("expected " + IOException.class);
+    } catch (IOException e) {
+      assertEquals("connection reset", e.getMessage());
+    }
+
+    // the server answers the resumed chunk with the whole media
+    fakeTransport.ignoreRange = true;
+    try {
+      new MediaHttpDownloader(fakeTransport, null)
+          .setChunkSize(chunkSize)
+          .setSessionStore(store, "media")
+          .download(new GenericUrl(TEST_REQUEST_URL), outputStream);
+      fail("expected " + IOException.class);
+    } catch (IOException e) {
+      assertEquals("Unexpected Content-Range bytes 0-2999/3000 for range from 300", e.getMessage());
+    }
+    // nothing was written after the checkpointed bytes
+    assertEquals(300, outputStream.size());
+    assertEquals(300, store.get("media").getBytesDownloaded());
+  }
+  /** Sleeper that records the back-off periods. */
+  private static class RecordingSleeper implements Sleeper {
+
+    final List<Long> sleeps = new ArrayList<Long>();
+
+    public void sleep(long millis) {
+      sleeps.add(millis);
+    }
+  }
+
+  public void testRetryBackOff_chunked() throws Exception {
+    int chunkSize = 1000;
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(chunkSize * 3);
+    fakeTransport.failContentAfterBytes = 300;
+    RecordingSleeper sleeper = new RecordingSleeper();
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null)
+            .setChunkSize(chunkSize)
+            .setRetryBackOff(new FixedBackOff(10));
+    downloader.sleeper = sleeper;
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    downloader.download(new GenericUrl(TEST_REQUEST_URL), outputStream);
+
+    assertTrue(Arrays.equals(fakeTransport.media, outputStream.toByteArray()));
+    // the retry only requests the lost bytes of the chunk
+    assertEquals(
+        Arrays.asList("bytes=0-999", "bytes=300-999", "bytes=1000-1999", "bytes=2000-2999"),
+        fakeTransport.ranges);
+    assertEquals(Arrays.asList(10L), sleeper.sleeps);
+  }
+
+  public void testRetryBackOff_direct() throws Exception {
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(100000);
+    fakeTransport.failContentAfterBytes = 70000;
+    RecordingSleeper sleeper = new RecordingSleeper();
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null)
+            .setDirectDownloadEnabled(true)
+            .setRetryBackOff(new FixedBackOff(10));
+    downloader.sleeper = sleeper;
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    downloader.download(new GenericUrl(TEST_REQUEST_URL), outputStream);
+
+    assertTrue(Arrays.equals(fakeTransport.media, outputStream.toByteArray()));
+    assertEquals(Arrays.asList(null, "bytes=70000-"), fakeTransport.ranges);
+    assertEquals(100000, downloader.getNumBytesDownloaded());
+  }
+
+  public void testRetryBackOff_directRangeIgnored() throws Exception {
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(100000);
+    fakeTransport.failContentAfterBytes = 70000;
+    fakeTransport.ignoreRange = true;
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null)
+            .setDirectDownloadEnabled(true)
+            .setRetryBackOff(new FixedBackOff(10));
+    downloader.sleeper = new RecordingSleeper();
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try {
+      downloader.download(new GenericUrl(TEST_REQUEST_URL), outputStream);
+      fail("expected " + IOException.class);
+    } catch (IOException e) {
+      assertEquals(
+          "Unexpected Content-Range bytes 0-99999/100000 for range from 70000", e.getMessage());
+    }
+    // the whole media sent for the retry was not appended to the written bytes
+    assertEquals(70000, outputStream.size());
+  }
+
+  public void testRetryBackOff_stop() throws Exception {
+    int chunkSize = 1000;
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(chunkSize * 3);
+    fakeTransport.failContentAfterBytes = 300;
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null)
+            .setChunkSize(chunkSize)
+            .setRetryBackOff(BackOff.STOP_BACKOFF);
+    try {
+      downloader.download(new GenericUrl(TEST_REQUEST_URL), new ByteArrayOutputStream());
+      fail("expected " + IOException.class);
+    } catch (IOException e) {
+      assertEquals("connection reset", e.getMessage());
+    }
+    assertEquals(300, downloader.getNumBytesDownloaded());
+  }
+
+  public void testRetryBackOff_httpErrorNotRetried() throws Exception {
+    int chunkSize = 1000;
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(chunkSize * 3);
+    fakeTransport.failingBytePos = chunkSize;
+    RecordingSleeper sleeper = new RecordingSleeper();
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null)
+            .setChunkSize(chunkSize)
+            .setRetryBackOff(new FixedBackOff(10));
+    downloader.sleeper = sleeper;
+    try {
+      downloader.download(new GenericUrl(TEST_REQUEST_URL), new ByteArrayOutputStream());
+      fail("expected " + HttpResponseException.class);
+    } catch (HttpResponseException e) {
+      assertEquals(500, e.getStatusCode());
+    }
+    assertTrue(sleeper.sleeps.isEmpty());
+  }
+
+  /** Back-off policy that always waits the same period. */
+  private static class FixedBackOff implements BackOff {
+
+    private final long millis;
+
+    FixedBackOff(long millis) {
+      this.millis = millis;
+    }
+
+    public void reset() {}
+
+    public long nextBackOffMillis() {
+      return millis;
+    }
+  }
+
+  private static String crc32c(byte[] bytes) {
+    return Base64.encodeBase64String(Ints.toByteArray(Hashing.crc32c().hashBytes(bytes).asInt()));
+  }
+
+  public void testChecksumValidator() throws Exception {
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(5000);
+    byte[] md5 = MessageDigest.getInstance("MD5").digest(fakeTransport.media);
+    fakeTransport.googHash =
+        "crc32c=" + crc32c(fakeTransport.media) + ",md5=" + Base64.encodeBase64String(md5);
+    MediaDownloadChecksumValidator crc32cValidator =
+        new MediaDownloadChecksumValidator(MediaDownloadChecksumValidator.Algorithm.CRC32C);
+    MediaDownloadChecksumValidator md5Validator =
+        new MediaDownloadChecksumValidator(MediaDownloadChecksumValidator.Algorithm.MD5);
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null)
+            .setChunkSize(1000)
+            .addTransformer(crc32cValidator)
+            .addTransformer(md5Validator);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    downloader.download(new GenericUrl(TEST_REQUEST_URL), outputStream);
+    assertTrue(Arrays.equals(fakeTransport.media, outputStream.toByteArray()));
+    assertTrue(crc32cValidator.isVerified());
+    assertTrue(md5Validator.isVerified());
+  }
+
+  public void testChecksumValidator_mismatch() throws Exception {
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(5000);
+    fakeTransport.googHash = "crc32c=" + crc32c(new byte[] {1});
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null)
+            .setChunkSize(1000)
+            .addTransformer(
+                new MediaDownloadChecksumValidator(
+                    MediaDownloadChecksumValidator.Algorithm.CRC32C));
+    try {
+      downloader.download(new GenericUrl(TEST_REQUEST_URL), new ByteArrayOutputStream());
+      fail("expected " + IOException.class);
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("CRC32C checksum mismatch"));
+    }
+    assertEquals(
+        MediaHttpDownloader.DownloadState.MEDIA_IN_PROGRESS, downloader.getDownloadState());
+  }
+
+  public void testChecksumValidator_partialDownload() throws Exception {
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(5000);
+    fakeTransport.googHash = "crc32c=" + crc32c(fakeTransport.media);
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null)
+            .setChunkSize(1000)
+            .setBytesDownloaded(1000)
+            .addTransformer(
+                new MediaDownloadChecksumValidator(
+                    MediaDownloadChecksumValidator.Algorithm.CRC32C));
+    try {
+      downloader.download(new GenericUrl(TEST_REQUEST_URL), new ByteArrayOutputStream());
+      fail("expected " + IllegalStateException.class);
+    } catch (IllegalStateException e) {
+      assertEquals(
+          "transformers cannot be used with a session store or a first byte position",
+          e.getMessage());
+    }
+    assertEquals(0, fakeTransport.lowLevelExecCalls.get());
+  }
+
+  public void testTransformers_resumeRejected() throws Exception {
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(3000);
+    DataStore<MediaDownloadSession> store =
+        MediaDownloadSession.getDefaultDataStore(new MemoryDataStoreFactory());
+    store.set("media", new MediaDownloadSession().setBytesDownloaded(1000));
+    File file = File.createTempFile("media", ".bin");
+    try {
+      Files.write(file.toPath(), new byte[1500]);
+      try {
+        new MediaHttpDownloader(fakeTransport, null)
+            .setChunkSize(1000)
+            .setSessionStore(store, "media")
+            .addTransformer(new MediaDownloadGzipDecoder())
+            .download(new GenericUrl(TEST_REQUEST_URL), file.toPath());
+        fail("expected " + IllegalStateException.class);
+      } catch (IllegalStateException e) {
+        // expected
+      }
+      // the destination was not touched
+      assertEquals(1500, file.length());
+      assertEquals(0, fakeTransport.lowLevelExecCalls.get());
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void testGzipDecoder_parallelFileChannel() throws Exception {
+    byte[] media = new byte[20000];
+    new Random(1).nextBytes(media);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+    gzip.write(media);
+    gzip.close();
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(compressed.toByteArray());
+    fakeTransport.googHash = "crc32c=" + crc32c(fakeTransport.media);
+    MediaDownloadChecksumValidator validator =
+        new MediaDownloadChecksumValidator(MediaDownloadChecksumValidator.Algorithm.CRC32C);
+    MediaHttpDownloader downloader =
+        new MediaHttpDownloader(fakeTransport, null)
+            .setChunkSize(1000)
+            .setParallelism(4)
+            .setPreallocationEnabled(true)
+            .addTransformer(validator)
+            .addTransformer(new MediaDownloadGzipDecoder());
+    File file = File.createTempFile("media", ".bin");
+    try {
+      RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+      try {
+        // the decompressed bytes are written in order at the position of the channel
+        downloader.download(new GenericUrl(TEST_REQUEST_URL), null, randomAccessFile.getChannel());
+        assertEquals(media.length, randomAccessFile.getChannel().position());
+      } finally {
+        randomAccessFile.close();
+      }
+      assertTrue(Arrays.equals(media, Files.readAllBytes(file.toPath())));
+      assertTrue(validator.isVerified());
+    } finally {
+      file.delete();
+    }
+  }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.googleapis.media.MediaHttpDownloaderTest.RangeMediaTransport;
+import com.google.api.client.http.GenericUrl;
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.util.Arrays;
+import junit.framework.TestCase;
+
+/** Tests {@link MediaHttpReadChannel}. */
+public class MediaHttpReadChannelTest extends TestCase {
+
+  private static final String TEST_REQUEST_URL = "http://www.test.com/request/url?alt=media";
+
+  public void testSequentialRead() throws Exception {
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(10500);
+    MediaHttpReadChannel channel =
+        new MediaHttpReadChannel(fakeTransport, null, new GenericUrl(TEST_REQUEST_URL))
+            .setRangeSize(1000)
+            .setReadAhead(3);
+    try {
+      InputStream inputStream = Channels.newInputStream(channel);
+      assertTrue(Arrays.equals(fakeTransport.media, ByteStreams.toByteArray(inputStream)));
+      assertEquals(10500, channel.size());
+    } finally {
+      channel.close();
+    }
+    // every range is downloaded once, and none after the end of the media
+    assertEquals(11, fakeTransport.lowLevelExecCalls.get());
+    assertTrue(fakeTransport.ranges.contains("bytes=10000-10999"));
+  }
+
+  public void testRandomRead() throws Exception {
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(100000);
+    MediaHttpReadChannel channel =
+        new MediaHttpReadChannel(fakeTransport, null, new GenericUrl(TEST_REQUEST_URL))
+            .setRangeSize(1000)
+            .setReadAhead(3);
+    try {
+      // read a footer of the media
+      assertEquals(100000, channel.size());
+      channel.position(channel.size() - 8);
+      ByteBuffer footer = ByteBuffer.allocate(8);
+      assertEquals(8, channel.read(footer));
+      assertTrue(
+          Arrays.equals(
+              Arrays.copyOfRange(fakeTransport.media, 100000 - 8, 100000), footer.array()));
+      assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+      // read before the footer in the same range
+      channel.position(99500);
+      ByteBuffer buffer = ByteBuffer.allocate(10);
+      assertEquals(10, channel.read(buffer));
+      assertEquals(fakeTransport.media[99500], buffer.get(0));
+    } finally {
+      channel.close();
+    }
+    // a random read does not read ahead
+    assertEquals(Arrays.asList("bytes=0-0", "bytes=99000-99999"), fakeTransport.ranges);
+  }
+
+  public void testReadAfterEnd() throws Exception {
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(1500);
+    MediaHttpReadChannel channel =
+        new MediaHttpReadChannel(fakeTransport, null, new GenericUrl(TEST_REQUEST_URL))
+            .setRangeSize(1000)
+            .setReadAhead(0);
+    try {
+      channel.position(5000);
+      assertEquals(-1, channel.read(ByteBuffer.allocate(10)));
+      assertEquals(1500, channel.size());
+    } finally {
+      channel.close();
+    }
+  }
+
+  public void testMediaChanged() throws Exception {
+    RangeMediaTransport fakeTransport = new RangeMediaTransport(3000);
+    fakeTransport.eTag = "\"v1\"";
+    MediaHttpReadChannel channel =
+        new MediaHttpReadChannel(fakeTransport, null, new GenericUrl(TEST_REQUEST_URL))
+            .setRangeSize(1000)
+            .setReadAhead(0);
+    try {
+      channel.read(ByteBuffer.allocate(1000));
+      fakeTransport.eTag = "\"v2\"";
+      channel.read(ByteBuffer.allocate(1000));
+      fail("expected " + IOException.class);
+    } catch (IOException e) {
+      // the If-Match header fails the request
+      assertEquals("\"v1\"", fakeTransport.lastIfMatch);
+    } finally {
+      channel.close();
+    }
+  }
+
+  public void testClosed() throws Exception {
+    MediaHttpReadChannel channel =
+        new MediaHttpReadChannel(
+            new RangeMediaTransport(10), null, new GenericUrl(TEST_REQUEST_URL));
+    channel.close();
+    assertFalse(channel.isOpen());
+    try {
+      channel.read(ByteBuffer.allocate(1));
+      fail("expected " + ClosedChannelException.class);
+    } catch (ClosedChannelException e) {
+      // expected
+    }
+  }
+}
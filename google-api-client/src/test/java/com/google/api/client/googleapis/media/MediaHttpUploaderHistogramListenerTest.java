@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.media;
+
+import com.google.api.client.googleapis.media.MediaHttpUploaderEvent.RequestType;
+import com.google.api.client.googleapis.media.MediaHttpUploaderHistogramListener.Histogram;
+import java.io.IOException;
+import junit.framework.TestCase;
+
+/** Tests {@link MediaHttpUploaderHistogramListener}. */
+public class MediaHttpUploaderHistogramListenerTest extends TestCase {
+
+  public void testHistogram() {
+    Histogram histogram = new Histogram();
+    assertEquals(0, histogram.getPercentileNanos(50));
+    assertEquals(0, histogram.getMeanNanos());
+
+    histogram.record(500);
+    histogram.record(1000);
+    histogram.record(1999);
+    histogram.record(3000000);
+    histogram.record(-1);
+    assertEquals(4, histogram.getCount());
+    assertEquals(3000000, histogram.getMaxNanos());
+    assertEquals((500 + 1000 + 1999 + 3000000) / 4, histogram.getMeanNanos());
+
+    long[] buckets = histogram.getBucketCounts();
+    assertEquals(1, buckets[0]);
+    assertEquals(2, buckets[1]);
+    // 3000 microseconds is in [2048, 4096)
+    assertEquals(1, buckets[12]);
+
+    assertEquals(1000, histogram.getPercentileNanos(25));
+    assertEquals(2000, histogram.getPercentileNanos(50));
+    assertEquals(2000, histogram.getPercentileNanos(75));
+    // capped by the maximum
+    assertEquals(3000000, histogram.getPercentileNanos(99));
+  }
+
+  public void testHistogram_longestBucket() {
+    Histogram histogram = new Histogram();
+    histogram.record(Long.MAX_VALUE);
+    assertEquals(1, histogram.getBucketCounts()[Histogram.BUCKET_COUNT - 1]);
+    assertEquals(Long.MAX_VALUE, histogram.getPercentileNanos(100));
+    assertEquals(Long.MAX_VALUE, Histogram.getBucketUpperBoundNanos(Histogram.BUCKET_COUNT - 1));
+  }
+
+  public void testUploadEvent() {
+    MediaHttpUploaderHistogramListener listener = new MediaHttpUploaderHistogramListener();
+    listener.uploadEvent(
+        new MediaHttpUploaderEvent(null, RequestType.CHUNK)
+            .setBuildTimeNanos(10000)
+            .setTimeToFirstByteNanos(20000)
+            .setLatencyNanos(30000)
+            .setStatusCode(503)
+            .setRetry("HTTP 503"));
+    listener.uploadEvent(
+        new MediaHttpUploaderEvent(null, RequestType.CHUNK)
+            .setRetryCount(1)
+            .setBuildTimeNanos(10000)
+            .setTimeToFirstByteNanos(20000)
+            .setLatencyNanos(30000)
+            .setStatusCode(308)
+            .setAcknowledgedBytes(100));
+    listener.uploadEvent(
+        new MediaHttpUploaderEvent(null, RequestType.CHUNK)
+            .setLatencyNanos(40000)
+            .setException(new IOException()));
+
+    // the build time is recorded once per chunk
+    assertEquals(2, listener.getBuildTimeHistogram().getCount());
+    assertEquals(2, listener.getTimeToFirstByteHistogram(RequestType.CHUNK).getCount());
+    assertEquals(3, listener.getLatencyHistogram(RequestType.CHUNK).getCount());
+    assertEquals(0, listener.getLatencyHistogram(RequestType.INITIATION).getCount());
+    assertEquals(Long.valueOf(1), listener.getRetryCounts().get("HTTP 503"));
+    assertEquals(1, listener.getFailureCount());
+    assertEquals(100, listener.getAcknowledgedBytes());
+  }
+}
@@ -15,6 +15,7 @@
 package com.google.api.client.googleapis.media;
 
 import com.google.api.client.http.AbstractHttpContent;
+import com.google.api.client.http.AbstractInputStreamContent;
 import com.google.api.client.http.ByteArrayContent;
 import com.google.api.client.http.EmptyContent;
 import com.google.api.client.http.GenericUrl;
@@ -34,6 +35,7 @@ import com.google.api.client.testing.http.MockLowLevelHttpRequest;
 import com.google.api.client.testing.http.MockLowLevelHttpResponse;
 import com.google.api.client.testing.util.TestableByteArrayInputStream;
 import com.google.api.client.util.BackOff;
+import com.google.api.client.util.NanoClock;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -41,7 +43,11 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -851,6 +857,25 @@ public class MediaHttpUploaderTest extends TestCase {
       int chunks,
       boolean force308OnRangeQueryResponse)
       throws Exception {
+    subtestUpload_ResumableWithError(
+        error,
+        contentLength,
+        contentLengthKnown,
+        maxByteIndexUploadedOnError,
+        chunks,
+        force308OnRangeQueryResponse,
+        false);
+  }
+
+  public void subtestUpload_ResumableWithError(
+      ErrorType error,
+      int contentLength,
+      boolean contentLengthKnown,
+      int maxByteIndexUploadedOnError,
+      int chunks,
+      boolean force308OnRangeQueryResponse,
+      boolean byteBufferContent)
+      throws Exception {
     MediaTransport fakeTransport = new MediaTransport(contentLength, true);
     if (error == ErrorType.IO_EXCEPTION) {
       fakeTransport.testIOException = true;
@@ -863,9 +888,21 @@ public class MediaHttpUploaderTest extends TestCase {
     byte[] testedData = new byte[contentLength];
     new Random().nextBytes(testedData);
     TestingInputStream is = new TestingInputStream(testedData);
-    InputStreamContent mediaContent = new InputStreamContent(TEST_CONTENT_TYPE, is);
-    if (contentLengthKnown) {
-      mediaContent.setLength(contentLength);
+    AbstractInputStreamContent mediaContent;
+    if (byteBufferContent) {
+      ByteBufferMediaContent content = new ByteBufferMediaContent(TEST_CONTENT_TYPE, contentLength);
+      offerInSlices(content, testedData, MediaHttpUploader.MINIMUM_CHUNK_SIZE + 1);
+      content.complete();
+      if (contentLengthKnown) {
+        content.setLength(contentLength);
+      }
+      mediaContent = content;
+    } else {
+      InputStreamContent content = new InputStreamContent(TEST_CONTENT_TYPE, is);
+      if (contentLengthKnown) {
+        content.setLength(contentLength);
+      }
+      mediaContent = content;
     }
     MediaHttpUploader uploader =
         new MediaHttpUploader(mediaContent, fakeTransport, new ZeroBackOffRequestInitializer());
@@ -881,7 +918,112 @@ public class MediaHttpUploaderTest extends TestCase {
     assertEquals(calls, fakeTransport.lowLevelExecCalls);
 
     assertTrue(Arrays.equals(testedData, fakeTransport.bytesReceived));
-    assertTrue(is.isClosed);
+    assertEquals(!byteBufferContent, is.isClosed);
+  }
+
+  public void testUpload_ResumableServerError_WithByteBufferContent() throws Exception {
+    for (boolean contentLengthKnown : new boolean[] {false, true}) {
+      // no bytes were uploaded on the 2nd chunk
+      subtestUpload_ResumableWithError(
+          ErrorType.SERVER_UNAVAILABLE,
+          MediaHttpUploader.DEFAULT_CHUNK_SIZE * 3,
+          contentLengthKnown,
+          MediaHttpUploader.DEFAULT_CHUNK_SIZE - 1,
+          4,
+          false,
+          true);
+      // part of the bytes were uploaded in the 2nd chunk
+      subtestUpload_ResumableWithError(
+          ErrorType.SERVER_UNAVAILABLE,
+          MediaHttpUploader.DEFAULT_CHUNK_SIZE * 2 + 3,
+          contentLengthKnown,
+          MediaHttpUploader.DEFAULT_CHUNK_SIZE + 4,
+          3,
+          false,
+          true);
+      // all bytes were uploaded in the 2nd chunk, and the server sends a 308 on the range query
+      subtestUpload_ResumableWithError(
+          ErrorType.SERVER_UNAVAILABLE,
+          MediaHttpUploader.DEFAULT_CHUNK_SIZE * 2,
+          contentLengthKnown,
+          MediaHttpUploader.DEFAULT_CHUNK_SIZE * 2 - 1,
+          3,
+          true,
+          true);
+    }
+  }
+
+  public void testUpload_ResumableIOException_WithByteBufferContent() throws Exception {
+    // only 1 byte was uploaded in the 2nd chunk
+    subtestUpload_ResumableWithError(
+        ErrorType.IO_EXCEPTION,
+        MediaHttpUploader.DEFAULT_CHUNK_SIZE * 3 + 2,
+        false,
+        MediaHttpUploader.DEFAULT_CHUNK_SIZE,
+        5,
+        false,
+        true);
+  }
+
+  public void testUploadMultipleCalls_WithByteBufferContentProducer() throws Exception {
+    int contentLength = MediaHttpUploader.DEFAULT_CHUNK_SIZE * 2 + 7;
+    MediaTransport fakeTransport = new MediaTransport(contentLength, true);
+    fakeTransport.contentLengthNotSpecified = true;
+    final byte[] testedData = new byte[contentLength];
+    new Random().nextBytes(testedData);
+    final ByteBufferMediaContent mediaContent =
+        new ByteBufferMediaContent(TEST_CONTENT_TYPE, MediaHttpUploader.MINIMUM_CHUNK_SIZE);
+    Thread producer =
+        new Thread() {
+          @Override
+          public void run() {
+            try {
+              int sliceSize = MediaHttpUploader.MINIMUM_CHUNK_SIZE / 3;
+              for (int offset = 0; offset < testedData.length; offset += sliceSize) {
+                int length = Math.min(sliceSize, testedData.length - offset);
+                mediaContent.put(ByteBuffer.wrap(testedData, offset, length));
+              }
+              mediaContent.complete();
+            } catch (InterruptedException e) {
+              mediaContent.fail(new IOException(e));
+            }
+          }
+        };
+    producer.start();
+    MediaHttpUploader uploader = new MediaHttpUploader(mediaContent, fakeTransport, null);
+    uploader.setDisableGZipContent(true);
+    HttpResponse response = uploader.upload(new GenericUrl(TEST_RESUMABLE_REQUEST_URL));
+    producer.join();
+
+    assertEquals(200, response.getStatusCode());
+    // There should be 4 calls made. 1 initiation request and 3 upload requests.
+    assertEquals(4, fakeTransport.lowLevelExecCalls);
+    assertTrue(Arrays.equals(testedData, fakeTransport.bytesReceived));
+  }
+
+  public void testUpload_ByteBufferContentProducerFailure() throws Exception {
+    int contentLength = MediaHttpUploader.DEFAULT_CHUNK_SIZE * 2;
+    MediaTransport fakeTransport = new MediaTransport(contentLength);
+    fakeTransport.contentLengthNotSpecified = true;
+    ByteBufferMediaContent mediaContent =
+        new ByteBufferMediaContent(TEST_CONTENT_TYPE, contentLength);
+    offerInSlices(mediaContent, new byte[MediaHttpUploader.DEFAULT_CHUNK_SIZE], 1000);
+    mediaContent.fail(new IOException("producer failed"));
+    MediaHttpUploader uploader = new MediaHttpUploader(mediaContent, fakeTransport, null);
+
+    try {
+      uploader.upload(new GenericUrl(TEST_RESUMABLE_REQUEST_URL));
+      fail("expected " + IOException.class);
+    } catch (IOException e) {
+      assertEquals("producer failed", e.getCause().getMessage());
+    }
+  }
+
+  private static void offerInSlices(ByteBufferMediaContent content, byte[] data, int sliceSize) {
+    for (int offset = 0; offset < data.length; offset += sliceSize) {
+      int length = Math.min(sliceSize, data.length - offset);
+      assertTrue(content.offer(ByteBuffer.wrap(data, offset, length)));
+    }
   }
 
   public void testUploadIOException_WithoutIOExceptionHandler() throws Exception {
@@ -1143,6 +1285,135 @@ public class MediaHttpUploaderTest extends TestCase {
     assertEquals(1, fakeTransport.lowLevelExecCalls);
   }
 
+  /** Event listener that aggregates the events into histograms and keeps them. */
+  private static class RecordingEventListener extends MediaHttpUploaderHistogramListener {
+
+    final List<MediaHttpUploaderEvent> events = new ArrayList<MediaHttpUploaderEvent>();
+
+    @Override
+    public void uploadEvent(MediaHttpUploaderEvent event) {
+      super.uploadEvent(event);
+      events.add(event);
+    }
+  }
+
+  /** Nano clock that advances by one millisecond on every call. */
+  private static class TickingNanoClock implements NanoClock {
+
+    long nanos;
+
+    public long nanoTime() {
+      return nanos += 1000000;
+    }
+  }
+
+  public void testUploadEventListener_ResumableServerError() throws Exception {
+    int contentLength = MediaHttpUploader.DEFAULT_CHUNK_SIZE * 2;
+    int maxByteIndexUploadedOnError = MediaHttpUploader.DEFAULT_CHUNK_SIZE * 4 / 3;
+    MediaTransport fakeTransport = new MediaTransport(contentLength, true);
+    fakeTransport.testServerError = true;
+    fakeTransport.maxByteIndexUploadedOnError = maxByteIndexUploadedOnError;
+    InputStreamContent mediaContent =
+        new InputStreamContent(TEST_CONTENT_TYPE, new ByteArrayInputStream(new byte[contentLength]))
+            .setLength(contentLength);
+    MediaHttpUploader uploader =
+        new MediaHttpUploader(mediaContent, fakeTransport, new ZeroBackOffRequestInitializer());
+    uploader.setDisableGZipContent(true);
+    uploader.nanoClock = new TickingNanoClock();
+    RecordingEventListener listener = new RecordingEventListener();
+    uploader.setEventListener(listener);
+    uploader.upload(new GenericUrl(TEST_RESUMABLE_REQUEST_URL));
+
+    List<MediaHttpUploaderEvent> events = listener.events;
+    assertEquals(5, events.size());
+    MediaHttpUploaderEvent initiation = events.get(0);
+    assertEquals(MediaHttpUploaderEvent.RequestType.INITIATION, initiation.getRequestType());
+    assertEquals(200, initiation.getStatusCode());
+
+    MediaHttpUploaderEvent firstChunk = events.get(1);
+    assertEquals(MediaHttpUploaderEvent.RequestType.CHUNK, firstChunk.getRequestType());
+    assertEquals(0, firstChunk.getContentOffset());
+    assertEquals(MediaHttpUploader.DEFAULT_CHUNK_SIZE, firstChunk.getContentLength());
+    assertEquals(308, firstChunk.getStatusCode());
+    assertEquals(MediaHttpUploader.DEFAULT_CHUNK_SIZE, firstChunk.getAcknowledgedBytes());
+    assertTrue(firstChunk.getBuildTimeNanos() > 0);
+    assertTrue(firstChunk.getTimeToFirstByteNanos() > 0);
+    assertTrue(firstChunk.getLatencyNanos() > firstChunk.getTimeToFirstByteNanos());
+
+    MediaHttpUploaderEvent serverError = events.get(2);
+    assertTrue(serverError.isRetry());
+    assertEquals("HTTP 500", serverError.getRetryReason());
+    assertEquals(0, serverError.getRetryCount());
+    assertEquals(500, serverError.getStatusCode());
+    assertEquals(MediaHttpUploader.DEFAULT_CHUNK_SIZE, serverError.getContentOffset());
+
+    MediaHttpUploaderEvent rangeQuery = events.get(3);
+    assertFalse(rangeQuery.isRetry());
+    assertEquals(1, rangeQuery.getRetryCount());
+    assertEquals(0, rangeQuery.getContentLength());
+    assertEquals(308, rangeQuery.getStatusCode());
+    assertEquals(
+        maxByteIndexUploadedOnError + 1 - MediaHttpUploader.DEFAULT_CHUNK_SIZE,
+        rangeQuery.getAcknowledgedBytes());
+
+    MediaHttpUploaderEvent lastChunk = events.get(4);
+    assertEquals(maxByteIndexUploadedOnError + 1, lastChunk.getContentOffset());
+    assertEquals(200, lastChunk.getStatusCode());
+
+    assertEquals(contentLength, listener.getAcknowledgedBytes());
+    assertEquals(Collections.singletonMap("HTTP 500", 1L), listener.getRetryCounts());
+    assertEquals(0, listener.getFailureCount());
+    assertEquals(3, listener.getBuildTimeHistogram().getCount());
+    assertEquals(
+        4, listener.getLatencyHistogram(MediaHttpUploaderEvent.RequestType.CHUNK).getCount());
+    assertEquals(
+        1, listener.getLatencyHistogram(MediaHttpUploaderEvent.RequestType.INITIATION).getCount());
+  }
+
+  public void testUploadEventListener_IOException() throws Exception {
+    int contentLength = MediaHttpUploader.DEFAULT_CHUNK_SIZE * 2;
+    MediaTransport fakeTransport = new MediaTransport(contentLength);
+    fakeTransport.testIOException = true;
+    ByteArrayContent mediaContent =
+        new ByteArrayContent(TEST_CONTENT_TYPE, new byte[contentLength]);
+    MediaHttpUploader uploader = new MediaHttpUploader(mediaContent, fakeTransport, null);
+    RecordingEventListener listener = new RecordingEventListener();
+    uploader.setEventListener(listener);
+    try {
+      uploader.upload(new GenericUrl(TEST_RESUMABLE_REQUEST_URL));
+      fail("expected " + IOException.class);
+    } catch (IOException e) {
+      MediaHttpUploaderEvent failure = listener.events.get(listener.events.size() - 1);
+      assertSame(e, failure.getException());
+      assertEquals(0, failure.getStatusCode());
+      assertEquals(-1, failure.getTimeToFirstByteNanos());
+    }
+    assertEquals(1, listener.getFailureCount());
+  }
+
+  public void testUploadEventListener_DirectUpload() throws Exception {
+    int contentLength = MediaHttpUploader.DEFAULT_CHUNK_SIZE * 2;
+    MediaTransport fakeTransport = new MediaTransport(contentLength);
+    fakeTransport.testServerError = true;
+    fakeTransport.directUploadEnabled = true;
+    ByteArrayContent mediaContent =
+        new ByteArrayContent(TEST_CONTENT_TYPE, new byte[contentLength]);
+    MediaHttpUploader uploader =
+        new MediaHttpUploader(mediaContent, fakeTransport, new ZeroBackOffRequestInitializer());
+    uploader.setDirectUploadEnabled(true);
+    RecordingEventListener listener = new RecordingEventListener();
+    uploader.setEventListener(listener);
+    uploader.upload(new GenericUrl(TEST_DIRECT_REQUEST_URL));
+
+    assertEquals(2, listener.events.size());
+    assertTrue(listener.events.get(0).isRetry());
+    MediaHttpUploaderEvent event = listener.events.get(1);
+    assertEquals(MediaHttpUploaderEvent.RequestType.DIRECT_UPLOAD, event.getRequestType());
+    assertEquals(200, event.getStatusCode());
+    assertEquals(contentLength, event.getAcknowledgedBytes());
+    assertEquals(1, event.getRetryCount());
+  }
+
   public void testDirectMediaUploadWithZeroContent() throws Exception {
     int contentLength = 0;
     MediaTransport fakeTransport = new MediaTransport(contentLength);
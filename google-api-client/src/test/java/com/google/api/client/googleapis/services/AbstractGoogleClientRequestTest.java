@@ -19,6 +19,7 @@ import com.google.api.client.googleapis.testing.services.MockGoogleClientRequest
 import com.google.api.client.http.EmptyContent;
 import com.google.api.client.http.HttpMethods;
 import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
 import com.google.api.client.http.HttpResponseException;
 import com.google.api.client.http.HttpStatusCodes;
 import com.google.api.client.http.HttpTransport;
@@ -36,6 +37,10 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import junit.framework.TestCase;
 
 /**
@@ -209,6 +214,125 @@ public class AbstractGoogleClientRequestTest extends TestCase {
     assertNull(v);
   }
 
+  public void testExecuteAsync() throws Exception {
+    HttpTransport transport =
+        new MockHttpTransport() {
+          @Override
+          public LowLevelHttpRequest buildRequest(final String method, final String url) {
+            return new MockLowLevelHttpRequest() {
+              @Override
+              public LowLevelHttpResponse execute() {
+                assertEquals("https://www.googleapis.com/test/path/v1/tests/foo", url);
+                return new MockLowLevelHttpResponse()
+                    .setContent("\"bar\"")
+                    .setContentType(Json.MEDIA_TYPE);
+              }
+            };
+          }
+        };
+    final AtomicInteger executed = new AtomicInteger();
+    Executor executor =
+        new Executor() {
+          public void execute(Runnable command) {
+            executed.incrementAndGet();
+            new Thread(command).start();
+          }
+        };
+    MockGoogleClient client =
+        new MockGoogleClient.Builder(transport, ROOT_URL, SERVICE_PATH, JSON_OBJECT_PARSER, null)
+            .setApplicationName("Test Application")
+            .setExecutor(executor)
+            .build();
+    assertSame(executor, client.getExecutor());
+    MockGoogleClientRequest<String> request =
+        new MockGoogleClientRequest<String>(
+            client, HttpMethods.GET, URI_TEMPLATE, null, String.class);
+    request.put("testId", "foo");
+    assertEquals("bar", request.executeAsync().get(10, TimeUnit.SECONDS));
+    HttpResponse response = request.executeUnparsedAsync().get(10, TimeUnit.SECONDS);
+    assertEquals(200, response.getStatusCode());
+    response.disconnect();
+    assertEquals(2, executed.get());
+  }
+
+  public void testExecuteAsync_error() throws Exception {
+    HttpTransport transport =
+        new MockHttpTransport() {
+          @Override
+          public LowLevelHttpRequest buildRequest(final String method, final String url) {
+            return new MockLowLevelHttpRequest() {
+              @Override
+              public LowLevelHttpResponse execute() {
+                return new MockLowLevelHttpResponse()
+                    .setStatusCode(HttpStatusCodes.STATUS_CODE_UNAUTHORIZED)
+                    .setContentType(Json.MEDIA_TYPE)
+                    .setContent(ERROR_CONTENT);
+              }
+            };
+          }
+        };
+    // uses the default executor
+    MockGoogleClient client =
+        new MockGoogleClient.Builder(transport, ROOT_URL, SERVICE_PATH, JSON_OBJECT_PARSER, null)
+            .setApplicationName("Test Application")
+            .build();
+    assertNotNull(client.getExecutor());
+    MockGoogleClientRequest<String> request =
+        new MockGoogleClientRequest<String>(
+            client, HttpMethods.GET, URI_TEMPLATE, null, String.class);
+    request.put("testId", "foo");
+    try {
+      request.executeAsync().get(10, TimeUnit.SECONDS);
+      fail("expected " + ExecutionException.class);
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof HttpResponseException);
+      assertEquals(401, ((HttpResponseException) e.getCause()).getStatusCode());
+    }
+  }
+
+  public void testRequestHeaders_copyOnWrite() throws Exception {
+    MockGoogleClient client =
+        new MockGoogleClient.Builder(
+                new MockHttpTransport(), ROOT_URL, SERVICE_PATH, JSON_OBJECT_PARSER, null)
+            .setApplicationName("Test Application")
+            .build();
+    MockGoogleClientRequest<String> request1 =
+        new MockGoogleClientRequest<String>(
+            client, HttpMethods.GET, URI_TEMPLATE, null, String.class);
+    MockGoogleClientRequest<String> request2 =
+        new MockGoogleClientRequest<String>(
+            client, HttpMethods.GET, URI_TEMPLATE, null, String.class);
+    request1.put("testId", "foo");
+    request2.put("testId", "foo");
+
+    // the default headers are sent without accessing the request headers
+    HttpRequest httpRequest = request2.buildHttpRequest();
+    assertEquals(
+        "Test Application "
+            + AbstractGoogleClientRequest.USER_AGENT_SUFFIX
+            + "/"
+            + GoogleUtils.VERSION,
+        httpRequest.getHeaders().getUserAgent());
+    assertEquals(
+        ApiClientVersion.DEFAULT_VERSION, httpRequest.getHeaders().get("X-Goog-Api-Client"));
+
+    // modifying the headers of a request does not affect the other requests
+    request1.getRequestHeaders().set("X-Test", "1").setUserAgent("other");
+    assertEquals("1", request1.buildHttpRequest().getHeaders().get("X-Test"));
+    assertNull(request2.getRequestHeaders().get("X-Test"));
+    httpRequest = request2.buildHttpRequest();
+    assertNull(httpRequest.getHeaders().get("X-Test"));
+    assertTrue(httpRequest.getHeaders().getUserAgent().startsWith("Test Application "));
+
+    // the headers cannot be reset to the defaults of the client
+    try {
+      request2.setRequestHeaders(null);
+      fail("expected " + NullPointerException.class);
+    } catch (NullPointerException e) {
+      // expected
+    }
+  }
+
   public void testUserAgentSuffix() throws Exception {
     AssertUserAgentTransport transport = new AssertUserAgentTransport();
     // Specify an Application Name.
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import static com.google.api.client.googleapis.services.MockItemsClient.METHOD_KEY;
+import static com.google.api.client.googleapis.services.MockItemsClient.newClientBuilder;
+import static com.google.api.client.googleapis.services.MockItemsClient.newGetRequest;
+
+import com.google.api.client.googleapis.services.GoogleClientCircuitBreaker.State;
+import com.google.api.client.googleapis.testing.services.MockGoogleClient;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.client.util.NanoClock;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import junit.framework.TestCase;
+
+/** Tests {@link GoogleClientCircuitBreaker}. */
+public class GoogleClientCircuitBreakerTest extends TestCase {
+
+  /** Clock that is advanced by the tests and by the transport. */
+  static class FakeClock implements NanoClock {
+    long nanos;
+
+    public long nanoTime() {
+      return nanos;
+    }
+  }
+
+  /** Transport that responds with the given status code after the given latency. */
+  static class FakeTransport extends MockHttpTransport {
+    final FakeClock clock;
+    int statusCode = 200;
+    boolean timeout;
+    long latencyMillis;
+    int requestCount;
+
+    FakeTransport(FakeClock clock) {
+      this.clock = clock;
+    }
+
+    @Override
+    public LowLevelHttpRequest buildRequest(String method, String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+          requestCount++;
+          clock.nanos += TimeUnit.MILLISECONDS.toNanos(latencyMillis);
+          if (timeout) {
+            throw new SocketTimeoutException();
+          }
+          return new MockLowLevelHttpResponse()
+              .setStatusCode(statusCode)
+              .setContentType(Json.MEDIA_TYPE)
+              .setContent("{}");
+        }
+      };
+    }
+  }
+
+  private FakeClock clock;
+  private FakeTransport transport;
+  private GoogleClientCircuitBreaker circuitBreaker;
+  private MockGoogleClient client;
+
+  @Override
+  protected void setUp() {
+    clock = new FakeClock();
+    transport = new FakeTransport(clock);
+    circuitBreaker =
+        new GoogleClientCircuitBreaker.Builder()
+            .setWindowSize(10)
+            .setMinimumRequests(4)
+            .setFailureRateThreshold(0.5)
+            .setSlowCallRateThreshold(0.5)
+            .setSlowCallMillis(1000)
+            .setOpenMillis(5000)
+            .setProbeRequests(2)
+            .setNanoClock(clock)
+            .build();
+    client = newClientBuilder(transport, null).setCircuitBreaker(circuitBreaker).build();
+  }
+
+  private void execute() throws IOException {
+    newGetRequest(client, "a").execute();
+  }
+
+  private void executeFailing() {
+    try {
+      execute();
+      fail("expected " + IOException.class);
+    } catch (IOException e) {
+      assertFalse(e instanceof GoogleClientCircuitOpenException);
+    }
+  }
+
+  private void assertOpen() throws IOException {
+    int requestCount = transport.requestCount;
+    try {
+      execute();
+      fail("expected " + GoogleClientCircuitOpenException.class);
+    } catch (GoogleClientCircuitOpenException e) {
+      assertEquals(METHOD_KEY, e.getKey());
+    }
+    assertEquals(requestCount, transport.requestCount);
+  }
+
+  public void testOpen_failureRate() throws Exception {
+    execute();
+    execute();
+    transport.statusCode = 503;
+    executeFailing();
+    assertEquals(State.CLOSED, circuitBreaker.getState(METHOD_KEY));
+    // client errors are not failures
+    transport.statusCode = 404;
+    executeFailing();
+    assertEquals(State.CLOSED, circuitBreaker.getState(METHOD_KEY));
+    assertEquals(0.25, circuitBreaker.getFailureRate(METHOD_KEY));
+    transport.timeout = true;
+    executeFailing();
+    executeFailing();
+    assertEquals(State.OPEN, circuitBreaker.getState(METHOD_KEY));
+    assertEquals(1, circuitBreaker.getOpenedCount());
+    assertOpen();
+    assertOpen();
+    assertEquals(2, circuitBreaker.getRejectedCount());
+  }
+
+  public void testOpen_slowCallRate() throws Exception {
+    transport.latencyMillis = 1000;
+    execute();
+    execute();
+    transport.latencyMillis = 10;
+    execute();
+    assertEquals(State.CLOSED, circuitBreaker.getState(METHOD_KEY));
+    execute();
+    assertEquals(State.OPEN, circuitBreaker.getState(METHOD_KEY));
+    assertEquals(0.5, circuitBreaker.getSlowCallRate(METHOD_KEY));
+    assertOpen();
+  }
+
+  public void testHalfOpen_close() throws Exception {
+    transport.statusCode = 500;
+    for (int i = 0; i < 4; i++) {
+      executeFailing();
+    }
+    assertOpen();
+    clock.nanos += TimeUnit.MILLISECONDS.toNanos(5000);
+    assertEquals(State.HALF_OPEN, circuitBreaker.getState(METHOD_KEY));
+    transport.statusCode = 200;
+    execute();
+    assertEquals(State.HALF_OPEN, circuitBreaker.getState(METHOD_KEY));
+    execute();
+    assertEquals(State.CLOSED, circuitBreaker.getState(METHOD_KEY));
+    assertEquals(0.0, circuitBreaker.getFailureRate(METHOD_KEY));
+    execute();
+  }
+
+  public void testHalfOpen_reopen() throws Exception {
+    transport.timeout = true;
+    for (int i = 0; i < 4; i++) {
+      executeFailing();
+    }
+    clock.nanos += TimeUnit.MILLISECONDS.toNanos(5000);
+    // a failed probe request opens the circuit again
+    executeFailing();
+    assertEquals(State.OPEN, circuitBreaker.getState(METHOD_KEY));
+    assertEquals(2, circuitBreaker.getOpenedCount());
+    transport.timeout = false;
+    assertOpen();
+  }
+
+  public void testHalfOpen_probesInFlight() throws Exception {
+    transport.statusCode = 500;
+    for (int i = 0; i < 4; i++) {
+      executeFailing();
+    }
+    clock.nanos += TimeUnit.MILLISECONDS.toNanos(5000);
+    assertTrue(circuitBreaker.acquire(METHOD_KEY));
+    assertTrue(circuitBreaker.acquire(METHOD_KEY));
+    // all the probe requests are in flight
+    try {
+      circuitBreaker.acquire(METHOD_KEY);
+      fail("expected " + GoogleClientCircuitOpenException.class);
+    } catch (GoogleClientCircuitOpenException e) {
+      assertEquals(0, e.getRetryAfterMillis());
+    }
+    // a probe request without outcome lets another one through
+    circuitBreaker.release(METHOD_KEY, true);
+    assertTrue(circuitBreaker.acquire(METHOD_KEY));
+  }
+
+  public void testReset() throws Exception {
+    transport.statusCode = 500;
+    for (int i = 0; i < 4; i++) {
+      executeFailing();
+    }
+    assertEquals(State.OPEN, circuitBreaker.getState(METHOD_KEY));
+    circuitBreaker.reset();
+    assertEquals(State.CLOSED, circuitBreaker.getState(METHOD_KEY));
+    try {
+      execute();
+      fail("expected " + HttpResponseException.class);
+    } catch (HttpResponseException e) {
+      assertEquals(500, e.getStatusCode());
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import static com.google.api.client.googleapis.services.MockItemsClient.METHOD_KEY;
+import static com.google.api.client.googleapis.services.MockItemsClient.newClientBuilder;
+import static com.google.api.client.googleapis.services.MockItemsClient.newGetRequest;
+
+import com.google.api.client.googleapis.testing.services.MockGoogleClient;
+import com.google.api.client.googleapis.testing.services.MockGoogleClientRequest;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.TestCase;
+
+/** Tests {@link GoogleClientHedgingPolicy}. */
+public class GoogleClientHedgingPolicyTest extends TestCase {
+
+  /** Transport whose first request hangs until it is interrupted. */
+  static class SlowFirstTransport extends MockHttpTransport {
+    final AtomicInteger requestCount = new AtomicInteger();
+    final CountDownLatch interrupted = new CountDownLatch(1);
+
+    @Override
+    public LowLevelHttpRequest buildRequest(String method, String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+          int attempt = requestCount.incrementAndGet();
+          if (attempt == 1) {
+            try {
+              Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+              interrupted.countDown();
+              throw new InterruptedIOException();
+            }
+          }
+          return new MockLowLevelHttpResponse()
+              .setContentType(Json.MEDIA_TYPE)
+              .setContent("{\"attempt\":" + attempt + "}");
+        }
+      };
+    }
+  }
+
+  public void testHedgeDelay() {
+    GoogleClientHedgingPolicy policy = new GoogleClientHedgingPolicy(90, 0.1, 5);
+    for (int i = 1; i < GoogleClientHedgingPolicy.MIN_SAMPLE_COUNT; i++) {
+      policy.recordLatency(METHOD_KEY, TimeUnit.MILLISECONDS.toNanos(i));
+    }
+    assertEquals(-1, policy.getHedgeDelayMillis(METHOD_KEY));
+    policy.recordLatency(METHOD_KEY, TimeUnit.MILLISECONDS.toNanos(100));
+    // the 29th of 32 sorted latencies
+    assertEquals(29, policy.getHedgeDelayMillis(METHOD_KEY));
+    assertEquals(-1, policy.getHedgeDelayMillis("other"));
+
+    // the delay is not lower than the minimum delay
+    for (int i = 0; i < GoogleClientHedgingPolicy.SAMPLE_COUNT; i++) {
+      policy.recordLatency(METHOD_KEY, TimeUnit.MICROSECONDS.toNanos(10));
+    }
+    assertEquals(5, policy.getHedgeDelayMillis(METHOD_KEY));
+  }
+
+  public void testBudget() {
+    GoogleClientHedgingPolicy policy = new GoogleClientHedgingPolicy(95, 0.5, 10);
+    for (int i = 0; i < GoogleClientHedgingPolicy.MAX_BUDGET; i++) {
+      assertTrue(policy.tryAcquireHedge());
+    }
+    assertFalse(policy.tryAcquireHedge());
+    policy.startRequest(METHOD_KEY);
+    assertFalse(policy.tryAcquireHedge());
+    policy.startRequest(METHOD_KEY);
+    assertTrue(policy.tryAcquireHedge());
+    assertEquals(GoogleClientHedgingPolicy.MAX_BUDGET + 1, policy.getHedgeCount());
+  }
+
+  public void testExecute_hedged() throws Exception {
+    SlowFirstTransport transport = new SlowFirstTransport();
+    GoogleClientHedgingPolicy policy = new GoogleClientHedgingPolicy(95, 0.05, 10);
+    for (int i = 0; i < GoogleClientHedgingPolicy.MIN_SAMPLE_COUNT; i++) {
+      policy.recordLatency(METHOD_KEY, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+    MockGoogleClient client = newClientBuilder(transport, null).setHedgingPolicy(policy).build();
+    MockGoogleClientRequest<GenericJson> request = newGetRequest(client, "a");
+    assertEquals(METHOD_KEY, ((AbstractGoogleClientRequest<?>) request).getMethodKey());
+    GenericJson result = request.execute();
+    assertEquals(2, ((Number) result.get("attempt")).intValue());
+    assertEquals(200, request.getLastStatusCode());
+    assertEquals(1, policy.getHedgeCount());
+    // the slow request is cancelled
+    assertTrue(transport.interrupted.await(10, TimeUnit.SECONDS));
+  }
+
+  public void testExecute_steadyHedging() throws Exception {
+    SlowFirstTransport transport = new SlowFirstTransport();
+    GoogleClientHedgingPolicy policy = new GoogleClientHedgingPolicy(50, 1, 0);
+    for (int i = 0; i < GoogleClientHedgingPolicy.MIN_SAMPLE_COUNT; i++) {
+      policy.recordLatency(METHOD_KEY, TimeUnit.MILLISECONDS.toNanos(20));
+    }
+    MockGoogleClient client = newClientBuilder(transport, null).setHedgingPolicy(policy).build();
+    for (int i = 0; i < GoogleClientHedgingPolicy.MIN_SAMPLE_COUNT; i++) {
+      // every first copy hangs, so every request is answered by its fast hedge
+      transport.requestCount.set(0);
+      GenericJson result = newGetRequest(client, "a").execute();
+      assertEquals(2, ((Number) result.get("attempt")).intValue());
+    }
+    assertEquals(GoogleClientHedgingPolicy.MIN_SAMPLE_COUNT, policy.getHedgeCount());
+    // the latencies of the cancelled first copies keep the delay from shrinking
+    assertTrue(policy.getHedgeDelayMillis(METHOD_KEY) >= 20);
+  }
+
+  public void testExecute_notEnoughLatencies() throws Exception {
+    SlowFirstTransport transport = new SlowFirstTransport();
+    transport.requestCount.set(1);
+    GoogleClientHedgingPolicy policy = new GoogleClientHedgingPolicy();
+    MockGoogleClient client = newClientBuilder(transport, null).setHedgingPolicy(policy).build();
+    for (int i = 0; i < GoogleClientHedgingPolicy.MIN_SAMPLE_COUNT; i++) {
+      newGetRequest(client, "a").execute();
+    }
+    assertEquals(0, policy.getHedgeCount());
+    assertTrue(
+        policy.getHedgeDelayMillis(METHOD_KEY)
+            >= GoogleClientHedgingPolicy.DEFAULT_MIN_DELAY_MILLIS);
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.googleapis.testing.services.json.MockGoogleJsonClient;
+import com.google.api.client.googleapis.testing.services.json.MockGoogleJsonClientRequest;
+import com.google.api.client.http.HttpMethods;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.Json;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.client.util.NanoClock;
+import com.google.api.client.util.Sleeper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import junit.framework.TestCase;
+
+/** Tests {@link GoogleClientRateLimiter} and its implementations. */
+public class GoogleClientRateLimiterTest extends TestCase {
+
+  private static final String ROOT_URL = "https://www.googleapis.com/test/";
+  private static final String SERVICE_PATH = "path/v1/";
+  private static final String KEY = ROOT_URL + SERVICE_PATH + " GET items/{id}";
+
+  private static final String QUOTA_ERROR =
+      "{\"error\":{\"code\":429,\"message\":\"Quota exceeded\",\"status\":\"RESOURCE_EXHAUSTED\"}}";
+  private static final String RATE_LIMIT_ERROR =
+      "{\"error\":{\"code\":403,\"message\":\"Rate Limit Exceeded\","
+          + "\"errors\":[{\"reason\":\"userRateLimitExceeded\"}]}}";
+  private static final String FORBIDDEN_ERROR =
+      "{\"error\":{\"code\":403,\"message\":\"Forbidden\","
+          + "\"errors\":[{\"reason\":\"forbidden\"}]}}";
+
+  /** Clock that is advanced by its sleeper. */
+  static class FakeClock implements NanoClock, Sleeper {
+    long nanos = TimeUnit.DAYS.toNanos(1);
+    final List<Long> sleeps = new ArrayList<Long>();
+
+    public long nanoTime() {
+      return nanos;
+    }
+
+    public void sleep(long millis) {
+      sleeps.add(millis);
+      nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+  }
+
+  /** Transport that responds with the given status code, content and Retry-After header. */
+  static class FakeTransport extends MockHttpTransport {
+    int statusCode = 200;
+    String content = "{}";
+    String retryAfter;
+    String eTag;
+    int requestCount;
+
+    @Override
+    public LowLevelHttpRequest buildRequest(String method, String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        public LowLevelHttpResponse execute() {
+          requestCount++;
+          MockLowLevelHttpResponse response =
+              new MockLowLevelHttpResponse()
+                  .setStatusCode(statusCode)
+                  .setContentType(Json.MEDIA_TYPE)
+                  .setContent(content);
+          if (retryAfter != null) {
+            response.addHeader("Retry-After", retryAfter);
+          }
+          if (eTag != null) {
+            response.addHeader("ETag", eTag);
+          }
+          return response;
+        }
+      };
+    }
+  }
+
+  private static MockGoogleJsonClient newClient(
+      FakeTransport transport, GoogleClientRateLimiter rateLimiter) {
+    return new MockGoogleJsonClient.Builder(
+            transport, new GsonFactory(), ROOT_URL, SERVICE_PATH, null, false)
+        .setApplicationName("Test Application")
+        .setRateLimiter(rateLimiter)
+        .build();
+  }
+
+  private static GenericJson execute(MockGoogleJsonClient client) throws Exception {
+    MockGoogleJsonClientRequest<GenericJson> request =
+        new MockGoogleJsonClientRequest<GenericJson>(
+            client, HttpMethods.GET, "items/{id}", null, GenericJson.class);
+    request.put("id", "a");
+    return request.execute();
+  }
+
+  private static void assertQuotaExceeded(MockGoogleJsonClient client, int statusCode)
+      throws Exception {
+    try {
+      execute(client);
+      fail("expected " + GoogleJsonResponseException.class);
+    } catch (GoogleJsonResponseException e) {
+      assertEquals(statusCode, e.getStatusCode());
+    }
+  }
+
+  public void testTokenBucket_delay() throws Exception {
+    FakeClock clock = new FakeClock();
+    FakeTransport transport = new FakeTransport();
+    MockGoogleJsonClient client =
+        newClient(transport, new TokenBucketRateLimiter(2, 2, Long.MAX_VALUE, clock, clock));
+    execute(client);
+    execute(client);
+    assertTrue(clock.sleeps.isEmpty());
+    // the bucket is empty and is refilled at 2 permits per second
+    execute(client);
+    execute(client);
+    assertEquals(2, clock.sleeps.size());
+    assertEquals(500, clock.sleeps.get(0).longValue());
+    assertEquals(500, clock.sleeps.get(1).longValue());
+    assertEquals(4, transport.requestCount);
+  }
+
+  public void testTokenBucket_shed() throws Exception {
+    FakeClock clock = new FakeClock();
+    FakeTransport transport = new FakeTransport();
+    MockGoogleJsonClient client =
+        newClient(transport, new TokenBucketRateLimiter(1, 1, 0, clock, clock));
+    execute(client);
+    try {
+      execute(client);
+      fail("expected " + GoogleClientThrottledException.class);
+    } catch (GoogleClientThrottledException e) {
+      assertEquals(KEY, e.getKey());
+    }
+    assertEquals(1, transport.requestCount);
+    // the shed request did not take the permit
+    clock.nanos += TimeUnit.SECONDS.toNanos(1);
+    execute(client);
+    assertEquals(2, transport.requestCount);
+  }
+
+  public void testTokenBucket_quotaExceeded() throws Exception {
+    FakeClock clock = new FakeClock();
+    FakeTransport transport = new FakeTransport();
+    TokenBucketRateLimiter rateLimiter =
+        new TokenBucketRateLimiter(16, 16, Long.MAX_VALUE, clock, clock);
+    MockGoogleJsonClient client = newClient(transport, rateLimiter);
+    transport.statusCode = 429;
+    transport.content = QUOTA_ERROR;
+    transport.retryAfter = "5";
+    assertQuotaExceeded(client, 429);
+    assertEquals(8.0, rateLimiter.getCurrentPermitsPerSecond(KEY));
+    // the requests are paused for the Retry-After delay
+    transport.statusCode = 200;
+    transport.content = "{}";
+    transport.retryAfter = null;
+    execute(client);
+    assertEquals(5000, clock.sleeps.get(0).longValue());
+    assertEquals(9.0, rateLimiter.getCurrentPermitsPerSecond(KEY));
+
+    // the rate is not lower than a sixteenth of the configured rate
+    transport.statusCode = 403;
+    transport.content = RATE_LIMIT_ERROR;
+    for (int i = 0; i < 10; i++) {
+      assertQuotaExceeded(client, 403);
+    }
+    assertEquals(1.0, rateLimiter.getCurrentPermitsPerSecond(KEY));
+    // other errors do not change the rate
+    transport.content = FORBIDDEN_ERROR;
+    assertQuotaExceeded(client, 403);
+    assertEquals(1.0, rateLimiter.getCurrentPermitsPerSecond(KEY));
+  }
+
+  public void testTokenBucket_quotaExceededWithResponseCache() throws Exception {
+    FakeClock clock = new FakeClock();
+    FakeTransport transport = new FakeTransport();
+    TokenBucketRateLimiter rateLimiter =
+        new TokenBucketRateLimiter(16, 16, Long.MAX_VALUE, clock, clock);
+    MockGoogleJsonClient client =
+        new MockGoogleJsonClient.Builder(
+                transport, new GsonFactory(), ROOT_URL, SERVICE_PATH, null, false)
+            .setApplicationName("Test Application")
+            .setRateLimiter(rateLimiter)
+            .setResponseCache(new GoogleClientResponseCache())
+            .build();
+    transport.eTag = "\"1\"";
+    execute(client);
+    // the revalidation of the cached response is rejected because of the quota
+    transport.statusCode = 403;
+    transport.content = RATE_LIMIT_ERROR;
+    assertQuotaExceeded(client, 403);
+    assertEquals(8.0, rateLimiter.getCurrentPermitsPerSecond(KEY));
+  }
+
+  public void testAdaptiveThrottling() throws Exception {
+    FakeClock clock = new FakeClock();
+    FakeTransport transport = new FakeTransport();
+    AdaptiveThrottlingRateLimiter rateLimiter =
+        new AdaptiveThrottlingRateLimiter(2, 10, clock, new Random(0));
+    MockGoogleJsonClient client = newClient(transport, rateLimiter);
+    for (int i = 0; i < 10; i++) {
+      execute(client);
+    }
+    assertEquals(0.0, rateLimiter.getRejectionProbability(KEY));
+
+    // requests are only shed once less than half of them are accepted
+    transport.statusCode = 429;
+    transport.content = QUOTA_ERROR;
+    for (int i = 0; i < 10; i++) {
+      assertQuotaExceeded(client, 429);
+    }
+    assertEquals(0.0, rateLimiter.getRejectionProbability(KEY));
+    int shed = 0;
+    for (int i = 0; i < 100; i++) {
+      try {
+        assertQuotaExceeded(client, 429);
+      } catch (GoogleClientThrottledException e) {
+        assertEquals(KEY, e.getKey());
+        shed++;
+      }
+    }
+    assertTrue(shed > 50);
+    assertEquals(10 + 10 + 100 - shed, transport.requestCount);
+    assertTrue(rateLimiter.getRejectionProbability(KEY) > 0.5);
+
+    // the counts expire after the window
+    clock.nanos += TimeUnit.SECONDS.toNanos(10);
+    assertEquals(0.0, rateLimiter.getRejectionProbability(KEY));
+  }
+}
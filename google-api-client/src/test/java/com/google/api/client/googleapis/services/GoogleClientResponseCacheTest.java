@@ -0,0 +1,213 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import static com.google.api.client.googleapis.services.MockItemsClient.ROOT_URL;
+import static com.google.api.client.googleapis.services.MockItemsClient.SERVICE_PATH;
+import static com.google.api.client.googleapis.services.MockItemsClient.newClientBuilder;
+import static com.google.api.client.googleapis.services.MockItemsClient.newGetRequest;
+
+import com.google.api.client.googleapis.testing.services.MockGoogleClient;
+import com.google.api.client.googleapis.testing.services.MockGoogleClientRequest;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpMethods;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.client.util.Key;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+
+/** Tests {@link GoogleClientResponseCache}. */
+public class GoogleClientResponseCacheTest extends TestCase {
+
+  /** Transport that serves a JSON resource per URL with an ETag and honors If-None-Match. */
+  static class ETagTransport extends MockHttpTransport {
+    String eTag = "\"1\"";
+    String vary;
+    int statusCode = 200;
+    final List<String> ifNoneMatch = new ArrayList<String>();
+    int parsedResponses;
+
+    @Override
+    public LowLevelHttpRequest buildRequest(String method, final String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        public LowLevelHttpResponse execute() {
+          String requestETag = getFirstHeaderValue("If-None-Match");
+          ifNoneMatch.add(requestETag);
+          MockLowLevelHttpResponse response = new MockLowLevelHttpResponse();
+          if (statusCode != 200) {
+            return response.setStatusCode(statusCode);
+          }
+          if (eTag != null && eTag.equals(requestETag)) {
+            return response.setStatusCode(304);
+          }
+          parsedResponses++;
+          if (eTag != null) {
+            response.addHeader("ETag", eTag);
+          }
+          if (vary != null) {
+            response.addHeader("Vary", vary);
+          }
+          return response
+              .setContentType(Json.MEDIA_TYPE)
+              .setContent(
+                  "{\"url\":\""
+                      + url
+                      + "\",\"etag\":\""
+                      + (eTag == null ? "" : eTag.replace('"', '\''))
+                      + "\"}");
+        }
+      };
+    }
+  }
+
+  public void testExecute_notModified() throws Exception {
+    ETagTransport transport = new ETagTransport();
+    GoogleClientResponseCache cache = new GoogleClientResponseCache();
+    MockGoogleClient client = newClientBuilder(transport, null).setResponseCache(cache).build();
+
+    GenericJson first = newGetRequest(client, "a").execute();
+    assertEquals(1, cache.size());
+    // the caller may modify the returned object
+    first.set("url", "modified");
+
+    MockGoogleClientRequest<GenericJson> request = newGetRequest(client, "a");
+    GenericJson second = request.execute();
+    assertEquals(304, request.getLastStatusCode());
+    assertEquals(ROOT_URL + SERVICE_PATH + "items/a", second.get("url"));
+    assertNotSame(second, newGetRequest(client, "a").execute());
+    assertEquals(1, transport.parsedResponses);
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(null, transport.ifNoneMatch.get(0));
+    assertEquals("\"1\"", transport.ifNoneMatch.get(1));
+
+    // a modified resource is parsed and cached again
+    transport.eTag = "\"2\"";
+    assertEquals("'2'", newGetRequest(client, "a").execute().get("etag").toString());
+    assertEquals("'2'", newGetRequest(client, "a").execute().get("etag").toString());
+    assertEquals(2, transport.parsedResponses);
+  }
+
+  public void testExecute_noETag() throws Exception {
+    ETagTransport transport = new ETagTransport();
+    GoogleClientResponseCache cache = new GoogleClientResponseCache();
+    MockGoogleClient client = newClientBuilder(transport, null).setResponseCache(cache).build();
+    newGetRequest(client, "a").execute();
+    assertEquals(1, cache.size());
+    // a response without an ETag removes the cached response
+    transport.eTag = null;
+    newGetRequest(client, "a").execute();
+    assertEquals(0, cache.size());
+    newGetRequest(client, "a").execute();
+    assertEquals(3, transport.parsedResponses);
+    assertNull(transport.ifNoneMatch.get(2));
+  }
+
+  public void testExecute_error() throws Exception {
+    ETagTransport transport = new ETagTransport();
+    GoogleClientResponseCache cache = new GoogleClientResponseCache();
+    MockGoogleClient client = newClientBuilder(transport, null).setResponseCache(cache).build();
+    newGetRequest(client, "a").execute();
+    transport.statusCode = 404;
+    try {
+      newGetRequest(client, "a").execute();
+      fail("expected " + HttpResponseException.class);
+    } catch (HttpResponseException e) {
+      assertEquals(404, e.getStatusCode());
+    }
+    assertEquals(1, cache.size());
+  }
+
+  public void testExecute_vary() throws Exception {
+    ETagTransport transport = new ETagTransport();
+    transport.vary = "X-Test";
+    GoogleClientResponseCache cache = new GoogleClientResponseCache();
+    MockGoogleClient client = newClientBuilder(transport, null).setResponseCache(cache).build();
+    MockGoogleClientRequest<GenericJson> request = newGetRequest(client, "a");
+    request.getRequestHeaders().set("X-Test", "1");
+    request.execute();
+    request = newGetRequest(client, "a");
+    request.getRequestHeaders().set("X-Test", "2");
+    request.execute();
+    assertEquals(2, transport.parsedResponses);
+    request = newGetRequest(client, "a");
+    request.getRequestHeaders().set("X-Test", "2");
+    request.execute();
+    assertEquals(2, transport.parsedResponses);
+    assertEquals(1, cache.getHitCount());
+
+    transport.vary = "*";
+    newGetRequest(client, "b").execute();
+    assertEquals(1, cache.size());
+  }
+
+  public void testEviction() throws Exception {
+    ETagTransport transport = new ETagTransport();
+    GoogleClientResponseCache cache = new GoogleClientResponseCache(2);
+    MockGoogleClient client = newClientBuilder(transport, null).setResponseCache(cache).build();
+    newGetRequest(client, "a").execute();
+    newGetRequest(client, "b").execute();
+    // a is now the most recently used
+    newGetRequest(client, "a").execute();
+    newGetRequest(client, "c").execute();
+    assertEquals(2, cache.size());
+    HttpHeaders headers = new HttpHeaders();
+    assertNotNull(cache.get(newKey("a"), headers));
+    assertNull(cache.get(newKey("b"), headers));
+    assertNotNull(cache.get(newKey("c"), headers));
+  }
+
+  private static GoogleClientResponseCache.Key newKey(String id) {
+    return new GoogleClientResponseCache.Key(
+        ROOT_URL + SERVICE_PATH + "items/" + id, GenericJson.class, null);
+  }
+
+  /** Parsed item. */
+  public static class Item extends GenericJson {
+    @Key String url;
+  }
+
+  public void testExecute_responseClass() throws Exception {
+    ETagTransport transport = new ETagTransport();
+    GoogleClientResponseCache cache = new GoogleClientResponseCache();
+    MockGoogleClient client = newClientBuilder(transport, null).setResponseCache(cache).build();
+    newGetRequest(client, "a").execute();
+
+    // a request of the same URL that parses into another class does not use the cached response
+    MockGoogleClientRequest<Item> request =
+        new MockGoogleClientRequest<Item>(client, HttpMethods.GET, "items/{id}", null, Item.class);
+    request.put("id", "a");
+    assertEquals(ROOT_URL + SERVICE_PATH + "items/a", request.execute().url);
+    assertEquals(2, transport.parsedResponses);
+    assertNull(transport.ifNoneMatch.get(1));
+    assertEquals(2, cache.size());
+
+    request =
+        new MockGoogleClientRequest<Item>(client, HttpMethods.GET, "items/{id}", null, Item.class);
+    request.put("id", "a");
+    assertEquals(ROOT_URL + SERVICE_PATH + "items/a", request.execute().url);
+    assertEquals(2, transport.parsedResponses);
+    assertEquals(1, cache.getHitCount());
+  }
+}
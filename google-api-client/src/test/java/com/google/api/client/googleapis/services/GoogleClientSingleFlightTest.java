@@ -0,0 +1,182 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import static com.google.api.client.googleapis.services.MockItemsClient.ROOT_URL;
+import static com.google.api.client.googleapis.services.MockItemsClient.SERVICE_PATH;
+import static com.google.api.client.googleapis.services.MockItemsClient.newClientBuilder;
+import static com.google.api.client.googleapis.services.MockItemsClient.newGetRequest;
+
+import com.google.api.client.googleapis.testing.services.MockGoogleClient;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.TestCase;
+
+/** Tests {@link GoogleClientSingleFlight}. */
+public class GoogleClientSingleFlightTest extends TestCase {
+
+  private static final int THREADS = 8;
+
+  /** Transport that serves a JSON resource per URL once it is released. */
+  static class BlockingTransport extends MockHttpTransport {
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger requestCount = new AtomicInteger();
+    int statusCode = 200;
+
+    @Override
+    public LowLevelHttpRequest buildRequest(String method, final String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+          requestCount.incrementAndGet();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+          }
+          MockLowLevelHttpResponse response = new MockLowLevelHttpResponse();
+          if (statusCode != 200) {
+            return response.setStatusCode(statusCode);
+          }
+          return response.setContentType(Json.MEDIA_TYPE).setContent("{\"url\":\"" + url + "\"}");
+        }
+      };
+    }
+  }
+
+  /** Executes the requests of the given ids concurrently once they are all in flight. */
+  private static List<Future<GenericJson>> executeConcurrently(
+      final MockGoogleClient client,
+      BlockingTransport transport,
+      GoogleClientSingleFlight singleFlight,
+      ExecutorService executor,
+      String... ids)
+      throws Exception {
+    List<Future<GenericJson>> futures = new ArrayList<Future<GenericJson>>();
+    for (final String id : ids) {
+      futures.add(
+          executor.submit(
+              new Callable<GenericJson>() {
+                public GenericJson call() throws Exception {
+                  return newGetRequest(client, id).execute();
+                }
+              }));
+    }
+    long deadline = System.currentTimeMillis() + 10000;
+    while (transport.requestCount.get() + singleFlight.getSharedCount() < ids.length) {
+      assertTrue(System.currentTimeMillis() < deadline);
+      Thread.sleep(1);
+    }
+    transport.release.countDown();
+    return futures;
+  }
+
+  public void testExecute_shared() throws Exception {
+    BlockingTransport transport = new BlockingTransport();
+    GoogleClientSingleFlight singleFlight = new GoogleClientSingleFlight();
+    MockGoogleClient client =
+        newClientBuilder(transport, null).setSingleFlight(singleFlight).build();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      String[] ids = new String[THREADS];
+      Arrays.fill(ids, "a");
+      List<Future<GenericJson>> futures =
+          executeConcurrently(client, transport, singleFlight, executor, ids);
+      List<GenericJson> results = new ArrayList<GenericJson>();
+      for (Future<GenericJson> future : futures) {
+        GenericJson result = future.get(10, TimeUnit.SECONDS);
+        assertEquals(ROOT_URL + SERVICE_PATH + "items/a", result.get("url"));
+        // every caller gets its own copy
+        for (GenericJson other : results) {
+          assertNotSame(other, result);
+        }
+        results.add(result);
+      }
+      assertEquals(1, transport.requestCount.get());
+      assertEquals(THREADS - 1, singleFlight.getSharedCount());
+      assertEquals(0, singleFlight.getInFlightCount());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // a completed request is not reused
+    newGetRequest(client, "a").execute();
+    assertEquals(2, transport.requestCount.get());
+  }
+
+  public void testExecute_differentUrls() throws Exception {
+    BlockingTransport transport = new BlockingTransport();
+    GoogleClientSingleFlight singleFlight = new GoogleClientSingleFlight();
+    MockGoogleClient client =
+        newClientBuilder(transport, null).setSingleFlight(singleFlight).build();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<GenericJson>> futures =
+          executeConcurrently(client, transport, singleFlight, executor, "a", "b", "a", "b");
+      assertEquals(ROOT_URL + SERVICE_PATH + "items/a", futures.get(0).get().get("url"));
+      assertEquals(ROOT_URL + SERVICE_PATH + "items/b", futures.get(1).get().get("url"));
+      assertEquals(ROOT_URL + SERVICE_PATH + "items/a", futures.get(2).get().get("url"));
+      assertEquals(ROOT_URL + SERVICE_PATH + "items/b", futures.get(3).get().get("url"));
+      assertEquals(2, transport.requestCount.get());
+      assertEquals(2, singleFlight.getSharedCount());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  public void testExecute_error() throws Exception {
+    BlockingTransport transport = new BlockingTransport();
+    transport.statusCode = 503;
+    GoogleClientSingleFlight singleFlight = new GoogleClientSingleFlight();
+    MockGoogleClient client =
+        newClientBuilder(transport, null).setSingleFlight(singleFlight).build();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<GenericJson>> futures =
+          executeConcurrently(client, transport, singleFlight, executor, "a", "a", "a");
+      for (Future<GenericJson> future : futures) {
+        try {
+          future.get(10, TimeUnit.SECONDS);
+          fail("expected " + HttpResponseException.class);
+        } catch (ExecutionException e) {
+          assertEquals(503, ((HttpResponseException) e.getCause()).getStatusCode());
+        }
+      }
+      assertEquals(1, transport.requestCount.get());
+      assertEquals(0, singleFlight.getInFlightCount());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.googleapis.services.InMemoryGoogleClientMetrics.MethodMetrics;
+import com.google.api.client.googleapis.testing.services.MockGoogleClient;
+import com.google.api.client.googleapis.testing.services.MockGoogleClientRequest;
+import com.google.api.client.http.ByteArrayContent;
+import com.google.api.client.http.HttpMethods;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.HttpUnsuccessfulResponseHandler;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.Json;
+import com.google.api.client.json.JsonObjectParser;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+
+/** Tests {@link InMemoryGoogleClientMetrics}. */
+public class InMemoryGoogleClientMetricsTest extends TestCase {
+
+  private static final String ROOT_URL = "https://www.googleapis.com/test/";
+  private static final String SERVICE_PATH = "path/v1/";
+  private static final String SERVICE = ROOT_URL + SERVICE_PATH;
+  private static final String UNIVERSE_DOMAIN = "googleapis.com";
+  private static final String CONTENT = "{\"a\":1}";
+
+  /** Transport that responds with the status codes in order, where 0 is a timeout. */
+  static class FakeTransport extends MockHttpTransport {
+    final List<Integer> statusCodes = new ArrayList<Integer>();
+
+    @Override
+    public LowLevelHttpRequest buildRequest(String method, String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+          int statusCode = statusCodes.remove(0);
+          if (statusCode == 0) {
+            throw new SocketTimeoutException();
+          }
+          return new MockLowLevelHttpResponse()
+              .setStatusCode(statusCode)
+              .addHeader("Content-Length", String.valueOf(CONTENT.length()))
+              .setContentType(Json.MEDIA_TYPE)
+              .setContent(CONTENT);
+        }
+      };
+    }
+  }
+
+  /** Initializer that retries the server errors. */
+  static class RetryInitializer implements HttpRequestInitializer {
+
+    public void initialize(HttpRequest request) {
+      request.setUnsuccessfulResponseHandler(
+          new HttpUnsuccessfulResponseHandler() {
+            public boolean handleResponse(
+                HttpRequest request, HttpResponse response, boolean supportsRetry) {
+              return supportsRetry && response.getStatusCode() >= 500;
+            }
+          });
+    }
+  }
+
+  private FakeTransport transport;
+  private InMemoryGoogleClientMetrics metrics;
+  private MockGoogleClient client;
+
+  @Override
+  protected void setUp() {
+    transport = new FakeTransport();
+    metrics = new InMemoryGoogleClientMetrics();
+    client =
+        new MockGoogleClient.Builder(
+                transport,
+                ROOT_URL,
+                SERVICE_PATH,
+                new JsonObjectParser(new GsonFactory()),
+                new RetryInitializer())
+            .setApplicationName("Test Application")
+            .setMetrics(metrics)
+            .build();
+  }
+
+  private GenericJson execute(String method, Object content) throws IOException {
+    MockGoogleClientRequest<GenericJson> request =
+        new MockGoogleClientRequest<GenericJson>(
+            client,
+            method,
+            "items/{id}",
+            content == null
+                ? null
+                : new ByteArrayContent(Json.MEDIA_TYPE, CONTENT.getBytes("UTF-8")),
+            GenericJson.class);
+    request.put("id", "a");
+    return request.execute();
+  }
+
+  public void testDefault() {
+    MockGoogleClient client =
+        new MockGoogleClient.Builder(
+                transport, ROOT_URL, SERVICE_PATH, new JsonObjectParser(new GsonFactory()), null)
+            .setApplicationName("Test Application")
+            .build();
+    assertSame(GoogleClientMetrics.NOOP, client.getMetrics());
+  }
+
+  public void testRecordAttempt_retry() throws Exception {
+    transport.statusCodes.add(503);
+    transport.statusCodes.add(200);
+    execute(HttpMethods.GET, null);
+    MethodMetrics methodMetrics =
+        metrics.getMethodMetrics(SERVICE, "GET items/{id}", UNIVERSE_DOMAIN);
+    assertEquals(SERVICE, methodMetrics.getService());
+    assertEquals("GET items/{id}", methodMetrics.getMethod());
+    assertEquals(UNIVERSE_DOMAIN, methodMetrics.getUniverseDomain());
+    assertEquals(2, methodMetrics.getAttemptCount());
+    assertEquals(1, methodMetrics.getRetryCount());
+    assertEquals(0, methodMetrics.getFailureCount());
+    assertEquals(1, methodMetrics.getStatusCodeCounts().get(200).longValue());
+    assertEquals(1, methodMetrics.getStatusCodeCounts().get(503).longValue());
+    assertEquals(0, methodMetrics.getRequestContentLength());
+    assertEquals(2 * CONTENT.length(), methodMetrics.getResponseContentLength());
+    assertEquals(2, methodMetrics.getLatencyHistogram().getCount());
+    assertEquals(1, metrics.getAllMethodMetrics().size());
+  }
+
+  public void testRecordAttempt_error() throws Exception {
+    transport.statusCodes.add(404);
+    try {
+      execute(HttpMethods.POST, CONTENT);
+      fail("expected " + HttpResponseException.class);
+    } catch (HttpResponseException e) {
+      assertEquals(404, e.getStatusCode());
+    }
+    MethodMetrics methodMetrics =
+        metrics.getMethodMetrics(SERVICE, "POST items/{id}", UNIVERSE_DOMAIN);
+    assertEquals(1, methodMetrics.getAttemptCount());
+    assertEquals(0, methodMetrics.getRetryCount());
+    assertEquals(1, methodMetrics.getStatusCodeCounts().get(404).longValue());
+    assertEquals(CONTENT.length(), methodMetrics.getRequestContentLength());
+    assertNull(metrics.getMethodMetrics(SERVICE, "GET items/{id}", UNIVERSE_DOMAIN));
+  }
+
+  public void testRecordAttempt_timeout() throws Exception {
+    final List<GoogleClientRequestAttempt> attempts = new ArrayList<GoogleClientRequestAttempt>();
+    client =
+        new MockGoogleClient.Builder(
+                transport, ROOT_URL, SERVICE_PATH, new JsonObjectParser(new GsonFactory()), null)
+            .setApplicationName("Test Application")
+            .setMetrics(
+                new GoogleClientMetrics() {
+                  public void recordAttempt(GoogleClientRequestAttempt attempt) {
+                    attempts.add(attempt);
+                  }
+                })
+            .build();
+    transport.statusCodes.add(0);
+    try {
+      execute(HttpMethods.GET, null);
+      fail("expected " + SocketTimeoutException.class);
+    } catch (SocketTimeoutException e) {
+      assertEquals(1, attempts.size());
+      assertSame(e, attempts.get(0).getException());
+      assertEquals(0, attempts.get(0).getStatusCode());
+      assertEquals(1, attempts.get(0).getAttemptCount());
+      assertFalse(attempts.get(0).isRetry());
+    }
+  }
+
+  public void testClear() throws Exception {
+    transport.statusCodes.add(200);
+    execute(HttpMethods.GET, null);
+    assertEquals(1, metrics.getAllMethodMetrics().size());
+    metrics.clear();
+    assertTrue(metrics.getAllMethodMetrics().isEmpty());
+  }
+}
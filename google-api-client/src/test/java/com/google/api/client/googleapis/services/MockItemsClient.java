@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.googleapis.testing.services.MockGoogleClient;
+import com.google.api.client.googleapis.testing.services.MockGoogleClientRequest;
+import com.google.api.client.http.HttpMethods;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.JsonObjectParser;
+import com.google.api.client.json.gson.GsonFactory;
+
+/** Mock client and GET requests of items by ID shared by the tests of the client features. */
+public final class MockItemsClient {
+
+  public static final String ROOT_URL = "https://www.googleapis.com/test/";
+  public static final String SERVICE_PATH = "path/v1/";
+
+  /** URI template of the GET request of an item. */
+  public static final String URI_TEMPLATE = "items/{id}";
+
+  /** Key of the GET request of an item in the per-method state of the client features. */
+  public static final String METHOD_KEY = ROOT_URL + SERVICE_PATH + " GET " + URI_TEMPLATE;
+
+  /**
+   * Returns a builder of a mock client of the given transport that parses JSON responses.
+   *
+   * @param transport HTTP transport
+   * @param httpRequestInitializer HTTP request initializer or {@code null} for none
+   */
+  public static MockGoogleClient.Builder newClientBuilder(
+      HttpTransport transport, HttpRequestInitializer httpRequestInitializer) {
+    return new MockGoogleClient.Builder(
+            transport,
+            ROOT_URL,
+            SERVICE_PATH,
+            new JsonObjectParser(new GsonFactory()),
+            httpRequestInitializer)
+        .setApplicationName("Test Application");
+  }
+
+  /** Returns the GET request of the item of the given ID, which is parsed into a generic JSON. */
+  public static MockGoogleClientRequest<GenericJson> newGetRequest(
+      MockGoogleClient client, String id) {
+    MockGoogleClientRequest<GenericJson> request =
+        new MockGoogleClientRequest<GenericJson>(
+            client, HttpMethods.GET, URI_TEMPLATE, null, GenericJson.class);
+    request.put("id", id);
+    return request;
+  }
+
+  private MockItemsClient() {}
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services;
+
+import com.google.api.client.http.UriTemplate;
+import com.google.api.client.util.Data;
+import com.google.api.client.util.GenericData;
+import com.google.api.client.util.Key;
+import com.google.api.client.util.Value;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import junit.framework.TestCase;
+
+/** Tests {@link UriTemplatePlan}. */
+public class UriTemplatePlanTest extends TestCase {
+
+  private static final String BASE_URL = "https://www.googleapis.com/test/v1/";
+
+  private static final String[] TEMPLATES = {
+    "files/{fileId}",
+    "{+name}:cancel",
+    "/upload/test/v1/files/{fileId}",
+    "https://example.com/{bucket}/o",
+    "files/{fileId}/revisions/{revisionId}",
+    "{+name}/items{?pageSize,pageToken}",
+    "files{/path*}",
+    "files{/path}",
+    "map{;filter*}",
+    "map{?filter}",
+    "list/{ids}/{+ids2}",
+    "multi/{fileId,revisionId}",
+    "label{.fileId}",
+    "fragment{#fileId}",
+    "no-variables",
+    "",
+  };
+
+  public enum Color {
+    @Value("red")
+    RED,
+    @Value
+    BLUE
+  }
+
+  public static class Request extends GenericData {
+    @Key String fileId;
+    @Key String revisionId;
+    @Key String name;
+    @Key Integer pageSize;
+    @Key String pageToken;
+    @Key Object path;
+    @Key Map<String, Object> filter;
+    @Key Object ids;
+    @Key Object ids2;
+    @Key Color color;
+    @Key Boolean fields;
+  }
+
+  private static void assertSameExpansion(Object parameters) {
+    for (String template : TEMPLATES) {
+      assertEquals(
+          template,
+          UriTemplate.expand(BASE_URL, template, parameters, true),
+          UriTemplatePlan.compile(BASE_URL, template).expand(parameters));
+    }
+  }
+
+  public void testExpand_simple() {
+    Request request = new Request();
+    request.fileId = "a b/c?";
+    request.revisionId = "12";
+    request.name = "projects/p/operations/o%20p";
+    request.pageSize = 10;
+    request.fields = Boolean.TRUE;
+    request.set("unknown", "x&y");
+    assertSameExpansion(request);
+  }
+
+  public void testExpand_composite() {
+    Request request = new Request();
+    request.path = Arrays.asList("a", "b c");
+    Map<String, Object> filter = new LinkedHashMap<String, Object>();
+    filter.put("semi", ";");
+    filter.put("dot", ".");
+    request.filter = filter;
+    request.ids = new String[] {"1", "2"};
+    request.ids2 = Collections.singletonList("x/y");
+    request.color = Color.RED;
+    request.set("repeated", Arrays.asList("1", "", "3"));
+    assertSameExpansion(request);
+  }
+
+  public void testExpand_empty() {
+    Request request = new Request();
+    request.fileId = "";
+    request.pageToken = Data.nullOf(String.class);
+    request.path = Collections.emptyList();
+    request.filter = Collections.emptyMap();
+    request.color = Color.BLUE;
+    assertSameExpansion(request);
+    assertSameExpansion(new GenericData());
+  }
+
+  public void testExpand_nullRepeatedValues() {
+    Request request = new Request();
+    request.fileId = "a";
+    request.set("repeated", Arrays.asList(null, "1", Data.NULL_STRING, "3", null));
+    Request expected = new Request();
+    expected.fileId = "a";
+    expected.set("repeated", Arrays.asList("1", "3"));
+    // the null elements are skipped rather than failing or adding empty parameters
+    for (String template : TEMPLATES) {
+      assertEquals(
+          template,
+          UriTemplate.expand(BASE_URL, template, expected, true),
+          UriTemplatePlan.compile(BASE_URL, template).expand(request));
+    }
+    request.set("repeated", Collections.singletonList(null));
+    expected.remove("repeated");
+    assertEquals(
+        UriTemplate.expand(BASE_URL, "files/{fileId}", expected, true),
+        UriTemplatePlan.compile(BASE_URL, "files/{fileId}").expand(request));
+  }
+
+  public void testExpand_malformed() {
+    try {
+      UriTemplatePlan.compile(BASE_URL, "files/{fileId").expand(new Request());
+      fail("expected " + StringIndexOutOfBoundsException.class);
+    } catch (StringIndexOutOfBoundsException e) {
+      // expected, like UriTemplate
+    }
+  }
+}
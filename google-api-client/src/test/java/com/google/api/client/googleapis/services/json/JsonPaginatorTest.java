@@ -0,0 +1,243 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services.json;
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.googleapis.testing.services.json.MockGoogleJsonClient;
+import com.google.api.client.googleapis.testing.services.json.MockGoogleJsonClientRequest;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.Json;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.testing.http.HttpTesting;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.client.util.Key;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import junit.framework.TestCase;
+
+/** Tests {@link JsonPaginator}. */
+public class JsonPaginatorTest extends TestCase {
+
+  /** List response. */
+  public static class ItemList extends GenericJson {
+    @Key String nextPageToken;
+    @Key List<Item> items;
+  }
+
+  /** Item of a list response. */
+  public static class Item extends GenericJson {
+    @Key int id;
+  }
+
+  /** List request with a typed offset parameter. */
+  public static class ListRequest extends MockGoogleJsonClientRequest<ItemList> {
+    @Key Integer startIndex;
+
+    ListRequest(MockGoogleJsonClient client) {
+      super(client, "GET", "items", null, ItemList.class);
+    }
+  }
+
+  /**
+   * Transport that lists the items from 0 to {@link #itemCount} in pages of {@link #PAGE_SIZE}
+   * items, with a page token or a start index, recording the requested pages.
+   */
+  static class FakeTransport extends MockHttpTransport {
+    static final int PAGE_SIZE = 2;
+
+    final int itemCount;
+    final List<String> requestedPages = Collections.synchronizedList(new ArrayList<String>());
+    volatile int failingPage = -1;
+
+    FakeTransport(int itemCount) {
+      this.itemCount = itemCount;
+    }
+
+    @Override
+    public LowLevelHttpRequest buildRequest(String method, final String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        public LowLevelHttpResponse execute() {
+          GenericUrl genericUrl = new GenericUrl(url);
+          String pageToken = (String) genericUrl.getFirst("pageToken");
+          String startIndex = (String) genericUrl.getFirst("startIndex");
+          requestedPages.add(startIndex != null ? startIndex : String.valueOf(pageToken));
+          int start =
+              startIndex != null
+                  ? Integer.parseInt(startIndex)
+                  : pageToken == null ? 0 : Integer.parseInt(pageToken.substring(1));
+          MockLowLevelHttpResponse response =
+              new MockLowLevelHttpResponse().setContentType(Json.MEDIA_TYPE);
+          if (start / PAGE_SIZE == failingPage) {
+            return response
+                .setStatusCode(500)
+                .setContent("{\"error\":{\"code\":500,\"message\":\"failed\"}}");
+          }
+          StringBuilder content = new StringBuilder("{\"items\":[");
+          int end = Math.min(start + PAGE_SIZE, itemCount);
+          for (int id = start; id < end; id++) {
+            content.append(id == start ? "" : ",").append("{\"id\":").append(id).append('}');
+          }
+          content.append(']');
+          if (startIndex == null && end < itemCount) {
+            content.append(",\"nextPageToken\":\"p").append(end).append('"');
+          }
+          return response.setContent(content.append('}').toString());
+        }
+      };
+    }
+  }
+
+  private FakeTransport transport;
+  private ListRequest request;
+
+  private void newRequest(int itemCount) {
+    transport = new FakeTransport(itemCount);
+    MockGoogleJsonClient client =
+        new MockGoogleJsonClient.Builder(
+                transport, new GsonFactory(), HttpTesting.SIMPLE_URL, "", null, false)
+            .setApplicationName("Test Application")
+            .build();
+    request = new ListRequest(client);
+  }
+
+  private static List<Integer> readIds(JsonPaginator<ItemList, Item> paginator) throws IOException {
+    List<Integer> ids = new ArrayList<Integer>();
+    while (paginator.hasNext()) {
+      ids.add(paginator.next().id);
+    }
+    return ids;
+  }
+
+  private static List<Integer> range(int start, int end) {
+    List<Integer> result = new ArrayList<Integer>();
+    for (int id = start; id < end; id++) {
+      result.add(id);
+    }
+    return result;
+  }
+
+  public void testPageTokens() throws IOException {
+    newRequest(5);
+    JsonPaginator<ItemList, Item> paginator = request.paginate("items", Item.class);
+    assertNull(paginator.getCurrentPage());
+    assertEquals(range(0, 5), readIds(paginator));
+    assertEquals(3, transport.requestedPages.size());
+    assertEquals("null", transport.requestedPages.get(0));
+    assertEquals("p2", transport.requestedPages.get(1));
+    assertEquals("p4", transport.requestedPages.get(2));
+    assertNull(paginator.getCurrentPage().nextPageToken);
+    // the request is not modified
+    assertNull(request.get("pageToken"));
+    try {
+      paginator.next();
+      fail("expected " + NoSuchElementException.class);
+    } catch (NoSuchElementException e) {
+      // expected
+    }
+  }
+
+  public void testPageTokens_prefetch() throws Exception {
+    newRequest(6);
+    JsonPaginator<ItemList, Item> paginator = request.paginate("items", Item.class);
+    assertEquals(0, paginator.next().id);
+    // the second page is fetched while the first page is consumed
+    for (int i = 0; i < 500 && transport.requestedPages.size() < 2; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(2, transport.requestedPages.size());
+    assertEquals(1, paginator.next().id);
+    Thread.sleep(50);
+    // but not the third page, whose token is in the second page
+    assertEquals(2, transport.requestedPages.size());
+    assertEquals(range(2, 6), readIds(paginator));
+  }
+
+  public void testPageTokens_initialToken() throws IOException {
+    newRequest(5);
+    request.set("pageToken", "p2");
+    assertEquals(range(2, 5), readIds(request.paginate("items", Item.class)));
+  }
+
+  public void testPageTokens_noItems() throws IOException {
+    newRequest(0);
+    JsonPaginator<ItemList, Item> paginator = request.paginate("items", Item.class);
+    assertFalse(paginator.hasNext());
+    assertEquals(1, transport.requestedPages.size());
+  }
+
+  public void testPageTokens_error() throws IOException {
+    newRequest(6);
+    transport.failingPage = 1;
+    JsonPaginator<ItemList, Item> paginator = request.paginate("items", Item.class);
+    assertEquals(0, paginator.next().id);
+    assertEquals(1, paginator.next().id);
+    try {
+      paginator.next();
+      fail("expected " + GoogleJsonResponseException.class);
+    } catch (GoogleJsonResponseException e) {
+      assertEquals(500, e.getStatusCode());
+    }
+    assertFalse(paginator.hasNext());
+  }
+
+  public void testOffsetPaging() throws IOException {
+    newRequest(7);
+    JsonPaginator<ItemList, Item> paginator =
+        request.paginate("items", Item.class).setOffsetPaging("startIndex", 2, 3);
+    assertEquals(range(0, 7), readIds(paginator));
+    // the pages are fetched in parallel, and the pages after the last one may be fetched too
+    assertTrue(transport.requestedPages.containsAll(Arrays.asList("0", "2", "4", "6")));
+    assertTrue(transport.requestedPages.size() <= 6);
+    assertNull(request.startIndex);
+  }
+
+  public void testOffsetPaging_initialOffset() throws IOException {
+    newRequest(7);
+    request.startIndex = 4;
+    JsonPaginator<ItemList, Item> paginator =
+        request.paginate("items", Item.class).setOffsetPaging("startIndex", 2, 2);
+    assertEquals(range(4, 7), readIds(paginator));
+    assertEquals(Integer.valueOf(4), request.startIndex);
+  }
+
+  public void testOffsetPaging_exactPages() throws IOException {
+    newRequest(4);
+    JsonPaginator<ItemList, Item> paginator =
+        request.paginate("items", Item.class).setOffsetPaging("startIndex", 2, 1);
+    assertEquals(range(0, 4), readIds(paginator));
+    // the last page is the first empty one
+    assertEquals(Arrays.asList("0", "2", "4"), transport.requestedPages);
+  }
+
+  public void testClose() throws IOException {
+    newRequest(6);
+    JsonPaginator<ItemList, Item> paginator = request.paginate("items", Item.class);
+    assertEquals(0, paginator.next().id);
+    paginator.close();
+    // the current page is still consumed
+    assertEquals(1, paginator.next().id);
+    assertFalse(paginator.hasNext());
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.services.json;
+
+import com.google.api.client.googleapis.testing.services.json.MockGoogleJsonClient;
+import com.google.api.client.googleapis.testing.services.json.MockGoogleJsonClientRequest;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.Json;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.testing.http.HttpTesting;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.client.util.Key;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import junit.framework.TestCase;
+
+/** Tests {@link StreamingJsonResponse}. */
+public class StreamingJsonResponseTest extends TestCase {
+
+  /** List response. */
+  public static class ItemList extends GenericJson {
+    @Key String kind;
+    @Key String nextPageToken;
+    @Key List<Item> items;
+  }
+
+  /** Item of a list response. */
+  public static class Item extends GenericJson {
+    @Key String id;
+    @Key Item child;
+  }
+
+  /** Transport that responds with the given JSON content, recording whether it was closed. */
+  static class FakeTransport extends MockHttpTransport {
+    final String content;
+    boolean closed;
+
+    FakeTransport(String content) {
+      this.content = content;
+    }
+
+    @Override
+    public LowLevelHttpRequest buildRequest(String method, String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+          return new MockLowLevelHttpResponse()
+              .setContentType(Json.MEDIA_TYPE)
+              .addHeader("ETag", "etag")
+              .setContent(
+                  new ByteArrayInputStream(content.getBytes("UTF-8")) {
+                    @Override
+                    public void close() {
+                      closed = true;
+                    }
+                  });
+        }
+      };
+    }
+  }
+
+  private FakeTransport transport;
+
+  private StreamingJsonResponse<ItemList, Item> execute(String content, boolean legacyDataWrapper)
+      throws IOException {
+    transport = new FakeTransport(content);
+    MockGoogleJsonClient client =
+        new MockGoogleJsonClient.Builder(
+                transport, new GsonFactory(), HttpTesting.SIMPLE_URL, "", null, legacyDataWrapper)
+            .setApplicationName("Test Application")
+            .build();
+    return new MockGoogleJsonClientRequest<ItemList>(client, "GET", "items", null, ItemList.class)
+        .executeStreaming("items", Item.class);
+  }
+
+  private static List<String> readIds(StreamingJsonResponse<ItemList, Item> response)
+      throws IOException {
+    List<String> ids = new ArrayList<String>();
+    while (response.hasNext()) {
+      ids.add(response.next().id);
+    }
+    return ids;
+  }
+
+  private static List<String> ids(String... ids) {
+    List<String> result = new ArrayList<String>();
+    for (String id : ids) {
+      result.add(id);
+    }
+    return result;
+  }
+
+  public void testExecuteStreaming() throws IOException {
+    StreamingJsonResponse<ItemList, Item> response =
+        execute(
+            "{\"kind\":\"list\",\"items\":[{\"id\":\"a\",\"child\":{\"items\":[1]}},{\"id\":\"b\"},"
+                + "{\"id\":\"c\",\"extra\":[1,2]}],\"nextPageToken\":\"next\",\"other\":3}",
+            false);
+    // the fields before the items are parsed first
+    assertEquals("list", response.getResponse().kind);
+    assertNull(response.getResponse().nextPageToken);
+    assertEquals("etag", response.getResponseHeaders().getETag());
+    assertTrue(response.hasNext());
+    Item first = response.next();
+    assertEquals("a", first.id);
+    assertEquals(1, ((List<?>) first.child.get("items")).size());
+    assertEquals(ids("b", "c"), readIds(response));
+    // the fields after the items are parsed once they were read
+    ItemList list = response.getResponse();
+    assertEquals("next", list.nextPageToken);
+    assertEquals(3, ((Number) list.get("other")).intValue());
+    assertNull(list.items);
+    assertTrue(transport.closed);
+    try {
+      response.next();
+      fail("expected " + NoSuchElementException.class);
+    } catch (NoSuchElementException e) {
+      // expected
+    }
+    response.close();
+  }
+
+  public void testExecuteStreaming_noItems() throws IOException {
+    StreamingJsonResponse<ItemList, Item> response =
+        execute("{\"kind\":\"list\",\"nextPageToken\":\"next\"}", false);
+    assertTrue(transport.closed);
+    assertFalse(response.hasNext());
+    assertEquals("next", response.getResponse().nextPageToken);
+
+    response = execute("{\"items\":[],\"nextPageToken\":\"next\"}", false);
+    assertFalse(response.hasNext());
+    assertEquals("next", response.getResponse().nextPageToken);
+    assertTrue(transport.closed);
+
+    response = execute("{\"items\":null,\"nextPageToken\":\"next\"}", false);
+    assertFalse(response.hasNext());
+    assertEquals("next", response.getResponse().nextPageToken);
+  }
+
+  public void testExecuteStreaming_legacyDataWrapper() throws IOException {
+    StreamingJsonResponse<ItemList, Item> response =
+        execute(
+            "{\"data\":{\"items\":[{\"id\":\"a\"},{\"id\":\"b\"}],\"nextPageToken\":\"next\"}}",
+            true);
+    assertEquals(ids("a", "b"), readIds(response));
+    assertEquals("next", response.getResponse().nextPageToken);
+  }
+
+  public void testExecuteStreaming_notAnArray() throws IOException {
+    try {
+      execute("{\"items\":{\"id\":\"a\"}}", false);
+      fail("expected " + IllegalStateException.class);
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    assertTrue(transport.closed);
+  }
+
+  public void testClose() throws IOException {
+    StreamingJsonResponse<ItemList, Item> response =
+        execute("{\"items\":[{\"id\":\"a\"},{\"id\":\"b\"}],\"nextPageToken\":\"next\"}", false);
+    assertEquals("a", response.next().id);
+    response.close();
+    assertTrue(transport.closed);
+    assertFalse(response.hasNext());
+    assertNull(response.getResponse().nextPageToken);
+  }
+}
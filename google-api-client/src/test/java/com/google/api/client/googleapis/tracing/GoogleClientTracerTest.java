@@ -0,0 +1,373 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.api.client.googleapis.tracing;
+
+import static com.google.api.client.googleapis.services.MockItemsClient.ROOT_URL;
+import static com.google.api.client.googleapis.services.MockItemsClient.SERVICE_PATH;
+import static com.google.api.client.googleapis.services.MockItemsClient.newClientBuilder;
+import static com.google.api.client.googleapis.services.MockItemsClient.newGetRequest;
+
+import com.google.api.client.googleapis.batch.BatchCallback;
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.compute.ComputeCredential;
+import com.google.api.client.googleapis.testing.services.MockGoogleClient;
+import com.google.api.client.googleapis.testing.services.MockGoogleClientRequest;
+import com.google.api.client.http.ByteArrayContent;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpMethods;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.HttpUnsuccessfulResponseHandler;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.Json;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.TestCase;
+
+/** Tests the tracing of the requests of a Google client with a {@link GoogleClientTracer}. */
+public class GoogleClientTracerTest extends TestCase {
+
+  private static final String CONTENT = "{\"a\":1}";
+  private static final String BOUNDARY = "END_OF_PART";
+
+  /** Tracer that records the spans it starts. */
+  static final class RecordingTracer extends GoogleClientTracer {
+    final List<RecordedSpan> spans = Collections.synchronizedList(new ArrayList<RecordedSpan>());
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    @Override
+    public GoogleClientSpan startSpan(String name, GoogleClientSpan parent) {
+      RecordedSpan span =
+          new RecordedSpan(this, name, (RecordedSpan) parent, lastId.incrementAndGet());
+      spans.add(span);
+      return span;
+    }
+
+    /** Returns the spans of the given name. */
+    List<RecordedSpan> getSpans(String name) {
+      List<RecordedSpan> result = new ArrayList<RecordedSpan>();
+      synchronized (spans) {
+        for (RecordedSpan span : spans) {
+          if (span.name.equals(name)) {
+            result.add(span);
+          }
+        }
+      }
+      return result;
+    }
+
+    /** Returns the only span of the given name. */
+    RecordedSpan getSpan(String name) {
+      List<RecordedSpan> result = getSpans(name);
+      assertEquals(name, 1, result.size());
+      return result.get(0);
+    }
+  }
+
+  /** Span that records what it is given. */
+  static final class RecordedSpan extends GoogleClientSpan {
+    final RecordingTracer tracer;
+    final String name;
+    final RecordedSpan parent;
+    final String traceId;
+    final String spanId;
+    final Map<String, Object> attributes =
+        Collections.synchronizedMap(new HashMap<String, Object>());
+    final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+    volatile Throwable exception;
+    volatile boolean ended;
+
+    RecordedSpan(RecordingTracer tracer, String name, RecordedSpan parent, int id) {
+      this.tracer = tracer;
+      this.name = name;
+      this.parent = parent;
+      traceId = parent == null ? String.format("%032x", id) : parent.traceId;
+      spanId = String.format("%016x", id);
+    }
+
+    @Override
+    public GoogleClientTracer getTracer() {
+      return tracer;
+    }
+
+    @Override
+    public void setAttribute(String key, String value) {
+      attributes.put(key, value);
+    }
+
+    @Override
+    public void setAttribute(String key, long value) {
+      attributes.put(key, value);
+    }
+
+    @Override
+    public void addEvent(String name) {
+      events.add(name);
+    }
+
+    @Override
+    public void recordException(Throwable exception) {
+      this.exception = exception;
+    }
+
+    @Override
+    public void end() {
+      assertFalse(ended);
+      ended = true;
+    }
+
+    @Override
+    public String getTraceparent() {
+      return "00-" + traceId + "-" + spanId + "-01";
+    }
+  }
+
+  /**
+   * Transport that responds to the metadata server with an access token, to the batch requests with
+   * a successful part per request, and to the other requests with the status codes in order.
+   */
+  static class FakeTransport extends MockHttpTransport {
+    final List<Integer> statusCodes = Collections.synchronizedList(new ArrayList<Integer>());
+    final List<String> traceparents = Collections.synchronizedList(new ArrayList<String>());
+    final List<String> authorizations = Collections.synchronizedList(new ArrayList<String>());
+
+    @Override
+    public LowLevelHttpRequest buildRequest(String method, final String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+          if (url.startsWith(ComputeCredential.TOKEN_SERVER_ENCODED_URL)) {
+            return new MockLowLevelHttpResponse()
+                .setContentType(Json.MEDIA_TYPE)
+                .setContent(
+                    "{\"access_token\":\"token\",\"expires_in\":3600,\"token_type\":\"Bearer\"}");
+          }
+          traceparents.add(getFirstHeaderValue(GoogleClientSpan.TRACEPARENT_HEADER));
+          authorizations.add(getFirstHeaderValue("Authorization"));
+          if (url.endsWith("/batch")) {
+            return newBatchResponse();
+          }
+          int statusCode = statusCodes.isEmpty() ? 200 : statusCodes.remove(0);
+          return new MockLowLevelHttpResponse()
+              .setStatusCode(statusCode)
+              .setContentType(Json.MEDIA_TYPE)
+              .setContent(CONTENT);
+        }
+      };
+    }
+
+    private static LowLevelHttpResponse newBatchResponse() {
+      StringBuilder content = new StringBuilder();
+      for (int contentId = 1; contentId <= 2; contentId++) {
+        content
+            .append("--" + BOUNDARY + "\n")
+            .append("Content-Type: application/http\n")
+            .append("Content-ID: response-" + contentId + "\n\n")
+            .append("HTTP/1.1 200 OK\n")
+            .append("Content-Type: application/json; charset=UTF-8\n")
+            .append("Content-Length: " + CONTENT.length() + "\n\n")
+            .append(CONTENT + "\n\n");
+      }
+      content.append("--" + BOUNDARY + "--\n\n");
+      return new MockLowLevelHttpResponse()
+          .addHeader("Content-Type", "multipart/mixed; boundary=" + BOUNDARY)
+          .setContent(content.toString());
+    }
+  }
+
+  /** Initializer that retries the server errors. */
+  static class RetryInitializer implements HttpRequestInitializer {
+
+    public void initialize(HttpRequest request) {
+      request.setUnsuccessfulResponseHandler(
+          new HttpUnsuccessfulResponseHandler() {
+            public boolean handleResponse(
+                HttpRequest request, HttpResponse response, boolean supportsRetry) {
+              return supportsRetry && response.getStatusCode() >= 500;
+            }
+          });
+    }
+  }
+
+  /** Request that uploads its media content. */
+  static class UploadRequest extends MockGoogleClientRequest<GenericJson> {
+
+    UploadRequest(MockGoogleClient client) {
+      super(client, HttpMethods.POST, "items", null, GenericJson.class);
+      initializeMediaUpload(new ByteArrayContent("text/plain", new byte[] {1, 2, 3}));
+      getMediaHttpUploader().setDirectUploadEnabled(true);
+    }
+  }
+
+  private FakeTransport transport;
+  private RecordingTracer tracer;
+
+  @Override
+  protected void setUp() {
+    transport = new FakeTransport();
+    tracer = new RecordingTracer();
+  }
+
+  public void testExecute_noop() throws IOException {
+    MockGoogleClient client =
+        newClientBuilder(transport, null).setTracer(GoogleClientTracer.NOOP).build();
+    assertSame(GoogleClientTracer.NOOP, client.getTracer());
+    newGetRequest(client, "a").execute();
+    assertEquals(Collections.singletonList((String) null), transport.traceparents);
+    assertNull(GoogleClientSpan.current());
+  }
+
+  public void testExecute() throws IOException {
+    MockGoogleClient client = newClientBuilder(transport, null).setTracer(tracer).build();
+    newGetRequest(client, "a").execute();
+    RecordedSpan span = tracer.getSpan("googleapis.request");
+    assertNull(span.parent);
+    assertTrue(span.ended);
+    assertEquals(ROOT_URL + SERVICE_PATH, span.attributes.get("googleapis.service"));
+    assertEquals(HttpMethods.GET, span.attributes.get("http.request.method"));
+    assertEquals("items/{id}", span.attributes.get("url.template"));
+    assertEquals(200L, span.attributes.get("http.response.status_code"));
+    assertTrue(span.events.isEmpty());
+    assertEquals(Collections.singletonList(span.getTraceparent()), transport.traceparents);
+    assertNull(GoogleClientSpan.current());
+  }
+
+  public void testExecute_childOfCurrentSpan() throws IOException {
+    MockGoogleClient client = newClientBuilder(transport, null).setTracer(tracer).build();
+    GoogleClientSpan parent = tracer.startSpan("parent");
+    GoogleClientSpan.Scope scope = parent.makeCurrent();
+    try {
+      newGetRequest(client, "a").execute();
+      assertSame(parent, GoogleClientSpan.current());
+    } finally {
+      scope.close();
+      parent.end();
+    }
+    assertSame(parent, tracer.getSpan("googleapis.request").parent);
+    assertNull(GoogleClientSpan.current());
+  }
+
+  public void testExecute_retry() throws IOException {
+    MockGoogleClient client =
+        newClientBuilder(transport, new RetryInitializer()).setTracer(tracer).build();
+    transport.statusCodes.add(503);
+    transport.statusCodes.add(200);
+    newGetRequest(client, "a").execute();
+    RecordedSpan span = tracer.getSpan("googleapis.request");
+    assertEquals(Collections.singletonList("retry"), span.events);
+    assertEquals(200L, span.attributes.get("http.response.status_code"));
+    assertEquals(2, transport.traceparents.size());
+    assertEquals(span.getTraceparent(), transport.traceparents.get(1));
+  }
+
+  public void testExecute_error() throws IOException {
+    MockGoogleClient client = newClientBuilder(transport, null).setTracer(tracer).build();
+    transport.statusCodes.add(404);
+    try {
+      newGetRequest(client, "a").execute();
+      fail("expected " + HttpResponseException.class);
+    } catch (HttpResponseException e) {
+      RecordedSpan span = tracer.getSpan("googleapis.request");
+      assertSame(e, span.exception);
+      assertEquals(404L, span.attributes.get("http.response.status_code"));
+      assertTrue(span.ended);
+    }
+  }
+
+  public void testExecute_credentialRefresh() throws IOException {
+    ComputeCredential credential = new ComputeCredential(transport, new GsonFactory());
+    MockGoogleClient client = newClientBuilder(transport, credential).setTracer(tracer).build();
+    newGetRequest(client, "a").execute();
+    RecordedSpan span = tracer.getSpan("googleapis.request");
+    RecordedSpan refresh = tracer.getSpan("googleapis.credential.refresh");
+    assertSame(span, refresh.parent);
+    assertTrue(refresh.ended);
+    assertEquals(Collections.singletonList("Bearer token"), transport.authorizations);
+  }
+
+  public void testExecute_upload() throws IOException {
+    MockGoogleClient client = newClientBuilder(transport, null).setTracer(tracer).build();
+    new UploadRequest(client).execute();
+    RecordedSpan span = tracer.getSpan("googleapis.request");
+    RecordedSpan upload = tracer.getSpan("googleapis.upload.direct");
+    assertSame(span, upload.parent);
+    assertEquals(0L, upload.attributes.get("googleapis.upload.offset"));
+    assertEquals(200L, upload.attributes.get("http.response.status_code"));
+    assertTrue(upload.ended);
+    assertEquals(Collections.singletonList(upload.getTraceparent()), transport.traceparents);
+  }
+
+  public void testBatch() throws IOException {
+    MockGoogleClient client = newClientBuilder(transport, null).setTracer(tracer).build();
+    BatchRequest batch = client.batch();
+    assertSame(tracer, batch.getTracer());
+    final List<GenericJson> results = new ArrayList<GenericJson>();
+    BatchCallback<GenericJson, Void> callback =
+        new BatchCallback<GenericJson, Void>() {
+          public void onSuccess(GenericJson result, HttpHeaders responseHeaders) {
+            results.add(result);
+          }
+
+          public void onFailure(Void e, HttpHeaders responseHeaders) {
+            fail();
+          }
+        };
+    newGetRequest(client, "a").queue(batch, Void.class, callback);
+    newGetRequest(client, "a").queue(batch, Void.class, callback);
+    batch.execute();
+    assertEquals(2, results.size());
+    RecordedSpan span = tracer.getSpan("googleapis.batch");
+    assertEquals(2L, span.attributes.get("googleapis.batch.size"));
+    assertTrue(span.ended);
+    List<RecordedSpan> parts = tracer.getSpans("googleapis.batch.part");
+    assertEquals(2, parts.size());
+    for (int i = 0; i < parts.size(); i++) {
+      RecordedSpan part = parts.get(i);
+      assertSame(span, part.parent);
+      assertEquals(i + 1L, part.attributes.get("googleapis.batch.content_id"));
+      assertEquals(200L, part.attributes.get("http.response.status_code"));
+      assertTrue(part.ended);
+    }
+    assertEquals(Collections.singletonList(span.getTraceparent()), transport.traceparents);
+    assertNull(GoogleClientSpan.current());
+  }
+
+  public void testStartChildOfCurrent() {
+    assertSame(GoogleClientSpan.NOOP, GoogleClientSpan.startChildOfCurrent("child"));
+    GoogleClientSpan parent = tracer.startSpan("parent");
+    GoogleClientSpan.Scope scope = parent.makeCurrent();
+    try {
+      RecordedSpan child = (RecordedSpan) GoogleClientSpan.startChildOfCurrent("child");
+      assertSame(parent, child.parent);
+      assertEquals(((RecordedSpan) parent).traceId, child.traceId);
+    } finally {
+      scope.close();
+    }
+    assertNull(GoogleClientSpan.current());
+  }
+}